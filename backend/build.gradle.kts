@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "4.0.3"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.oddsalchemist"
@@ -38,3 +39,17 @@ testImplementation("org.springframework.boot:spring-boot-starter-webmvc-test")
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// マイクロベンチマーク（src/jmh/java）。実行: ./gradlew jmh
+// フィクスチャHTMLを共有するためテストのクラスパスも含める
+jmh {
+	jmhVersion = "1.37"
+	includeTests = true
+	benchmarkMode = listOf("thrpt")
+	timeUnit = "s"
+	fork = 1
+	warmupIterations = 3
+	iterations = 5
+	profilers = listOf("gc")
+	resultFormat = "JSON"
+}
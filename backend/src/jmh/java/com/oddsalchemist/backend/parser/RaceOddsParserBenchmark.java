@@ -0,0 +1,63 @@
+package com.oddsalchemist.backend.parser;
+
+import com.oddsalchemist.backend.dto.OddsData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * オッズページ解析のベンチマーク。
+ * テスト用フィクスチャ（src/test/resources/fixtures）のHTMLを入力に、
+ * Jsoup エンジンの各メソッドとストリーミングエンジンを比較する。
+ */
+@State(Scope.Benchmark)
+public class RaceOddsParserBenchmark {
+
+    @Param({"sportsnavi_odds_8.html", "sportsnavi_odds_18.html"})
+    String fixture;
+
+    private String html;
+    private RaceOddsParser jsoupParser;
+    private StreamingRaceOddsParser streamingParser;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("fixtures/" + fixture)) {
+            if (in == null) {
+                throw new IllegalStateException("フィクスチャが見つかりません: " + fixture);
+            }
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        jsoupParser = new RaceOddsParser();
+        streamingParser = new StreamingRaceOddsParser();
+    }
+
+    @Benchmark
+    public List<OddsData> parse() {
+        return jsoupParser.parse(html);
+    }
+
+    @Benchmark
+    public Optional<LocalTime> parseStartTime() {
+        return jsoupParser.parseStartTime(html);
+    }
+
+    @Benchmark
+    public ParsedRacePage parsePageJsoup() {
+        return jsoupParser.parsePage(html);
+    }
+
+    @Benchmark
+    public ParsedRacePage parsePageStreaming() {
+        return streamingParser.parsePage(html);
+    }
+}
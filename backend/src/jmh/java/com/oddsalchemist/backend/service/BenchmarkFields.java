@@ -0,0 +1,41 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.OddsData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ベンチマーク用の合成出走表を生成するユーティリティ。
+ * 単勝オッズは人気順に約1.3倍ずつ離れ、複勝下限の順位は単勝と一致させる。
+ * これにより通常時はどの検知ロジックも発火せず、定常状態の検知コストを測定できる。
+ */
+final class BenchmarkFields {
+
+    static final String URL = "https://sports.yahoo.co.jp/keiba/race/odds/tfw/2606020211";
+
+    private BenchmarkFields() {}
+
+    /**
+     * 指定頭数の出走表を生成します。
+     *
+     * @param horses 頭数
+     * @param jitter 全馬の単勝オッズに加算する揺らぎ（0.1単位で指定）
+     */
+    static List<OddsData> field(int horses, double jitter) {
+        List<OddsData> list = new ArrayList<>(horses);
+        double win = 2.0;
+        for (int i = 1; i <= horses; i++) {
+            double winOdds = round1(win + jitter);
+            double placeMin = round1(1.0 + winOdds / 4.0);
+            list.add(new OddsData("ベンチマーク記念", String.valueOf(i), "テストホース" + i,
+                    winOdds, placeMin, round1(placeMin * 1.5), URL));
+            win *= 1.3;
+        }
+        return list;
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+}
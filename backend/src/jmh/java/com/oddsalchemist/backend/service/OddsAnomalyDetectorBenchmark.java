@@ -0,0 +1,100 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.AlertStoreProperties;
+import com.oddsalchemist.backend.dto.AnomalyAlertDto;
+import com.oddsalchemist.backend.dto.OddsData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * OddsAnomalyDetector.detect() のベンチマーク。
+ * 前回スナップショット・基準値がすでに存在する「温まった」状態で、1レース分の検知を繰り返す。
+ * 呼び出しごとに仮想時計を2分進め、0.1刻みで揺らぐ2種類のオッズを交互に渡す。
+ * 日次リセットで状態が消えないよう、仮想時計は同日の 09:00〜22:00 の範囲で巻き戻す。
+ */
+@State(Scope.Benchmark)
+public class OddsAnomalyDetectorBenchmark {
+
+    private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+    private static final Instant DAY_START = LocalDateTime.of(2026, 3, 22, 9, 0).atZone(JST).toInstant();
+    private static final Instant DAY_END = LocalDateTime.of(2026, 3, 22, 22, 0).atZone(JST).toInstant();
+    private static final Duration STEP = Duration.ofMinutes(2);
+
+    @Param({"8", "12", "18"})
+    int horses;
+
+    private SteppingClock clock;
+    private OddsAnomalyDetector detector;
+    private List<OddsData> snapshotA;
+    private List<OddsData> snapshotB;
+    private Optional<LocalTime> startTime;
+    private long invocations;
+
+    @Setup
+    public void setUp() {
+        clock = new SteppingClock(DAY_START, JST);
+        AlertStoreProperties alertDefaults = new AlertStoreProperties(0, 0);
+        detector = new OddsAnomalyDetector(
+                new AlertStore(alertDefaults.capacity(), alertDefaults.retentionDays(), clock),
+                clock, DetectorParameters.defaults());
+        snapshotA = BenchmarkFields.field(horses, 0.0);
+        snapshotB = BenchmarkFields.field(horses, 0.1);
+        startTime = Optional.of(LocalTime.of(23, 59));
+
+        // 基準値・前回スナップショット・断層位置を設定しておく
+        for (int i = 0; i < 10; i++) {
+            detect();
+        }
+    }
+
+    @Benchmark
+    public List<AnomalyAlertDto> detect() {
+        clock.advance(STEP, DAY_START, DAY_END);
+        List<OddsData> snapshot = (invocations++ & 1) == 0 ? snapshotA : snapshotB;
+        return detector.detect(snapshot, startTime);
+    }
+
+    /** 明示的に進めたときだけ時刻が変わる時計（終端に達したら始端へ巻き戻す） */
+    static final class SteppingClock extends Clock {
+
+        private final ZoneId zone;
+        private Instant now;
+
+        SteppingClock(Instant start, ZoneId zone) {
+            this.now = start;
+            this.zone = zone;
+        }
+
+        void advance(Duration duration, Instant start, Instant end) {
+            Instant next = now.plus(duration);
+            now = next.isAfter(end) ? start : next;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new SteppingClock(now, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
+import com.oddsalchemist.backend.dto.OddsData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * OddsSyncService.convertToSheetData() のベンチマーク。
+ * 1回のスクレイピング結果をSheetsの行データへ変換するコストを測定する。
+ */
+@State(Scope.Benchmark)
+public class OddsSyncServiceBenchmark {
+
+    @Param({"8", "12", "18"})
+    int horses;
+
+    private OddsSyncService service;
+    private List<OddsData> oddsList;
+
+    @Setup
+    public void setUp() {
+        // 変換処理は依存コンポーネントを使用しない
+        service = new OddsSyncService(null, null, null, null, null, null,
+                new OddsDeltaProperties(false, 0), PageRecorder.disabled(), Clock.systemDefaultZone());
+        oddsList = BenchmarkFields.field(horses, 0.0);
+    }
+
+    @Benchmark
+    public List<List<Object>> convertToSheetData() {
+        return service.convertToSheetData(oddsList);
+    }
+}
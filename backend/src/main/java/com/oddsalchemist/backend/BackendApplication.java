@@ -1,7 +1,14 @@
 package com.oddsalchemist.backend;
 
+import com.oddsalchemist.backend.config.AlertStoreProperties;
+import com.oddsalchemist.backend.config.FetchLimitProperties;
+import com.oddsalchemist.backend.config.OddsArchiveProperties;
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
+import com.oddsalchemist.backend.config.RecordingProperties;
 import com.oddsalchemist.backend.config.ScrapingProperties;
+import com.oddsalchemist.backend.config.SheetsWriteProperties;
 import com.oddsalchemist.backend.config.SlackProperties;
+import com.oddsalchemist.backend.config.StorageProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -9,7 +16,9 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties({ScrapingProperties.class, SlackProperties.class})
+@EnableConfigurationProperties({ScrapingProperties.class, SlackProperties.class, AlertStoreProperties.class,
+		SheetsWriteProperties.class, FetchLimitProperties.class, OddsDeltaProperties.class,
+		StorageProperties.class, OddsArchiveProperties.class, RecordingProperties.class})
 public class BackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,23 @@
+package com.oddsalchemist.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * application.yaml の odds.alerts 設定をバインドするプロパティクラス。
+ * 起動中に保持する異常検知アラートの上限を定義する。
+ *
+ * @param capacity      保持する最大件数（超過分は古い順に破棄。0以下の場合は 10000）
+ * @param retentionDays 保持日数（当日を含む。1 の場合は当日分のみ。0以下の場合は 1）
+ */
+@ConfigurationProperties(prefix = "odds.alerts")
+public record AlertStoreProperties(int capacity, int retentionDays) {
+
+    public AlertStoreProperties {
+        if (capacity <= 0) {
+            capacity = 10_000;
+        }
+        if (retentionDays <= 0) {
+            retentionDays = 1;
+        }
+    }
+}
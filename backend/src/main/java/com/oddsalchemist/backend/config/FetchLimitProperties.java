@@ -0,0 +1,23 @@
+package com.oddsalchemist.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * application.yaml の odds.fetch-limit 設定をバインドするプロパティクラス。
+ * レースページ取得の全体の頻度の上限を定義する（ホストごとの同時実行数は odds.scraping.max-concurrent-per-host）。
+ *
+ * @param permitsPerSecond   1秒あたりの取得回数の上限（全ホスト合計。0以下の場合は 2.0）
+ * @param burst              取得が続かなかった間に貯められる取得回数の上限（0以下の場合は 4）
+ */
+@ConfigurationProperties(prefix = "odds.fetch-limit")
+public record FetchLimitProperties(double permitsPerSecond, int burst) {
+
+    public FetchLimitProperties {
+        if (permitsPerSecond <= 0) {
+            permitsPerSecond = 2.0;
+        }
+        if (burst <= 0) {
+            burst = 4;
+        }
+    }
+}
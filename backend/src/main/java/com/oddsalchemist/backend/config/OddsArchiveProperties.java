@@ -0,0 +1,20 @@
+package com.oddsalchemist.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * application.yaml の odds.archive 設定をバインドするプロパティクラス。
+ * オッズ履歴を1日ごとに列指向形式のファイル（OddsArchive）へ書き出す日次アーカイブを定義する。
+ *
+ * @param enabled   日次アーカイブを有効にするか（既定は false）
+ * @param directory アーカイブファイルの保存先ディレクトリ（未指定の場合は /tmp/odds-alchemist/archive）
+ */
+@ConfigurationProperties(prefix = "odds.archive")
+public record OddsArchiveProperties(boolean enabled, String directory) {
+
+    public OddsArchiveProperties {
+        if (directory == null || directory.isBlank()) {
+            directory = "/tmp/odds-alchemist/archive";
+        }
+    }
+}
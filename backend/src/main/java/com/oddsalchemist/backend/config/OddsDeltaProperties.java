@@ -0,0 +1,22 @@
+package com.oddsalchemist.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * application.yaml の odds.delta-writes 設定をバインドするプロパティクラス。
+ * OddsData シートへ、前回書き込んだ内容からオッズが変化した馬の行だけを追記する差分書き込みを定義する。
+ * 有効にした場合、シートを直接読む側は I列（K=全馬の行, D=変化した馬の行）を見て全馬の行に展開する必要がある
+ * （frontend-viewer の getOddsData は展開してから返す）。
+ *
+ * @param enabled       差分書き込みを有効にするか（既定は false = 毎回全馬の行を書き込む）
+ * @param keyframeEvery レースごとに全馬の行（キーフレーム）を書き込む間隔（書き込み回数。0以下の場合は 10）
+ */
+@ConfigurationProperties(prefix = "odds.delta-writes")
+public record OddsDeltaProperties(boolean enabled, int keyframeEvery) {
+
+    public OddsDeltaProperties {
+        if (keyframeEvery <= 0) {
+            keyframeEvery = 10;
+        }
+    }
+}
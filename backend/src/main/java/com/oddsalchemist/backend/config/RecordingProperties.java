@@ -0,0 +1,20 @@
+package com.oddsalchemist.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * application.yaml の odds.recording 設定をバインドするプロパティクラス。
+ * 取得したレースページのHTMLを、リプレイ（ReplayRunner）用に取得日時とともに保存する記録を定義する。
+ *
+ * @param enabled   記録を有効にするか（既定は false）
+ * @param directory 記録の保存先ディレクトリ（未指定の場合は /tmp/odds-alchemist/recordings）
+ */
+@ConfigurationProperties(prefix = "odds.recording")
+public record RecordingProperties(boolean enabled, String directory) {
+
+    public RecordingProperties {
+        if (directory == null || directory.isBlank()) {
+            directory = "/tmp/odds-alchemist/recordings";
+        }
+    }
+}
@@ -2,6 +2,10 @@ package com.oddsalchemist.backend.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * application.yaml の odds.scraping 設定をバインドするプロパティクラス。
  * スケジュール間隔は動的に算出するため、cron設定は不要。
@@ -12,5 +16,66 @@ public record ScrapingProperties(
         /**
          * デバッグ用固定間隔（分）。0 の場合は発走時刻ベースの動的間隔を使用。
          */
-        int debugIntervalMinutes
-) {}
+        int debugIntervalMinutes,
+        /**
+         * 同一ホストへ同時に実行するスクレイピングの上限。0以下の場合は 2。
+         */
+        int maxConcurrentPerHost,
+        /**
+         * 発走直前の短間隔ポーリングの段階（発走までの残り時間が within 以内なら interval 間隔）。
+         * 未指定の場合は短間隔ポーリングを行わない。within の昇順に並べ替えて保持する。
+         */
+        List<BurstStep> burstLadder,
+        /**
+         * 短間隔ポーリングによる取得の全レース合計の上限（回/分）。0以下の場合は 60。
+         */
+        int maxBurstFetchesPerMinute,
+        /**
+         * ページ取得の接続（TCP・TLS ハンドシェイク）のタイムアウト。未指定の場合は 3秒。
+         */
+        Duration connectTimeout,
+        /**
+         * リクエスト送信からレスポンスヘッダー受信までのタイムアウト。未指定の場合は 5秒。
+         */
+        Duration responseTimeout,
+        /**
+         * リクエスト送信から本文を読み終えるまでの全体の期限。本文は読み込みごとではなく全体で打ち切る。
+         * 未指定の場合は 10秒。responseTimeout より短い場合は responseTimeout に揃える。
+         */
+        Duration requestTimeout
+) {
+
+    /**
+     * 短間隔ポーリングの1段階。
+     *
+     * @param within   発走までの残り時間がこの時間以内の場合に適用する
+     * @param interval 実行間隔
+     */
+    public record BurstStep(Duration within, Duration interval) {}
+
+    public ScrapingProperties {
+        if (maxConcurrentPerHost <= 0) {
+            maxConcurrentPerHost = 2;
+        }
+        burstLadder = burstLadder == null ? List.of() : burstLadder.stream()
+                .filter(step -> step.within() != null && step.interval() != null
+                        && step.interval().isPositive() && step.within().isPositive())
+                .sorted(Comparator.comparing(BurstStep::within))
+                .toList();
+        if (maxBurstFetchesPerMinute <= 0) {
+            maxBurstFetchesPerMinute = 60;
+        }
+        if (connectTimeout == null || !connectTimeout.isPositive()) {
+            connectTimeout = Duration.ofSeconds(3);
+        }
+        if (responseTimeout == null || !responseTimeout.isPositive()) {
+            responseTimeout = Duration.ofSeconds(5);
+        }
+        if (requestTimeout == null || !requestTimeout.isPositive()) {
+            requestTimeout = Duration.ofSeconds(10);
+        }
+        if (requestTimeout.compareTo(responseTimeout) < 0) {
+            requestTimeout = responseTimeout;
+        }
+    }
+}
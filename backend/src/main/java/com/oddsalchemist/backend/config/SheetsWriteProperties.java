@@ -0,0 +1,58 @@
+package com.oddsalchemist.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * application.yaml の odds.sheets-write 設定をバインドするプロパティクラス。
+ * Sheets への追記をまとめて書き込む際の、書き込み単位・待ち行列の上限を定義する。
+ *
+ * @param flushInterval   最初の行を受け付けてから書き込むまでの最大待ち時間（未指定の場合は 5秒）
+ * @param maxBatchRows    1回の書き込みにまとめる最大行数。これに達した場合は待ち時間を待たずに書き込む（0以下の場合は 1000）
+ * @param queueCapacity   書き込み待ちにできる最大行数（0以下の場合は 20000）
+ * @param enqueueTimeout  待ち行列が満杯の場合に、空きを待つ最大時間（未指定の場合は 10秒）
+ * @param maxRetryBackoff 書き込み失敗時の再試行間隔の上限（未指定の場合は 1分）
+ * @param walPath         書き込み待ちの追記を記録するローカルファイルのパス（未指定の場合は記録しない）
+ * @param targetsFlushInterval Targets シートへ実行時刻の変更を書き込む最短間隔（未指定の場合は 30秒）
+ * @param shutdownTimeout 停止時に書き込みスレッドの終了を待つ最大時間（未指定の場合は 30秒）
+ */
+@ConfigurationProperties(prefix = "odds.sheets-write")
+public record SheetsWriteProperties(
+        Duration flushInterval,
+        int maxBatchRows,
+        int queueCapacity,
+        Duration enqueueTimeout,
+        Duration maxRetryBackoff,
+        String walPath,
+        Duration targetsFlushInterval,
+        Duration shutdownTimeout
+) {
+
+    public SheetsWriteProperties {
+        if (flushInterval == null || flushInterval.isNegative()) {
+            flushInterval = Duration.ofSeconds(5);
+        }
+        if (maxBatchRows <= 0) {
+            maxBatchRows = 1000;
+        }
+        if (queueCapacity <= 0) {
+            queueCapacity = 20_000;
+        }
+        if (enqueueTimeout == null || enqueueTimeout.isNegative()) {
+            enqueueTimeout = Duration.ofSeconds(10);
+        }
+        if (maxRetryBackoff == null || maxRetryBackoff.isNegative() || maxRetryBackoff.isZero()) {
+            maxRetryBackoff = Duration.ofMinutes(1);
+        }
+        if (walPath != null && walPath.isBlank()) {
+            walPath = null;
+        }
+        if (targetsFlushInterval == null || targetsFlushInterval.isNegative() || targetsFlushInterval.isZero()) {
+            targetsFlushInterval = Duration.ofSeconds(30);
+        }
+        if (shutdownTimeout == null || shutdownTimeout.isNegative() || shutdownTimeout.isZero()) {
+            shutdownTimeout = Duration.ofSeconds(30);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.oddsalchemist.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * application.yaml の odds.storage 設定をバインドするプロパティクラス。
+ * OddsData / Alerts / Targets シートの読み書き先を定義する。
+ *
+ * @param backend      読み書き先: sheets=Google Sheets（既定）、local=ローカルファイル
+ * @param localDir     local の場合の保存先ディレクトリ（未指定の場合は /tmp/odds-alchemist/store）
+ * @param sheetsExport local の場合に、書き込んだ内容を Google Sheets にも書き出すか（失敗してもローカルの書き込みは成功扱い）
+ */
+@ConfigurationProperties(prefix = "odds.storage")
+public record StorageProperties(String backend, String localDir, boolean sheetsExport) {
+
+    public StorageProperties {
+        if (backend == null || backend.isBlank()) {
+            backend = "sheets";
+        }
+        if (localDir == null || localDir.isBlank()) {
+            localDir = "/tmp/odds-alchemist/store";
+        }
+    }
+}
@@ -1,40 +1,190 @@
 package com.oddsalchemist.backend.controller;
 
+import com.oddsalchemist.backend.dto.AlertFeedDto;
+import com.oddsalchemist.backend.dto.AlertFeedItemDto;
 import com.oddsalchemist.backend.dto.AnomalyAlertDto;
-import com.oddsalchemist.backend.service.OddsAnomalyDetector;
+import com.oddsalchemist.backend.service.AlertStore;
+import com.oddsalchemist.backend.service.AlertStreamService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 /**
  * 異常検知アラートをフロントエンドに提供するコントローラー。
- * OddsAnomalyDetector が保持する最新のアラート一覧をGETエンドポイントで返す。
+ * AlertStore が保持するアラート一覧を、絞り込み・ページング付きのGETエンドポイントで返す。
+ * ポーリング用に通番カーソルによる差分取得と、ETag による 304 Not Modified 応答に対応する。
+ * ポーリングせずに受け取りたいクライアント向けに、Server-Sent Events による配信も提供する。
  */
 @RestController
 @RequestMapping("/api/odds")
-@CrossOrigin(originPatterns = {"http://localhost:*", "http://192.168.*:*"})
+@CrossOrigin(originPatterns = {"http://localhost:*", "http://192.168.*:*"}, exposedHeaders = OddsAlertController.TOTAL_COUNT_HEADER)
 public class OddsAlertController {
 
+    /** 条件に一致した総件数を返すレスポンスヘッダー */
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    /** SSE 再接続時にブラウザが最後に受信したイベントIDを送るリクエストヘッダー */
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private static final Logger logger = LoggerFactory.getLogger(OddsAlertController.class);
-    private final OddsAnomalyDetector oddsAnomalyDetector;
+    private final AlertStore alertStore;
+    private final AlertStreamService alertStreamService;
 
-    public OddsAlertController(OddsAnomalyDetector oddsAnomalyDetector) {
-        this.oddsAnomalyDetector = oddsAnomalyDetector;
+    public OddsAlertController(AlertStore alertStore, AlertStreamService alertStreamService) {
+        this.alertStore = alertStore;
+        this.alertStreamService = alertStreamService;
     }
 
     /**
-     * バックエンド起動後に累積された異常検知アラート一覧を返します。
+     * バックエンド起動後に検知された異常検知アラート一覧を検知順に返します。
      * スクレイピングがまだ実行されていない場合は空のリストを返します。
+     * 条件に一致した総件数は X-Total-Count ヘッダーで返します。
      *
-     * @return アラートのリスト（JSON配列）
+     * @param url         対象レースのURL（省略時は全レース）
+     * @param horseNumber 馬番（省略時は全馬）
+     * @param alertType   検知タイプ（省略時は全タイプ）
+     * @param offset      先頭から読み飛ばす件数
+     * @param limit       返す最大件数（省略時は全件）
+     * @param ifNoneMatch 前回レスポンスの ETag（一致した場合は 304 を返す）
+     * @return アラートのリスト（JSON配列）。offset/limit が負の場合は 400
      */
     @GetMapping("/alerts")
-    public ResponseEntity<List<AnomalyAlertDto>> getAlerts() {
-        logger.debug("アラート一覧の取得リクエストを受信しました");
-        List<AnomalyAlertDto> alerts = oddsAnomalyDetector.getLatestAlerts();
-        return ResponseEntity.ok(alerts);
+    public ResponseEntity<List<AnomalyAlertDto>> getAlerts(
+            @RequestParam(required = false) String url,
+            @RequestParam(required = false) String horseNumber,
+            @RequestParam(required = false) String alertType,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("アラート一覧の取得リクエストを受信しました: url={}, horseNumber={}, alertType={}, offset={}, limit={}",
+                url, horseNumber, alertType, offset, limit);
+        if (offset < 0 || (limit != null && limit < 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = currentETag();
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        AlertStore.Page page = alertStore.find(
+                new AlertStore.Filter(url, horseNumber, alertType),
+                offset,
+                limit != null ? limit : Integer.MAX_VALUE);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.total()))
+                .body(page.alerts());
+    }
+
+    /**
+     * 前回取得時のカーソルより新しいアラートのみを返します（差分取得）。
+     * 初回は since=0 を指定し、以降はレスポンスの nextCursor を指定します。
+     * 前回以降にアラートの追加・破棄がない場合は 304 を返します。
+     *
+     * @param since       前回レスポンスの nextCursor
+     * @param url         対象レースのURL（省略時は全レース）
+     * @param horseNumber 馬番（省略時は全馬）
+     * @param alertType   検知タイプ（省略時は全タイプ）
+     * @param limit       返す最大件数（省略時は全件）。超過分は nextCursor を指定して続きを取得する
+     * @param ifNoneMatch 前回レスポンスの ETag（一致した場合は 304 を返す）
+     * @return 差分のアラートと次回のカーソル。since/limit が不正な場合は 400
+     */
+    @GetMapping(value = "/alerts", params = "since")
+    public ResponseEntity<AlertFeedDto> getAlertFeed(
+            @RequestParam long since,
+            @RequestParam(required = false) String url,
+            @RequestParam(required = false) String horseNumber,
+            @RequestParam(required = false) String alertType,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("アラート差分の取得リクエストを受信しました: since={}, url={}, horseNumber={}, alertType={}, limit={}",
+                since, url, horseNumber, alertType, limit);
+        if (since < 0 || (limit != null && limit < 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = currentETag();
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        AlertStore.Feed feed = alertStore.findSince(
+                new AlertStore.Filter(url, horseNumber, alertType),
+                since,
+                limit != null ? limit : Integer.MAX_VALUE);
+        List<AlertFeedItemDto> items = feed.entries().stream()
+                .map(e -> AlertFeedItemDto.of(e.sequence(), e.url(), e.alert()))
+                .toList();
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(new AlertFeedDto(items, feed.nextCursor(), feed.truncated()));
+    }
+
+    /**
+     * 新たに検知された異常検知アラートを Server-Sent Events で配信します。
+     * 各イベントは event=alert、id=通番、data=アラート1件（JSON）で送信し、一定間隔でハートビートのコメント行を送ります。
+     * 再接続時に Last-Event-ID ヘッダー（EventSource が自動で付与）を受け取った場合は、
+     * 切断中に検知されたアラートを再送します。再送対象が破棄済みの場合は先に event=truncated を送ります。
+     *
+     * @param url         対象レースのURL（省略時は全レース）
+     * @param horseNumber 馬番（省略時は全馬）
+     * @param alertType   検知タイプ（省略時は全タイプ）
+     * @param lastEventId 最後に受信したイベントID（数値でない場合は無視する）
+     * @return SSE 接続
+     */
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(
+            @RequestParam(required = false) String url,
+            @RequestParam(required = false) String horseNumber,
+            @RequestParam(required = false) String alertType,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        logger.debug("アラート配信の接続リクエストを受信しました: url={}, horseNumber={}, alertType={}, lastEventId={}",
+                url, horseNumber, alertType, lastEventId);
+        return alertStreamService.subscribe(
+                new AlertStore.Filter(url, horseNumber, alertType),
+                parseLastEventId(lastEventId));
+    }
+
+    /** Last-Event-ID を通番として解釈します。未指定・不正な値の場合は null を返します。 */
+    private static Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId.trim());
+            return sequence >= 0 ? sequence : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * ストアのリビジョンから ETag を生成します。
+     * ETag はリクエストURL（クエリ文字列を含む）ごとに比較されるため、ストアの状態のみで一意になればよい
+     * （リビジョンはインスタンスごとの識別子を含むため、再起動をまたいでも一致しない）。
+     */
+    private String currentETag() {
+        return "\"" + alertStore.revision() + "\"";
+    }
+
+    /** If-None-Match ヘッダー（複数指定・弱いETag・"*" を含む）が現在の ETag に一致するかを判定します。 */
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
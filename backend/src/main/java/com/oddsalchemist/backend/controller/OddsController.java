@@ -1,6 +1,8 @@
 package com.oddsalchemist.backend.controller;
 
-import com.oddsalchemist.backend.service.GoogleSheetsService;
+import com.oddsalchemist.backend.service.OddsHistoryService;
+import com.oddsalchemist.backend.service.OddsSyncService;
+import com.oddsalchemist.backend.service.SheetStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -15,16 +17,21 @@ import java.util.Map;
 public class OddsController {
 
     private static final Logger logger = LoggerFactory.getLogger(OddsController.class);
-    private final GoogleSheetsService googleSheetsService;
+    private final SheetStore sheetStore;
+    private final OddsHistoryService oddsHistoryService;
+    private final OddsSyncService oddsSyncService;
 
-    public OddsController(GoogleSheetsService googleSheetsService) {
-        this.googleSheetsService = googleSheetsService;
+    public OddsController(SheetStore sheetStore, OddsHistoryService oddsHistoryService,
+                          OddsSyncService oddsSyncService) {
+        this.sheetStore = sheetStore;
+        this.oddsHistoryService = oddsHistoryService;
+        this.oddsSyncService = oddsSyncService;
     }
 
     @DeleteMapping("/sheets")
     public ResponseEntity<?> clearSheet(@RequestParam String sheet) {
         String range = switch (sheet) {
-            case "OddsData" -> "OddsData!A2:H";
+            case "OddsData" -> "OddsData!A2:I";
             case "Alerts"   -> "Alerts!A2:G";
             default -> null;
         };
@@ -32,7 +39,13 @@ public class OddsController {
             return ResponseEntity.badRequest().body(Map.of("message", "不正なシート名: " + sheet));
         }
         try {
-            googleSheetsService.clearAndWriteData(range, List.of());
+            sheetStore.clearAndWriteData(range, List.of());
+            if ("OddsData".equals(sheet)) {
+                // 読み込み済みのオッズ履歴を破棄し、次回の問い合わせで読み込み直す
+                oddsHistoryService.invalidate();
+                // 差分書き込みの基準も破棄し、次回の書き込みを全馬の行にする
+                oddsSyncService.resetPersistedSnapshots();
+            }
             logger.info("シートをクリアしました: sheet={}", sheet);
             return ResponseEntity.ok(Map.of("message", sheet + " のデータをクリアしました"));
         } catch (Exception e) {
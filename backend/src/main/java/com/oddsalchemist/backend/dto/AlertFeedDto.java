@@ -0,0 +1,17 @@
+package com.oddsalchemist.backend.dto;
+
+import java.util.List;
+
+/**
+ * アラートの差分取得（/api/odds/alerts?since=）のレスポンス。
+ *
+ * @param alerts     前回のカーソルより新しいアラート（検知順）
+ * @param nextCursor 次回の取得で since に指定するカーソル
+ * @param truncated  前回のカーソル以降のアラートの一部が保持期限切れで破棄済み、
+ *                   またはバックエンド再起動で通番が巻き戻った場合 true（全件を取り直すこと）
+ */
+public record AlertFeedDto(
+        List<AlertFeedItemDto> alerts,
+        long nextCursor,
+        boolean truncated
+) {}
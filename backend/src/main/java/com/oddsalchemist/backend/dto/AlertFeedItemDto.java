@@ -0,0 +1,32 @@
+package com.oddsalchemist.backend.dto;
+
+/**
+ * 差分取得・プッシュ配信で返す異常検知アラート1件。
+ * AnomalyAlertDto の各項目に、通番と対象URLを加えたもの。
+ *
+ * @param sequence    通番（検知順に単調増加。差分取得のカーソルとして使用）
+ * @param url         対象レースのURL
+ * @param raceName    レース名
+ * @param horseNumber 馬番
+ * @param horseName   馬名
+ * @param alertType   検知タイプ
+ * @param value       該当数値
+ * @param detectedAt  検知時刻（形式: "yyyy/MM/dd HH:mm:ss"）
+ */
+public record AlertFeedItemDto(
+        long sequence,
+        String url,
+        String raceName,
+        String horseNumber,
+        String horseName,
+        String alertType,
+        double value,
+        String detectedAt
+) {
+
+    /** 通番・URLとアラート内容から生成します。 */
+    public static AlertFeedItemDto of(long sequence, String url, AnomalyAlertDto alert) {
+        return new AlertFeedItemDto(sequence, url, alert.raceName(), alert.horseNumber(), alert.horseName(),
+                alert.alertType(), alert.value(), alert.detectedAt());
+    }
+}
@@ -0,0 +1,32 @@
+package com.oddsalchemist.backend.parser;
+
+import com.oddsalchemist.backend.dto.OddsData;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * レースページ1件を1回のパースで解析した結果を保持するRecordクラス。
+ * オッズ行・レース名・発走時刻を同一の Document から取り出すことで、DOM構築を1スクレイピング1回に抑える。
+ *
+ * @param oddsList    パース済みオッズデータ（URLは未設定）
+ * @param raceName    レース名（取得できない場合は空文字）
+ * @param startTime   発走時刻（取得できない場合は empty）
+ * @param diagnostics パース診断情報
+ */
+public record ParsedRacePage(
+        List<OddsData> oddsList,
+        String raceName,
+        Optional<LocalTime> startTime,
+        Diagnostics diagnostics
+) {
+
+    /**
+     * パース診断情報。
+     *
+     * @param rowCount        オッズテーブルの行数（tr.hr-tableValue__row）
+     * @param skippedRowCount 必須項目の欠落・パース失敗でスキップした行数
+     */
+    public record Diagnostics(int rowCount, int skippedRowCount) {}
+}
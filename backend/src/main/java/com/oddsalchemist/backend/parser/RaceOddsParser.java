@@ -7,6 +7,7 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.time.DateTimeException;
@@ -17,8 +18,13 @@ import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Jsoup で DOM を構築してスポナビのオッズページを解析するパーサーエンジン（既定）。
+ * {@code odds.scraping.parser-engine=streaming} の場合は {@link StreamingRaceOddsParser} が代わりに使用される。
+ */
 @Component
-public class RaceOddsParser {
+@ConditionalOnProperty(prefix = "odds.scraping", name = "parser-engine", havingValue = "jsoup", matchIfMissing = true)
+public class RaceOddsParser implements RacePageParser {
 
     private static final Logger logger = LoggerFactory.getLogger(RaceOddsParser.class);
 
@@ -29,8 +35,12 @@ public class RaceOddsParser {
     // 発走時刻の抽出: "HH:MM" 形式（例: "15:25"）
     private static final Pattern TIME_PATTERN = Pattern.compile("(\\d{1,2}):(\\d{2})");
 
-    public List<OddsData> parse(String html) {
-        List<OddsData> oddsList = new ArrayList<>();
+    /**
+     * HTMLを1回だけパースし、オッズ行・レース名・発走時刻をまとめて抽出します。
+     * スクレイピングごとに Jsoup の DOM 構築を1回に抑えるためのエントリポイントです。
+     */
+    @Override
+    public ParsedRacePage parsePage(String html) {
         Document doc = Jsoup.parse(html);
 
         // レース名を抽出
@@ -39,19 +49,35 @@ public class RaceOddsParser {
         // スポナビのオッズテーブル行を選択
         Elements rows = doc.select("tr.hr-tableValue__row");
 
+        List<OddsData> oddsList = new ArrayList<>();
+        int skipped = 0;
         for (Element row : rows) {
             try {
                 OddsData data = parseRow(row, raceName);
                 if (data != null) {
                     oddsList.add(data);
+                } else {
+                    skipped++;
                 }
             } catch (Exception e) {
+                skipped++;
                 logger.warn("行のパースに失敗しました。スキップします: {}", e.getMessage());
             }
         }
 
+        Optional<LocalTime> startTime = extractStartTimeSafely(doc);
+
         logger.info("パース完了: レース名='{}' 有効な馬データ {}件", raceName, oddsList.size());
-        return oddsList;
+        return new ParsedRacePage(oddsList, raceName, startTime,
+                new ParsedRacePage.Diagnostics(rows.size(), skipped));
+    }
+
+    /**
+     * HTMLからオッズ行を抽出します。
+     * 発走時刻も必要な場合は {@link #parsePage(String)} を使用してください（DOM構築が1回で済みます）。
+     */
+    public List<OddsData> parse(String html) {
+        return parsePage(html).oddsList();
     }
 
     /**
@@ -70,49 +96,61 @@ public class RaceOddsParser {
      */
     public Optional<LocalTime> parseStartTime(String html) {
         try {
-            Document doc = Jsoup.parse(html);
-
-            // 最優先: "発走" を含む div.hr-predictRaceInfo__text（例: "15:30発走"）
-            for (Element el : doc.select("div.hr-predictRaceInfo__text")) {
-                if (el.text().contains("発走")) {
-                    Optional<LocalTime> time = extractTimeFromText(el.text());
-                    if (time.isPresent()) {
-                        logger.debug("発走時刻を取得しました (div.hr-predictRaceInfo__text): {}", time.get());
-                        return time;
-                    }
-                }
-            }
-
-            // フォールバック
-            String[] selectors = {
-                "dl.hr-predictRaceInfo__raceData dd",
-                "time",
-                "li.hr-predictRaceInfo__raceDataList"
-            };
-            for (String selector : selectors) {
-                for (Element el : doc.select(selector)) {
-                    Optional<LocalTime> time = extractTimeFromText(el.text());
-                    if (time.isPresent()) {
-                        logger.debug("発走時刻を取得しました ({}): {}", selector, time.get());
-                        return time;
-                    }
-                }
-            }
-
-            logger.info("発走時刻を取得できませんでした。空で代替します。");
+            return extractStartTimeSafely(Jsoup.parse(html));
+        } catch (Exception e) {
+            logger.warn("発走時刻のパース中にエラーが発生しました: {}", e.getMessage());
             return Optional.empty();
+        }
+    }
 
+    /** {@link #extractStartTime(Document)} の例外を握りつぶし、失敗時は empty を返します。 */
+    private Optional<LocalTime> extractStartTimeSafely(Document doc) {
+        try {
+            return extractStartTime(doc);
         } catch (Exception e) {
             logger.warn("発走時刻のパース中にエラーが発生しました: {}", e.getMessage());
             return Optional.empty();
         }
     }
 
+    /** パース済みドキュメントから発走時刻を抽出します（優先順位は {@link #parseStartTime(String)} を参照）。 */
+    private Optional<LocalTime> extractStartTime(Document doc) {
+        // 最優先: "発走" を含む div.hr-predictRaceInfo__text（例: "15:30発走"）
+        for (Element el : doc.select("div.hr-predictRaceInfo__text")) {
+            if (el.text().contains("発走")) {
+                Optional<LocalTime> time = extractTimeFromText(el.text());
+                if (time.isPresent()) {
+                    logger.debug("発走時刻を取得しました (div.hr-predictRaceInfo__text): {}", time.get());
+                    return time;
+                }
+            }
+        }
+
+        // フォールバック
+        String[] selectors = {
+            "dl.hr-predictRaceInfo__raceData dd",
+            "time",
+            "li.hr-predictRaceInfo__raceDataList"
+        };
+        for (String selector : selectors) {
+            for (Element el : doc.select(selector)) {
+                Optional<LocalTime> time = extractTimeFromText(el.text());
+                if (time.isPresent()) {
+                    logger.debug("発走時刻を取得しました ({}): {}", selector, time.get());
+                    return time;
+                }
+            }
+        }
+
+        logger.info("発走時刻を取得できませんでした。空で代替します。");
+        return Optional.empty();
+    }
+
     /**
      * テキストから "HH:MM" 形式の時刻を抽出します。
      * 競馬の発走時刻として妥当な範囲（06:00〜20:59）のみを有効とします。
      */
-    private Optional<LocalTime> extractTimeFromText(String text) {
+    static Optional<LocalTime> extractTimeFromText(String text) {
         if (text == null || text.isBlank()) {
             return Optional.empty();
         }
@@ -150,9 +188,9 @@ public class RaceOddsParser {
         // フォールバック: <title>タグから "競馬 - {レース名} オッズ" パターンで抽出
         Element titleTag = doc.selectFirst("title");
         if (titleTag != null) {
-            Matcher m = RACE_NAME_FROM_TITLE_PATTERN.matcher(titleTag.text());
-            if (m.find()) {
-                return m.group(1).trim();
+            String name = raceNameFromTitle(titleTag.text());
+            if (name != null) {
+                return name;
             }
         }
 
@@ -181,15 +219,29 @@ public class RaceOddsParser {
 
         // オッズ: --odds クラスのtd（1番目=単勝、2番目=複勝）
         Elements oddsCells = row.select("td.hr-tableValue__data--odds");
+        return buildOddsData(raceName, horseNumber, horseName,
+                oddsCells.size() >= 1 ? oddsCells.get(0).text() : null,
+                oddsCells.size() >= 2 ? oddsCells.get(1).text() : null);
+    }
+
+    /**
+     * 単勝・複勝セルのテキストから {@link OddsData} を組み立てます。
+     * パーサーエンジン（Jsoup / ストリーミング）間で変換規則を共通化するため package-private とします。
+     *
+     * @param winText   単勝セルのテキスト（セルがない場合は null）
+     * @param placeText 複勝セルのテキスト（セルがない場合は null）
+     */
+    static OddsData buildOddsData(String raceName, String horseNumber, String horseName,
+                                  String winText, String placeText) {
         Double winOdds = null;
         Double placeMin = null;
         Double placeMax = null;
 
-        if (oddsCells.size() >= 1) {
-            winOdds = parseDouble(oddsCells.get(0).text().trim());
+        if (winText != null) {
+            winOdds = parseDouble(winText.trim());
         }
-        if (oddsCells.size() >= 2) {
-            Matcher m = PLACE_ODDS_PATTERN.matcher(oddsCells.get(1).text().trim());
+        if (placeText != null) {
+            Matcher m = PLACE_ODDS_PATTERN.matcher(placeText.trim());
             if (m.find()) {
                 placeMin = parseDouble(m.group(1));
                 placeMax = parseDouble(m.group(2));
@@ -199,7 +251,17 @@ public class RaceOddsParser {
         return new OddsData(raceName, horseNumber, horseName, winOdds, placeMin, placeMax, null);
     }
 
-    private Double parseDouble(String s) {
+    /**
+     * titleタグのテキストから "競馬 - {レース名} オッズ" パターンでレース名を抽出します。
+     *
+     * @return レース名（パターンに一致しない場合は null）
+     */
+    static String raceNameFromTitle(String titleText) {
+        Matcher m = RACE_NAME_FROM_TITLE_PATTERN.matcher(titleText);
+        return m.find() ? m.group(1).trim() : null;
+    }
+
+    private static Double parseDouble(String s) {
         try {
             return Double.parseDouble(s.trim());
         } catch (NumberFormatException e) {
@@ -0,0 +1,16 @@
+package com.oddsalchemist.backend.parser;
+
+/**
+ * スポナビのオッズページHTMLを解析するパーサーエンジンの共通インターフェース。
+ * 実装は {@code odds.scraping.parser-engine} で切り替える（jsoup / streaming）。
+ */
+public interface RacePageParser {
+
+    /**
+     * HTMLを1回だけ走査し、オッズ行・レース名・発走時刻をまとめて抽出します。
+     *
+     * @param html パース対象のHTML文字列
+     * @return パース結果（オッズ行が0件の場合も含む）
+     */
+    ParsedRacePage parsePage(String html);
+}
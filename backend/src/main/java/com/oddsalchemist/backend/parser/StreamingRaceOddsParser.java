@@ -0,0 +1,666 @@
+package com.oddsalchemist.backend.parser;
+
+import com.oddsalchemist.backend.dto.OddsData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * DOM を構築せずにHTMLをトークン単位で走査するストリーミング型のパーサーエンジン。
+ * 馬番・馬名・オッズのセルとレース情報ブロック（レース名・発走時刻）のテキストだけを拾い、
+ * それ以外の要素はタグ名のスタックのみで追跡する。
+ * 抽出規則（セレクタの優先順位・テキスト正規化）は {@link RaceOddsParser} と同一の結果になるよう揃えている。
+ * {@code odds.scraping.parser-engine=streaming} で有効になる。
+ */
+@Component
+@ConditionalOnProperty(prefix = "odds.scraping", name = "parser-engine", havingValue = "streaming")
+public class StreamingRaceOddsParser implements RacePageParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingRaceOddsParser.class);
+
+    /** 終了タグを持たない空要素（スタックに積まない） */
+    private static final Set<String> VOID_ELEMENTS = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input",
+            "link", "meta", "param", "source", "track", "wbr");
+
+    /** 中身をタグとして解釈せず読み飛ばす要素 */
+    private static final Set<String> RAW_TEXT_ELEMENTS = Set.of("script", "style", "textarea", "noscript");
+
+    /** Jsoup の text() がブロック要素の前後に空白を補う挙動を再現するためのブロック要素一覧 */
+    private static final Set<String> BLOCK_ELEMENTS = Set.of(
+            "html", "head", "body", "address", "article", "aside", "blockquote", "caption", "center",
+            "colgroup", "dd", "details", "dir", "div", "dl", "dt", "fieldset", "figcaption", "figure",
+            "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hgroup", "hr", "li",
+            "main", "menu", "nav", "ol", "p", "pre", "section", "table", "tbody", "td", "tfoot",
+            "th", "thead", "tr", "ul");
+
+    /** 発走時刻の候補カテゴリ（{@link RaceOddsParser#parseStartTime(String)} の優先順位と同じ並び） */
+    private static final int START_TIME_TEXT = 0;
+    private static final int START_TIME_RACE_DATA = 1;
+    private static final int START_TIME_TIME = 2;
+    private static final int START_TIME_RACE_DATA_LIST = 3;
+    private static final String[] START_TIME_SOURCES = {
+            "div.hr-predictRaceInfo__text",
+            "dl.hr-predictRaceInfo__raceData dd",
+            "time",
+            "li.hr-predictRaceInfo__raceDataList"
+    };
+
+    @Override
+    public ParsedRacePage parsePage(String html) {
+        Scan scan = new Scan();
+        scan.run(html);
+
+        String raceName = resolveRaceName(scan);
+
+        List<OddsData> oddsList = new ArrayList<>();
+        int skipped = 0;
+        for (RowCapture row : scan.rows) {
+            try {
+                OddsData data = row.toOddsData(raceName);
+                if (data != null) {
+                    oddsList.add(data);
+                } else {
+                    skipped++;
+                }
+            } catch (Exception e) {
+                skipped++;
+                logger.warn("行のパースに失敗しました。スキップします: {}", e.getMessage());
+            }
+        }
+
+        Optional<LocalTime> startTime = resolveStartTime(scan);
+
+        logger.info("パース完了: レース名='{}' 有効な馬データ {}件", raceName, oddsList.size());
+        return new ParsedRacePage(oddsList, raceName, startTime,
+                new ParsedRacePage.Diagnostics(scan.rows.size(), skipped));
+    }
+
+    private String resolveRaceName(Scan scan) {
+        // h2.hr-predictRaceInfo__title のownText（GII等のspanを除く直接テキスト）
+        if (scan.raceTitle != null) {
+            String name = scan.raceTitle.text();
+            if (!name.isEmpty()) {
+                return name;
+            }
+        }
+
+        // フォールバック: <title>タグから "競馬 - {レース名} オッズ" パターンで抽出
+        if (scan.title != null) {
+            String name = RaceOddsParser.raceNameFromTitle(scan.title.text());
+            if (name != null) {
+                return name;
+            }
+        }
+
+        logger.info("レース名を取得できませんでした。空文字で代替します。");
+        return "";
+    }
+
+    private Optional<LocalTime> resolveStartTime(Scan scan) {
+        try {
+            for (int source = 0; source < START_TIME_SOURCES.length; source++) {
+                for (TextCapture candidate : scan.startTimeCandidates.get(source)) {
+                    String text = candidate.text();
+                    // 最優先の div.hr-predictRaceInfo__text は "発走" を含むもののみ対象
+                    if (source == START_TIME_TEXT && !text.contains("発走")) {
+                        continue;
+                    }
+                    Optional<LocalTime> time = RaceOddsParser.extractTimeFromText(text);
+                    if (time.isPresent()) {
+                        logger.debug("発走時刻を取得しました ({}): {}", START_TIME_SOURCES[source], time.get());
+                        return time;
+                    }
+                }
+            }
+            logger.info("発走時刻を取得できませんでした。空で代替します。");
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.warn("発走時刻のパース中にエラーが発生しました: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // ===== トークナイザ =====
+
+    /** 1回の parsePage 呼び出しに閉じた走査状態。 */
+    private static final class Scan {
+
+        private final List<Frame> stack = new ArrayList<>();
+        /** 現在テキストを受け取っている収集バッファ（子孫テキストをすべて集めるもの） */
+        private final List<TextCapture> activeCaptures = new ArrayList<>();
+        private final List<RowCapture> rows = new ArrayList<>();
+        private final List<List<TextCapture>> startTimeCandidates = List.of(
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        private TextCapture title;
+        private TextCapture raceTitle;
+        private Frame raceTitleFrame;
+        private int openRaceDataLists;
+
+        void run(String html) {
+            int n = html.length();
+            int i = 0;
+            while (i < n) {
+                int lt = html.indexOf('<', i);
+                if (lt < 0) {
+                    onText(decodeEntities(html, i, n));
+                    break;
+                }
+                if (lt > i) {
+                    onText(decodeEntities(html, i, lt));
+                }
+                i = onMarkup(html, lt);
+            }
+            while (!stack.isEmpty()) {
+                popFrame();
+            }
+        }
+
+        /** '<' から始まるマークアップを1つ処理し、次の走査位置を返します。 */
+        private int onMarkup(String html, int lt) {
+            int n = html.length();
+            if (html.startsWith("<!--", lt)) {
+                int end = html.indexOf("-->", lt + 4);
+                return end < 0 ? n : end + 3;
+            }
+            char next = lt + 1 < n ? html.charAt(lt + 1) : '\0';
+            if (next == '!' || next == '?') {
+                int end = html.indexOf('>', lt);
+                return end < 0 ? n : end + 1;
+            }
+            if (next == '/') {
+                int nameStart = lt + 2;
+                int nameEnd = scanTagName(html, nameStart);
+                int end = html.indexOf('>', nameEnd);
+                if (nameEnd > nameStart) {
+                    onEndTag(html.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT));
+                }
+                return end < 0 ? n : end + 1;
+            }
+            if (isAsciiLetter(next)) {
+                return onStartTag(html, lt);
+            }
+            // タグとして解釈できない '<' はテキスト扱い
+            onText("<");
+            return lt + 1;
+        }
+
+        private int onStartTag(String html, int lt) {
+            int n = html.length();
+            int nameEnd = scanTagName(html, lt + 1);
+            String tag = html.substring(lt + 1, nameEnd).toLowerCase(Locale.ROOT);
+
+            // 属性は class のみ取り出す
+            String classAttr = null;
+            boolean selfClosing = false;
+            int j = nameEnd;
+            while (j < n) {
+                char c = html.charAt(j);
+                if (c == '>') {
+                    j++;
+                    break;
+                }
+                if (c == '/' || Character.isWhitespace(c)) {
+                    selfClosing = c == '/';
+                    j++;
+                    continue;
+                }
+                int attrStart = j;
+                while (j < n && !Character.isWhitespace(html.charAt(j))
+                        && html.charAt(j) != '=' && html.charAt(j) != '>' && html.charAt(j) != '/') {
+                    j++;
+                }
+                String attrName = html.substring(attrStart, j);
+                while (j < n && Character.isWhitespace(html.charAt(j))) j++;
+                String value = "";
+                if (j < n && html.charAt(j) == '=') {
+                    j++;
+                    while (j < n && Character.isWhitespace(html.charAt(j))) j++;
+                    if (j < n && (html.charAt(j) == '"' || html.charAt(j) == '\'')) {
+                        char quote = html.charAt(j);
+                        int close = html.indexOf(quote, j + 1);
+                        int valueEnd = close < 0 ? n : close;
+                        value = html.substring(j + 1, valueEnd);
+                        j = close < 0 ? n : close + 1;
+                    } else {
+                        int valueStart = j;
+                        while (j < n && !Character.isWhitespace(html.charAt(j)) && html.charAt(j) != '>') j++;
+                        value = html.substring(valueStart, j);
+                    }
+                }
+                if (classAttr == null && attrName.equalsIgnoreCase("class")) {
+                    classAttr = value;
+                }
+                selfClosing = false;
+            }
+
+            if (tag.equals("title")) {
+                return readTitle(html, j);
+            }
+
+            clearPendingSpaces(true);
+            closeImpliedElements(tag);
+            if (tag.equals("br") || BLOCK_ELEMENTS.contains(tag)) {
+                for (TextCapture capture : activeCaptures) {
+                    capture.appendBoundarySpace();
+                }
+            }
+            if (tag.equals("br") && raceTitleFrame != null && currentFrame() == raceTitleFrame) {
+                raceTitle.appendBoundarySpace();
+            }
+
+            if (VOID_ELEMENTS.contains(tag) || selfClosing) {
+                // 空要素は開始と同時に閉じたものとして扱う
+                if (BLOCK_ELEMENTS.contains(tag)) {
+                    for (TextCapture capture : activeCaptures) {
+                        capture.pendingSpace = true;
+                    }
+                }
+                return j;
+            }
+            if (RAW_TEXT_ELEMENTS.contains(tag)) {
+                return skipRawText(html, j, tag);
+            }
+            pushFrame(tag, classAttr);
+            return j;
+        }
+
+        /** title は要素の中身をタグ解釈せずテキストとして読みます（最初の title のみ採用）。 */
+        private int readTitle(String html, int from) {
+            int end = indexOfEndTag(html, from, "title");
+            if (title == null) {
+                title = new TextCapture();
+                title.append(decodeEntities(html, from, end < 0 ? html.length() : end));
+            }
+            return end < 0 ? html.length() : Math.max(html.indexOf('>', end) + 1, end + 1);
+        }
+
+        private int skipRawText(String html, int from, String tag) {
+            int end = indexOfEndTag(html, from, tag);
+            return end < 0 ? html.length() : Math.max(html.indexOf('>', end) + 1, end + 1);
+        }
+
+        private void onEndTag(String tag) {
+            clearPendingSpaces(false);
+            for (int k = stack.size() - 1; k >= 0; k--) {
+                if (stack.get(k).tag.equals(tag)) {
+                    while (stack.size() > k) {
+                        popFrame();
+                    }
+                    return;
+                }
+            }
+            // 対応する開始タグがない終了タグは無視
+        }
+
+        private void onText(String text) {
+            if (text.isEmpty()) return;
+            for (TextCapture capture : activeCaptures) {
+                capture.flushPendingSpace();
+                capture.append(text);
+            }
+            if (raceTitleFrame != null && currentFrame() == raceTitleFrame) {
+                raceTitle.append(text);
+            }
+        }
+
+        /**
+         * 終了タグが省略されやすい要素（tr/td/li/dd など）について、
+         * 同種の要素が開いたままなら暗黙に閉じます（HTMLの省略規則の簡易版）。
+         */
+        private void closeImpliedElements(String tag) {
+            switch (tag) {
+                case "tr" -> closeOpen(Set.of("tr"), Set.of("table"));
+                case "td", "th" -> closeOpen(Set.of("td", "th"), Set.of("tr", "table"));
+                case "tbody", "thead", "tfoot" -> closeOpen(Set.of("tbody", "thead", "tfoot"), Set.of("table"));
+                case "li" -> closeOpen(Set.of("li"), Set.of("ul", "ol"));
+                case "dd", "dt" -> closeOpen(Set.of("dd", "dt"), Set.of("dl"));
+                default -> { }
+            }
+        }
+
+        private void closeOpen(Set<String> targets, Set<String> boundaries) {
+            for (int k = stack.size() - 1; k >= 0; k--) {
+                String open = stack.get(k).tag;
+                if (boundaries.contains(open)) return;
+                if (targets.contains(open)) {
+                    while (stack.size() > k) {
+                        popFrame();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void pushFrame(String tag, String classAttr) {
+            Frame frame = new Frame(tag);
+
+            if (tag.equals("tr") && hasClass(classAttr, "hr-tableValue__row")) {
+                frame.row = new RowCapture();
+                rows.add(frame.row);
+            } else if (tag.equals("td")) {
+                RowCapture row = innermostRow();
+                if (row != null) {
+                    frame.cell = row.addCell(
+                            hasClass(classAttr, "hr-tableValue__data--number"),
+                            hasClass(classAttr, "hr-tableValue__data--horse"),
+                            hasClass(classAttr, "hr-tableValue__data--odds"));
+                }
+            } else if (tag.equals("span") && hasClass(classAttr, "hr-icon__bracketNum")) {
+                // 枠番spanを含む --number セルは馬番セルではない
+                for (Frame open : stack) {
+                    if (open.cell != null) open.cell.hasBracketNum = true;
+                }
+            } else if (tag.equals("a")) {
+                for (Frame open : stack) {
+                    if (open.cell != null && open.cell.isHorseLinkTarget()) {
+                        frame.capture = open.cell.startLinkCapture();
+                    }
+                }
+            } else if (tag.equals("h2") && raceTitle == null && hasClass(classAttr, "hr-predictRaceInfo__title")) {
+                raceTitle = new TextCapture();
+                raceTitleFrame = frame;
+            }
+
+            if (frame.cell != null) {
+                frame.captureCellText = true;
+            }
+            int startTimeSource = startTimeSource(tag, classAttr);
+            if (startTimeSource >= 0) {
+                TextCapture candidate = new TextCapture();
+                startTimeCandidates.get(startTimeSource).add(candidate);
+                frame.startTimeCapture = candidate;
+            }
+            if (tag.equals("dl") && hasClass(classAttr, "hr-predictRaceInfo__raceData")) {
+                frame.raceDataList = true;
+                openRaceDataLists++;
+            }
+
+            stack.add(frame);
+            for (TextCapture capture : frame.captures()) {
+                activeCaptures.add(capture);
+            }
+        }
+
+        private int startTimeSource(String tag, String classAttr) {
+            return switch (tag) {
+                case "div" -> hasClass(classAttr, "hr-predictRaceInfo__text") ? START_TIME_TEXT : -1;
+                case "dd" -> openRaceDataLists > 0 ? START_TIME_RACE_DATA : -1;
+                case "time" -> START_TIME_TIME;
+                case "li" -> hasClass(classAttr, "hr-predictRaceInfo__raceDataList") ? START_TIME_RACE_DATA_LIST : -1;
+                default -> -1;
+            };
+        }
+
+        private void popFrame() {
+            Frame frame = stack.remove(stack.size() - 1);
+            for (TextCapture capture : frame.captures()) {
+                activeCaptures.remove(capture);
+            }
+            if (frame.raceDataList) {
+                openRaceDataLists--;
+            }
+            if (frame == raceTitleFrame) {
+                raceTitleFrame = null;
+            }
+            if (BLOCK_ELEMENTS.contains(frame.tag)) {
+                // ブロック要素の直後に兄弟ノードが続く場合は空白で区切る（Jsoup の text() と同じ）
+                for (TextCapture capture : activeCaptures) {
+                    capture.pendingSpace = true;
+                }
+            }
+        }
+
+        /**
+         * タグ出現時にブロック要素終端の保留空白を処理します。
+         * 開始タグ（後続の兄弟要素）では空白を確定させ、終了タグ（親の終端）では破棄します。
+         */
+        private void clearPendingSpaces(boolean flush) {
+            for (TextCapture capture : activeCaptures) {
+                if (flush) {
+                    capture.flushPendingSpace();
+                } else {
+                    capture.pendingSpace = false;
+                }
+            }
+        }
+
+        private Frame currentFrame() {
+            return stack.isEmpty() ? null : stack.get(stack.size() - 1);
+        }
+
+        private RowCapture innermostRow() {
+            for (int k = stack.size() - 1; k >= 0; k--) {
+                if (stack.get(k).row != null) return stack.get(k).row;
+            }
+            return null;
+        }
+    }
+
+    /** タグ名のスタック要素。抽出対象の要素のみ収集バッファを持つ。 */
+    private static final class Frame {
+        private final String tag;
+        private RowCapture row;
+        private CellCapture cell;
+        private boolean captureCellText;
+        private TextCapture capture;
+        private TextCapture startTimeCapture;
+        private boolean raceDataList;
+
+        Frame(String tag) {
+            this.tag = tag;
+        }
+
+        List<TextCapture> captures() {
+            List<TextCapture> captures = new ArrayList<>(2);
+            if (captureCellText) captures.add(cell.text);
+            if (capture != null) captures.add(capture);
+            if (startTimeCapture != null) captures.add(startTimeCapture);
+            return captures;
+        }
+    }
+
+    /** tr.hr-tableValue__row 1行分のセル収集結果。 */
+    private static final class RowCapture {
+        private final List<CellCapture> numberCells = new ArrayList<>();
+        private final List<CellCapture> oddsCells = new ArrayList<>();
+        private CellCapture horseCell;
+
+        CellCapture addCell(boolean number, boolean horse, boolean odds) {
+            CellCapture cell = new CellCapture();
+            if (number) numberCells.add(cell);
+            if (odds) oddsCells.add(cell);
+            if (horse && horseCell == null) {
+                cell.horseCell = true;
+                horseCell = cell;
+            }
+            return cell;
+        }
+
+        /** {@code RaceOddsParser#parseRow} と同じ規則で1行を変換します。必須項目が欠けている場合は null。 */
+        OddsData toOddsData(String raceName) {
+            String horseNumber = null;
+            for (CellCapture cell : numberCells) {
+                if (!cell.hasBracketNum) {
+                    horseNumber = cell.text.text();
+                    break;
+                }
+            }
+            if (horseNumber == null || horseNumber.isEmpty()) return null;
+
+            if (horseCell == null) return null;
+            String horseName = (horseCell.link != null ? horseCell.link : horseCell.text).text();
+            if (horseName.isEmpty()) return null;
+
+            return RaceOddsParser.buildOddsData(raceName, horseNumber, horseName,
+                    oddsCells.size() >= 1 ? oddsCells.get(0).text.text() : null,
+                    oddsCells.size() >= 2 ? oddsCells.get(1).text.text() : null);
+        }
+    }
+
+    /** td 1セル分の収集結果。 */
+    private static final class CellCapture {
+        private final TextCapture text = new TextCapture();
+        private boolean hasBracketNum;
+        private boolean horseCell;
+        private TextCapture link;
+
+        boolean isHorseLinkTarget() {
+            return horseCell && link == null;
+        }
+
+        TextCapture startLinkCapture() {
+            link = new TextCapture();
+            return link;
+        }
+    }
+
+    /**
+     * Jsoup の text() / ownText() と同じ空白正規化でテキストを蓄積するバッファ。
+     * 連続する空白は1つにまとめ、最後に前後の空白を除去する。
+     */
+    private static final class TextCapture {
+        private final StringBuilder sb = new StringBuilder();
+        private boolean pendingSpace;
+
+        void append(String text) {
+            for (int k = 0; k < text.length(); k++) {
+                char c = text.charAt(k);
+                if (c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == '\u00A0') {
+                    if (!endsWithSpace()) sb.append(' ');
+                } else if (c != '\u200B' && c != '\u00AD') {
+                    sb.append(c);
+                }
+            }
+        }
+
+        /** ブロック要素・br の境界で空白を補います（既に空白で終わっている場合は何もしない）。 */
+        void appendBoundarySpace() {
+            if (sb.length() > 0 && !endsWithSpace()) sb.append(' ');
+        }
+
+        void flushPendingSpace() {
+            if (pendingSpace) {
+                appendBoundarySpace();
+                pendingSpace = false;
+            }
+        }
+
+        private boolean endsWithSpace() {
+            return sb.length() > 0 && sb.charAt(sb.length() - 1) == ' ';
+        }
+
+        String text() {
+            return sb.toString().trim();
+        }
+    }
+
+    // ===== 字句ヘルパー =====
+
+    private static boolean hasClass(String classAttr, String className) {
+        if (classAttr == null) return false;
+        int n = classAttr.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && Character.isWhitespace(classAttr.charAt(i))) i++;
+            int start = i;
+            while (i < n && !Character.isWhitespace(classAttr.charAt(i))) i++;
+            if (i - start == className.length() && classAttr.regionMatches(true, start, className, 0, i - start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int scanTagName(String html, int from) {
+        int j = from;
+        while (j < html.length()) {
+            char c = html.charAt(j);
+            if (Character.isWhitespace(c) || c == '>' || c == '/') break;
+            j++;
+        }
+        return j;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /** 大文字小文字を区別せずに終了タグ {@code </tag} の位置を探します。 */
+    private static int indexOfEndTag(String html, int from, String tag) {
+        int i = from;
+        while (true) {
+            int lt = html.indexOf("</", i);
+            if (lt < 0) return -1;
+            if (html.regionMatches(true, lt + 2, tag, 0, tag.length())) return lt;
+            i = lt + 2;
+        }
+    }
+
+    /** 文字参照（&amp; &#12; &#x1F; など主要なもの）をデコードします。未知の参照はそのまま残します。 */
+    private static String decodeEntities(String html, int start, int end) {
+        int amp = html.indexOf('&', start);
+        if (amp < 0 || amp >= end) {
+            return html.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            char c = html.charAt(i);
+            if (c != '&') {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            int semi = html.indexOf(';', i);
+            if (semi < 0 || semi >= end || semi - i > 10) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            String name = html.substring(i + 1, semi);
+            String decoded = decodeEntity(name);
+            if (decoded == null) {
+                sb.append(c);
+                i++;
+            } else {
+                sb.append(decoded);
+                i = semi + 1;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String decodeEntity(String name) {
+        switch (name) {
+            case "amp": return "&";
+            case "lt": return "<";
+            case "gt": return ">";
+            case "quot": return "\"";
+            case "apos": return "'";
+            case "nbsp": return "\u00A0";
+            default: break;
+        }
+        if (name.length() > 1 && name.charAt(0) == '#') {
+            try {
+                boolean hex = name.charAt(1) == 'x' || name.charAt(1) == 'X';
+                int codePoint = hex
+                        ? Integer.parseInt(name.substring(2), 16)
+                        : Integer.parseInt(name.substring(1));
+                return new String(Character.toChars(codePoint));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
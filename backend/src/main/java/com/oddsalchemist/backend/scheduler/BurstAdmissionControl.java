@@ -0,0 +1,72 @@
+package com.oddsalchemist.backend.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.TreeSet;
+
+/**
+ * 発走直前の短間隔ポーリングの受け付けを、全レース合計の取得回数の上限内に抑える入場制御。
+ * <p>
+ * 短間隔の実行予定は、予約済みの時刻すべてから「上限回数/分」で求めた最小間隔以上離れた時刻を先着順に予約して決める。
+ * 希望時刻が予約済みの時刻に近い場合は、希望時刻以降で最も早い空き時刻まで遅らせる（予約の間の空きにも入れる）。
+ * 空き時刻が通常の最短間隔（1分）以降になる場合は予約せずに通常間隔へ戻す。
+ * 予約同士が最小間隔以上離れているため、どの1分間をとっても短間隔による取得は上限を超えない。
+ * 過ぎた予約は次の予約時に破棄する。
+ */
+final class BurstAdmissionControl {
+
+    /** 予約枠の最小間隔 */
+    private final Duration spacing;
+
+    /** 短間隔の予約をあきらめて戻す通常間隔 */
+    private final Duration fallback;
+
+    /** 予約済みの実行時刻 */
+    private final TreeSet<Instant> booked = new TreeSet<>();
+
+    /**
+     * @param maxFetchesPerMinute 短間隔による取得の全レース合計の上限（回/分）
+     * @param fallback            枠が空かない場合に使用する通常間隔
+     */
+    BurstAdmissionControl(int maxFetchesPerMinute, Duration fallback) {
+        this.spacing = Duration.ofMinutes(1).dividedBy(maxFetchesPerMinute);
+        this.fallback = fallback;
+    }
+
+    /**
+     * 短間隔の実行予定を予約し、実際に使用する遅延を返します。
+     *
+     * @param now     現在時刻
+     * @param desired 希望する遅延（短間隔）
+     * @return 予約した枠までの遅延。枠が通常間隔以内に空かない場合は通常間隔
+     */
+    synchronized Duration admit(Instant now, Duration desired) {
+        // 最小間隔より前に過ぎた予約は以降の予約と競合しない
+        booked.headSet(now.minus(spacing)).clear();
+        Instant slot = earliestFreeSlot(now.plus(desired));
+        Duration delay = Duration.between(now, slot);
+        if (delay.compareTo(fallback) >= 0) {
+            return fallback;
+        }
+        booked.add(slot);
+        return delay;
+    }
+
+    /** wanted 以降で、予約済みのどの時刻とも最小間隔以上離れた最も早い時刻を返します。 */
+    private Instant earliestFreeSlot(Instant wanted) {
+        Instant slot = wanted;
+        while (true) {
+            Instant before = booked.floor(slot);
+            if (before != null && slot.isBefore(before.plus(spacing))) {
+                slot = before.plus(spacing);
+                continue;
+            }
+            Instant after = booked.ceiling(slot);
+            if (after != null && after.isBefore(slot.plus(spacing))) {
+                slot = after.plus(spacing);
+                continue;
+            }
+            return slot;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.oddsalchemist.backend.scheduler;
 
 import com.oddsalchemist.backend.config.ScrapingProperties;
+import com.oddsalchemist.backend.config.ScrapingProperties.BurstStep;
 import com.oddsalchemist.backend.service.OddsSyncService;
 import com.oddsalchemist.backend.service.TargetUrlStore;
 import com.oddsalchemist.backend.util.SheetsDates;
@@ -8,11 +9,12 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -23,9 +25,6 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 
 /**
  * 定期的にオッズ情報を取得してスプレッドシートに保存するスケジューラー。
@@ -34,7 +33,9 @@ import java.util.concurrent.ScheduledFuture;
  *   <li>朝〜12:00 または発走時刻不明: 30分間隔</li>
  *   <li>12:00〜発走60分超前: 5分間隔</li>
  *   <li>発走60分前〜直前: 1分間隔</li>
+ *   <li>発走直前（odds.scraping.burst-ladder 設定時）: 設定した短間隔（全レース合計の取得回数は {@link BurstAdmissionControl} で制限）</li>
  * </ul>
+ * 実行時刻の管理は {@link TimingWheel}（1スレッド）で行い、スクレイピング本体は {@link ScrapeExecutor} の仮想スレッドで実行する。
  */
 @Component
 public class OddsScrapingScheduler {
@@ -46,19 +47,39 @@ public class OddsScrapingScheduler {
     static final Duration DELAY_5MIN  = Duration.ofMinutes(5);
     static final Duration DELAY_1MIN  = Duration.ofMinutes(1);
 
+    /** タイミングホイールの1 tick（実行時刻の精度） */
+    private static final Duration TIMER_TICK = Duration.ofSeconds(1);
+
+    /** タイミングホイールのスロット数（1周 = 512秒） */
+    private static final int TIMER_WHEEL_SIZE = 512;
+
     private final OddsSyncService oddsSyncService;
     private final ScrapingProperties properties;
     private final TargetUrlStore targetUrlStore;
-    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+    private final ScrapeExecutor scrapeExecutor;
+
+    /** URLごとの次回実行タイマー（キー: URL文字列） */
+    private final TimingWheel timingWheel;
 
-    /** URLごとの定期スケジュールタスク（キー: URL文字列） */
-    private final ConcurrentHashMap<String, ScheduledFuture<?>> taskMap = new ConcurrentHashMap<>();
+    /** 発走直前の短間隔ポーリングの入場制御 */
+    private final BurstAdmissionControl burstAdmission;
 
+    /** Spring が使用するコンストラクタ */
+    @Autowired
     public OddsScrapingScheduler(OddsSyncService oddsSyncService, ScrapingProperties properties,
-                                  TargetUrlStore targetUrlStore) {
+                                  TargetUrlStore targetUrlStore, ScrapeExecutor scrapeExecutor) {
         this.oddsSyncService = oddsSyncService;
         this.properties = properties;
         this.targetUrlStore = targetUrlStore;
+        this.scrapeExecutor = scrapeExecutor;
+        this.timingWheel = new TimingWheel(TIMER_TICK, TIMER_WHEEL_SIZE, Clock.systemDefaultZone(), this::dispatch);
+        this.burstAdmission = new BurstAdmissionControl(properties.maxBurstFetchesPerMinute(), DELAY_1MIN);
+    }
+
+    /** テスト用コンストラクタ（スクレイピングは設定値の同時実行数上限を持つ ScrapeExecutor で実行する） */
+    OddsScrapingScheduler(OddsSyncService oddsSyncService, ScrapingProperties properties,
+                          TargetUrlStore targetUrlStore) {
+        this(oddsSyncService, properties, targetUrlStore, new ScrapeExecutor(properties.maxConcurrentPerHost()));
     }
 
     /**
@@ -67,9 +88,7 @@ public class OddsScrapingScheduler {
      */
     @PostConstruct
     public void start() {
-        taskScheduler.setPoolSize(4);
-        taskScheduler.setThreadNamePrefix("odds-scheduler-");
-        taskScheduler.initialize();
+        timingWheel.start();
         logger.info("スケジューラー初期化完了");
     }
 
@@ -102,8 +121,7 @@ public class OddsScrapingScheduler {
             if (nextScheduled != null && nextScheduled.isAfter(LocalDateTime.now())) {
                 Instant scheduledInstant = nextScheduled.atZone(ZoneId.systemDefault()).toInstant();
                 logger.info("起動時URL復元: 予定時刻にスケジュール URL={}, 予定={}", url, nextScheduled.format(SheetsDates.FORMATTER));
-                ScheduledFuture<?> task = taskScheduler.schedule(() -> scrapeAndReschedule(url), scheduledInstant);
-                taskMap.put(url, task);
+                timingWheel.schedule(url, scheduledInstant);
             } else {
                 logger.info("起動時URL復元: 即時フェッチ開始 URL={}", url);
                 fetchAndScheduleAsync(url);
@@ -116,30 +134,45 @@ public class OddsScrapingScheduler {
      */
     @PreDestroy
     public void stop() {
-        taskScheduler.shutdown();
+        timingWheel.stop();
         logger.info("スケジューラーをシャットダウンしました");
     }
 
     /**
      * 指定URLの定期スクレイピングをスケジュールします。
-     * 既存のスケジュールがあればキャンセルして再スケジュールします。
+     * 既存のスケジュールがあれば次回実行時刻を置き換えます。
      * URL登録後の即時fetch完了時に呼び出すことで、発走時刻に応じた動的間隔を即時反映させます。
      *
      * @param url スケジュール対象URL
      */
     public void scheduleUrl(String url) {
-        ScheduledFuture<?> existing = taskMap.get(url);
-        if (existing != null && !existing.isDone()) {
-            existing.cancel(false);
-        }
+        Instant now = Instant.now();
         Duration delay = properties.debugIntervalMinutes() > 0
                 ? Duration.ofMinutes(properties.debugIntervalMinutes())
                 : calculateDelayForUrl(url, LocalTime.now());
-        Instant nextTime = Instant.now().plus(delay);
+        if (delay.compareTo(DELAY_1MIN) < 0) {
+            Duration admitted = burstAdmission.admit(now, delay);
+            if (!admitted.equals(delay)) {
+                logger.info("短間隔ポーリングの枠が埋まっているため遅らせます: URL={}, 希望={}, 実際={}", url, delay, admitted);
+            }
+            delay = admitted;
+        }
+        Instant nextTime = now.plus(delay);
         String nextRunTime = LocalDateTime.ofInstant(nextTime, ZoneId.systemDefault()).format(TIME_FORMATTER);
         logger.info("スケジュール登録: URL={}, {}後（予定時刻: {}）", url, delay, nextRunTime);
-        ScheduledFuture<?> task = taskScheduler.schedule(() -> scrapeAndReschedule(url), nextTime);
-        taskMap.put(url, task);
+        timingWheel.schedule(url, nextTime);
+    }
+
+    /**
+     * 指定URLの次回実行予定時刻を返します。スケジュールされていない場合（実行中を含む）は空を返します。
+     */
+    public Optional<Instant> getNextFireTime(String url) {
+        return timingWheel.nextFireTime(url);
+    }
+
+    /** 予定時刻になったスクレイピングを ScrapeExecutor へ渡します。 */
+    private void dispatch(String url) {
+        scrapeExecutor.submit(url, () -> scrapeAndReschedule(url));
     }
 
     /**
@@ -149,9 +182,7 @@ public class OddsScrapingScheduler {
      * @param url キャンセル対象URL
      */
     public void cancelUrl(String url) {
-        ScheduledFuture<?> task = taskMap.remove(url);
-        if (task != null && !task.isDone()) {
-            task.cancel(false);
+        if (timingWheel.cancel(url)) {
             logger.info("スケジュールキャンセル: URL={}", url);
         }
     }
@@ -186,26 +217,29 @@ public class OddsScrapingScheduler {
     }
 
     /**
-     * 指定URLの最終実行時刻と次回予定時刻を計算してインメモリとSheetsへ反映します。
+     * 指定URLの最終実行時刻と次回予定時刻をインメモリへ反映します。
+     * 次回予定時刻はタイミングホイールに登録済みの時刻を使用し、未登録の場合のみ計算します。
+     * Sheetsへは TargetUrlStore の定期タスクがまとめて書き込みます。
      * スクレイピング完了直後（定期実行・初回登録どちらも）に呼び出します。
      */
     public void updateAndPersistExecutionTimes(String url) {
         LocalDateTime now = LocalDateTime.now();
         String lastExecution = now.format(SheetsDates.FORMATTER);
-        Duration nextDelay = properties.debugIntervalMinutes() > 0
-                ? Duration.ofMinutes(properties.debugIntervalMinutes())
-                : calculateDelayForUrl(url, now.toLocalTime());
-        String nextScheduled = now.plus(nextDelay).format(SheetsDates.FORMATTER);
+        String nextScheduled = timingWheel.nextFireTime(url)
+                .map(next -> LocalDateTime.ofInstant(next, ZoneId.systemDefault()))
+                .orElseGet(() -> now.plus(properties.debugIntervalMinutes() > 0
+                        ? Duration.ofMinutes(properties.debugIntervalMinutes())
+                        : calculateDelayForUrl(url, now.toLocalTime())))
+                .format(SheetsDates.FORMATTER);
         targetUrlStore.updateExecutionTimes(url, lastExecution, nextScheduled);
-        targetUrlStore.persistToSheet();
     }
 
     /**
-     * 指定URLのスクレイピングを非同期で即時実行し、完了後にスケジュールと実行時刻を更新します。
+     * 指定URLのスクレイピングを ScrapeExecutor で即時実行し、完了後にスケジュールと実行時刻を更新します。
      * URL新規登録時・起動時復元の即時フェッチ時に呼び出します。
      */
     public void fetchAndScheduleAsync(String url) {
-        CompletableFuture.runAsync(() -> {
+        scrapeExecutor.submit(url, () -> {
             try {
                 int saved = oddsSyncService.fetchAndSaveOdds(url, properties.sheetRange());
                 logger.info("初回スクレイピング完了: URL={}, 保存件数={}", url, saved);
@@ -264,8 +298,25 @@ public class OddsScrapingScheduler {
             // 12:00〜60分超前（プール金・中）
             return DELAY_5MIN;
         } else {
-            // 60分前〜直前（プール金・大/最大）
-            return DELAY_1MIN;
+            // 60分前〜直前（プール金・大/最大）。発走直前は設定に応じて短間隔にする
+            return burstIntervalFor(Duration.between(now, startTime)).orElse(DELAY_1MIN);
+        }
+    }
+
+    /**
+     * 発走までの残り時間に該当する短間隔ポーリングの間隔を返します。
+     * 該当する段階が複数ある場合は、残り時間の範囲が最も狭い段階を使用します。
+     */
+    private Optional<Duration> burstIntervalFor(Duration untilStart) {
+        if (untilStart.isNegative()) {
+            // 発走後1分未満（分単位の判定では発走前扱い）は短間隔にしない
+            return Optional.empty();
+        }
+        for (BurstStep step : properties.burstLadder()) {
+            if (untilStart.compareTo(step.within()) <= 0) {
+                return Optional.of(step.interval());
+            }
         }
+        return Optional.empty();
     }
 }
@@ -0,0 +1,122 @@
+package com.oddsalchemist.backend.scheduler;
+
+import com.oddsalchemist.backend.config.ScrapingProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * スクレイピングの実行を担当するエグゼキューター。
+ * 実行時刻の管理（OddsScrapingScheduler）と分離し、1回のスクレイピングごとに仮想スレッドを割り当てる。
+ * <p>
+ * 取得・解析・検知・Sheets への書き込み登録までを1タスクとして実行し、
+ * 同一ホストへの同時実行数はホストごとのセマフォで上限（odds.scraping.max-concurrent-per-host）までに抑える。
+ * 上限に達している場合、タスクは仮想スレッド上で空きを待つため、スケジューラーのスレッドは待たされない。
+ */
+@Component
+public class ScrapeExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeExecutor.class);
+
+    /** 停止時に実行中のタスクの完了を待つ最大時間 */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("odds-scrape-", 0).factory());
+
+    private final int maxConcurrentPerHost;
+
+    /** ホスト名 → 同時実行数を制限するセマフォ */
+    private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public ScrapeExecutor(ScrapingProperties properties) {
+        this(properties.maxConcurrentPerHost());
+    }
+
+    /** テスト用コンストラクタ（同一ホストの同時実行数を指定可能） */
+    ScrapeExecutor(int maxConcurrentPerHost) {
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+    }
+
+    /**
+     * 指定URLのスクレイピングタスクを仮想スレッドで実行します。
+     * 同一ホストの実行数が上限に達している場合は、空きができてから実行します。
+     * 停止後に呼び出された場合は WARN ログを出力して実行しません。
+     *
+     * @param url  スクレイピング対象URL（同時実行数の制限単位となるホストの判定に使用）
+     * @param task 実行するタスク
+     */
+    public void submit(String url, Runnable task) {
+        Semaphore permits = hostPermits.computeIfAbsent(hostOf(url), k -> new Semaphore(maxConcurrentPerHost, true));
+        try {
+            executor.execute(() -> runWithPermit(url, permits, task));
+        } catch (RejectedExecutionException e) {
+            logger.warn("停止中のためスクレイピングを実行しません: URL={}", url);
+        }
+    }
+
+    /**
+     * 指定ホストで現在実行中のタスク数を返します。
+     */
+    int activeCount(String host) {
+        Semaphore permits = hostPermits.get(host);
+        return permits == null ? 0 : maxConcurrentPerHost - permits.availablePermits();
+    }
+
+    /**
+     * 新しいタスクの受け付けを停止し、実行中のタスクの完了を待ちます。
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("停止時に完了しなかったスクレイピングを中断します");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWithPermit(String url, Semaphore permits, Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("同時実行数の空き待ち中に中断されました: URL={}", url);
+            return;
+        }
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error("スクレイピングタスクで予期しない例外が発生しました: URL={}", url, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** URLのホスト名を返します。判定できない場合は URL 全体を返します。 */
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.oddsalchemist.backend.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * キー（URL）ごとに1つのタイマーを持つハッシュ化タイミングホイール。
+ * <p>
+ * 時間を tick 単位に区切り、発火 tick を スロット数で割った余りのスロット（双方向リスト）にタイマーを登録する。
+ * 登録・キャンセル・再登録はスロットへの付け外しだけで済むため O(1)。
+ * 1本のスレッドが tick ごとに該当スロットだけを走査し、発火 tick に達したタイマーのキーをハンドラーへ渡す。
+ * 発火時刻は tick 境界に切り上げるため、指定時刻より早く発火することはない（最大 1 tick 遅れる）。
+ */
+final class TimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    /** 停止時に tick スレッドの終了を待つ最大時間 */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final long tickNanos;
+    private final Slot[] wheel;
+    private final int mask;
+    private final Clock clock;
+
+    /** tick の起点 */
+    private final Instant origin;
+
+    /** 発火したキーを受け取るハンドラー（tick スレッド上でロック外から呼び出す） */
+    private final Consumer<String> handler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** 停止要求を tick スレッドへ通知する条件 */
+    private final Condition stateChanged = lock.newCondition();
+
+    /** キー → 登録中のタイマー */
+    private final Map<String, Timer> timers = new HashMap<>();
+
+    /** 処理済みの最後の tick */
+    private long currentTick;
+
+    private boolean running;
+
+    private Thread worker;
+
+    /**
+     * @param tickDuration 1 tick の長さ（発火時刻の精度）
+     * @param wheelSize    スロット数（2のべき乗に切り上げる）
+     * @param clock        現在時刻の取得元
+     * @param handler      発火したキーを受け取るハンドラー
+     */
+    TimingWheel(Duration tickDuration, int wheelSize, Clock clock, Consumer<String> handler) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("tickDuration は正の値である必要があります: " + tickDuration);
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.wheel = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.clock = clock;
+        this.origin = clock.instant();
+        this.handler = handler;
+    }
+
+    /**
+     * tick スレッドを起動します。
+     */
+    void start() {
+        lock.lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        worker = Thread.ofPlatform().name("odds-timing-wheel").daemon().start(this::runWorker);
+    }
+
+    /**
+     * tick スレッドを停止します。登録済みのタイマーは保持したままです。
+     */
+    void stop() {
+        lock.lock();
+        try {
+            running = false;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (worker != null) {
+            try {
+                worker.join(SHUTDOWN_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * キーのタイマーを登録します。登録済みの場合は発火時刻を置き換えます。
+     * 過去の時刻を指定した場合は次の tick で発火します。
+     *
+     * @param key    タイマーのキー
+     * @param fireAt 発火時刻
+     */
+    void schedule(String key, Instant fireAt) {
+        long deadlineTick = ceilTick(fireAt);
+        lock.lock();
+        try {
+            Timer timer = timers.get(key);
+            if (timer == null) {
+                timer = new Timer(key);
+                timers.put(key, timer);
+            } else {
+                timer.slot.remove(timer);
+            }
+            timer.fireAt = fireAt;
+            timer.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+            wheel[(int) (timer.deadlineTick & mask)].add(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * キーのタイマーを取り消します。
+     *
+     * @return 登録されていたタイマーを取り消した場合 true
+     */
+    boolean cancel(String key) {
+        lock.lock();
+        try {
+            Timer timer = timers.remove(key);
+            if (timer == null) {
+                return false;
+            }
+            timer.slot.remove(timer);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * キーのタイマーの発火時刻を返します。未登録（発火済みを含む）の場合は空を返します。
+     */
+    Optional<Instant> nextFireTime(String key) {
+        lock.lock();
+        try {
+            Timer timer = timers.get(key);
+            return timer == null ? Optional.empty() : Optional.of(timer.fireAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 登録中のタイマー数 */
+    int size() {
+        lock.lock();
+        try {
+            return timers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 指定時刻までの tick を処理し、発火時刻に達したタイマーのキーをハンドラーへ渡します。
+     * ハンドラーで発生した例外は ERROR ログに出力し、残りのキーの処理を続けます。
+     *
+     * @param now 現在時刻
+     */
+    void advance(Instant now) {
+        for (String key : expire(floorTick(now))) {
+            try {
+                handler.accept(key);
+            } catch (RuntimeException e) {
+                logger.error("タイマーの処理で例外が発生しました: key={}", key, e);
+            }
+        }
+    }
+
+    /** 指定 tick までに発火するタイマーを取り外し、キーを返します。 */
+    private List<String> expire(long targetTick) {
+        List<String> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            if (targetTick <= currentTick) {
+                return expired;
+            }
+            if (targetTick - currentTick >= wheel.length) {
+                // 1周以上進んだ場合（スリープ復帰など）は全スロットを1回ずつ走査する
+                for (Slot slot : wheel) {
+                    expireSlot(slot, targetTick, expired);
+                }
+            } else {
+                for (long tick = currentTick + 1; tick <= targetTick; tick++) {
+                    expireSlot(wheel[(int) (tick & mask)], targetTick, expired);
+                }
+            }
+            currentTick = targetTick;
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    private void expireSlot(Slot slot, long targetTick, List<String> expired) {
+        Timer timer = slot.head;
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.deadlineTick <= targetTick) {
+                slot.remove(timer);
+                timers.remove(timer.key);
+                expired.add(timer.key);
+            }
+            timer = next;
+        }
+    }
+
+    /** tick スレッドの処理。次の tick 境界まで待ってから advance() を呼び出します。 */
+    private void runWorker() {
+        while (true) {
+            lock.lock();
+            try {
+                if (!running) {
+                    return;
+                }
+                long waitNanos = (currentTick + 1) * tickNanos - elapsedNanos(clock.instant());
+                if (waitNanos > 0) {
+                    stateChanged.awaitNanos(waitNanos);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            advance(clock.instant());
+        }
+    }
+
+    private long elapsedNanos(Instant instant) {
+        return Duration.between(origin, instant).toNanos();
+    }
+
+    private long floorTick(Instant instant) {
+        return Math.floorDiv(elapsedNanos(instant), tickNanos);
+    }
+
+    private long ceilTick(Instant instant) {
+        return -Math.floorDiv(-elapsedNanos(instant), tickNanos);
+    }
+
+    /** 登録中のタイマー1件 */
+    private static final class Timer {
+        private final String key;
+        private Instant fireAt;
+        private long deadlineTick;
+        private Slot slot;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(String key) {
+            this.key = key;
+        }
+    }
+
+    /** 同じスロットに属するタイマーの双方向リスト */
+    private static final class Slot {
+        private Timer head;
+        private Timer tail;
+
+        private void add(Timer timer) {
+            timer.slot = this;
+            timer.prev = tail;
+            timer.next = null;
+            if (tail == null) {
+                head = timer;
+            } else {
+                tail.next = timer;
+            }
+            tail = timer;
+        }
+
+        private void remove(Timer timer) {
+            if (timer.prev == null) {
+                head = timer.next;
+            } else {
+                timer.prev.next = timer.next;
+            }
+            if (timer.next == null) {
+                tail = timer.prev;
+            } else {
+                timer.next.prev = timer.prev;
+            }
+            timer.slot = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.AlertStoreProperties;
+import com.oddsalchemist.backend.dto.AnomalyAlertDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 起動中に検知した異常検知アラートを保持する固定長のストア。
+ * <p>
+ * アラートはリングバッファに検知順で格納し、1始まりの通番を付与する。
+ * 上限件数を超えた場合と保持日数を過ぎた場合は古い順に破棄する。
+ * URL・馬（URL＋馬番）・検知タイプごとに通番の索引を持ち、
+ * 絞り込み・ページングで対象件数分だけを走査・コピーする。
+ */
+@Service
+public class AlertStore {
+
+    /**
+     * 格納済みのアラート。
+     *
+     * @param sequence 1始まりの通番（検知順に単調増加）
+     * @param url      対象レースのURL
+     * @param alert    アラート内容
+     * @param date     検知日（保持日数の判定に使用）
+     */
+    public record Entry(long sequence, String url, AnomalyAlertDto alert, LocalDate date) {}
+
+    /**
+     * 絞り込み条件。null の項目は条件に含めない。
+     *
+     * @param url         対象レースのURL
+     * @param horseNumber 馬番
+     * @param alertType   検知タイプ
+     */
+    public record Filter(String url, String horseNumber, String alertType) {
+
+        /** 条件なし */
+        public static final Filter NONE = new Filter(null, null, null);
+
+        boolean matches(Entry entry) {
+            return (url == null || url.equals(entry.url()))
+                    && (horseNumber == null || horseNumber.equals(entry.alert().horseNumber()))
+                    && (alertType == null || alertType.equals(entry.alert().alertType()));
+        }
+    }
+
+    /**
+     * 検索結果の1ページ。
+     *
+     * @param alerts 指定範囲のアラート（検知順）
+     * @param total  条件に一致した総件数
+     */
+    public record Page(List<AnomalyAlertDto> alerts, int total) {}
+
+    /**
+     * 通番カーソル以降の差分取得結果。
+     *
+     * @param entries    カーソルより新しいアラート（検知順）
+     * @param nextCursor 次回の取得に指定するカーソル
+     * @param truncated  カーソル直後のアラートが破棄済み、またはカーソルが未来（再起動後など）で
+     *                   差分が連続していない場合 true
+     */
+    public record Feed(List<Entry> entries, long nextCursor, boolean truncated) {}
+
+    private final int capacity;
+    private final int retentionDays;
+    private final Clock clock;
+
+    private final Entry[] ring;
+
+    /** インスタンスごとの識別子（再起動後に通番が同じ値に戻っても、リビジョンが以前の値と一致しないようにする） */
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    /** 次に付与する通番 */
+    private long nextSequence = 1;
+
+    /** 保持している最古の通番 */
+    private long firstSequence = 1;
+
+    private final Map<String, SequenceList> byUrl = new HashMap<>();
+    private final Map<String, SequenceList> byHorse = new HashMap<>();
+    private final Map<String, SequenceList> byType = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** アラート追加時に通知するリスナー */
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public AlertStore(AlertStoreProperties properties) {
+        this(properties.capacity(), properties.retentionDays(), Clock.systemDefaultZone());
+    }
+
+    /** テスト用コンストラクタ（上限件数・保持日数・Clockを指定可能） */
+    AlertStore(int capacity, int retentionDays, Clock clock) {
+        this.capacity = capacity;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+        this.ring = new Entry[capacity];
+    }
+
+    /**
+     * 指定URLで検知されたアラートを検知順に追加します。
+     * 追加後、登録済みのリスナーにロック外で通知します。
+     *
+     * @param url    対象レースのURL
+     * @param alerts 追加するアラート
+     */
+    public void addAll(String url, List<AnomalyAlertDto> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        lock.writeLock().lock();
+        try {
+            evictExpired(today);
+            for (AnomalyAlertDto alert : alerts) {
+                if (nextSequence - firstSequence == capacity) {
+                    evictOldest();
+                }
+                long sequence = nextSequence++;
+                Entry entry = new Entry(sequence, url, alert, today);
+                ring[slot(sequence)] = entry;
+                byUrl.computeIfAbsent(url, k -> new SequenceList()).add(sequence);
+                byHorse.computeIfAbsent(horseKey(url, alert.horseNumber()), k -> new SequenceList()).add(sequence);
+                byType.computeIfAbsent(alert.alertType(), k -> new SequenceList()).add(sequence);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * アラート追加時に呼び出すリスナーを登録します。
+     * リスナーは追加を行ったスレッドで呼び出されるため、重い処理は別スレッドに委ねること。
+     * 追加されたアラートは {@link #findSince} で取得します。
+     *
+     * @param listener 追加時に呼び出す処理
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 最後に付与した通番を返します（未追加の場合は 0）。
+     *
+     * @return 最新の通番
+     */
+    public long lastSequence() {
+        lock.readLock().lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 条件に一致するアラートを検知順に返します。
+     *
+     * @param filter 絞り込み条件
+     * @param offset 先頭から読み飛ばす件数
+     * @param limit  返す最大件数
+     * @return 指定範囲のアラートと一致した総件数
+     */
+    public Page find(Filter filter, int offset, int limit) {
+        LocalDate cutoff = cutoffDate();
+        lock.readLock().lock();
+        try {
+            List<AnomalyAlertDto> page = new ArrayList<>(Math.max(0, Math.min(limit, size())));
+            int total = 0;
+            SequenceList candidates = candidates(filter);
+            if (candidates != null) {
+                for (int i = 0; i < candidates.size(); i++) {
+                    Entry entry = ring[slot(candidates.get(i))];
+                    if (!entry.date().isBefore(cutoff) && filter.matches(entry)) {
+                        if (total >= offset && page.size() < limit) {
+                            page.add(entry.alert());
+                        }
+                        total++;
+                    }
+                }
+            } else if (!hasIndexedCondition(filter)) {
+                for (long sequence = firstSequence; sequence < nextSequence; sequence++) {
+                    Entry entry = ring[slot(sequence)];
+                    if (!entry.date().isBefore(cutoff) && filter.matches(entry)) {
+                        if (total >= offset && page.size() < limit) {
+                            page.add(entry.alert());
+                        }
+                        total++;
+                    }
+                }
+            }
+            return new Page(Collections.unmodifiableList(page), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 指定した通番より新しく、条件に一致するアラートを検知順に返します。
+     * 件数は差分のみに比例し、保持している全件は走査しません。
+     * カーソルが最新の通番より大きい場合（再起動で通番が巻き戻った場合）は先頭から返します。
+     *
+     * @param filter 絞り込み条件
+     * @param since  前回取得時のカーソル（初回は 0）
+     * @param limit  返す最大件数
+     * @return 差分のアラートと次回のカーソル
+     */
+    public Feed findSince(Filter filter, long since, int limit) {
+        LocalDate cutoff = cutoffDate();
+        lock.readLock().lock();
+        try {
+            long lastSequence = nextSequence - 1;
+            boolean truncated = false;
+            if (since > lastSequence) {
+                since = 0;
+                truncated = true;
+            } else if (since > 0 && since < firstSequence - 1) {
+                truncated = true;
+            }
+            long from = Math.max(since + 1, firstSequence);
+
+            List<Entry> entries = new ArrayList<>();
+            long nextCursor = lastSequence;
+            SequenceList candidates = candidates(filter);
+            if (candidates != null) {
+                for (int i = candidates.firstIndexAtOrAfter(from); i < candidates.size(); i++) {
+                    long sequence = candidates.get(i);
+                    Entry entry = ring[slot(sequence)];
+                    if (!entry.date().isBefore(cutoff) && filter.matches(entry)) {
+                        if (entries.size() == limit) {
+                            nextCursor = entries.isEmpty() ? since : entries.get(entries.size() - 1).sequence();
+                            break;
+                        }
+                        entries.add(entry);
+                    }
+                }
+            } else if (!hasIndexedCondition(filter)) {
+                for (long sequence = from; sequence <= lastSequence; sequence++) {
+                    Entry entry = ring[slot(sequence)];
+                    if (!entry.date().isBefore(cutoff) && filter.matches(entry)) {
+                        if (entries.size() == limit) {
+                            nextCursor = entries.isEmpty() ? since : entries.get(entries.size() - 1).sequence();
+                            break;
+                        }
+                        entries.add(entry);
+                    }
+                }
+            }
+            return new Feed(Collections.unmodifiableList(entries), nextCursor, truncated);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ストアの状態を表すリビジョン文字列を返します。
+     * 追加・破棄・日付による保持期限の変化があった場合にのみ値が変わるため、ETag に使用できます。
+     * 通番は再起動のたびに1から振り直すため、インスタンスごとの識別子を含め、再起動前のリビジョンと一致しないようにします。
+     *
+     * @return リビジョン文字列
+     */
+    public String revision() {
+        LocalDate cutoff = cutoffDate();
+        lock.readLock().lock();
+        try {
+            return epoch + "-" + (nextSequence - 1) + "-" + firstSequence + "-" + cutoff.toEpochDay();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 保持しているすべてのアラートを検知順に返します。
+     *
+     * @return アラートリスト（変更不可）
+     */
+    public List<AnomalyAlertDto> findAll() {
+        return find(Filter.NONE, 0, Integer.MAX_VALUE).alerts();
+    }
+
+    /** 現在保持している件数（保持日数切れで未破棄のものを含む） */
+    int size() {
+        return (int) (nextSequence - firstSequence);
+    }
+
+    /**
+     * 条件のうち索引を使えるものから、最も件数の少ない通番リストを返します。
+     * 索引を使える条件がない場合、または該当なしの場合は null を返します。
+     */
+    private SequenceList candidates(Filter filter) {
+        SequenceList best = null;
+        if (filter.url() != null) {
+            best = smaller(best, filter.horseNumber() != null
+                    ? byHorse.get(horseKey(filter.url(), filter.horseNumber()))
+                    : byUrl.get(filter.url()));
+            if (best == null) {
+                return null;
+            }
+        }
+        if (filter.alertType() != null) {
+            SequenceList byAlertType = byType.get(filter.alertType());
+            if (byAlertType == null) {
+                return null;
+            }
+            best = smaller(best, byAlertType);
+        }
+        return best;
+    }
+
+    private static boolean hasIndexedCondition(Filter filter) {
+        return filter.url() != null || filter.alertType() != null;
+    }
+
+    private static SequenceList smaller(SequenceList current, SequenceList other) {
+        if (current == null) {
+            return other;
+        }
+        return other == null || current.size() <= other.size() ? current : other;
+    }
+
+    private LocalDate cutoffDate() {
+        return LocalDate.now(clock).minusDays(retentionDays - 1L);
+    }
+
+    /** 保持日数を過ぎたアラートを古い順に破棄します（検知日は通番順に単調増加）。 */
+    private void evictExpired(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays - 1L);
+        while (firstSequence < nextSequence && ring[slot(firstSequence)].date().isBefore(cutoff)) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        int slot = slot(firstSequence);
+        Entry entry = ring[slot];
+        ring[slot] = null;
+        pollFirst(byUrl, entry.url());
+        pollFirst(byHorse, horseKey(entry.url(), entry.alert().horseNumber()));
+        pollFirst(byType, entry.alert().alertType());
+        firstSequence++;
+    }
+
+    /** 最古のアラートは各索引の先頭にあるため、先頭を取り除きます。空になった索引は削除します。 */
+    private static void pollFirst(Map<String, SequenceList> index, String key) {
+        SequenceList list = index.get(key);
+        list.pollFirst();
+        if (list.size() == 0) {
+            index.remove(key);
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private static String horseKey(String url, String horseNumber) {
+        return Objects.toString(url) + "\n" + horseNumber;
+    }
+
+    /** 通番の昇順リスト（末尾追加・先頭削除のみ） */
+    private static final class SequenceList {
+
+        private long[] values = new long[8];
+        private int head;
+        private int size;
+
+        void add(long value) {
+            if (head + size == values.length) {
+                if (size * 2 <= values.length) {
+                    System.arraycopy(values, head, values, 0, size);
+                } else {
+                    long[] grown = new long[values.length * 2];
+                    System.arraycopy(values, head, grown, 0, size);
+                    values = grown;
+                }
+                head = 0;
+            }
+            values[head + size++] = value;
+        }
+
+        void pollFirst() {
+            head++;
+            size--;
+        }
+
+        long get(int index) {
+            return values[head + index];
+        }
+
+        /** 指定値以上となる最初の要素のインデックスを返します（該当なしの場合は size）。 */
+        int firstIndexAtOrAfter(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[head + mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.AlertFeedItemDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 異常検知アラートを Server-Sent Events で購読者にプッシュ配信するサービス。
+ * <p>
+ * 購読ごとに送信済みの通番（カーソル）を持ち、AlertStore への追加通知を受けるたびに
+ * {@link AlertStore#findSince} でカーソル以降の差分を取得して送信する。
+ * 再接続時は Last-Event-ID をカーソルとして、切断中に検知されたアラートを再送する。
+ * <p>
+ * 送信は専用の1スレッドで直列に行うため、スクレイピングのスレッドは購読者への書き込みで待たされない。
+ * 接続中のリクエストは非同期処理として扱われるため、アイドルな購読者がサーブレットスレッドを占有することはない。
+ */
+@Service
+public class AlertStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStreamService.class);
+
+    /** アラートのイベント名 */
+    static final String ALERT_EVENT = "alert";
+
+    /** 再送対象のアラートが破棄済みで、差分が連続していないことを表すイベント名 */
+    static final String TRUNCATED_EVENT = "truncated";
+
+    /** 接続のタイムアウト（経過後はクライアントが Last-Event-ID を付けて再接続する） */
+    static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+
+    /** プロキシ等によるアイドル切断を防ぐためのハートビート間隔 */
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
+    /** 1回の差分取得で読み出す最大件数 */
+    private static final int BATCH_SIZE = 500;
+
+    private final AlertStore alertStore;
+    private final Executor executor;
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /** 配信処理が実行待ちかどうか（連続した追加通知をまとめるため） */
+    private final AtomicBoolean deliveryPending = new AtomicBoolean();
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public AlertStreamService(AlertStore alertStore) {
+        this.alertStore = alertStore;
+        this.taskScheduler = new ThreadPoolTaskScheduler();
+        this.executor = taskScheduler;
+        alertStore.addListener(this::requestDelivery);
+    }
+
+    /** テスト用コンストラクタ（送信処理を実行する Executor を指定可能。ハートビートは自動実行しない） */
+    AlertStreamService(AlertStore alertStore, Executor executor) {
+        this.alertStore = alertStore;
+        this.taskScheduler = null;
+        this.executor = executor;
+        alertStore.addListener(this::requestDelivery);
+    }
+
+    /**
+     * 送信用スレッドを初期化し、ハートビートを開始します。
+     */
+    @PostConstruct
+    public void start() {
+        if (taskScheduler == null) {
+            return;
+        }
+        taskScheduler.setPoolSize(1);
+        taskScheduler.setThreadNamePrefix("alert-stream-");
+        taskScheduler.initialize();
+        taskScheduler.scheduleAtFixedRate(this::sendHeartbeat, HEARTBEAT_INTERVAL);
+    }
+
+    /**
+     * すべての接続を終了し、送信用スレッドを停止します。
+     */
+    @PreDestroy
+    public void stop() {
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter().complete();
+        }
+        subscriptions.clear();
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    /**
+     * アラートの購読を開始します。
+     * lastEventId を指定した場合はその通番より新しいアラートを再送し、
+     * 省略した場合は接続以降に検知されたアラートのみを送信します。
+     *
+     * @param filter      絞り込み条件
+     * @param lastEventId 最後に受信したイベントID（通番）。初回接続時は null
+     * @return 接続に対応する SseEmitter
+     */
+    public SseEmitter subscribe(AlertStore.Filter filter, Long lastEventId) {
+        return register(new SseEmitter(STREAM_TIMEOUT.toMillis()), filter, lastEventId);
+    }
+
+    /** 生成済みの SseEmitter を購読者として登録します。 */
+    SseEmitter register(SseEmitter emitter, AlertStore.Filter filter, Long lastEventId) {
+        long cursor = lastEventId != null ? lastEventId : alertStore.lastSequence();
+        Subscription subscription = new Subscription(emitter, filter, cursor);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        logger.debug("アラート配信の購読を開始しました: filter={}, lastEventId={}, 購読数={}",
+                filter, lastEventId, subscriptions.size());
+        // 登録前後に追加されたアラートの取りこぼしを防ぐため、登録直後にも差分を確認する
+        executor.execute(() -> deliver(subscription));
+        return emitter;
+    }
+
+    /** 現在の購読数 */
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /** 全購読者にハートビート（SSE コメント行）を送信します。 */
+    void sendHeartbeat() {
+        for (Subscription subscription : subscriptions) {
+            send(subscription, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /** AlertStore への追加通知を受け、配信処理を送信用スレッドに登録します。 */
+    private void requestDelivery() {
+        if (subscriptions.isEmpty() || !deliveryPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            deliveryPending.set(false);
+            for (Subscription subscription : subscriptions) {
+                deliver(subscription);
+            }
+        });
+    }
+
+    /** 購読者のカーソル以降に追加されたアラートを送信し、カーソルを進めます。 */
+    private void deliver(Subscription subscription) {
+        while (true) {
+            AlertStore.Feed feed = alertStore.findSince(subscription.filter(), subscription.cursor, BATCH_SIZE);
+            if (feed.truncated() && !send(subscription, SseEmitter.event().name(TRUNCATED_EVENT).data(true))) {
+                return;
+            }
+            for (AlertStore.Entry entry : feed.entries()) {
+                SseEmitter.SseEventBuilder event = SseEmitter.event()
+                        .id(String.valueOf(entry.sequence()))
+                        .name(ALERT_EVENT)
+                        .data(AlertFeedItemDto.of(entry.sequence(), entry.url(), entry.alert()),
+                                MediaType.APPLICATION_JSON);
+                if (!send(subscription, event)) {
+                    return;
+                }
+            }
+            subscription.cursor = feed.nextCursor();
+            if (feed.entries().size() < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    /** イベントを送信します。送信できなかった場合は購読を解除して false を返します。 */
+    private boolean send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter().send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("アラート配信の送信に失敗したため購読を解除します: {}", e.getMessage());
+            subscriptions.remove(subscription);
+            subscription.emitter().completeWithError(e);
+            return false;
+        }
+    }
+
+    /** 購読者1件分の状態。cursor は送信用スレッドからのみ更新する。 */
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final AlertStore.Filter filter;
+        private volatile long cursor;
+
+        Subscription(SseEmitter emitter, AlertStore.Filter filter, long cursor) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.cursor = cursor;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        AlertStore.Filter filter() {
+            return filter;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.oddsalchemist.backend.service;
+
+/**
+ * {@link OddsAnomalyDetector} の検知閾値。
+ * 支持率・加速度の閾値は検知器の計算と同じ固定小数点（支持率は小数点以下10桁、加速度は小数点以下6桁）で保持する。
+ *
+ * @param supportRateThreshold    ロジックA: 支持率急増の閾値（前回比。10桁固定小数点）
+ * @param trendDeviationThreshold ロジックC・E: トレンド逸脱・フェーズ逸脱の閾値（基準比。10桁固定小数点）
+ * @param rankGapThreshold        ロジックB: 単複順位乖離の閾値
+ * @param trendRankMin            ロジックC: 対象人気帯の下限（この順位以上）
+ * @param trendRankMax            ロジックC: 対象人気帯の上限（この順位以下）
+ * @param accelerationThreshold   ロジックD: 支持率加速度の閾値（支持率/分。6桁固定小数点）
+ * @param cliffRatioThreshold     ロジックF: オッズ断層とみなす隣接オッズ比
+ */
+public record DetectorParameters(
+        long supportRateThreshold,
+        long trendDeviationThreshold,
+        int rankGapThreshold,
+        int trendRankMin,
+        int trendRankMax,
+        long accelerationThreshold,
+        double cliffRatioThreshold) {
+
+    private static final DetectorParameters DEFAULTS = new DetectorParameters(
+            200_000_000L,   // +2.0% = 0.02
+            500_000_000L,   // +5.0% = 0.05
+            3,
+            5,              // 中穴: 5〜8番人気
+            12,             // 大穴: 9〜12番人気
+            5_000L,         // 0.5%/分 = 0.005
+            1.5);
+
+    public DetectorParameters {
+        if (trendRankMin > trendRankMax) {
+            throw new IllegalArgumentException(
+                    "トレンド逸脱の人気帯の下限が上限を超えています: " + trendRankMin + " > " + trendRankMax);
+        }
+        if (!(cliffRatioThreshold > 0)) {
+            throw new IllegalArgumentException("オッズ断層の閾値は正の値を指定してください: " + cliffRatioThreshold);
+        }
+    }
+
+    /** 運用で使用している既定の閾値を返します。 */
+    public static DetectorParameters defaults() {
+        return DEFAULTS;
+    }
+}
@@ -0,0 +1,178 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.FetchLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * レースページ取得の頻度を制限するリミッター。すべての取得経路（定期・初回・一括）が共有する。
+ * <p>
+ * 全体の取得回数をトークンバケット（odds.fetch-limit.permits-per-second / burst）で制限する。
+ * 待っている取得は優先度（発走までの残り秒数。小さいほど優先）→ 到着順に並べ、トークンが貯まった時点で先頭から許可する。
+ * 待ち時間は取得ごとに {@link #acquire} の戻り値で返し、累計を {@link #waitStats()} で集計する。
+ * ホストごとの同時実行数は ScrapeExecutor（odds.scraping.max-concurrent-per-host）で制限する。
+ */
+@Service
+public class FetchRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FetchRateLimiter.class);
+
+    /** 発走時刻が不明な取得の優先度（最も低い） */
+    public static final long LOWEST_PRIORITY = Long.MAX_VALUE;
+
+    /** この時間以上待った取得は WARN ログを出力する */
+    private static final Duration SLOW_WAIT_THRESHOLD = Duration.ofSeconds(10);
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier nanoTime;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** トークンの変化を通知する条件 */
+    private final Condition changed = lock.newCondition();
+
+    /** 許可待ちの取得（優先度 → 到着順） */
+    private final TreeSet<Waiter> waiters = new TreeSet<>(
+            Comparator.comparingLong((Waiter w) -> w.priority).thenComparingLong(w -> w.sequence));
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long nextSequence;
+
+    private long acquiredCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    /**
+     * 取得待ちの集計。
+     *
+     * @param acquired  許可した取得の回数
+     * @param totalWait 待ち時間の合計
+     * @param maxWait   最長の待ち時間
+     * @param queued    現在許可を待っている取得の数
+     */
+    public record WaitStats(long acquired, Duration totalWait, Duration maxWait, int queued) {}
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public FetchRateLimiter(FetchLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    /** テスト用コンストラクタ（時刻の取得元を指定可能） */
+    FetchRateLimiter(FetchLimitProperties properties, LongSupplier nanoTime) {
+        this.permitsPerNano = properties.permitsPerSecond() / 1_000_000_000d;
+        this.burst = properties.burst();
+        this.nanoTime = nanoTime;
+        this.tokens = burst;
+        this.lastRefillNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * 取得の許可を待ちます。
+     *
+     * @param url      取得するURL（ログ出力に使用）
+     * @param priority 優先度（発走までの残り秒数。小さいほど優先。不明な場合は {@link #LOWEST_PRIORITY}）
+     * @return 許可されるまでの待ち時間
+     * @throws InterruptedIOException 待機中に割り込まれた場合
+     */
+    public Duration acquire(String url, long priority) throws InterruptedIOException {
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(priority, nextSequence++, nanoTime.getAsLong());
+            waiters.add(waiter);
+            try {
+                while (true) {
+                    grant();
+                    if (waiter.granted) {
+                        break;
+                    }
+                    changed.awaitNanos(nanosUntilNextToken());
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // 許可済みのトークンは取得に使わないため戻す
+                    tokens = Math.min(burst, tokens + 1);
+                    grant();
+                } else {
+                    waiters.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("取得の許可待ち中に中断されました: URL=" + url);
+            }
+            long waited = nanoTime.getAsLong() - waiter.enqueuedNanos;
+            acquiredCount++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+            Duration waitTime = Duration.ofNanos(waited);
+            if (waitTime.compareTo(SLOW_WAIT_THRESHOLD) >= 0) {
+                logger.warn("取得の許可待ちが長くなっています: URL={}, 待ち時間={}ms, 待ち件数={}",
+                        url, waitTime.toMillis(), waiters.size());
+            }
+            return waitTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 取得待ちの集計を返します。 */
+    public WaitStats waitStats() {
+        lock.lock();
+        try {
+            return new WaitStats(acquiredCount, Duration.ofNanos(totalWaitNanos), Duration.ofNanos(maxWaitNanos),
+                    waiters.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** トークンのある分だけ、待っている取得を優先度順に許可します（lock 保持中に呼び出す）。 */
+    private void grant() {
+        refill();
+        boolean granted = false;
+        while (tokens >= 1 && !waiters.isEmpty()) {
+            Waiter waiter = waiters.pollFirst();
+            tokens -= 1;
+            waiter.granted = true;
+            granted = true;
+        }
+        if (granted) {
+            changed.signalAll();
+        }
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+
+    private long nanosUntilNextToken() {
+        return Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerNano));
+    }
+
+    /** 許可待ちの取得1件 */
+    private static final class Waiter {
+        private final long priority;
+        private final long sequence;
+        private final long enqueuedNanos;
+        private boolean granted;
+
+        private Waiter(long priority, long sequence, long enqueuedNanos) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
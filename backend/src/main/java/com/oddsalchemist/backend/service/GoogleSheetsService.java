@@ -1,7 +1,14 @@
 package com.oddsalchemist.backend.service;
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.services.sheets.v4.Sheets;
-import com.google.api.services.sheets.v4.model.AppendValuesResponse;
+import com.google.api.services.sheets.v4.model.AppendCellsRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetRequest;
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.RowData;
+import com.google.api.services.sheets.v4.model.Sheet;
 import com.google.api.services.sheets.v4.model.ValueRange;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,18 +16,35 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Google Sheets API を使用する {@link SheetStore} の実装（既定の読み書き先）。
+ * {@code odds.storage.backend=local} の場合も、LocalSegmentSheetStore の書き出し先として使用される。
+ */
 @Service
-public class GoogleSheetsService {
+public class GoogleSheetsService implements SheetStore {
 
     private static final Logger logger = LoggerFactory.getLogger(GoogleSheetsService.class);
     /** RAW: 文字列をそのまま保存（USER_ENTEREDだとSheetsが日時を独自フォーマットに変換してしまう） */
     private static final String VALUE_INPUT_OPTION = "RAW";
+
+    /**
+     * 同じ内容で再試行しても成功しない追記のステータス（400: 不正な行・レンジ、404: スプレッドシートがない、413: 大きすぎる）。
+     * 401/403（認証・権限）・408・429・5xx は設定の修正や時間の経過で成功するため再試行する。
+     */
+    private static final Set<Integer> REJECTED_STATUS_CODES = Set.of(400, 404, 413);
     private final Sheets sheetsService;
     private final String spreadsheetId;
 
+    /** シート名 → シートID（AppendCellsRequest はシート名ではなくIDで指定するため） */
+    private final Map<String, Integer> sheetIds = new ConcurrentHashMap<>();
+
     public GoogleSheetsService(
             Sheets sheetsService,
             @Value("${google.sheets.spreadsheet-id}") String spreadsheetId) {
@@ -32,6 +56,7 @@ public class GoogleSheetsService {
      * スプレッドシートの指定レンジのデータを読み込みます。
      * 値が存在しない場合は空リストを返します。
      */
+    @Override
     public List<List<Object>> readData(String range) throws IOException {
         var response = sheetsService.spreadsheets().values()
                 .get(spreadsheetId, range)
@@ -44,6 +69,7 @@ public class GoogleSheetsService {
      * 指定レンジをクリアしてからデータを書き込みます。
      * values が空の場合はクリアのみ行います。
      */
+    @Override
     public void clearAndWriteData(String range, List<List<Object>> values) throws IOException {
         sheetsService.spreadsheets().values()
                 .clear(spreadsheetId, range, new com.google.api.services.sheets.v4.model.ClearValuesRequest())
@@ -60,19 +86,103 @@ public class GoogleSheetsService {
     }
 
     /**
-     * スプレッドシートの指定レンジにデータを追記します。
+     * 指定レンジの先頭から、クリアせずにデータを上書きします（API 呼び出し1回）。
+     * 既存の行数より values が少ない場合、残りの行はそのまま残るため、行数が減る場合は clearAndWriteData を使用すること。
      */
-    public void appendData(String range, List<List<Object>> values) throws IOException {
+    @Override
+    public void writeData(String range, List<List<Object>> values) throws IOException {
+        if (values.isEmpty()) {
+            return;
+        }
         ValueRange body = new ValueRange().setValues(values);
-
-        AppendValuesResponse result = sheetsService.spreadsheets().values()
-                .append(spreadsheetId, range, body)
+        sheetsService.spreadsheets().values()
+                .update(spreadsheetId, range, body)
                 .setValueInputOption(VALUE_INPUT_OPTION)
                 .execute();
+        logger.debug("Sheetsへの上書き完了（クリアなし）: range={}, 件数={}", range, values.size());
+    }
 
-        if (result != null && result.getUpdates() != null) {
-            logger.info("スプレッドシートへの書き込み完了。更新されたセル数: {}",
-                    result.getUpdates().getUpdatedCells());
+    /**
+     * 複数シートへの追記を1回の spreadsheets.batchUpdate（シートごとの AppendCellsRequest）でまとめて行います。
+     * キーのレンジ（例: "OddsData!A:H"）のシート名部分で追記先を決め、キーの順に追記します。
+     * 値は書式の解釈をさせずに書き込みます（文字列は stringValue、数値は numberValue、真偽値は boolValue）。
+     * 日時の文字列も Sheets の日時に変換されず、書き込んだ文字列のまま保存されます（値の書き込みの RAW と同じ扱い）。
+     * <p>
+     * 存在しないシート、および再試行しても成功しないエラー（ステータス 400 / 404 / 413）の場合は
+     * {@link SheetWriteRejectedException} を送出します。
+     *
+     * @param rowsByRange レンジ → 追記する行
+     */
+    @Override
+    public void appendBatch(Map<String, List<List<Object>>> rowsByRange) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        int rowCount = 0;
+        for (Map.Entry<String, List<List<Object>>> entry : rowsByRange.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            List<RowData> rows = new ArrayList<>(entry.getValue().size());
+            for (List<Object> row : entry.getValue()) {
+                List<CellData> cells = new ArrayList<>(row.size());
+                for (Object value : row) {
+                    cells.add(new CellData().setUserEnteredValue(toExtendedValue(value)));
+                }
+                rows.add(new RowData().setValues(cells));
+            }
+            requests.add(new Request().setAppendCells(new AppendCellsRequest()
+                    .setSheetId(sheetId(sheetName(entry.getKey())))
+                    .setRows(rows)
+                    .setFields("userEnteredValue")));
+            rowCount += rows.size();
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+        try {
+            sheetsService.spreadsheets()
+                    .batchUpdate(spreadsheetId, new BatchUpdateSpreadsheetRequest().setRequests(requests))
+                    .execute();
+        } catch (GoogleJsonResponseException e) {
+            if (REJECTED_STATUS_CODES.contains(e.getStatusCode())) {
+                throw new SheetWriteRejectedException(
+                        "Sheetsが追記を拒否しました: status=" + e.getStatusCode() + ", error=" + e.getMessage(), e);
+            }
+            throw e;
+        }
+        logger.info("Sheetsへの一括追記完了: シート数={}, 行数={}", requests.size(), rowCount);
+    }
+
+    /** シート名に対応するシートIDを返します。初回のみスプレッドシートのメタデータを取得します。 */
+    private int sheetId(String sheetName) throws IOException {
+        Integer id = sheetIds.get(sheetName);
+        if (id == null) {
+            List<Sheet> sheets = sheetsService.spreadsheets().get(spreadsheetId)
+                    .setFields("sheets.properties(sheetId,title)")
+                    .execute()
+                    .getSheets();
+            for (Sheet sheet : sheets) {
+                sheetIds.put(sheet.getProperties().getTitle(), sheet.getProperties().getSheetId());
+            }
+            id = sheetIds.get(sheetName);
+            if (id == null) {
+                throw new SheetWriteRejectedException("シートが見つかりません: " + sheetName);
+            }
+        }
+        return id;
+    }
+
+    private static String sheetName(String range) {
+        int separator = range.indexOf('!');
+        return separator >= 0 ? range.substring(0, separator) : range;
+    }
+
+    private static ExtendedValue toExtendedValue(Object value) {
+        if (value instanceof Number number) {
+            return new ExtendedValue().setNumberValue(number.doubleValue());
+        }
+        if (value instanceof Boolean bool) {
+            return new ExtendedValue().setBoolValue(bool);
         }
+        return new ExtendedValue().setStringValue(value != null ? value.toString() : "");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,579 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.StorageProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * シートの内容をローカルファイルに保存する {@link SheetStore} の実装。{@code odds.storage.backend=local} で有効になる。
+ * <p>
+ * 追記されるシート（OddsData / Alerts）は、シートごとのディレクトリに日別の追記専用ファイル（セグメント）として保存する。
+ * 追記されるシートは最初の操作がクリアであっても追記専用として扱い、上書きされるシートのファイルは作らない。
+ * 各セグメントの行の開始位置を索引として保持し、読み込みはメモリマップしたセグメントから指定行だけを読む。
+ * 1行目は Sheets の見出し行に相当する空行として扱い、行番号（"OddsData!A4:I" など）は Sheets と同じ数え方にする。
+ * 上書きされるシート（Targets）は、シートごとの1ファイルに全行を書き出し、書き込みのたびに置き換える。
+ * <p>
+ * odds.storage.sheets-export=true の場合は、ローカルへの書き込み後に同じ内容を Google Sheets にも書き出す。
+ * 書き出しに失敗した場合は WARN ログを出力し、ローカルへの書き込みは成功として扱う。
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "odds.storage", name = "backend", havingValue = "local")
+public class LocalSegmentSheetStore implements SheetStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalSegmentSheetStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TABLE_SUFFIX = ".tbl";
+
+    /** シート名として使用できる文字（ファイル名にそのまま使用する） */
+    private static final Pattern SHEET_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /** 追記されるシート（最初の追記より前にクリアされても上書きされるシートにしない） */
+    private static final Set<String> APPEND_SHEETS = Set.of("OddsData", "Alerts");
+
+    /** A1 表記のレンジ（例: "OddsData!A4:I", "Targets!A2:C", "Alerts"） */
+    private static final Pattern RANGE = Pattern.compile("([^!]+)(?:!([A-Z]+)(\\d*)(?::([A-Z]+)(\\d*))?)?");
+
+    private final Path directory;
+    private final Clock clock;
+
+    /** 書き出し先（書き出さない場合は null） */
+    private final SheetStore exportTo;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** シート名 → 追記されるシート */
+    private final Map<String, SegmentedSheet> segmented = new HashMap<>();
+
+    /** シート名 → 上書きされるシートの全行 */
+    private final Map<String, List<List<Object>>> tables = new HashMap<>();
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public LocalSegmentSheetStore(StorageProperties properties, GoogleSheetsService googleSheetsService)
+            throws IOException {
+        this(Path.of(properties.localDir()), Clock.systemDefaultZone(),
+                properties.sheetsExport() ? googleSheetsService : null);
+    }
+
+    /** テスト用コンストラクタ（保存先・Clock・書き出し先を指定可能） */
+    LocalSegmentSheetStore(Path directory, Clock clock, SheetStore exportTo) throws IOException {
+        this.directory = directory;
+        this.clock = clock;
+        this.exportTo = exportTo;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                if (Files.isDirectory(entry)) {
+                    segmented.put(fileName, SegmentedSheet.open(entry));
+                } else if (fileName.endsWith(TABLE_SUFFIX)) {
+                    String sheetName = fileName.substring(0, fileName.length() - TABLE_SUFFIX.length());
+                    List<List<Object>> table = readTable(entry);
+                    if (APPEND_SHEETS.contains(sheetName) && table.isEmpty()) {
+                        // 追記前のクリアで作られた空のファイル（追記できなくなるため削除する）
+                        Files.delete(entry);
+                        logger.warn("追記されるシートの空の上書き用ファイルを削除しました: path={}", entry);
+                    } else {
+                        tables.put(sheetName, table);
+                    }
+                }
+            }
+        }
+        logger.info("ローカルのシート保存先を開きました: path={}, 追記シート={}, 上書きシート={}, Sheetsへの書き出し={}",
+                directory, segmented.keySet(), tables.keySet(), exportTo != null);
+    }
+
+    @Override
+    public List<List<Object>> readData(String range) throws IOException {
+        Range r = Range.parse(range);
+        lock.lock();
+        try {
+            SegmentedSheet sheet = segmented.get(r.sheet());
+            List<List<Object>> rows = new ArrayList<>();
+            if (sheet != null) {
+                int total = sheet.rowCount() > 0 ? sheet.rowCount() + 1 : 0;
+                for (int row = r.startRow(); row <= Math.min(r.endRow(), total); row++) {
+                    // 1行目は見出し行に相当する空行
+                    rows.add(r.slice(row == 1 ? List.of() : sheet.read(row - 2)));
+                }
+            } else {
+                List<List<Object>> table = tables.getOrDefault(r.sheet(), List.of());
+                for (int row = r.startRow(); row <= Math.min(r.endRow(), table.size()); row++) {
+                    rows.add(r.slice(table.get(row - 1)));
+                }
+            }
+            // Sheets と同じく末尾の空行は返さない
+            while (!rows.isEmpty() && rows.get(rows.size() - 1).isEmpty()) {
+                rows.remove(rows.size() - 1);
+            }
+            return rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 追記されるシートは、2行目以降すべてのクリア（例: "OddsData!A2:I" に空の values）のみ対応し、
+     * セグメントをすべて削除します。まだ追記されていない場合は空の追記専用シートを作ります。
+     */
+    @Override
+    public void clearAndWriteData(String range, List<List<Object>> values) throws IOException {
+        Range r = Range.parse(range);
+        lock.lock();
+        try {
+            SegmentedSheet sheet = appendSheet(r.sheet());
+            if (sheet != null) {
+                if (r.startRow() > 2 || r.endRow() != Integer.MAX_VALUE || !values.isEmpty()) {
+                    throw new IOException("追記専用のシートは2行目以降のクリアのみ対応しています: " + range);
+                }
+                sheet.deleteAll();
+                logger.info("ローカルのシートをクリアしました: sheet={}", r.sheet());
+            } else {
+                List<List<Object>> table = new ArrayList<>(tables.getOrDefault(r.sheet(), List.of()));
+                if (r.endRow() == Integer.MAX_VALUE) {
+                    while (table.size() >= r.startRow()) {
+                        table.remove(table.size() - 1);
+                    }
+                } else {
+                    for (int row = r.startRow(); row <= Math.min(r.endRow(), table.size()); row++) {
+                        table.set(row - 1, List.of());
+                    }
+                }
+                overwrite(table, r.startRow(), values);
+                saveTable(r.sheet(), table);
+            }
+        } finally {
+            lock.unlock();
+        }
+        export(store -> store.clearAndWriteData(range, values), range);
+    }
+
+    @Override
+    public void writeData(String range, List<List<Object>> values) throws IOException {
+        if (values.isEmpty()) {
+            return;
+        }
+        Range r = Range.parse(range);
+        lock.lock();
+        try {
+            if (segmented.containsKey(r.sheet()) || APPEND_SHEETS.contains(r.sheet())) {
+                throw new IOException("追記専用のシートは上書きできません: " + range);
+            }
+            List<List<Object>> table = new ArrayList<>(tables.getOrDefault(r.sheet(), List.of()));
+            overwrite(table, r.startRow(), values);
+            saveTable(r.sheet(), table);
+        } finally {
+            lock.unlock();
+        }
+        export(store -> store.writeData(range, values), range);
+    }
+
+    @Override
+    public void appendBatch(Map<String, List<List<Object>>> rowsByRange) throws IOException {
+        LocalDate today = LocalDate.now(clock);
+        int rowCount = 0;
+        lock.lock();
+        try {
+            for (Map.Entry<String, List<List<Object>>> entry : rowsByRange.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    continue;
+                }
+                String sheetName = appendRange(entry.getKey()).sheet();
+                if (tables.containsKey(sheetName)) {
+                    throw new SheetWriteRejectedException("上書きされるシートには追記できません: " + sheetName);
+                }
+                SegmentedSheet sheet = appendSheet(sheetName);
+                if (sheet == null) {
+                    sheet = openSegmented(sheetName);
+                }
+                sheet.append(today, entry.getValue());
+                rowCount += entry.getValue().size();
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("ローカルのシートへの追記完了: シート数={}, 行数={}", rowsByRange.size(), rowCount);
+        export(store -> store.appendBatch(rowsByRange), rowsByRange.keySet().toString());
+    }
+
+    /** セグメントのファイルを閉じます。 */
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            for (SegmentedSheet sheet : segmented.values()) {
+                sheet.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 追記先のレンジを解釈します。対応していないレンジは再試行しても成功しないため追記の拒否として扱います。 */
+    private static Range appendRange(String range) throws SheetWriteRejectedException {
+        try {
+            return Range.parse(range);
+        } catch (IOException e) {
+            throw new SheetWriteRejectedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 追記されるシートを返します。{@link #APPEND_SHEETS} のシートはまだ追記されていなくても作成して返し、
+     * それ以外で追記されていないシートの場合は null を返します。
+     */
+    private SegmentedSheet appendSheet(String sheetName) throws IOException {
+        SegmentedSheet sheet = segmented.get(sheetName);
+        if (sheet == null && APPEND_SHEETS.contains(sheetName)) {
+            sheet = openSegmented(sheetName);
+        }
+        return sheet;
+    }
+
+    private SegmentedSheet openSegmented(String sheetName) throws IOException {
+        SegmentedSheet sheet = SegmentedSheet.open(directory.resolve(sheetName));
+        segmented.put(sheetName, sheet);
+        return sheet;
+    }
+
+    /** Sheets への書き出し（失敗してもローカルへの書き込みは成功扱い） */
+    private interface Export {
+        void run(SheetStore store) throws IOException;
+    }
+
+    private void export(Export export, String target) {
+        if (exportTo == null) {
+            return;
+        }
+        try {
+            export.run(exportTo);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Sheetsへの書き出しに失敗しました（ローカルには保存済み）: target={}, error={}",
+                    target, e.getMessage());
+        }
+    }
+
+    /** 行リストの startRow 行目（1始まり）から values で上書きし、末尾の空行を取り除きます。 */
+    private static void overwrite(List<List<Object>> table, int startRow, List<List<Object>> values) {
+        for (int i = 0; i < values.size(); i++) {
+            int index = startRow - 1 + i;
+            while (table.size() < index) {
+                table.add(List.of());
+            }
+            if (index < table.size()) {
+                table.set(index, values.get(i));
+            } else {
+                table.add(values.get(i));
+            }
+        }
+        while (!table.isEmpty() && table.get(table.size() - 1).isEmpty()) {
+            table.remove(table.size() - 1);
+        }
+    }
+
+    /** 上書きされるシートの全行を一時ファイルに書き出し、置き換えます。 */
+    private void saveTable(String sheetName, List<List<Object>> table) throws IOException {
+        Path path = directory.resolve(sheetName + TABLE_SUFFIX);
+        Path temp = directory.resolve(sheetName + TABLE_SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (List<Object> row : table) {
+                ByteBuffer record = encode(row);
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        tables.put(sheetName, List.copyOf(table));
+    }
+
+    private static List<List<Object>> readTable(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        List<List<Object>> rows = new ArrayList<>();
+        while (true) {
+            int length = validRecordLength(buffer, buffer.position());
+            if (length < 0) {
+                break;
+            }
+            rows.add(decode(buffer, buffer.position()));
+            buffer.position(buffer.position() + SheetRowCodec.HEADER_BYTES + length);
+        }
+        return rows;
+    }
+
+    private static ByteBuffer encode(List<Object> row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            SheetRowCodec.writeRow(out, row);
+        }
+        return SheetRowCodec.frame(bytes.toByteArray());
+    }
+
+    /**
+     * position から始まるレコードが完全であればペイロード長を返します。
+     * 書き込み途中で停止した不完全なレコード・ファイル終端の場合は -1 を返します。
+     */
+    private static int validRecordLength(ByteBuffer buffer, int position) {
+        if (buffer.limit() - position < SheetRowCodec.HEADER_BYTES) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        int checksum = buffer.getInt(position + 4);
+        if (length < 0 || length > buffer.limit() - position - SheetRowCodec.HEADER_BYTES) {
+            return -1;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + SheetRowCodec.HEADER_BYTES, payload);
+        return SheetRowCodec.checksum(payload, 0, length) == checksum ? length : -1;
+    }
+
+    private static List<Object> decode(ByteBuffer buffer, int position) throws IOException {
+        byte[] payload = new byte[buffer.getInt(position)];
+        buffer.get(position + SheetRowCodec.HEADER_BYTES, payload);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return SheetRowCodec.readRow(in);
+        }
+    }
+
+    /**
+     * A1 表記のレンジ。行番号は1始まり、列番号は0始まり。終了行・終了列がない場合は Integer.MAX_VALUE。
+     */
+    private record Range(String sheet, int startRow, int endRow, int startColumn, int endColumn) {
+
+        static Range parse(String range) throws IOException {
+            Matcher m = RANGE.matcher(range);
+            if (!m.matches() || !SHEET_NAME.matcher(m.group(1)).matches()) {
+                throw new IOException("対応していないレンジです: " + range);
+            }
+            int startColumn = m.group(2) != null ? column(m.group(2)) : 0;
+            int startRow = m.group(3) != null && !m.group(3).isEmpty() ? Integer.parseInt(m.group(3)) : 1;
+            int endColumn = m.group(4) != null ? column(m.group(4)) : Integer.MAX_VALUE;
+            int endRow = m.group(5) != null && !m.group(5).isEmpty() ? Integer.parseInt(m.group(5)) : Integer.MAX_VALUE;
+            return new Range(m.group(1), Math.max(1, startRow), endRow, startColumn, endColumn);
+        }
+
+        private static int column(String letters) {
+            int column = 0;
+            for (char c : letters.toCharArray()) {
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+        /** 行をレンジの列に切り出し、Sheets の読み込み結果と同じく値を文字列にします。 */
+        List<Object> slice(List<Object> row) {
+            int to = (int) Math.min(row.size(), (long) endColumn + 1);
+            List<Object> sliced = new ArrayList<>(Math.max(0, to - startColumn));
+            for (int i = startColumn; i < to; i++) {
+                sliced.add(Objects.toString(row.get(i), ""));
+            }
+            return sliced;
+        }
+    }
+
+    /** 追記されるシート。日別のセグメントを日付順に連結したものを1つの行の並びとして扱う。 */
+    private static final class SegmentedSheet {
+
+        private final Path directory;
+        private final TreeMap<LocalDate, Segment> segments = new TreeMap<>();
+
+        private SegmentedSheet(Path directory) {
+            this.directory = directory;
+        }
+
+        static SegmentedSheet open(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            SegmentedSheet sheet = new SegmentedSheet(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    LocalDate date = LocalDate.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    sheet.segments.put(date, Segment.open(file));
+                }
+            }
+            return sheet;
+        }
+
+        int rowCount() {
+            int count = 0;
+            for (Segment segment : segments.values()) {
+                count += segment.rows;
+            }
+            return count;
+        }
+
+        /** 全セグメントを通した index 番目（0始まり）の行を読み込みます。 */
+        List<Object> read(int index) throws IOException {
+            for (Segment segment : segments.values()) {
+                if (index < segment.rows) {
+                    return segment.read(index);
+                }
+                index -= segment.rows;
+            }
+            throw new IOException("行が存在しません: " + index);
+        }
+
+        /**
+         * 行を当日のセグメントに追記します。
+         * 最新のセグメントが当日より新しい日付の場合（時刻の巻き戻り）は、行の順序を保つため最新のセグメントに追記します。
+         */
+        void append(LocalDate today, List<List<Object>> rows) throws IOException {
+            LocalDate date = segments.isEmpty() || !segments.lastKey().isAfter(today) ? today : segments.lastKey();
+            Segment segment = segments.get(date);
+            if (segment == null) {
+                segment = Segment.open(directory.resolve(date + SEGMENT_SUFFIX));
+                segments.put(date, segment);
+            }
+            segment.append(rows);
+        }
+
+        void deleteAll() throws IOException {
+            for (Segment segment : segments.values()) {
+                segment.close();
+                Files.deleteIfExists(segment.path);
+            }
+            segments.clear();
+        }
+
+        void close() {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    /** 1日分の追記専用ファイル。行の開始位置を索引として保持し、メモリマップして読み込む。 */
+    private static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+
+        /** 行の開始位置（ファイル先頭からのバイト数） */
+        private long[] offsets = new long[256];
+        private int rows;
+
+        /** 完全なレコードの終端位置（次の追記位置） */
+        private long size;
+
+        /** 読み込み用のマッピング（追記で size を超えた部分を読む場合はマップし直す） */
+        private MappedByteBuffer mapped;
+
+        private Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        /**
+         * セグメントを開き、行の開始位置の索引を構築します。
+         * 書き込み途中で停止した末尾の不完全なレコードは切り詰めます。
+         */
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, channel);
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                channel.close();
+                throw new IOException("セグメントが大きすぎます: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int position = 0;
+            while (true) {
+                int length = validRecordLength(buffer, position);
+                if (length < 0) {
+                    break;
+                }
+                segment.addOffset(position);
+                position += SheetRowCodec.HEADER_BYTES + length;
+            }
+            if (position < fileSize) {
+                logger.warn("セグメント末尾の不完全なレコードを切り詰めました: path={}, 破棄バイト数={}",
+                        path, fileSize - position);
+                channel.truncate(position);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+            }
+            segment.size = position;
+            segment.mapped = buffer;
+            return segment;
+        }
+
+        List<Object> read(int index) throws IOException {
+            if (mapped.capacity() < size) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return decode(mapped, (int) offsets[index]);
+        }
+
+        /** 行を末尾に追記し、fsync します。 */
+        void append(List<List<Object>> newRows) throws IOException {
+            long position = size;
+            List<Long> starts = new ArrayList<>(newRows.size());
+            for (List<Object> row : newRows) {
+                ByteBuffer record = encode(row);
+                if (position + record.remaining() > Integer.MAX_VALUE) {
+                    throw new IOException("セグメントが大きすぎます: " + path);
+                }
+                starts.add(position);
+                while (record.hasRemaining()) {
+                    position += channel.write(record, position);
+                }
+            }
+            channel.force(false);
+            for (long start : starts) {
+                addOffset(start);
+            }
+            size = position;
+        }
+
+        private void addOffset(long offset) {
+            if (rows == offsets.length) {
+                offsets = Arrays.copyOf(offsets, rows * 2);
+            }
+            offsets[rows++] = offset;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("セグメントを閉じられませんでした: path={}, error={}", path, e.getMessage());
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.oddsalchemist.backend.dto.AnomalyAlertDto;
 import com.oddsalchemist.backend.dto.OddsData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -17,7 +18,6 @@ import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -33,67 +33,40 @@ import java.util.stream.Collectors;
  * </ul>
  * 上位3番人気（単勝1〜3位）はノイズが大きいため検知対象から除外する。
  * 初期基準値は日次リセットされ、その日の最初の検知呼び出し時に設定される。
+ * 括弧内の閾値は既定値で、{@link DetectorParameters} で差し替えられる。
  */
 @Service
 public class OddsAnomalyDetector {
 
     private static final Logger logger = LoggerFactory.getLogger(OddsAnomalyDetector.class);
 
-    /** 支持率急増の閾値（前回比 +2.0% = 0.02） */
-    static final BigDecimal SUPPORT_RATE_THRESHOLD = new BigDecimal("0.02");
-
-    /** その日の初回detect()呼び出し時のオッズからのトレンド逸脱閾値（基準比 +5.0% = 0.05） */
-    static final BigDecimal TREND_DEVIATION_THRESHOLD = new BigDecimal("0.05");
-
-    /** 単複順位乖離の閾値 */
-    static final int RANK_GAP_THRESHOLD = 3;
-
-    /** トレンド逸脱の対象人気帯（中穴: 5〜8番人気, 大穴: 9〜12番人気） */
-    static final int TREND_RANK_MIN = 5;
-    static final int TREND_RANK_MAX = 12;
-
-    /** 支持率加速度の閾値（0.5%/分 = 0.005） */
-    static final BigDecimal ACCELERATION_THRESHOLD = new BigDecimal("0.005");
-
-    /** オッズ断層（クリフ）の閾値（隣接オッズ比 1.5倍以上で断層とみなす） */
-    static final double CLIFF_RATIO_THRESHOLD = 1.5;
-
-    /** BigDecimal除算時の小数点以下桁数 */
+    /** 支持率の固定小数点表現の桁数（1 = 10^10。小数点以下10桁） */
     private static final int SUPPORT_RATE_SCALE = 10;
+    private static final long SUPPORT_RATE_ONE = 10_000_000_000L;
 
-    /** 発走までの残り時間に応じたフェーズ定義 */
-    enum Phase { MORNING, PRE_30, PRE_10 }
-
-    /** 前回スナップショット（単勝オッズ＋取得時刻）を保持するインメモリキャッシュ。キー: "URL:馬番" */
-    private final ConcurrentHashMap<String, OddsSnapshot> previousSnapshots = new ConcurrentHashMap<>();
+    /** 加速度の固定小数点表現の桁数（小数点以下6桁） */
+    private static final int ACCELERATION_SCALE = 6;
 
     /**
-     * その日の初回detect()呼び出し時のオッズを保持するインメモリキャッシュ。
-     * putIfAbsent で初回のみ設定され、日次でリセットされる。
-     * キー: "URL:馬番"
+     * オッズを整数化する際の倍率（小数点以下4桁まで）。
+     * 小数点以下4桁以内で表せるオッズは long 演算のみで支持率を算出し、それ以外は BigDecimal で算出する。
      */
-    private final ConcurrentHashMap<String, Double> baselineWinOdds = new ConcurrentHashMap<>();
+    private static final long ODDS_FIXED_POINT = 10_000L;
 
-    /**
-     * フェーズ別基準点を保持するインメモリキャッシュ。
-     * キー: "URL:馬番", 値: Phase → 基準単勝オッズ
-     */
-    private final ConcurrentHashMap<String, Map<Phase, Double>> phaseBaselines = new ConcurrentHashMap<>();
+    /** 整数化経路を使用するオッズの上限（これ未満なら小数点以下4桁の10進数同士が同一doubleに丸まることはない） */
+    private static final double ODDS_FIXED_POINT_LIMIT = 1_000_000.0;
 
-    /**
-     * 前回の断層位置（n番人気とn+1番人気の間）を保持するキャッシュ。
-     * キー: URL, 値: 断層インデックス（sortedByWin の 1-based の右側位置）
-     */
-    private final ConcurrentHashMap<String, Integer> previousCliffPosition = new ConcurrentHashMap<>();
+    /** 発走までの残り時間に応じたフェーズ定義 */
+    enum Phase { MORNING, PRE_30, PRE_10 }
 
     /**
-     * 前回の単複順位乖離量を保持するキャッシュ。変化方向（拡大中/解消中）の判定に使用。
-     * キー: "URL:馬番", 値: 乖離量（単勝順位 - 複勝順位）。乖離がなくなった場合は削除。
+     * レースごとの検知状態（前回スナップショット・基準値・フェーズ別基準点・順位乖離・断層位置）。
+     * キー: URL。状態は日次でリセットされる。
      */
-    private final ConcurrentHashMap<String, Integer> previousRankGap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RaceAnomalyState> raceStates = new ConcurrentHashMap<>();
 
-    /** 最新の異常検知アラートリスト（スレッドセーフ） */
-    private final List<AnomalyAlertDto> latestAlerts = new CopyOnWriteArrayList<>();
+    /** 検知したアラートの保持先（上限件数・保持日数あり） */
+    private final AlertStore alertStore;
 
     /** 基準値の最終リセット日（日付変更を検知するために使用） */
     private volatile LocalDate lastBaselineResetDate = LocalDate.MIN;
@@ -101,14 +74,20 @@ public class OddsAnomalyDetector {
     /** 時刻取得に使用するクロック（テストで差し替え可能） */
     private final Clock clock;
 
-    /** Spring が使用するデフォルトコンストラクタ */
-    public OddsAnomalyDetector() {
-        this(Clock.systemDefaultZone());
+    /** 検知閾値 */
+    private final DetectorParameters parameters;
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public OddsAnomalyDetector(AlertStore alertStore) {
+        this(alertStore, Clock.systemDefaultZone(), DetectorParameters.defaults());
     }
 
-    /** テスト用コンストラクタ（任意のClockを注入可能） */
-    OddsAnomalyDetector(Clock clock) {
+    /** テスト・リプレイ用コンストラクタ（アラートストア・Clock・検知閾値を注入可能） */
+    OddsAnomalyDetector(AlertStore alertStore, Clock clock, DetectorParameters parameters) {
+        this.alertStore = alertStore;
         this.clock = clock;
+        this.parameters = parameters;
     }
 
     /**
@@ -126,7 +105,7 @@ public class OddsAnomalyDetector {
      * オッズデータリストを解析し、異常を検知してアラートリストを返します。
      * 検知結果は内部の最新アラートリストに保存されます。
      *
-     * @param oddsList  最新のパース済みオッズデータ
+     * @param oddsList  最新のパース済みオッズデータ（同一レース＝同一URLのデータであること）
      * @param startTime 発走予定時刻（フェーズ判定に使用。空の場合は MORNING 固定）
      * @return 検知されたアラートのリスト（変更不可）
      */
@@ -150,44 +129,48 @@ public class OddsAnomalyDetector {
                     .sorted(Comparator.comparingDouble(OddsData::winOdds))
                     .collect(Collectors.toList());
 
-            // 上位3番人気の除外対象キーセット（単勝1〜3位）
-            Set<String> top3Keys = sortedByWin.stream()
-                    .limit(3)
-                    .map(d -> buildKey(d.url(), d.horseNumber()))
-                    .collect(Collectors.toSet());
-
-            // 単勝順位マップ（キー: "レース名:馬番", 値: 1始まりの順位）
-            Map<String, Integer> winRankMap = new HashMap<>();
-            for (int i = 0; i < sortedByWin.size(); i++) {
-                OddsData d = sortedByWin.get(i);
-                winRankMap.put(buildKey(d.url(), d.horseNumber()), i + 1);
-            }
+            // レースの検知状態を1回だけ取得し、以降は馬番インデックスで参照する
+            String url = sortedByWin.get(0).url();
+            RaceAnomalyState race = raceStates.computeIfAbsent(String.valueOf(url), k -> new RaceAnomalyState());
 
-            // ロジックA: 支持率急増検知
-            detectSupportRateIncrease(validList, top3Keys, alerts);
+            synchronized (race) {
+                // 単勝順位（1始まり）。1〜3位は上位3番人気として各ロジックの対象から除外する
+                for (OddsData d : validList) {
+                    race.clearRank(race.slotOf(d.horseNumber()));
+                }
+                for (int i = 0; i < sortedByWin.size(); i++) {
+                    race.setWinRank(race.slotOf(sortedByWin.get(i).horseNumber()), i + 1);
+                }
 
-            // ロジックB: 単複オッズ順位乖離検知
-            detectRankDivergence(validList, top3Keys, winRankMap, alerts);
+                // ロジックA: 支持率急増検知
+                detectSupportRateIncrease(validList, race, alerts);
 
-            // ロジックC: その日の初回detect()呼び出し時のオッズからのトレンド逸脱検知
-            detectTrendDeviation(validList, top3Keys, winRankMap, alerts);
+                // ロジックB: 単複オッズ順位乖離検知
+                detectRankDivergence(validList, race, alerts);
 
-            // ロジックD: 支持率の加速度検知（時間正規化）
-            detectAcceleration(validList, top3Keys, now, alerts);
+                // ロジックC: その日の初回detect()呼び出し時のオッズからのトレンド逸脱検知
+                detectTrendDeviation(validList, race, alerts);
 
-            // ロジックE: フェーズ別トレンド逸脱検知
-            detectPhaseDeviation(validList, top3Keys, startTime, alerts);
+                // ロジックD: 支持率の加速度検知（時間正規化）
+                detectAcceleration(validList, race, now, alerts);
 
-            // ロジックF: オッズ断層（クリフ）の動的検知
-            detectOddsCliff(sortedByWin, sortedByWin.get(0).url(), alerts);
+                // ロジックE: フェーズ別トレンド逸脱検知
+                detectPhaseDeviation(validList, race, startTime, alerts);
 
-            // 前回スナップショットを更新（上位3番人気を含む全有効馬）
-            validList.forEach(d -> previousSnapshots.put(buildKey(d.url(), d.horseNumber()),
-                    new OddsSnapshot(d.winOdds(), now)));
+                // ロジックF: オッズ断層（クリフ）の動的検知
+                detectOddsCliff(sortedByWin, race, alerts);
+
+                // 前回スナップショットを更新（上位3番人気を含む全有効馬）
+                for (OddsData d : validList) {
+                    race.putSnapshot(race.slotOf(d.horseNumber()), d.winOdds(), now);
+                }
+            }
         }
 
-        // 検知したアラートを累積リストに追加（起動後の全検知履歴を保持）
-        latestAlerts.addAll(alerts);
+        // 検知したアラートをストアに追加（上限件数・保持日数を超えた分は古い順に破棄）
+        if (!alerts.isEmpty()) {
+            alertStore.addAll(validList.get(0).url(), alerts);
+        }
 
         return Collections.unmodifiableList(alerts);
     }
@@ -195,80 +178,77 @@ public class OddsAnomalyDetector {
     /**
      * ロジックA: 支持率の急増を検知します。
      * 支持率 = 1 / 単勝オッズ（オッズの逆数）
-     * 計算式: (1 / 直近オッズ) - (1 / 過去オッズ) >= 0.02
-     * Double型の精度問題を避けるため、BigDecimalで計算する。
+     * 計算式: (1 / 直近オッズ) - (1 / 過去オッズ) >= 0.02（既定値）
+     * Double型の精度問題を避けるため、小数点以下10桁の固定小数点（long）で計算する。
      */
     private void detectSupportRateIncrease(
             List<OddsData> validList,
-            Set<String> top3Keys,
+            RaceAnomalyState race,
             List<AnomalyAlertDto> alerts) {
 
         for (OddsData current : validList) {
-            String key = buildKey(current.url(), current.horseNumber());
-            if (top3Keys.contains(key)) {
+            int slot = race.slotOf(current.horseNumber());
+            if (race.isTop3(slot)) {
                 continue; // 上位3番人気は除外
             }
 
-            OddsSnapshot prevSnapshot = previousSnapshots.get(key);
-            if (prevSnapshot == null || prevSnapshot.winOdds() <= 0) {
+            if (!race.hasSnapshot(slot) || race.snapshotOdds(slot) <= 0) {
                 continue; // 前回データなし（初回実行）はスキップ
             }
-            double prevOdds = prevSnapshot.winOdds();
+            double prevOdds = race.snapshotOdds(slot);
 
-            BigDecimal increase = toSupportRate(current.winOdds()).subtract(toSupportRate(prevOdds));
+            long increase = toSupportRate(current.winOdds()) - toSupportRate(prevOdds);
 
-            if (increase.compareTo(SUPPORT_RATE_THRESHOLD) >= 0) {
+            if (increase >= parameters.supportRateThreshold()) {
                 alerts.add(new AnomalyAlertDto(
                         current.raceName(),
                         current.horseNumber(),
                         current.horseName(),
                         "支持率急増",
-                        increase.doubleValue(),
+                        toDouble(increase, SUPPORT_RATE_SCALE),
                         LocalDateTime.now(clock).format(SheetsDates.FORMATTER)));
                 logger.info("【支持率急増検知】馬番={}, 馬名={}, 支持率増加={}, 前回オッズ={}, 現在オッズ={}",
-                        current.horseNumber(), current.horseName(), increase, prevOdds, current.winOdds());
+                        current.horseNumber(), current.horseName(), BigDecimal.valueOf(increase, SUPPORT_RATE_SCALE),
+                        prevOdds, current.winOdds());
             }
         }
     }
 
     /**
      * ロジックB: 単複オッズの順位乖離（歪み）を検知します。
-     * 計算式: 単勝人気の順位 - 複勝下限オッズの順位 >= 3
+     * 計算式: 単勝人気の順位 - 複勝下限オッズの順位 >= 3（既定値）
      * 単勝より複勝の方が相対的に有利な馬を抽出する。
      */
     private void detectRankDivergence(
             List<OddsData> validList,
-            Set<String> top3Keys,
-            Map<String, Integer> winRankMap,
+            RaceAnomalyState race,
             List<AnomalyAlertDto> alerts) {
 
-        // 複勝下限オッズが有効なデータで昇順ソートし、順位マップを作成
+        // 複勝下限オッズが有効なデータで昇順ソートし、複勝順位を設定
         List<OddsData> validPlaceList = validList.stream()
                 .filter(d -> d.placeOddsMin() != null && d.placeOddsMin() > 0)
                 .sorted(Comparator.comparingDouble(OddsData::placeOddsMin))
                 .collect(Collectors.toList());
 
-        Map<String, Integer> placeRankMap = new HashMap<>();
         for (int i = 0; i < validPlaceList.size(); i++) {
-            OddsData d = validPlaceList.get(i);
-            placeRankMap.put(buildKey(d.url(), d.horseNumber()), i + 1);
+            race.setPlaceRank(race.slotOf(validPlaceList.get(i).horseNumber()), i + 1);
         }
 
         for (OddsData data : validList) {
-            String key = buildKey(data.url(), data.horseNumber());
-            if (top3Keys.contains(key)) {
+            int slot = race.slotOf(data.horseNumber());
+            if (race.isTop3(slot)) {
                 continue; // 上位3番人気は除外
             }
 
-            Integer winRank = winRankMap.get(key);
-            Integer placeRank = placeRankMap.get(key);
+            int winRank = race.winRank(slot);
+            int placeRank = race.placeRank(slot);
 
-            if (winRank == null || placeRank == null) {
+            if (winRank == 0 || placeRank == 0) {
                 continue; // 複勝オッズ未確定などで順位が算出できない場合はスキップ
             }
 
             int gap = winRank - placeRank;
-            if (gap >= RANK_GAP_THRESHOLD) {
+            if (gap >= parameters.rankGapThreshold()) {
                 alerts.add(new AnomalyAlertDto(
                         data.raceName(),
                         data.horseNumber(),
@@ -281,9 +261,9 @@ public class OddsAnomalyDetector {
             }
 
             // 乖離の変化方向（拡大中/解消中）を判定
-            if (gap >= RANK_GAP_THRESHOLD) {
-                Integer prevGap = previousRankGap.get(key);
-                if (prevGap != null) {
+            if (gap >= parameters.rankGapThreshold()) {
+                int prevGap = race.previousRankGap(slot);
+                if (prevGap != RaceAnomalyState.NO_RANK_GAP) {
                     int gapDelta = gap - prevGap;
                     if (gapDelta > 0) {
                         alerts.add(new AnomalyAlertDto(
@@ -301,9 +281,9 @@ public class OddsAnomalyDetector {
                                 data.horseNumber(), data.horseName(), prevGap, gap, gapDelta);
                     }
                 }
-                previousRankGap.put(key, gap);
+                race.setPreviousRankGap(slot, gap);
             } else {
-                previousRankGap.remove(key); // 乖離解消後は前回値をクリアして次回の誤検知を防ぐ
+                race.setPreviousRankGap(slot, RaceAnomalyState.NO_RANK_GAP); // 乖離解消後は前回値をクリアして次回の誤検知を防ぐ
             }
         }
     }
@@ -311,48 +291,47 @@ public class OddsAnomalyDetector {
     /**
      * ロジックC: その日の初回detect()呼び出し時のオッズからのトレンド逸脱を検知します。
      * 中穴帯（5〜8番人気）・大穴帯（9〜12番人気）の馬を対象とする。
-     * 計算式: (1 / 現在オッズ) - (1 / 基準オッズ) >= 0.05
+     * 計算式: (1 / 現在オッズ) - (1 / 基準オッズ) >= 0.05（既定値）
      * 初回呼び出し時に基準値を設定し、以降は比較のみ行う（日次リセットあり）。
      * 基準値は人気帯変動に備えて対象外の馬にも設定する。
      */
     private void detectTrendDeviation(
             List<OddsData> validList,
-            Set<String> top3Keys,
-            Map<String, Integer> winRankMap,
+            RaceAnomalyState race,
             List<AnomalyAlertDto> alerts) {
 
         for (OddsData current : validList) {
-            String key = buildKey(current.url(), current.horseNumber());
-            if (top3Keys.contains(key)) {
+            int slot = race.slotOf(current.horseNumber());
+            if (race.isTop3(slot)) {
                 continue; // 上位3番人気は除外
             }
 
             // 基準値を全馬に設定（初回のみ: 人気帯変動に備えて範囲外でも記録）
-            baselineWinOdds.putIfAbsent(key, current.winOdds());
+            double baselineOdds = race.baselineOddsIfAbsent(slot, current.winOdds());
 
             // 中穴・大穴帯（5〜12番人気）のみアラート判定
-            Integer winRank = winRankMap.get(key);
-            if (winRank == null || winRank < TREND_RANK_MIN || winRank > TREND_RANK_MAX) {
+            int winRank = race.winRank(slot);
+            if (winRank < parameters.trendRankMin() || winRank > parameters.trendRankMax()) {
                 continue;
             }
 
-            Double baselineOdds = baselineWinOdds.get(key);
-            if (baselineOdds == null || baselineOdds <= 0) {
+            if (baselineOdds <= 0) {
                 continue;
             }
 
-            BigDecimal deviation = toSupportRate(current.winOdds()).subtract(toSupportRate(baselineOdds));
+            long deviation = toSupportRate(current.winOdds()) - toSupportRate(baselineOdds);
 
-            if (deviation.compareTo(TREND_DEVIATION_THRESHOLD) >= 0) {
+            if (deviation >= parameters.trendDeviationThreshold()) {
                 alerts.add(new AnomalyAlertDto(
                         current.raceName(),
                         current.horseNumber(),
                         current.horseName(),
                         "トレンド逸脱",
-                        deviation.doubleValue(),
+                        toDouble(deviation, SUPPORT_RATE_SCALE),
                         LocalDateTime.now(clock).format(SheetsDates.FORMATTER)));
                 logger.info("【トレンド逸脱検知】馬番={}, 馬名={}, 基準オッズ={}, 現在オッズ={}, 逸脱量={}, 単勝順位={}",
-                        current.horseNumber(), current.horseName(), baselineOdds, current.winOdds(), deviation, winRank);
+                        current.horseNumber(), current.horseName(), baselineOdds, current.winOdds(),
+                        BigDecimal.valueOf(deviation, SUPPORT_RATE_SCALE), winRank);
             }
         }
     }
@@ -365,7 +344,7 @@ public class OddsAnomalyDetector {
      */
     private void detectPhaseDeviation(
             List<OddsData> validList,
-            Set<String> top3Keys,
+            RaceAnomalyState race,
             Optional<LocalTime> startTime,
             List<AnomalyAlertDto> alerts) {
 
@@ -373,16 +352,14 @@ public class OddsAnomalyDetector {
         if (phase == null) return; // 発走後はスキップ
 
         for (OddsData current : validList) {
-            String key = buildKey(current.url(), current.horseNumber());
-            if (top3Keys.contains(key)) continue;
+            int slot = race.slotOf(current.horseNumber());
+            if (race.isTop3(slot)) continue;
 
-            Map<Phase, Double> baselines = phaseBaselines.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
-            baselines.putIfAbsent(phase, current.winOdds());
-            Double baselineOdds = baselines.get(phase);
-            if (baselineOdds == null || baselineOdds <= 0) continue;
+            double baselineOdds = race.phaseBaselineOddsIfAbsent(slot, phase, current.winOdds());
+            if (baselineOdds <= 0) continue;
 
-            BigDecimal deviation = toSupportRate(current.winOdds()).subtract(toSupportRate(baselineOdds));
-            if (deviation.compareTo(TREND_DEVIATION_THRESHOLD) >= 0) {
+            long deviation = toSupportRate(current.winOdds()) - toSupportRate(baselineOdds);
+            if (deviation >= parameters.trendDeviationThreshold()) {
                 String alertType = switch (phase) {
                     case MORNING -> "フェーズ逸脱[朝]";
                     case PRE_30  -> "フェーズ逸脱[30分前]";
@@ -393,45 +370,45 @@ public class OddsAnomalyDetector {
                         current.horseNumber(),
                         current.horseName(),
                         alertType,
-                        deviation.setScale(4, RoundingMode.HALF_UP).doubleValue(),
+                        toDouble(rescale(deviation, SUPPORT_RATE_SCALE, 4), 4),
                         LocalDateTime.now(clock).format(SheetsDates.FORMATTER)));
                 logger.info("【フェーズ逸脱検知】馬番={}, 馬名={}, フェーズ={}, 基準オッズ={}, 現在オッズ={}, 逸脱量={}",
                         current.horseNumber(), current.horseName(), phase,
-                        baselineOdds, current.winOdds(), deviation);
+                        baselineOdds, current.winOdds(), BigDecimal.valueOf(deviation, SUPPORT_RATE_SCALE));
             }
         }
     }
 
     /**
      * ロジックF: オッズ断層（クリフ）の動的検知。
-     * 単勝オッズの隣接比率が {@code CLIFF_RATIO_THRESHOLD} 以上となる位置を「断層」とし、
+     * 単勝オッズの隣接比率が {@link DetectorParameters#cliffRatioThreshold()} 以上となる位置を「断層」とし、
      * 前回と比べて断層位置が上位方向に移動した場合を「凝縮」、下位方向を「拡散」として検知する。
      * 代表馬は断層直前（最後の「勝負圏内」）の馬を使用する。
      *
      * @param sortedByWin 単勝オッズ昇順ソート済みリスト（winOdds > 0 のみ）
-     * @param url         レース識別URL
+     * @param race        レースの検知状態
      * @param alerts      検知アラートの追記先
      */
-    private void detectOddsCliff(List<OddsData> sortedByWin, String url, List<AnomalyAlertDto> alerts) {
+    private void detectOddsCliff(List<OddsData> sortedByWin, RaceAnomalyState race, List<AnomalyAlertDto> alerts) {
         if (sortedByWin.size() < 3) return;
 
         int cliffPosition = -1;
         double cliffRatio = 0.0;
         for (int i = 1; i < sortedByWin.size(); i++) {
             double ratio = sortedByWin.get(i).winOdds() / sortedByWin.get(i - 1).winOdds();
-            if (ratio >= CLIFF_RATIO_THRESHOLD) {
+            if (ratio >= parameters.cliffRatioThreshold()) {
                 cliffPosition = i;
                 cliffRatio = ratio;
                 break; // 最上位の断層のみ対象
             }
         }
 
-        if (cliffPosition < 0) return; // 断層なし → previousCliffPosition は更新しない
+        if (cliffPosition < 0) return; // 断層なし → 前回の断層位置は更新しない
 
-        Integer prevPosition = previousCliffPosition.get(url);
-        previousCliffPosition.put(url, cliffPosition);
+        int prevPosition = race.previousCliffPosition();
+        race.setPreviousCliffPosition(cliffPosition);
 
-        if (prevPosition == null || prevPosition.equals(cliffPosition)) return; // 初回 or 変化なし
+        if (prevPosition == RaceAnomalyState.NO_CLIFF || prevPosition == cliffPosition) return; // 初回 or 変化なし
 
         String direction = cliffPosition < prevPosition ? "凝縮" : "拡散";
         OddsData representative = sortedByWin.get(cliffPosition - 1); // 断層直前の馬
@@ -453,8 +430,16 @@ public class OddsAnomalyDetector {
      * @return MORNING / PRE_30 / PRE_10 のいずれか、発走後は null
      */
     private Phase determinePhase(Optional<LocalTime> startTime) {
+        return determinePhase(startTime, LocalTime.now(clock));
+    }
+
+    /**
+     * 発走時刻と指定時刻からフェーズを判定します。
+     * @return MORNING / PRE_30 / PRE_10 のいずれか、発走後は null
+     */
+    static Phase determinePhase(Optional<LocalTime> startTime, LocalTime now) {
         if (startTime.isEmpty()) return Phase.MORNING;
-        long minutesUntilStart = ChronoUnit.MINUTES.between(LocalTime.now(clock), startTime.get());
+        long minutesUntilStart = ChronoUnit.MINUTES.between(now, startTime.get());
         if (minutesUntilStart < 0)  return null;      // 発走後
         if (minutesUntilStart <= 10) return Phase.PRE_10;
         if (minutesUntilStart <= 30) return Phase.PRE_30;
@@ -468,11 +453,7 @@ public class OddsAnomalyDetector {
     private void resetBaselineIfNewDay() {
         LocalDate today = LocalDate.now(clock);
         if (!today.equals(lastBaselineResetDate)) {
-            baselineWinOdds.clear();
-            previousSnapshots.clear();
-            phaseBaselines.clear();
-            previousCliffPosition.clear();
-            previousRankGap.clear();
+            raceStates.clear();
             lastBaselineResetDate = today;
             logger.info("日付変更を検知しました。初回オッズ基準値をリセットします: {}", today);
         }
@@ -481,47 +462,45 @@ public class OddsAnomalyDetector {
     /**
      * ロジックD: 支持率の加速度（時間正規化）を検知します。
      * スクレイピング間隔が変動しても「単位時間あたりの支持率変化量」で一貫して判定する。
-     * 計算式: (Δ支持率) / (Δ時刻[分]) >= ACCELERATION_THRESHOLD (0.005 = 0.5%/分)
+     * 計算式: (Δ支持率) / (Δ時刻[分]) >= 加速度の閾値（既定値 0.005 = 0.5%/分）
      */
     private void detectAcceleration(
             List<OddsData> validList,
-            Set<String> top3Keys,
+            RaceAnomalyState race,
             Instant now,
             List<AnomalyAlertDto> alerts) {
 
         for (OddsData current : validList) {
-            String key = buildKey(current.url(), current.horseNumber());
-            if (top3Keys.contains(key)) {
+            int slot = race.slotOf(current.horseNumber());
+            if (race.isTop3(slot)) {
                 continue;
             }
 
-            OddsSnapshot prev = previousSnapshots.get(key);
-            if (prev == null || prev.winOdds() <= 0) {
+            if (!race.hasSnapshot(slot) || race.snapshotOdds(slot) <= 0) {
                 continue;
             }
+            double prevOdds = race.snapshotOdds(slot);
 
-            long deltaSeconds = ChronoUnit.SECONDS.between(prev.processedAt(), now);
+            long deltaSeconds = race.secondsSinceSnapshot(slot, now);
             if (deltaSeconds <= 0) {
                 continue;
             }
 
-            BigDecimal currentRate = toSupportRate(current.winOdds());
-            BigDecimal prevRate    = toSupportRate(prev.winOdds());
-            BigDecimal deltaRate   = currentRate.subtract(prevRate);
-            BigDecimal deltaMin    = BigDecimal.valueOf(deltaSeconds / 60.0);
-            BigDecimal acceleration = deltaRate.divide(deltaMin, 6, RoundingMode.HALF_UP);
+            long deltaRate = toSupportRate(current.winOdds()) - toSupportRate(prevOdds);
+            long acceleration = toAcceleration(deltaRate, deltaSeconds);
 
-            if (acceleration.compareTo(ACCELERATION_THRESHOLD) >= 0) {
+            if (acceleration >= parameters.accelerationThreshold()) {
                 alerts.add(new AnomalyAlertDto(
                         current.raceName(),
                         current.horseNumber(),
                         current.horseName(),
                         "支持率加速",
-                        acceleration.setScale(3, RoundingMode.HALF_UP).doubleValue(),
+                        toDouble(rescale(acceleration, ACCELERATION_SCALE, 3), 3),
                         LocalDateTime.now(clock).format(SheetsDates.FORMATTER)));
                 logger.info("【支持率加速検知】馬番={}, 馬名={}, 加速度={}/分, 経過秒={}, 前回オッズ={}, 現在オッズ={}",
-                        current.horseNumber(), current.horseName(), acceleration, deltaSeconds,
-                        prev.winOdds(), current.winOdds());
+                        current.horseNumber(), current.horseName(),
+                        BigDecimal.valueOf(acceleration, ACCELERATION_SCALE), deltaSeconds,
+                        prevOdds, current.winOdds());
             }
         }
     }
@@ -533,34 +512,72 @@ public class OddsAnomalyDetector {
      * @param url 削除対象URL
      */
     public void clearStateForUrl(String url) {
-        String prefix = url + ":";
-        previousSnapshots.keySet().removeIf(key -> key.startsWith(prefix));
-        baselineWinOdds.keySet().removeIf(key -> key.startsWith(prefix));
-        phaseBaselines.keySet().removeIf(key -> key.startsWith(prefix));
-        previousCliffPosition.remove(url);
-        previousRankGap.keySet().removeIf(key -> key.startsWith(prefix));
+        raceStates.remove(String.valueOf(url));
         logger.info("URLの検知状態をクリアしました: {}", url);
     }
 
     /**
-     * 最新の異常検知アラートリストを返します。
+     * 保持している異常検知アラートを検知順に返します。
+     * 絞り込み・ページングが必要な場合は {@link AlertStore#find} を使用します。
      *
      * @return アラートリスト（変更不可）
      */
     public List<AnomalyAlertDto> getLatestAlerts() {
-        return Collections.unmodifiableList(new ArrayList<>(latestAlerts));
+        return alertStore.findAll();
     }
 
-    /** オッズを支持率（1 / オッズ）に変換します。BigDecimalで精度を保証します。 */
-    private BigDecimal toSupportRate(double odds) {
-        return BigDecimal.ONE.divide(BigDecimal.valueOf(odds), SUPPORT_RATE_SCALE, RoundingMode.HALF_UP);
+    /**
+     * オッズを支持率（1 / オッズ）に変換します。
+     * 戻り値は小数点以下10桁の固定小数点（1.0 = 10^10）で、
+     * {@code BigDecimal.ONE.divide(BigDecimal.valueOf(odds), 10, HALF_UP)} と同一の値になります。
+     * 小数点以下4桁以内のオッズ（通常の単勝オッズはすべて該当）はオブジェクトを生成せずに算出します。
+     */
+    static long toSupportRate(double odds) {
+        if (odds > 0 && odds < ODDS_FIXED_POINT_LIMIT) {
+            long scaledOdds = Math.round(odds * ODDS_FIXED_POINT);
+            // BigDecimal.valueOf(odds) が scaledOdds / 10^4 と一致する場合のみ整数演算で算出
+            if (scaledOdds > 0 && (double) scaledOdds / ODDS_FIXED_POINT == odds) {
+                return divideHalfUp(SUPPORT_RATE_ONE * ODDS_FIXED_POINT, scaledOdds);
+            }
+        }
+        return BigDecimal.ONE.divide(BigDecimal.valueOf(odds), SUPPORT_RATE_SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
     }
 
-    /** 馬を一意に識別するキーを生成します。同一レース名が複数存在しうるためURLで識別します。 */
-    private String buildKey(String url, String horseNumber) {
-        return url + ":" + horseNumber;
+    /**
+     * 支持率の変化量と経過秒数から加速度（支持率/分）を算出します。
+     * 戻り値は小数点以下6桁の固定小数点で、(Δ支持率 × 60 / 経過秒) を HALF_UP で丸めた値です。
+     */
+    static long toAcceleration(long deltaRate, long deltaSeconds) {
+        // deltaRate は10桁、戻り値は6桁のため 10^4 で割る
+        return divideHalfUp(deltaRate * 60, deltaSeconds * 10_000L);
+    }
+
+    /** 固定小数点値の桁数を減らします（HALF_UP）。 */
+    private static long rescale(long value, int fromScale, int toScale) {
+        long divisor = 1;
+        for (int i = toScale; i < fromScale; i++) {
+            divisor *= 10;
+        }
+        return divideHalfUp(value, divisor);
     }
 
-    /** 前回オッズと取得時刻のスナップショット（ロジックD の加速度計算に使用）。 */
-    record OddsSnapshot(double winOdds, Instant processedAt) {}
+    /** 整数除算を HALF_UP（0から遠い方向へ丸める）で行います。除数は正であること。 */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /** 固定小数点値を double に変換します（BigDecimal#doubleValue と同じく最も近い double）。 */
+    private static double toDouble(long value, int scale) {
+        double divisor = 1.0;
+        for (int i = 0; i < scale; i++) {
+            divisor *= 10.0;
+        }
+        return value / divisor;
+    }
 }
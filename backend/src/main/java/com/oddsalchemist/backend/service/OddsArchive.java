@@ -0,0 +1,368 @@
+package com.oddsalchemist.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 1日分のオッズ履歴を列ごとに保存するアーカイブファイル（列指向形式）と、その読み込み。
+ * <p>
+ * URL・レース名・馬は辞書（レース一覧・馬一覧）に1度だけ保存し、行は馬ごと・取得日時昇順に並べる。
+ * 取得日時（エポック秒）・単勝・複勝下限・複勝上限の4列は、それぞれ馬ごとに前の行との差分を
+ * 可変長整数（ZigZag 符号化）で保存する。オッズは 1/100 単位の固定小数点、値がない場合は -1 とする。
+ * 馬一覧に列ごとの開始位置を持つため、1頭分・1レース分の時系列を、他の馬・指定しない列を展開せずに読み込める。
+ * <p>
+ * ファイル構成:
+ * <pre>
+ * magic(int) version(int) 行数(int)
+ * レース数(int) [URL(str) レース名(str)]...
+ * 馬数(int) [レース番号(int) 馬番(int) 馬名(str) 行数(int) [列の開始位置(int) 列のバイト数(int)]×4]...
+ * [列のバイト数(int) 列のデータ]×4
+ * </pre>
+ * str は UTF-8 のバイト数(int)とバイト列。
+ */
+public final class OddsArchive {
+
+    private static final int MAGIC = 0x4F415243; // "OARC"
+    private static final int VERSION = 1;
+
+    /** オッズの固定小数点の倍率（1/100 単位） */
+    private static final int ODDS_SCALE = 100;
+
+    /** オッズがない場合の値 */
+    private static final long MISSING = -1;
+
+    /** 保存する列 */
+    public enum Column { DETECTED_AT, WIN_ODDS, PLACE_ODDS_MIN, PLACE_ODDS_MAX }
+
+    private static final int COLUMN_COUNT = Column.values().length;
+
+    /**
+     * 1頭分の時系列。読み込まなかった列は null、オッズがない行は NaN。
+     *
+     * @param horseNumber  馬番
+     * @param horseName    馬名
+     * @param epochSeconds 取得日時（エポック秒、昇順）
+     * @param winOdds      単勝オッズ
+     * @param placeOddsMin 複勝オッズ（下限）
+     * @param placeOddsMax 複勝オッズ（上限）
+     */
+    public record Series(int horseNumber, String horseName, long[] epochSeconds,
+                         double[] winOdds, double[] placeOddsMin, double[] placeOddsMax) {
+
+        /** 行数を返します。 */
+        public int size() {
+            if (epochSeconds != null) {
+                return epochSeconds.length;
+            }
+            double[] any = winOdds != null ? winOdds : placeOddsMin != null ? placeOddsMin : placeOddsMax;
+            return any != null ? any.length : 0;
+        }
+    }
+
+    /** 馬一覧の1件 */
+    private record Horse(int race, int horseNumber, String horseName, int rows, int[] offsets, int[] lengths) {}
+
+    private final List<String> urls;
+    private final List<String> raceNames;
+    private final List<Horse> horses;
+    private final int rowCount;
+
+    /** URL → レース番号 */
+    private final Map<String, Integer> raceByUrl = new HashMap<>();
+
+    /** レース番号 → 馬名 → 馬一覧の番号 */
+    private final List<Map<String, Integer>> horsesByRace = new ArrayList<>();
+
+    /** 列ごとのデータ */
+    private final ByteBuffer[] columns = new ByteBuffer[COLUMN_COUNT];
+
+    private OddsArchive(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("オッズアーカイブの形式ではありません");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("未対応のオッズアーカイブのバージョンです: " + version);
+        }
+        rowCount = buffer.getInt();
+        int raceCount = buffer.getInt();
+        urls = new ArrayList<>(raceCount);
+        raceNames = new ArrayList<>(raceCount);
+        for (int i = 0; i < raceCount; i++) {
+            urls.add(readString(buffer));
+            raceNames.add(readString(buffer));
+            raceByUrl.put(urls.get(i), i);
+            horsesByRace.add(new LinkedHashMap<>());
+        }
+        int horseCount = buffer.getInt();
+        horses = new ArrayList<>(horseCount);
+        for (int i = 0; i < horseCount; i++) {
+            int race = buffer.getInt();
+            int horseNumber = buffer.getInt();
+            String horseName = readString(buffer);
+            int rows = buffer.getInt();
+            int[] offsets = new int[COLUMN_COUNT];
+            int[] lengths = new int[COLUMN_COUNT];
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                offsets[c] = buffer.getInt();
+                lengths[c] = buffer.getInt();
+            }
+            horses.add(new Horse(race, horseNumber, horseName, rows, offsets, lengths));
+            horsesByRace.get(race).put(horseName, i);
+        }
+        for (int c = 0; c < COLUMN_COUNT; c++) {
+            int length = buffer.getInt();
+            columns[c] = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * アーカイブファイルを開きます。列のデータはメモリマップし、読み込む時系列の部分だけを展開します。
+     *
+     * @throws IOException ファイルが読めない・形式が異なる場合
+     */
+    public static OddsArchive open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OddsArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (RuntimeException e) {
+            throw new IOException("オッズアーカイブを読み込めません: " + file, e);
+        }
+    }
+
+    /** 全行数を返します。 */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /** レースURLの一覧を返します。 */
+    public List<String> urls() {
+        return List.copyOf(urls);
+    }
+
+    /** 指定URLのレース名を返します。 */
+    public Optional<String> raceName(String url) {
+        Integer race = raceByUrl.get(url);
+        return race == null ? Optional.empty() : Optional.of(raceNames.get(race));
+    }
+
+    /** 指定URL・馬名の時系列を、すべての列を読み込んで返します。 */
+    public Optional<Series> horseSeries(String url, String horseName) {
+        return horseSeries(url, horseName, EnumSet.allOf(Column.class));
+    }
+
+    /**
+     * 指定URL・馬名の時系列を返します。指定した列だけを展開します。
+     *
+     * @param columns 読み込む列（指定しない列は null）
+     */
+    public Optional<Series> horseSeries(String url, String horseName, Set<Column> columns) {
+        Integer race = raceByUrl.get(url);
+        Integer horse = race == null ? null : horsesByRace.get(race).get(horseName);
+        return horse == null ? Optional.empty() : Optional.of(decode(horses.get(horse), columns));
+    }
+
+    /**
+     * 指定URLのレースの全馬の時系列を馬番昇順で返します。指定した列だけを展開します。
+     *
+     * @param columns 読み込む列（指定しない列は null）
+     */
+    public List<Series> raceSeries(String url, Set<Column> columns) {
+        Integer race = raceByUrl.get(url);
+        if (race == null) {
+            return List.of();
+        }
+        List<Series> result = new ArrayList<>();
+        for (int horse : horsesByRace.get(race).values()) {
+            result.add(decode(horses.get(horse), columns));
+        }
+        result.sort(Comparator.comparingInt(Series::horseNumber));
+        return result;
+    }
+
+    private Series decode(Horse horse, Set<Column> selected) {
+        long[][] values = new long[COLUMN_COUNT][];
+        for (Column column : selected) {
+            int c = column.ordinal();
+            values[c] = decodeDeltas(columns[c].slice(horse.offsets()[c], horse.lengths()[c]), horse.rows());
+        }
+        return new Series(horse.horseNumber(), horse.horseName(), values[Column.DETECTED_AT.ordinal()],
+                toOdds(values[Column.WIN_ODDS.ordinal()]),
+                toOdds(values[Column.PLACE_ODDS_MIN.ordinal()]),
+                toOdds(values[Column.PLACE_ODDS_MAX.ordinal()]));
+    }
+
+    private static long[] decodeDeltas(ByteBuffer in, int rows) {
+        long[] values = new long[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            long raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                raw |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += (raw >>> 1) ^ -(raw & 1);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static double[] toOdds(long[] fixed) {
+        if (fixed == null) {
+            return null;
+        }
+        double[] odds = new double[fixed.length];
+        for (int i = 0; i < fixed.length; i++) {
+            odds[i] = fixed[i] == MISSING ? Double.NaN : (double) fixed[i] / ODDS_SCALE;
+        }
+        return odds;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * アーカイブファイルを作成するライター。行を追加した後に {@link #write(Path)} で書き出す。
+     * 同じ馬・同じ取得日時の行は最後に追加したものを使う。
+     */
+    public static final class Writer {
+
+        /** URL → レース名 */
+        private final Map<String, String> races = new LinkedHashMap<>();
+
+        /** URL → 馬名 → 馬番と取得日時ごとの値 */
+        private final Map<String, Map<String, HorseRows>> rows = new HashMap<>();
+
+        private static final class HorseRows {
+            private int horseNumber;
+            /** 取得日時 → 固定小数点のオッズ（単勝・複勝下限・複勝上限） */
+            private final TreeMap<Long, long[]> values = new TreeMap<>();
+        }
+
+        /**
+         * 1行を追加します。
+         *
+         * @param epochSecond 取得日時（エポック秒）
+         * @param winOdds     単勝オッズ（ない場合は null）
+         */
+        public Writer add(String url, String raceName, int horseNumber, String horseName, long epochSecond,
+                          Double winOdds, Double placeOddsMin, Double placeOddsMax) {
+            races.putIfAbsent(url, raceName);
+            HorseRows horse = rows.computeIfAbsent(url, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(horseName, k -> new HorseRows());
+            horse.horseNumber = horseNumber;
+            horse.values.put(epochSecond, new long[]{toFixed(winOdds), toFixed(placeOddsMin), toFixed(placeOddsMax)});
+            return this;
+        }
+
+        /**
+         * アーカイブファイルを書き出します。一時ファイルに書き込んでから置き換えます。
+         *
+         * @return 書き出した行数
+         */
+        public int write(Path file) throws IOException {
+            ByteArrayOutputStream[] columnData = new ByteArrayOutputStream[COLUMN_COUNT];
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                columnData[c] = new ByteArrayOutputStream();
+            }
+            ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+            DataOutputStream dict = new DataOutputStream(dictionary);
+            dict.writeInt(races.size());
+            int horseCount = 0;
+            for (Map.Entry<String, String> race : races.entrySet()) {
+                writeString(dict, race.getKey());
+                writeString(dict, race.getValue() != null ? race.getValue() : "");
+                horseCount += rows.get(race.getKey()).size();
+            }
+            dict.writeInt(horseCount);
+            int raceIndex = 0;
+            int rowCount = 0;
+            for (String url : races.keySet()) {
+                for (Map.Entry<String, HorseRows> entry : rows.get(url).entrySet()) {
+                    HorseRows horse = entry.getValue();
+                    dict.writeInt(raceIndex);
+                    dict.writeInt(horse.horseNumber);
+                    writeString(dict, entry.getKey());
+                    dict.writeInt(horse.values.size());
+                    long[] previous = new long[COLUMN_COUNT];
+                    int[] starts = new int[COLUMN_COUNT];
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        starts[c] = columnData[c].size();
+                    }
+                    for (Map.Entry<Long, long[]> row : horse.values.entrySet()) {
+                        long[] values = {row.getKey(), row.getValue()[0], row.getValue()[1], row.getValue()[2]};
+                        for (int c = 0; c < COLUMN_COUNT; c++) {
+                            writeVarLong(columnData[c], values[c] - previous[c]);
+                            previous[c] = values[c];
+                        }
+                    }
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        dict.writeInt(starts[c]);
+                        dict.writeInt(columnData[c].size() - starts[c]);
+                    }
+                    rowCount += horse.values.size();
+                }
+                raceIndex++;
+            }
+            dict.flush();
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(rowCount);
+                dictionary.writeTo(out);
+                for (ByteArrayOutputStream column : columnData) {
+                    out.writeInt(column.size());
+                    column.writeTo(out);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rowCount;
+        }
+
+        private static long toFixed(Double odds) {
+            return odds == null || odds.isNaN() ? MISSING : Math.round(odds * ODDS_SCALE);
+        }
+
+        /** ZigZag 符号化した可変長整数を書き込みます（変化のない差分は1バイト）。 */
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                out.write((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            out.write((int) zigzag);
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
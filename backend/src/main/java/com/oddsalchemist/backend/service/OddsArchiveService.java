@@ -0,0 +1,138 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.OddsArchiveProperties;
+import com.oddsalchemist.backend.dto.HorseDto;
+import com.oddsalchemist.backend.dto.OddsHistoryItemDto;
+import com.oddsalchemist.backend.util.SheetsDates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * オッズ履歴を1日ごとに {@link OddsArchive} 形式のファイルへ書き出すサービス。
+ * odds.archive.enabled=true の場合、毎日 0:30 に前日分を書き出す。
+ * 書き出す内容は OddsHistoryService の時系列（差分書き込みは復元済み）で、取得日時が対象日の行のみ。
+ * 書き出したファイルはバックテストなどで {@link #open(LocalDate)} から読み込む。
+ */
+@Service
+public class OddsArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OddsArchiveService.class);
+
+    static final String FILE_SUFFIX = ".oddsarc";
+
+    private static final DateTimeFormatter DATE_PREFIX = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    private final OddsHistoryService historyService;
+    private final Path directory;
+    private final boolean enabled;
+    private final Clock clock;
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public OddsArchiveService(OddsHistoryService historyService, OddsArchiveProperties properties) {
+        this(historyService, Path.of(properties.directory()), properties.enabled(), Clock.systemDefaultZone());
+    }
+
+    /** テスト用コンストラクタ（保存先・Clockを指定可能） */
+    OddsArchiveService(OddsHistoryService historyService, Path directory, boolean enabled, Clock clock) {
+        this.historyService = historyService;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.clock = clock;
+    }
+
+    /**
+     * 前日分のオッズ履歴を書き出します。無効の場合は何もしません。
+     * 失敗した場合は WARN ログを出力します（手動で {@link #archive(LocalDate)} を呼び出して再実行できます）。
+     */
+    @Scheduled(cron = "0 30 0 * * *")
+    public void archivePreviousDay() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate date = LocalDate.now(clock).minusDays(1);
+        try {
+            archive(date);
+        } catch (IOException e) {
+            logger.warn("オッズ履歴のアーカイブに失敗しました: date={}, error={}", date, e.getMessage());
+        }
+    }
+
+    /**
+     * 指定日のオッズ履歴をアーカイブファイルに書き出します。既存のファイルは置き換えます。
+     * 対象日の行がない場合はファイルを作成しません。
+     *
+     * @return 書き出した行数
+     */
+    public int archive(LocalDate date) throws IOException {
+        String prefix = date.format(DATE_PREFIX);
+        Map<String, String> raceNames = historyService.getUrlToRaceNameMap();
+        OddsArchive.Writer writer = new OddsArchive.Writer();
+        int added = 0;
+        for (String url : historyService.getUrls()) {
+            for (HorseDto horse : historyService.getHorses(url)) {
+                for (OddsHistoryItemDto item : historyService.getHistory(url, horse.horseName())) {
+                    if (!item.detectedAt().startsWith(prefix)) {
+                        continue;
+                    }
+                    Optional<Long> epochSecond = toEpochSecond(item.detectedAt());
+                    if (epochSecond.isEmpty()) {
+                        continue;
+                    }
+                    writer.add(url, raceNames.getOrDefault(url, ""), horse.horseNumber(), horse.horseName(),
+                            epochSecond.get(), item.winOdds(), item.placeOddsMin(), item.placeOddsMax());
+                    added++;
+                }
+            }
+        }
+        if (added == 0) {
+            logger.info("アーカイブ対象のオッズ履歴がありません: date={}", date);
+            return 0;
+        }
+        Files.createDirectories(directory);
+        Path file = fileOf(date);
+        int rows = writer.write(file);
+        logger.info("オッズ履歴をアーカイブしました: date={}, rows={}, size={}bytes, path={}",
+                date, rows, Files.size(file), file);
+        return rows;
+    }
+
+    /**
+     * 指定日のアーカイブファイルを開きます。
+     *
+     * @return アーカイブ（ファイルがない場合は空）
+     * @throws IOException ファイルが読めない・形式が異なる場合
+     */
+    public Optional<OddsArchive> open(LocalDate date) throws IOException {
+        Path file = fileOf(date);
+        return Files.exists(file) ? Optional.of(OddsArchive.open(file)) : Optional.empty();
+    }
+
+    private Path fileOf(LocalDate date) {
+        return directory.resolve(date + FILE_SUFFIX);
+    }
+
+    private Optional<Long> toEpochSecond(String detectedAt) {
+        try {
+            return Optional.of(LocalDateTime.parse(detectedAt, SheetsDates.FORMATTER)
+                    .atZone(clock.getZone()).toEpochSecond());
+        } catch (DateTimeParseException e) {
+            logger.warn("取得日時のパース失敗のためアーカイブから除外します: value={}", detectedAt);
+            return Optional.empty();
+        }
+    }
+}
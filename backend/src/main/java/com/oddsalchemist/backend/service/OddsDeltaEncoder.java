@@ -0,0 +1,118 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OddsData への追記行を、レースごとに前回書き込んだ内容からオッズが変化した馬の行だけに絞り込むエンコーダー。
+ * <p>
+ * 絞り込んだ行には I列に {@link #DELTA}、全馬の行（キーフレーム）には I列に {@link #KEYFRAME} を付ける。
+ * キーフレームは、レースの最初の書き込み・前回のキーフレームから keyframeEvery 回目の書き込み・
+ * 前回書き込んだ馬がいなくなった場合（出走取消）に書き込む。
+ * 履歴は {@link OddsHistoryIndex} が、キーフレームと変化分から各書き込み時点の全馬の値を復元する。
+ * <p>
+ * 書き込む行は {@link #encode} で求め、書き込み待ちへの登録に成功した後に {@link #commit} で前回の内容として記録する。
+ * 無効の場合は行をそのまま（I列なしで）返す。
+ */
+final class OddsDeltaEncoder {
+
+    /** I列: 全馬の行（キーフレーム） */
+    static final String KEYFRAME = "K";
+
+    /** I列: 前回から変化した馬の行 */
+    static final String DELTA = "D";
+
+    private final boolean enabled;
+    private final int keyframeEvery;
+
+    /** URL → 前回書き込んだ内容 */
+    private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 1レース分の前回書き込んだ内容。
+     *
+     * @param cellsByHorse        馬名 → 比較に使うセル（馬番・単勝・複勝下限・複勝上限）
+     * @param writesSinceKeyframe 前回のキーフレームから書き込んだ回数（キーフレーム自身を含む）
+     */
+    private record Snapshot(Map<String, List<String>> cellsByHorse, int writesSinceKeyframe) {}
+
+    /**
+     * 書き込む行と、書き込み後に記録する内容。
+     *
+     * @param rows 書き込む行（変化がない場合は空）
+     * @param next 書き込み後に前回の内容として記録するスナップショット（記録しない場合は null）
+     */
+    record Encoded(List<List<Object>> rows, Snapshot next) {}
+
+    OddsDeltaEncoder(OddsDeltaProperties properties) {
+        this.enabled = properties.enabled();
+        this.keyframeEvery = properties.keyframeEvery();
+    }
+
+    /**
+     * 全馬の行（OddsData!A:H 形式）から、書き込む行を求めます。
+     *
+     * @param url  レースURL
+     * @param rows 今回取得した全馬の行
+     * @return 書き込む行と、書き込み後に記録する内容
+     */
+    Encoded encode(String url, List<List<Object>> rows) {
+        if (!enabled) {
+            return new Encoded(rows, null);
+        }
+        Map<String, List<String>> current = new HashMap<>();
+        for (List<Object> row : rows) {
+            current.put(row.get(4).toString(), compareCells(row));
+        }
+
+        Snapshot previous = snapshots.get(url);
+        boolean keyframe = previous == null
+                || previous.writesSinceKeyframe() >= keyframeEvery
+                || !current.keySet().containsAll(previous.cellsByHorse().keySet());
+        List<List<Object>> encoded = new ArrayList<>();
+        for (List<Object> row : rows) {
+            if (keyframe || !current.get(row.get(4).toString())
+                    .equals(previous.cellsByHorse().get(row.get(4).toString()))) {
+                encoded.add(withFlag(row, keyframe ? KEYFRAME : DELTA));
+            }
+        }
+        if (encoded.isEmpty()) {
+            return new Encoded(List.of(), null);
+        }
+        int writes = keyframe ? 1 : previous.writesSinceKeyframe() + 1;
+        return new Encoded(encoded, new Snapshot(current, writes));
+    }
+
+    /** 書き込み待ちへの登録に成功した行を、前回書き込んだ内容として記録します。 */
+    void commit(String url, Encoded encoded) {
+        if (encoded.next() != null) {
+            snapshots.put(url, encoded.next());
+        }
+    }
+
+    /** 指定URLの前回書き込んだ内容を破棄します（次回の書き込みはキーフレームになります）。 */
+    void forget(String url) {
+        snapshots.remove(url);
+    }
+
+    /** すべてのレースの前回書き込んだ内容を破棄します。OddsData シートをクリアした場合に呼び出します。 */
+    void reset() {
+        snapshots.clear();
+    }
+
+    private static List<String> compareCells(List<Object> row) {
+        return List.of(row.get(3).toString(), row.get(5).toString(), row.get(6).toString(), row.get(7).toString());
+    }
+
+    private static List<Object> withFlag(List<Object> row, String flag) {
+        List<Object> flagged = new ArrayList<>(row.size() + 1);
+        flagged.addAll(row);
+        flagged.add(flag);
+        return flagged;
+    }
+}
@@ -0,0 +1,275 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.HorseDto;
+import com.oddsalchemist.backend.dto.OddsHistoryItemDto;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * OddsDataシートの内容をメモリ上に保持する索引。
+ * URL → 馬名 → 取得日時昇順の時系列 の構造で保持し、
+ * グラフ表示用の問い合わせをシートを読み直さずに返す。
+ * <p>
+ * 行は OddsData!A:I と同じ列構成（取得日時, URL, レース名, 馬番, 馬名, 単勝, 複勝下限, 複勝上限, 差分区分）で受け取る。
+ * 同じ URL・馬名・取得日時の行は1件として扱うため、書き込み時の追加と Sheets からの読み込みが重複しても結果は変わらない。
+ * <p>
+ * 差分書き込み（I列が D の行）を含むレースは、問い合わせ時に時系列を復元する。
+ * レースの書き込み時点ごとに、その時点の行があればその値を、変化分だけの書き込み（D）で行がなければ直前の値を使う。
+ * 全馬の書き込み（I列が K または空）に行がない馬は、その時点で出走していないものとして直前の値を引き継がない。
+ */
+@Service
+public class OddsHistoryIndex {
+
+    /** URL → レースごとの履歴（最初に登場した順） */
+    private final Map<String, RaceHistory> races = new LinkedHashMap<>();
+
+    /** Sheets からの読み込みが完了しているか */
+    private boolean loaded;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * OddsData!A:I 形式の行を索引に追加します。列が不足している行は、判定に使える列までを反映します。
+     *
+     * @param rows 追加する行
+     */
+    public void addRows(List<List<Object>> rows) {
+        lock.writeLock().lock();
+        try {
+            for (List<Object> row : rows) {
+                addRow(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Sheets からの読み込みが完了しているかを返します。 */
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sheets から読み込んだ行を追加し、読み込み済みとして記録します。
+     *
+     * @param rows OddsData!A:I の全行
+     */
+    public void load(List<List<Object>> rows) {
+        lock.writeLock().lock();
+        try {
+            for (List<Object> row : rows) {
+                addRow(row);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 保持している行をすべて破棄し、未読み込みの状態に戻します。
+     * シートがクリアされた場合に呼び出します。
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            races.clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * URL → レース名 のマップを URL の初出順で返します。
+     * 同一 URL のレース名は最初に追加された行のものを使用します。
+     */
+    public Map<String, String> getUrlToRaceNameMap() {
+        lock.readLock().lock();
+        try {
+            Map<String, String> map = new LinkedHashMap<>();
+            for (Map.Entry<String, RaceHistory> entry : races.entrySet()) {
+                if (entry.getValue().raceName != null) {
+                    map.put(entry.getKey(), entry.getValue().raceName);
+                }
+            }
+            return map;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** http で始まるレースURLの一覧を昇順で返します。 */
+    public List<String> getUrls() {
+        lock.readLock().lock();
+        try {
+            List<String> urls = new ArrayList<>(races.size());
+            for (String url : races.keySet()) {
+                if (url.startsWith("http")) {
+                    urls.add(url);
+                }
+            }
+            urls.sort(Comparator.naturalOrder());
+            return urls;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 指定URLのレースに存在する馬の一覧を馬番昇順で返します。 */
+    public List<HorseDto> getHorses(String url) {
+        lock.readLock().lock();
+        try {
+            RaceHistory race = races.get(url);
+            if (race == null) {
+                return List.of();
+            }
+            List<HorseDto> horses = new ArrayList<>(race.horses);
+            horses.sort(Comparator.comparingInt(HorseDto::horseNumber));
+            return horses;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 指定URLと馬名に一致するオッズ時系列データを取得日時昇順で返します。 */
+    public List<OddsHistoryItemDto> getHistory(String url, String horseName) {
+        lock.readLock().lock();
+        try {
+            RaceHistory race = races.get(url);
+            if (race == null) {
+                return List.of();
+            }
+            List<OddsHistoryItemDto> series = race.seriesByHorseName.get(horseName);
+            if (series == null) {
+                return List.of();
+            }
+            return race.hasDeltas ? reconstruct(race, series) : new ArrayList<>(series);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addRow(List<Object> row) {
+        if (row.size() <= 1) {
+            return;
+        }
+        String url = row.get(1).toString();
+        if (url.isBlank()) {
+            return;
+        }
+        RaceHistory race = races.computeIfAbsent(url, k -> new RaceHistory());
+        if (row.size() > 2 && race.raceName == null) {
+            race.raceName = row.get(2).toString();
+        }
+        if (row.size() > 4) {
+            String horseName = row.get(4).toString();
+            if (!horseName.isBlank()) {
+                race.horses.add(new HorseDto(parseIntSafe(row.get(3).toString()), horseName));
+            }
+        }
+        if (row.size() > 7) {
+            OddsHistoryItemDto item = new OddsHistoryItemDto(
+                    row.get(0).toString(),
+                    parseDoubleSafe(row.get(5).toString()),
+                    parseDoubleSafe(row.get(6).toString()),
+                    parseDoubleSafe(row.get(7).toString()));
+            insert(race.seriesByHorseName.computeIfAbsent(row.get(4).toString(), k -> new ArrayList<>()), item);
+            boolean delta = row.size() > 8 && OddsDeltaEncoder.DELTA.equals(row.get(8).toString());
+            race.writes.put(item.detectedAt(), delta);
+            race.hasDeltas |= delta;
+        }
+    }
+
+    /**
+     * 差分書き込みを含むレースについて、馬の時系列をレースの書き込み時点ごとに復元します。
+     * 変化分だけの書き込みで行がない時点は直前の値を引き継ぎ、全馬の書き込みで行がない時点で引き継ぎをやめます。
+     */
+    private static List<OddsHistoryItemDto> reconstruct(RaceHistory race, List<OddsHistoryItemDto> series) {
+        List<OddsHistoryItemDto> result = new ArrayList<>(race.writes.size());
+        OddsHistoryItemDto last = null;
+        int next = 0;
+        for (Map.Entry<String, Boolean> write : race.writes.entrySet()) {
+            String detectedAt = write.getKey();
+            if (next < series.size() && series.get(next).detectedAt().equals(detectedAt)) {
+                last = series.get(next++);
+                result.add(last);
+            } else if (!write.getValue()) {
+                last = null;
+            } else if (last != null) {
+                result.add(new OddsHistoryItemDto(detectedAt, last.winOdds(), last.placeOddsMin(), last.placeOddsMax()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取得日時の昇順を保って追加します。通常は末尾への追加になります。
+     * 同じ取得日時のデータが既にある場合は追加しません。
+     */
+    private static void insert(List<OddsHistoryItemDto> series, OddsHistoryItemDto item) {
+        int size = series.size();
+        if (size == 0 || series.get(size - 1).detectedAt().compareTo(item.detectedAt()) < 0) {
+            series.add(item);
+            return;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = series.get(mid).detectedAt().compareTo(item.detectedAt());
+            if (cmp == 0) {
+                return;
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        series.add(low, item);
+    }
+
+    private static int parseIntSafe(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Double parseDoubleSafe(String s) {
+        try {
+            return Double.parseDouble(s.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** 1レース分の履歴 */
+    private static final class RaceHistory {
+        private String raceName;
+        private final Set<HorseDto> horses = new LinkedHashSet<>();
+        private final Map<String, List<OddsHistoryItemDto>> seriesByHorseName = new HashMap<>();
+        /** 取得日時 → 変化分だけの書き込みか（全馬の書き込みは false） */
+        private final TreeMap<String, Boolean> writes = new TreeMap<>();
+        /** 変化分だけの書き込みを含むか（含まない場合は時系列をそのまま返す） */
+        private boolean hasDeltas;
+    }
+}
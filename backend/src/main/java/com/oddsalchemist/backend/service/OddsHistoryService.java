@@ -5,28 +5,80 @@ import com.oddsalchemist.backend.dto.HorseDto;
 import com.oddsalchemist.backend.dto.OddsHistoryItemDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * OddsDataシートからオッズ履歴を読み込み、フロントエンドのグラフ表示用データを提供するサービス。
- * Sheets API 読み込み失敗時は例外を握りつぶし、空リストを返してシステムを止めない。
+ * オッズ履歴は OddsHistoryIndex に保持し、Sheets からは初回に1度だけ全行を読み込む。
+ * 以降の追記分は OddsSyncService の書き込み時に索引へ直接反映されるため、問い合わせのたびにシートを読み直さない。
+ * 他の経路で追記された行は、一定間隔ごとに読み込み済みの最終行以降だけを読み込んで取り込む（末尾読み込み）。
+ * 末尾読み込みでは読み込み済みの最終行も読み直し、内容が変わっていればシートがクリアされたとみなして全行を読み込み直す。
+ * Sheets API 読み込み失敗時は例外を握りつぶし、空リストを返してシステムを止めない（次回の問い合わせで再度読み込む）。
  */
 @Service
 public class OddsHistoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(OddsHistoryService.class);
-    private static final String ODDS_DATA_RANGE = "OddsData!A:H";
+    private static final String ODDS_DATA_RANGE = "OddsData!A:I";
     private static final String ALERTS_RANGE = "Alerts!A:G";
-    private final GoogleSheetsService googleSheetsService;
 
-    public OddsHistoryService(GoogleSheetsService googleSheetsService) {
-        this.googleSheetsService = googleSheetsService;
+    /** 末尾読み込みの最小間隔（この間隔内の問い合わせは索引の内容をそのまま返す） */
+    static final Duration REFRESH_INTERVAL = Duration.ofSeconds(30);
+
+    private final SheetStore sheetStore;
+    private final OddsHistoryIndex historyIndex;
+    private final Clock clock;
+
+    /** 読み込み済みの行数（見出し行を含む）。次回の末尾読み込みはこの行から行う */
+    private int ingestedRowCount;
+
+    /** 読み込み済みの最終行の内容（シートのクリア検知に使用） */
+    private List<Object> checkpointRow;
+
+    /** 次回の末尾読み込みを行う時刻 */
+    private volatile Instant nextRefreshAt = Instant.MIN;
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public OddsHistoryService(SheetStore sheetStore, OddsHistoryIndex historyIndex) {
+        this(sheetStore, historyIndex, Clock.systemDefaultZone());
+    }
+
+    /** テスト用コンストラクタ（空の索引を使用） */
+    OddsHistoryService(SheetStore sheetStore) {
+        this(sheetStore, new OddsHistoryIndex(), Clock.systemDefaultZone());
+    }
+
+    /** テスト用コンストラクタ（索引・Clockを指定可能） */
+    OddsHistoryService(SheetStore sheetStore, OddsHistoryIndex historyIndex, Clock clock) {
+        this.sheetStore = sheetStore;
+        this.historyIndex = historyIndex;
+        this.clock = clock;
+    }
+
+    /**
+     * アプリ起動完了後に OddsData シートを読み込み、索引を構築します。
+     * 失敗した場合は WARN ログを出力し、最初の問い合わせ時に再度読み込みます。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        try {
+            ensureLoaded();
+        } catch (Exception e) {
+            logger.warn("起動時のOddsData読み込みに失敗しました: {}", e.getMessage());
+        }
     }
 
     /**
@@ -36,16 +88,8 @@ public class OddsHistoryService {
      */
     public Map<String, String> getUrlToRaceNameMap() {
         try {
-            List<List<Object>> rows = googleSheetsService.readData(ODDS_DATA_RANGE);
-            return rows.stream()
-                    .filter(row -> row.size() > 2)
-                    .filter(row -> !row.get(1).toString().isBlank())
-                    .collect(Collectors.toMap(
-                            row -> row.get(1).toString(),
-                            row -> row.get(2).toString(),
-                            (existing, replacement) -> existing,
-                            LinkedHashMap::new
-                    ));
+            ensureLoaded();
+            return historyIndex.getUrlToRaceNameMap();
         } catch (Exception e) {
             logger.warn("OddsDataからレース名マップの取得に失敗しました: {}", e.getMessage());
             return Map.of();
@@ -58,14 +102,8 @@ public class OddsHistoryService {
      */
     public List<String> getUrls() {
         try {
-            List<List<Object>> rows = googleSheetsService.readData(ODDS_DATA_RANGE);
-            return rows.stream()
-                    .filter(row -> row.size() > 1)
-                    .map(row -> row.get(1).toString())
-                    .filter(url -> !url.isBlank() && url.startsWith("http"))
-                    .distinct()
-                    .sorted()
-                    .collect(Collectors.toList());
+            ensureLoaded();
+            return historyIndex.getUrls();
         } catch (Exception e) {
             logger.warn("OddsDataからURL一覧の取得に失敗しました: {}", e.getMessage());
             return List.of();
@@ -78,17 +116,8 @@ public class OddsHistoryService {
      */
     public List<HorseDto> getHorses(String url) {
         try {
-            List<List<Object>> rows = googleSheetsService.readData(ODDS_DATA_RANGE);
-            return rows.stream()
-                    .filter(row -> row.size() > 4 && url.equals(row.get(1).toString()))
-                    .map(row -> new HorseDto(
-                            parseIntSafe(row.get(3).toString()),
-                            row.get(4).toString()
-                    ))
-                    .filter(dto -> !dto.horseName().isBlank())
-                    .distinct()
-                    .sorted(Comparator.comparingInt(HorseDto::horseNumber))
-                    .collect(Collectors.toList());
+            ensureLoaded();
+            return historyIndex.getHorses(url);
         } catch (Exception e) {
             logger.warn("OddsDataから馬一覧の取得に失敗しました: url={}, error={}", url, e.getMessage());
             return List.of();
@@ -100,19 +129,8 @@ public class OddsHistoryService {
      */
     public List<OddsHistoryItemDto> getHistory(String url, String horseName) {
         try {
-            List<List<Object>> rows = googleSheetsService.readData(ODDS_DATA_RANGE);
-            return rows.stream()
-                    .filter(row -> row.size() > 7
-                            && url.equals(row.get(1).toString())
-                            && horseName.equals(row.get(4).toString()))
-                    .sorted(Comparator.comparing(row -> row.get(0).toString()))
-                    .map(row -> new OddsHistoryItemDto(
-                            row.get(0).toString(),
-                            parseDoubleSafe(row.get(5).toString()),
-                            parseDoubleSafe(row.get(6).toString()),
-                            parseDoubleSafe(row.get(7).toString())
-                    ))
-                    .collect(Collectors.toList());
+            ensureLoaded();
+            return historyIndex.getHistory(url, horseName);
         } catch (Exception e) {
             logger.warn("OddsDataから時系列データの取得に失敗しました: url={}, horse={}, error={}",
                     url, horseName, e.getMessage());
@@ -125,7 +143,7 @@ public class OddsHistoryService {
      */
     public List<AlertHistoryItemDto> getAlerts(String url, String horseName) {
         try {
-            List<List<Object>> rows = googleSheetsService.readData(ALERTS_RANGE);
+            List<List<Object>> rows = sheetStore.readData(ALERTS_RANGE);
             return rows.stream()
                     .filter(row -> row.size() > 6
                             && url.equals(row.get(1).toString())
@@ -146,12 +164,88 @@ public class OddsHistoryService {
         }
     }
 
-    private int parseIntSafe(String s) {
-        try {
-            return Integer.parseInt(s.trim());
-        } catch (NumberFormatException e) {
-            return 0;
+    /**
+     * 索引を破棄し、次回の問い合わせで OddsData シートの全行を読み込み直すようにします。
+     * OddsData シートをクリアした場合に呼び出します。
+     */
+    public synchronized void invalidate() {
+        historyIndex.invalidate();
+        ingestedRowCount = 0;
+        checkpointRow = null;
+        nextRefreshAt = Instant.MIN;
+        logger.info("オッズ履歴の索引を破棄しました");
+    }
+
+    /**
+     * 索引が未構築の場合は全行を読み込み、前回の読み込みから一定時間が経過している場合は末尾の追記分を読み込みます。
+     * 同時に呼ばれても読み込みは1回です。末尾読み込みに失敗した場合は、前回までの内容で応答を続けます。
+     */
+    private void ensureLoaded() throws IOException {
+        if (historyIndex.isLoaded() && clock.instant().isBefore(nextRefreshAt)) {
+            return;
+        }
+        synchronized (this) {
+            if (historyIndex.isLoaded() && clock.instant().isBefore(nextRefreshAt)) {
+                return;
+            }
+            if (!historyIndex.isLoaded()) {
+                loadAll();
+            } else {
+                try {
+                    loadTail();
+                } catch (IOException e) {
+                    logger.warn("OddsDataの追記分の読み込みに失敗しました。前回までの内容を返します: {}", e.getMessage());
+                }
+            }
+            nextRefreshAt = clock.instant().plus(REFRESH_INTERVAL);
+        }
+    }
+
+    /** OddsData シートの全行を読み込み、索引を構築します。 */
+    private void loadAll() throws IOException {
+        List<List<Object>> rows = sheetStore.readData(ODDS_DATA_RANGE);
+        historyIndex.load(rows);
+        ingestedRowCount = rows.size();
+        checkpointRow = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        logger.info("OddsDataを読み込み、オッズ履歴の索引を構築しました: {}行", rows.size());
+    }
+
+    /**
+     * 読み込み済みの最終行から末尾までを読み込み、追記された行を索引に反映します。
+     * 最終行の内容が前回と異なる場合（シートのクリア・書き換え）は、索引を破棄して全行を読み込み直します。
+     */
+    private void loadTail() throws IOException {
+        if (ingestedRowCount == 0) {
+            historyIndex.invalidate();
+            loadAll();
+            return;
+        }
+        List<List<Object>> rows = sheetStore.readData("OddsData!A" + ingestedRowCount + ":I");
+        if (rows.isEmpty() || !sameRow(rows.get(0), checkpointRow)) {
+            logger.info("OddsDataのクリアまたは書き換えを検知したため、オッズ履歴の索引を再構築します");
+            historyIndex.invalidate();
+            loadAll();
+            return;
+        }
+        if (rows.size() > 1) {
+            historyIndex.addRows(rows.subList(1, rows.size()));
+            ingestedRowCount += rows.size() - 1;
+            checkpointRow = rows.get(rows.size() - 1);
+            logger.debug("OddsDataの追記分を読み込みました: {}行", rows.size() - 1);
+        }
+    }
+
+    /** Sheets から読み込んだ2行が同じ内容かを、セルの文字列表現で比較します。 */
+    private static boolean sameRow(List<Object> row, List<Object> other) {
+        if (other == null || row.size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < row.size(); i++) {
+            if (!row.get(i).toString().equals(other.get(i).toString())) {
+                return false;
+            }
         }
+        return true;
     }
 
     private Double parseDoubleSafe(String s) {
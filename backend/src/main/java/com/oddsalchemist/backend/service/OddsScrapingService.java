@@ -1,23 +1,308 @@
 package com.oddsalchemist.backend.service;
 
-import org.jsoup.Jsoup;
+import com.oddsalchemist.backend.config.ScrapingProperties;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
+/**
+ * レースページのHTMLを取得するサービス。
+ * <p>
+ * 1つの {@link HttpClient} を使い回し、接続（HTTP/2 または HTTP/1.1 keep-alive）を再利用する。
+ * 圧縮転送（gzip / deflate）を要求して受信後に展開し、文字コードを判定して文字列に変換する。
+ * タイムアウトは接続・レスポンスヘッダー受信までと、本文を読み終えるまでの全体の期限を ScrapingProperties から設定する。
+ * 本文はパース・記録・変化判定のいずれも文字列全体を使うため、逐次処理せず読み終えてから変換する。
+ * 定期取得では {@link #fetchHtmlIfChanged} で前回から変化のないページを読み飛ばせる。
+ */
 @Service
 public class OddsScrapingService {
 
     private static final Logger logger = LoggerFactory.getLogger(OddsScrapingService.class);
 
+    private static final String USER_AGENT = "Mozilla/5.0";
+
+    /** JDK で展開できる圧縮形式のみ要求する（brotli は展開できないため要求しない） */
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    /** Content-Type に文字コードがない場合に meta タグを探す範囲（先頭バイト数） */
+    private static final int CHARSET_SNIFF_BYTES = 2048;
+
+    /** オッズテーブルの行に付くクラス名（変化判定のハッシュ範囲の目印） */
+    private static final String ODDS_ROW_MARKER = "hr-tableValue__row";
+
+    private static final Pattern CONTENT_TYPE_CHARSET = Pattern.compile("charset=\\s*\"?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern META_CHARSET = Pattern.compile("<meta[^>]+charset=\\s*[\"']?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+
+    private final FetchRateLimiter rateLimiter;
+    private final HttpClient httpClient;
+    private final Duration responseTimeout;
+    private final Duration requestTimeout;
+
+    /** URL → 処理が完了した取得の変化判定用の情報 */
+    private final ConcurrentHashMap<String, PageValidators> validators = new ConcurrentHashMap<>();
+
+    /** URL → 返したHTMLの処理完了（{@link #commit(String)}）を待っている変化判定用の情報 */
+    private final ConcurrentHashMap<String, PageValidators> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 変化判定用の情報。
+     *
+     * @param etag         ETag ヘッダー（ない場合は null）
+     * @param lastModified Last-Modified ヘッダー（ない場合は null）
+     * @param oddsHash     オッズテーブル部分のハッシュ（オッズ行がない場合は null）
+     */
+    private record PageValidators(String etag, String lastModified, String oddsHash) {}
+
+    public OddsScrapingService(FetchRateLimiter rateLimiter, ScrapingProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(properties.connectTimeout())
+                .build();
+        this.responseTimeout = properties.responseTimeout();
+        this.requestTimeout = properties.requestTimeout();
+    }
+
+    /**
+     * アプリ終了時に HttpClient を閉じ、保持している接続を解放します。
+     */
+    @PreDestroy
+    public void close() {
+        httpClient.close();
+    }
+
+    /**
+     * 発走時刻が不明なものとして（最も低い優先度で）HTMLを取得します。
+     */
     public String fetchHtml(String url) throws IOException {
-        logger.info("HTMLを取得中: URL={}", url);
-        return Jsoup.connect(url)
-                .userAgent("Mozilla/5.0")
-                .timeout(5000)
-                .get()
-                .html();
-    }
-}
\ No newline at end of file
+        return fetchHtml(url, Optional.empty());
+    }
+
+    /**
+     * FetchRateLimiter の許可を得てから HTML を取得します。
+     * 許可待ちの取得が複数ある場合は、発走時刻が近いレースから取得します。
+     *
+     * @param url       取得するURL
+     * @param startTime 発走時刻（不明な場合は空）
+     * @throws IOException 通信エラー・タイムアウト・2xx 以外のステータスの場合
+     */
+    public String fetchHtml(String url, Optional<LocalTime> startTime) throws IOException {
+        return fetch(url, startTime, false).orElseThrow();
+    }
+
+    /**
+     * 前回の取得から変化がある場合のみ HTML を返します。
+     * <p>
+     * 前回のレスポンスに ETag / Last-Modified があれば条件付きリクエストを送り、304 の場合は空を返します。
+     * 200 の場合もオッズテーブル部分のハッシュが前回と同じであれば空を返します。
+     * 判定に使う情報は URL ごとに保持し、{@link #forget(String)} で破棄します。
+     * HTML を返した場合、その取得の判定用の情報は {@link #commit(String)} を呼ぶまで次回の判定に使いません
+     * （書き込み登録までの処理が失敗した場合、次回は同じ内容でも HTML を返し直します）。
+     *
+     * @param url       取得するURL
+     * @param startTime 発走時刻（不明な場合は空）
+     * @return 取得した HTML（前回から変化がない場合は空）
+     * @throws IOException 通信エラー・タイムアウト・2xx/304 以外のステータスの場合
+     */
+    public Optional<String> fetchHtmlIfChanged(String url, Optional<LocalTime> startTime) throws IOException {
+        return fetch(url, startTime, true);
+    }
+
+    /**
+     * 指定URLの変化判定用の情報（ETag / Last-Modified / オッズテーブルのハッシュ）を破棄します。
+     * URL監視対象から削除する際に呼び出します。
+     */
+    public void forget(String url) {
+        validators.remove(url);
+        pending.remove(url);
+    }
+
+    /**
+     * {@link #fetchHtmlIfChanged} で返した HTML の処理（書き込み登録まで）が完了したことを記録し、
+     * その取得の変化判定用の情報を次回の判定に使うようにします。
+     */
+    public void commit(String url) {
+        PageValidators current = pending.remove(url);
+        if (current != null) {
+            validators.put(url, current);
+        }
+    }
+
+    private Optional<String> fetch(String url, Optional<LocalTime> startTime, boolean conditional) throws IOException {
+        PageValidators previous = conditional ? validators.get(url) : null;
+        Duration waitTime = rateLimiter.acquire(url, priorityOf(startTime));
+        logger.info("HTMLを取得中: URL={}, 待ち時間={}ms", url, waitTime.toMillis());
+        HttpResponse<byte[]> response = send(url, previous);
+        if (previous != null && response.statusCode() == 304) {
+            logger.info("前回から更新なし（304）: URL={}", url);
+            return Optional.empty();
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("HTMLの取得に失敗しました: status=" + response.statusCode() + ", URL=" + url);
+        }
+        String contentEncoding = response.headers().firstValue("Content-Encoding").orElse("");
+        byte[] body = decompress(response.body(), contentEncoding);
+        Charset charset = charsetOf(response.headers().firstValue("Content-Type").orElse(""), body);
+        logger.debug("HTMLを取得しました: URL={}, 転送={}bytes, 展開後={}bytes, encoding={}, version={}",
+                url, response.body().length, body.length, contentEncoding, response.version());
+        String html = new String(body, charset);
+        if (!conditional) {
+            return Optional.of(html);
+        }
+
+        PageValidators current = new PageValidators(
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                oddsRegionHash(html));
+        if (previous != null && current.oddsHash() != null && current.oddsHash().equals(previous.oddsHash())) {
+            logger.info("オッズテーブルに変化なし: URL={}", url);
+            validators.put(url, current);
+            return Optional.empty();
+        }
+        pending.put(url, current);
+        return Optional.of(html);
+    }
+
+    /**
+     * リクエストを送信し、本文を読み終えるまで待ちます。
+     * 前回の ETag / Last-Modified がある場合は条件付きリクエストにします。
+     * レスポンスヘッダーまでは responseTimeout、本文を読み終えるまでは requestTimeout（送信からの全体の期限）で打ち切ります。
+     */
+    private HttpResponse<byte[]> send(String url, PageValidators previous) throws IOException {
+        HttpRequest request;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(responseTimeout)
+                    .header("User-Agent", USER_AGENT)
+                    .header("Accept-Encoding", ACCEPT_ENCODING)
+                    .GET();
+            if (previous != null && previous.etag() != null) {
+                builder.header("If-None-Match", previous.etag());
+            }
+            if (previous != null && previous.lastModified() != null) {
+                builder.header("If-Modified-Since", previous.lastModified());
+            }
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("URLが不正です: " + url, e);
+        }
+        CompletableFuture<HttpResponse<byte[]>> future =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        try {
+            return future.get(requestTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HttpTimeoutException("HTMLの取得が期限内に完了しませんでした: URL=" + url);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("HTMLの取得中に中断されました: URL=" + url);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("HTMLの取得に失敗しました: URL=" + url, e.getCause());
+        }
+    }
+
+    /** Content-Encoding に応じて本文を展開します。 */
+    static byte[] decompress(byte[] body, String contentEncoding) throws IOException {
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || encoding.equals("identity")) {
+            return body;
+        }
+        InputStream in = switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(new ByteArrayInputStream(body));
+            case "deflate" -> new InflaterInputStream(new ByteArrayInputStream(body));
+            default -> throw new IOException("未対応の Content-Encoding です: " + contentEncoding);
+        };
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * 本文の文字コードを Content-Type → meta タグ → UTF-8 の順に判定します。
+     */
+    static Charset charsetOf(String contentType, byte[] body) {
+        Optional<Charset> fromHeader = findCharset(CONTENT_TYPE_CHARSET.matcher(contentType));
+        if (fromHeader.isPresent()) {
+            return fromHeader.get();
+        }
+        String head = new String(body, 0, Math.min(body.length, CHARSET_SNIFF_BYTES), StandardCharsets.ISO_8859_1);
+        return findCharset(META_CHARSET.matcher(head)).orElse(StandardCharsets.UTF_8);
+    }
+
+    private static Optional<Charset> findCharset(Matcher matcher) {
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Charset.forName(matcher.group(1)));
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * オッズテーブル（最初のオッズ行を含む table から最後のオッズ行を含む table の終わりまで）の
+     * SHA-256 ハッシュを返します。広告や現在時刻などテーブル外の変化は無視されます。
+     * オッズ行が見つからない場合は null を返します（変化なしとは判定しない）。
+     */
+    static String oddsRegionHash(String html) {
+        int firstRow = html.indexOf(ODDS_ROW_MARKER);
+        if (firstRow < 0) {
+            return null;
+        }
+        int lastRow = html.lastIndexOf(ODDS_ROW_MARKER);
+        int tableStart = html.lastIndexOf("<table", firstRow);
+        int tableEnd = html.indexOf("</table>", lastRow);
+        int from = tableStart >= 0 ? tableStart : firstRow;
+        int to = tableEnd >= 0 ? tableEnd : html.length();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(html.substring(from, to).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 が利用できません", e);
+        }
+    }
+
+    /** 発走までの残り秒数を優先度とします（発走済みは 0、不明は最低優先度）。 */
+    static long priorityOf(Optional<LocalTime> startTime) {
+        return startTime
+                .map(start -> Math.max(0, Duration.between(LocalTime.now(), start).toSeconds()))
+                .orElse(FetchRateLimiter.LOWEST_PRIORITY);
+    }
+}
@@ -1,14 +1,18 @@
 package com.oddsalchemist.backend.service;
 
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
 import com.oddsalchemist.backend.dto.AnomalyAlertDto;
 import com.oddsalchemist.backend.dto.OddsData;
-import com.oddsalchemist.backend.parser.RaceOddsParser;
+import com.oddsalchemist.backend.parser.ParsedRacePage;
+import com.oddsalchemist.backend.parser.RacePageParser;
+import com.oddsalchemist.backend.util.SheetsDates;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import com.oddsalchemist.backend.util.SheetsDates;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -24,39 +28,76 @@ public class OddsSyncService {
     private static final Logger logger = LoggerFactory.getLogger(OddsSyncService.class);
 
     private final OddsScrapingService scrapingService;
-    private final RaceOddsParser parser;
-    private final GoogleSheetsService sheetsService;
+    private final RacePageParser parser;
+    private final SheetsWriteQueue writeQueue;
     private final OddsAnomalyDetector anomalyDetector;
     private final SlackNotifyClient slackNotifyClient;
+    private final OddsHistoryIndex historyIndex;
+    private final OddsDeltaEncoder deltaEncoder;
+    private final PageRecorder pageRecorder;
+
+    /** 書き込む行の取得日時に使用するクロック（リプレイでは仮想時刻に差し替える） */
+    private final Clock clock;
 
     /** URL別の発走時刻キャッシュ（スクレイピングのたびに更新） */
     private final ConcurrentHashMap<String, Optional<LocalTime>> cachedStartTimes = new ConcurrentHashMap<>();
 
-    public OddsSyncService(OddsScrapingService scrapingService, RaceOddsParser parser,
-                           GoogleSheetsService sheetsService, OddsAnomalyDetector anomalyDetector,
-                           SlackNotifyClient slackNotifyClient) {
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public OddsSyncService(OddsScrapingService scrapingService, RacePageParser parser,
+                           SheetsWriteQueue writeQueue, OddsAnomalyDetector anomalyDetector,
+                           SlackNotifyClient slackNotifyClient, OddsHistoryIndex historyIndex,
+                           OddsDeltaProperties deltaProperties, PageRecorder pageRecorder) {
+        this(scrapingService, parser, writeQueue, anomalyDetector, slackNotifyClient, historyIndex,
+                deltaProperties, pageRecorder, Clock.systemDefaultZone());
+    }
+
+    /** テスト・リプレイ用コンストラクタ（ページの記録先・Clockを指定可能） */
+    OddsSyncService(OddsScrapingService scrapingService, RacePageParser parser,
+                    SheetsWriteQueue writeQueue, OddsAnomalyDetector anomalyDetector,
+                    SlackNotifyClient slackNotifyClient, OddsHistoryIndex historyIndex,
+                    OddsDeltaProperties deltaProperties, PageRecorder pageRecorder, Clock clock) {
         this.scrapingService = scrapingService;
         this.parser = parser;
-        this.sheetsService = sheetsService;
+        this.writeQueue = writeQueue;
         this.anomalyDetector = anomalyDetector;
         this.slackNotifyClient = slackNotifyClient;
+        this.historyIndex = historyIndex;
+        this.deltaEncoder = new OddsDeltaEncoder(deltaProperties);
+        this.pageRecorder = pageRecorder;
+        this.clock = clock;
     }
 
     /**
      * 対象URLからオッズを取得し、スプレッドシートへ追記します。
-     * @return スプレッドシートに書き込んだデータ件数
+     * 追記は SheetsWriteQueue に登録した時点で戻り、Sheets への書き込みはバックグラウンドでまとめて行われます。
+     * ページが前回の取得から変化していない場合は、パース・異常検知・追記を行わずに 0 を返します
+     * （実行時刻は呼び出し元のスケジューラが記録します）。
+     * 取得したページの変化判定用の情報は書き込みの登録（または書き込む行がないことの確定）まで処理できた場合のみ確定し、
+     * 途中で失敗した場合は次回同じ内容のページでも処理し直します。
+     * @return スプレッドシートへの書き込みを登録したデータ件数
      */
     public int fetchAndSaveOdds(String targetUrl, String range) throws IOException {
         logger.info("オッズ取得開始: URL={}", targetUrl);
 
-        // 1. HTMLの取得
-        String html = scrapingService.fetchHtml(targetUrl);
+        // 1. HTMLの取得（発走時刻が近いレースほど取得待ちで優先される）
+        Optional<String> fetched = scrapingService.fetchHtmlIfChanged(targetUrl, getCachedStartTime(targetUrl));
+        if (fetched.isEmpty()) {
+            logger.info("前回から変化がないためパース・書き込みをスキップ: URL={}", targetUrl);
+            return 0;
+        }
+        String html = fetched.get();
+
+        // 1.1. リプレイ用にHTMLを記録（有効な場合のみ）
+        pageRecorder.record(targetUrl, clock.instant(), html);
 
-        // 2. データのパース
-        List<OddsData> oddsList = parser.parse(html);
+        // 2. データのパース（オッズ行・発走時刻を1回のDOM構築でまとめて取得）
+        ParsedRacePage page = parser.parsePage(html);
+        List<OddsData> oddsList = page.oddsList();
 
         if (oddsList.isEmpty()) {
             logger.warn("オッズデータが取得できませんでした: URL={}", targetUrl);
+            scrapingService.commit(targetUrl);
             return 0;
         }
 
@@ -66,8 +107,8 @@ public class OddsSyncService {
                         d.winOdds(), d.placeOddsMin(), d.placeOddsMax(), targetUrl))
                 .collect(Collectors.toList());
 
-        // 3. 発走時刻をパースしてキャッシュに保存（次回スケジューリングの間隔算出に使用）
-        Optional<LocalTime> startTime = parser.parseStartTime(html);
+        // 3. 発走時刻をキャッシュに保存（次回スケジューリングの間隔算出に使用）
+        Optional<LocalTime> startTime = page.startTime();
         cachedStartTimes.put(targetUrl, startTime);
         startTime.ifPresentOrElse(
                 t -> logger.info("発走時刻を取得: URL={}, 発走時刻={}", targetUrl, t),
@@ -83,12 +124,23 @@ public class OddsSyncService {
         // 4.2. 未通知のアラートをSlackへ送信（送信済みキャッシュで初回検知のみ）
         slackNotifyClient.notify(alerts, targetUrl);
 
-        // 5. スプレッドシート用の2次元配列に変換
-        List<List<Object>> values = convertToSheetData(oddsListWithUrl);
+        // 5. スプレッドシート用の2次元配列に変換（差分書き込みが有効な場合は変化した馬の行に絞り込む）
+        OddsDeltaEncoder.Encoded encoded = deltaEncoder.encode(targetUrl, convertToSheetData(oddsListWithUrl));
+        List<List<Object>> values = encoded.rows();
+        if (values.isEmpty()) {
+            logger.info("前回の書き込みからオッズが変化した馬がいないため書き込みをスキップ: URL={}", targetUrl);
+            scrapingService.commit(targetUrl);
+            return 0;
+        }
 
-        // 6. スプレッドシートへ書き込み
-        sheetsService.appendData(range, values);
-        logger.info("Successfully saved {} rows to spreadsheet.", values.size());
+        // 6. スプレッドシートへの書き込みを登録（書き込み自体はバックグラウンドでまとめて行う）
+        writeQueue.enqueue(range, values);
+        deltaEncoder.commit(targetUrl, encoded);
+        scrapingService.commit(targetUrl);
+        logger.info("Queued {} rows for spreadsheet.", values.size());
+
+        // 6.1. 書き込んだ行をオッズ履歴の索引に反映（グラフ表示のためにシートを読み直さない）
+        historyIndex.addRows(values);
 
         return values.size(); // 変更点: 保存した件数を返す
     }
@@ -115,19 +167,29 @@ public class OddsSyncService {
     }
 
     /**
-     * 指定URLの異常検知状態（前回スナップショット・基準値）をクリアします。
+     * 指定URLの異常検知状態（前回スナップショット・基準値）、取得時の変化判定用の情報、差分書き込みの基準をクリアします。
      * URL監視対象から削除する際に呼び出します。
      *
      * @param url 削除対象URL
      */
     public void clearStateForUrl(String url) {
         anomalyDetector.clearStateForUrl(url);
+        scrapingService.forget(url);
+        deltaEncoder.forget(url);
+    }
+
+    /**
+     * 差分書き込みの基準（レースごとの前回書き込んだ内容）を破棄し、次回の書き込みを全馬の行にします。
+     * OddsData シートをクリアした場合に呼び出します。
+     */
+    public void resetPersistedSnapshots() {
+        deltaEncoder.reset();
     }
 
     /**
-     * 検知されたアラートを "Alerts" シートへ追記します。
+     * 検知されたアラートを "Alerts" シートへの書き込み待ちに登録します。
      * アラートがない場合は何もしません。
-     * 書き込み失敗時はシステムを止めず、ERRORログを出力します。
+     * 登録失敗時（書き込み待ちが満杯）はシステムを止めず、ERRORログを出力します。
      *
      * 列順: A=検知日時, B=対象URL, C=レース名, D=馬番, E=馬名, F=検知タイプ, G=該当数値
      */
@@ -150,16 +212,17 @@ public class OddsSyncService {
         }
 
         try {
-            sheetsService.appendData("Alerts!A:G", rows);
-            logger.info("アラートをSheetsに保存しました: {}件, URL={}", rows.size(), targetUrl);
+            writeQueue.enqueue("Alerts!A:G", rows);
+            logger.info("アラートをSheetsへの書き込み待ちに登録しました: {}件, URL={}", rows.size(), targetUrl);
         } catch (IOException e) {
             logger.error("アラートのSheets書き込みに失敗しました: URL={}", targetUrl, e);
         }
     }
 
-    private List<List<Object>> convertToSheetData(List<OddsData> oddsList) {
+    /** オッズデータをSheetsの行データ（A〜H列）に変換します。ベンチマークから参照するためパッケージプライベート。 */
+    List<List<Object>> convertToSheetData(List<OddsData> oddsList) {
         List<List<Object>> values = new ArrayList<>();
-        String timestamp = LocalDateTime.now().format(SheetsDates.FORMATTER);
+        String timestamp = LocalDateTime.now(clock).format(SheetsDates.FORMATTER);
 
         for (OddsData odds : oddsList) {
             List<Object> row = new ArrayList<>();
@@ -0,0 +1,155 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.RecordingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 取得したレースページのHTMLを取得日時とともに保存し、{@link ReplayRunner} で再生できるようにする記録。
+ * <p>
+ * 記録は {@code <directory>/<取得日>/<URLのハッシュ>.rec.gz} にレースごとに追記する。
+ * 1件ごとに独立した gzip メンバー（取得日時のエポックミリ秒・URL・HTML）として追記するため、
+ * ファイル全体を1つの gzip ストリームとして先頭から読み込める。
+ * 書き込み途中で停止した末尾の不完全な1件は、読み込み時に読み飛ばす。
+ * 記録に失敗した場合は WARN ログを出力し、スクレイピングは止めない。
+ */
+@Service
+public class PageRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageRecorder.class);
+
+    static final String FILE_SUFFIX = ".rec.gz";
+
+    /**
+     * 記録した1ページ。
+     *
+     * @param url       レースURL
+     * @param fetchedAt 取得日時
+     * @param html      取得したHTML
+     */
+    public record RecordedPage(String url, Instant fetchedAt, String html) {}
+
+    /** 保存先（記録しない場合は null） */
+    private final Path directory;
+    private final ZoneId zone;
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public PageRecorder(RecordingProperties properties) {
+        this(properties.enabled() ? Path.of(properties.directory()) : null, ZoneId.systemDefault());
+    }
+
+    /** テスト用コンストラクタ（保存先・取得日の判定に使うタイムゾーンを指定可能。保存先が null の場合は記録しない） */
+    PageRecorder(Path directory, ZoneId zone) {
+        this.directory = directory;
+        this.zone = zone;
+    }
+
+    /** 記録しない PageRecorder を返します。 */
+    static PageRecorder disabled() {
+        return new PageRecorder(null, ZoneId.systemDefault());
+    }
+
+    /** 記録が有効かを返します。 */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * 取得したHTMLを記録します。無効の場合は何もしません。
+     * 圧縮はロックの外で行い、ファイルへの追記だけを直列化します。
+     */
+    public void record(String url, Instant fetchedAt, String html) {
+        if (directory == null) {
+            return;
+        }
+        Path file = directory.resolve(LocalDate.ofInstant(fetchedAt, zone).toString()).resolve(fileNameOf(url));
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(html.length() / 4);
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+                out.writeLong(fetchedAt.toEpochMilli());
+                SheetRowCodec.writeString(out, url);
+                SheetRowCodec.writeString(out, html);
+            }
+            synchronized (this) {
+                Files.createDirectories(file.getParent());
+                Files.write(file, bytes.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            logger.warn("ページの記録に失敗しました: URL={}, path={}, error={}", url, file, e.getMessage());
+        }
+    }
+
+    /**
+     * 1日分の記録ディレクトリ（{@code <directory>/<取得日>}）の全レースの記録を、取得日時順に読み込みます。
+     * 同じ取得日時の記録はファイル名順・記録順に並べます。
+     */
+    public static List<RecordedPage> readDay(Path dayDirectory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dayDirectory, "*" + FILE_SUFFIX)) {
+            entries.forEach(files::add);
+        }
+        files.sort(Comparator.naturalOrder());
+        List<RecordedPage> pages = new ArrayList<>();
+        for (Path file : files) {
+            pages.addAll(readFile(file));
+        }
+        pages.sort(Comparator.comparing(RecordedPage::fetchedAt));
+        return pages;
+    }
+
+    /** 1レース分の記録ファイルを記録順に読み込みます。 */
+    public static List<RecordedPage> readFile(Path file) throws IOException {
+        List<RecordedPage> pages = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long epochMilli;
+                try {
+                    epochMilli = in.readLong();
+                } catch (EOFException end) {
+                    break;
+                }
+                pages.add(new RecordedPage(SheetRowCodec.readString(in), Instant.ofEpochMilli(epochMilli),
+                        SheetRowCodec.readString(in)));
+            }
+        } catch (EOFException | ZipException e) {
+            logger.warn("記録の末尾が不完全なため読み飛ばしました: path={}, 読み込み件数={}", file, pages.size());
+        }
+        return pages;
+    }
+
+    /** URLの SHA-256 の先頭16文字をファイル名にします（URLは各記録に含まれる）。 */
+    static String fileNameOf(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8) + FILE_SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 が利用できません", e);
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.OddsData;
+import com.oddsalchemist.backend.parser.ParsedRacePage;
+import com.oddsalchemist.backend.parser.RaceOddsParser;
+import com.oddsalchemist.backend.parser.RacePageParser;
+import com.oddsalchemist.backend.parser.StreamingRaceOddsParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link PageRecorder} で記録したページに対して、複数の検知閾値（{@link DetectorParameters}）を一度に評価するグリッドサーチ。
+ * <p>
+ * 記録は {@link #prepare} で1回だけパースし、閾値によらない値（支持率の変化量・順位乖離・基準比の逸脱量・加速度・
+ * 隣接オッズ比など）をレースごとのプリミティブ配列に変換しておく。{@link #evaluate} はこの配列を1回だけ走査し、
+ * 各値を全閾値セットの閾値配列と比較して、閾値セットごとのアラート件数を数える。
+ * 閾値セットごとに OddsSyncService・OddsAnomalyDetector を実行し直す {@link ReplayRunner} と異なり、
+ * パース・状態の更新は閾値セットの数によらず1回で済む。
+ * <p>
+ * 件数は {@link ReplayRunner} で同じ記録を同じ閾値で処理した場合のアラート件数と一致する（アラート種別ごと）。
+ * <p>
+ * コマンドラインからは {@code <記録ディレクトリ> [jsoup|streaming]} を引数に実行し、
+ * 既定値を中心とした閾値の組み合わせごとのアラート件数をログに出力する。
+ */
+public class ParameterSweepRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParameterSweepRunner.class);
+
+    /** 値が存在しない（その馬・そのページでは判定対象外）ことを表す値 */
+    private static final long NONE = Long.MIN_VALUE;
+
+    /** 順位乖離が判定対象外（上位3番人気・順位未確定）であることを表す値 */
+    private static final int NO_GAP = Integer.MIN_VALUE;
+
+    /** 発走後でフェーズ逸脱の判定対象外であることを表す値 */
+    private static final byte NO_PHASE = -1;
+
+    /** アラート種別（OddsAnomalyDetector が出力する alertType ごと） */
+    public enum AlertKind {
+        SUPPORT_RATE("支持率急増"),
+        RANK_GAP("順位乖離"),
+        RANK_GAP_WIDENING("順位乖離[拡大中]"),
+        RANK_GAP_NARROWING("順位乖離[解消中]"),
+        TREND("トレンド逸脱"),
+        ACCELERATION("支持率加速"),
+        PHASE_MORNING("フェーズ逸脱[朝]"),
+        PHASE_PRE_30("フェーズ逸脱[30分前]"),
+        PHASE_PRE_10("フェーズ逸脱[10分前]"),
+        CLIFF_CONDENSE("オッズ断層[凝縮]"),
+        CLIFF_SPREAD("オッズ断層[拡散]");
+
+        private final String alertType;
+
+        AlertKind(String alertType) {
+            this.alertType = alertType;
+        }
+
+        /** AnomalyAlertDto の alertType と同じ文字列を返します。 */
+        public String alertType() {
+            return alertType;
+        }
+    }
+
+    /**
+     * 閾値セット1件分の評価結果。
+     *
+     * @param parameters  評価した閾値
+     * @param alertCounts アラート種別ごとの件数（全種別を含む）
+     */
+    public record Result(DetectorParameters parameters, Map<AlertKind, Long> alertCounts) {
+
+        /** アラートの合計件数を返します。 */
+        public long totalAlerts() {
+            return alertCounts.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /** 1件以上検知したアラート種別の件数を alertType をキーに返します（種別の定義順）。 */
+        public Map<String, Long> countsByAlertType() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            alertCounts.forEach((kind, count) -> {
+                if (count > 0) {
+                    counts.put(kind.alertType(), count);
+                }
+            });
+            return counts;
+        }
+    }
+
+    /**
+     * パース済みの記録（閾値によらない値をレースごとの配列に変換したもの）。
+     * 同じ記録に対して {@link #evaluate} を何度でも呼び出せる。
+     */
+    public static final class SweepInput {
+
+        private final List<RaceSeries> races;
+        private final int pages;
+
+        private SweepInput(List<RaceSeries> races, int pages) {
+            this.races = races;
+            this.pages = pages;
+        }
+
+        /** 記録のページ数を返します。 */
+        public int pages() {
+            return pages;
+        }
+
+        /** レース（URL）数を返します。 */
+        public int races() {
+            return races.size();
+        }
+    }
+
+    private final RacePageParser parser;
+    private final ZoneId zone;
+
+    /**
+     * 取得日時をシステムのタイムゾーンで解釈します（{@link ReplayRunner} と同じ）。
+     *
+     * @param parser 使用するパーサー
+     */
+    public ParameterSweepRunner(RacePageParser parser) {
+        this(parser, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param parser 使用するパーサー
+     * @param zone   取得日時から日付（日次リセット）・時刻（フェーズ判定）を求めるタイムゾーン
+     */
+    public ParameterSweepRunner(RacePageParser parser, ZoneId zone) {
+        this.parser = parser;
+        this.zone = zone;
+    }
+
+    /**
+     * 記録したページをパースし、レース（URL）ごとに閾値によらない値の配列に変換します。
+     *
+     * @param pages 取得日時順のページ
+     */
+    public SweepInput prepare(List<PageRecorder.RecordedPage> pages) {
+        // URL 昇順・各レース内は取得日時順（ReplayRunner と同じ）
+        Map<String, List<PageRecorder.RecordedPage>> byUrl = new TreeMap<>();
+        for (PageRecorder.RecordedPage page : pages) {
+            byUrl.computeIfAbsent(page.url(), k -> new ArrayList<>()).add(page);
+        }
+        List<RaceSeries> races = new ArrayList<>(byUrl.size());
+        for (List<PageRecorder.RecordedPage> racePages : byUrl.values()) {
+            races.add(compile(racePages));
+        }
+        return new SweepInput(races, pages.size());
+    }
+
+    /**
+     * 閾値セットごとのアラート件数を数えます。{@code evaluate(prepare(pages), parameterSets)} と同じです。
+     *
+     * @param pages         取得日時順のページ
+     * @param parameterSets 評価する閾値
+     */
+    public List<Result> run(List<PageRecorder.RecordedPage> pages, List<DetectorParameters> parameterSets) {
+        return evaluate(prepare(pages), parameterSets);
+    }
+
+    /**
+     * パース済みの記録を1回走査し、閾値セットごとのアラート件数を数えます。
+     * 各ページの各馬について、閾値によらない値を全閾値セットの閾値と続けて比較する。
+     * 閾値セットごとに持つ状態は、前回の順位乖離量（ロジックB）と前回の断層位置（ロジックF）のみ。
+     *
+     * @param input         {@link #prepare} の結果
+     * @param parameterSets 評価する閾値
+     * @return 閾値セットごとの結果（parameterSets と同じ順）
+     */
+    public List<Result> evaluate(SweepInput input, List<DetectorParameters> parameterSets) {
+        Thresholds thresholds = new Thresholds(parameterSets);
+        long[][] counts = new long[AlertKind.values().length][parameterSets.size()];
+        for (RaceSeries race : input.races) {
+            evaluate(race, thresholds, counts);
+        }
+
+        List<Result> results = new ArrayList<>(parameterSets.size());
+        for (int k = 0; k < parameterSets.size(); k++) {
+            Map<AlertKind, Long> alertCounts = new EnumMap<>(AlertKind.class);
+            for (AlertKind kind : AlertKind.values()) {
+                alertCounts.put(kind, counts[kind.ordinal()][k]);
+            }
+            results.add(new Result(parameterSets.get(k), alertCounts));
+        }
+        return results;
+    }
+
+    /**
+     * 既定値を中心とした閾値の組み合わせで記録を評価し、結果をログに出力します。
+     * 引数: {@code <記録ディレクトリ> [jsoup|streaming]}。
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            logger.error("使い方: ParameterSweepRunner <記録ディレクトリ> [jsoup|streaming]");
+            return;
+        }
+        RacePageParser parser = args.length > 1 && args[1].equals("streaming")
+                ? new StreamingRaceOddsParser() : new RaceOddsParser();
+        List<PageRecorder.RecordedPage> pages = ReplayRunner.readRecordings(Path.of(args[0]));
+        ParameterSweepRunner runner = new ParameterSweepRunner(parser);
+
+        long started = System.nanoTime();
+        SweepInput input = runner.prepare(pages);
+        long prepared = System.nanoTime();
+        List<DetectorParameters> grid = gridAroundDefaults();
+        List<Result> results = runner.evaluate(input, grid);
+        long evaluated = System.nanoTime();
+
+        for (Result result : results) {
+            logger.info("{} 合計={} {}", result.parameters(), result.totalAlerts(), result.countsByAlertType());
+        }
+        logger.info("グリッドサーチ完了: ページ数={}, レース数={}, 閾値セット数={}, パース={}ms, 評価={}ms",
+                input.pages(), input.races(), grid.size(),
+                (prepared - started) / 1_000_000, (evaluated - prepared) / 1_000_000);
+    }
+
+    /** 支持率・逸脱量・加速度の閾値を既定値の 0.5〜2倍、順位乖離・断層比率を既定値の前後で組み合わせた閾値を返します。 */
+    private static List<DetectorParameters> gridAroundDefaults() {
+        DetectorParameters defaults = DetectorParameters.defaults();
+        double[] scales = {0.5, 0.75, 1.0, 1.5, 2.0};
+        int[] rankGaps = {defaults.rankGapThreshold() - 1, defaults.rankGapThreshold(), defaults.rankGapThreshold() + 1};
+        double[] cliffRatios = {1.3, defaults.cliffRatioThreshold(), 2.0};
+        List<DetectorParameters> grid = new ArrayList<>();
+        for (double supportScale : scales) {
+            for (double trendScale : scales) {
+                for (double accelerationScale : scales) {
+                    for (int rankGap : rankGaps) {
+                        for (double cliffRatio : cliffRatios) {
+                            grid.add(new DetectorParameters(
+                                    Math.round(defaults.supportRateThreshold() * supportScale),
+                                    Math.round(defaults.trendDeviationThreshold() * trendScale),
+                                    rankGap,
+                                    defaults.trendRankMin(),
+                                    defaults.trendRankMax(),
+                                    Math.round(defaults.accelerationThreshold() * accelerationScale),
+                                    cliffRatio));
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * 1レース分のページをパースし、OddsAnomalyDetector#detect と同じ順序で状態を更新しながら、
+     * 閾値によらない値を配列に書き出します。
+     */
+    private RaceSeries compile(List<PageRecorder.RecordedPage> racePages) {
+        // detect() が呼ばれるページ（オッズ行があるページ）のみ対象とし、有効な単勝オッズの馬に絞る
+        List<Instant> fetchedAts = new ArrayList<>();
+        List<Optional<LocalTime>> startTimes = new ArrayList<>();
+        List<List<OddsData>> validLists = new ArrayList<>();
+        int entryCount = 0;
+        for (PageRecorder.RecordedPage page : racePages) {
+            ParsedRacePage parsed = parser.parsePage(page.html());
+            if (parsed.oddsList().isEmpty()) {
+                continue;
+            }
+            List<OddsData> validList = parsed.oddsList().stream()
+                    .filter(d -> d.winOdds() != null && d.winOdds() > 0)
+                    .collect(Collectors.toList());
+            fetchedAts.add(page.fetchedAt());
+            startTimes.add(parsed.startTime());
+            validLists.add(validList);
+            entryCount += validList.size();
+        }
+
+        RaceSeries race = new RaceSeries(validLists.size(), entryCount);
+        RaceAnomalyState state = new RaceAnomalyState();
+        LocalDate previousDate = null;
+        int entry = 0;
+        for (int s = 0; s < validLists.size(); s++) {
+            Instant now = fetchedAts.get(s);
+            List<OddsData> validList = validLists.get(s);
+            race.offsets[s] = entry;
+
+            // 日付が変わった場合は検知状態をリセット（OddsAnomalyDetector#resetBaselineIfNewDay と同じ）
+            LocalDate date = LocalDate.ofInstant(now, zone);
+            if (previousDate != null && !date.equals(previousDate)) {
+                state = new RaceAnomalyState();
+                race.dayReset[s] = true;
+            }
+            previousDate = date;
+
+            OddsAnomalyDetector.Phase phase =
+                    OddsAnomalyDetector.determinePhase(startTimes.get(s), LocalTime.ofInstant(now, zone));
+            race.phase[s] = phase == null ? NO_PHASE : (byte) phase.ordinal();
+            if (validList.isEmpty()) {
+                continue;
+            }
+
+            // 単勝・複勝順位
+            List<OddsData> sortedByWin = validList.stream()
+                    .sorted(Comparator.comparingDouble(OddsData::winOdds))
+                    .collect(Collectors.toList());
+            for (OddsData d : validList) {
+                state.clearRank(state.slotOf(d.horseNumber()));
+            }
+            for (int i = 0; i < sortedByWin.size(); i++) {
+                state.setWinRank(state.slotOf(sortedByWin.get(i).horseNumber()), i + 1);
+            }
+            List<OddsData> validPlaceList = validList.stream()
+                    .filter(d -> d.placeOddsMin() != null && d.placeOddsMin() > 0)
+                    .sorted(Comparator.comparingDouble(OddsData::placeOddsMin))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < validPlaceList.size(); i++) {
+                state.setPlaceRank(state.slotOf(validPlaceList.get(i).horseNumber()), i + 1);
+            }
+
+            for (int i = 0; i < validList.size(); i++, entry++) {
+                OddsData current = validList.get(i);
+                int slot = state.slotOf(current.horseNumber());
+                race.slot[entry] = slot;
+                race.slotCount = Math.max(race.slotCount, slot + 1);
+                race.winRank[entry] = state.winRank(slot);
+                boolean top3 = state.isTop3(slot);
+                long currentRate = OddsAnomalyDetector.toSupportRate(current.winOdds());
+
+                // ロジックA・D: 前回スナップショットとの比較
+                long increase = NONE;
+                long acceleration = NONE;
+                if (!top3 && state.hasSnapshot(slot) && state.snapshotOdds(slot) > 0) {
+                    increase = currentRate - OddsAnomalyDetector.toSupportRate(state.snapshotOdds(slot));
+                    long deltaSeconds = state.secondsSinceSnapshot(slot, now);
+                    if (deltaSeconds > 0) {
+                        acceleration = OddsAnomalyDetector.toAcceleration(increase, deltaSeconds);
+                    }
+                }
+                race.supportIncrease[entry] = increase;
+                race.acceleration[entry] = acceleration;
+
+                // ロジックB: 単複順位の差
+                int winRank = state.winRank(slot);
+                int placeRank = state.placeRank(slot);
+                race.rankGap[entry] = top3 || winRank == 0 || placeRank == 0 ? NO_GAP : winRank - placeRank;
+
+                // ロジックC: その日の初回オッズからの逸脱量（基準値は上位3番人気以外の全馬に設定）
+                long trendDeviation = NONE;
+                if (!top3) {
+                    double baselineOdds = state.baselineOddsIfAbsent(slot, current.winOdds());
+                    if (baselineOdds > 0) {
+                        trendDeviation = currentRate - OddsAnomalyDetector.toSupportRate(baselineOdds);
+                    }
+                }
+                race.trendDeviation[entry] = trendDeviation;
+
+                // ロジックE: フェーズ内の基準点からの逸脱量
+                long phaseDeviation = NONE;
+                if (!top3 && phase != null) {
+                    double baselineOdds = state.phaseBaselineOddsIfAbsent(slot, phase, current.winOdds());
+                    if (baselineOdds > 0) {
+                        phaseDeviation = currentRate - OddsAnomalyDetector.toSupportRate(baselineOdds);
+                    }
+                }
+                race.phaseDeviation[entry] = phaseDeviation;
+
+                // ロジックF: 単勝オッズ昇順の隣接比率（i 番目は sortedByWin[i] / sortedByWin[i - 1]。0番目は未使用）
+                race.cliffRatio[entry] = i == 0 ? Double.NaN
+                        : sortedByWin.get(i).winOdds() / sortedByWin.get(i - 1).winOdds();
+            }
+
+            for (OddsData d : validList) {
+                state.putSnapshot(state.slotOf(d.horseNumber()), d.winOdds(), now);
+            }
+        }
+        race.offsets[validLists.size()] = entry;
+        return race;
+    }
+
+    /** 1レース分の値を全閾値セットについて判定し、件数を加算します。 */
+    private static void evaluate(RaceSeries race, Thresholds t, long[][] counts) {
+        int n = t.size;
+        // 閾値セットごとの状態（前回の順位乖離量はスロット × 閾値セット数 + 閾値セット番号）
+        int[] previousGap = new int[race.slotCount * n];
+        int[] previousCliff = new int[n];
+        Arrays.fill(previousGap, RaceAnomalyState.NO_RANK_GAP);
+        Arrays.fill(previousCliff, RaceAnomalyState.NO_CLIFF);
+
+        long[] supportCounts = counts[AlertKind.SUPPORT_RATE.ordinal()];
+        long[] gapCounts = counts[AlertKind.RANK_GAP.ordinal()];
+        long[] wideningCounts = counts[AlertKind.RANK_GAP_WIDENING.ordinal()];
+        long[] narrowingCounts = counts[AlertKind.RANK_GAP_NARROWING.ordinal()];
+        long[] trendCounts = counts[AlertKind.TREND.ordinal()];
+        long[] accelerationCounts = counts[AlertKind.ACCELERATION.ordinal()];
+        long[] condenseCounts = counts[AlertKind.CLIFF_CONDENSE.ordinal()];
+        long[] spreadCounts = counts[AlertKind.CLIFF_SPREAD.ordinal()];
+
+        for (int s = 0; s < race.snapshotCount; s++) {
+            if (race.dayReset[s]) {
+                Arrays.fill(previousGap, RaceAnomalyState.NO_RANK_GAP);
+                Arrays.fill(previousCliff, RaceAnomalyState.NO_CLIFF);
+            }
+            int from = race.offsets[s];
+            int to = race.offsets[s + 1];
+            long[] phaseCounts = race.phase[s] == NO_PHASE ? null : counts[phaseKind(race.phase[s]).ordinal()];
+
+            for (int e = from; e < to; e++) {
+                long increase = race.supportIncrease[e];
+                if (increase != NONE) {
+                    for (int k = 0; k < n; k++) {
+                        if (increase >= t.supportRate[k]) supportCounts[k]++;
+                    }
+                }
+
+                int gap = race.rankGap[e];
+                if (gap != NO_GAP) {
+                    int base = race.slot[e] * n;
+                    for (int k = 0; k < n; k++) {
+                        if (gap >= t.rankGap[k]) {
+                            gapCounts[k]++;
+                            int prevGap = previousGap[base + k];
+                            if (prevGap != RaceAnomalyState.NO_RANK_GAP) {
+                                if (gap > prevGap) wideningCounts[k]++;
+                                else if (gap < prevGap) narrowingCounts[k]++;
+                            }
+                            previousGap[base + k] = gap;
+                        } else {
+                            previousGap[base + k] = RaceAnomalyState.NO_RANK_GAP;
+                        }
+                    }
+                }
+
+                long trendDeviation = race.trendDeviation[e];
+                if (trendDeviation != NONE) {
+                    int winRank = race.winRank[e];
+                    for (int k = 0; k < n; k++) {
+                        if (winRank >= t.trendRankMin[k] && winRank <= t.trendRankMax[k]
+                                && trendDeviation >= t.trendDeviation[k]) trendCounts[k]++;
+                    }
+                }
+
+                long acceleration = race.acceleration[e];
+                if (acceleration != NONE) {
+                    for (int k = 0; k < n; k++) {
+                        if (acceleration >= t.acceleration[k]) accelerationCounts[k]++;
+                    }
+                }
+
+                long phaseDeviation = race.phaseDeviation[e];
+                if (phaseDeviation != NONE && phaseCounts != null) {
+                    for (int k = 0; k < n; k++) {
+                        if (phaseDeviation >= t.trendDeviation[k]) phaseCounts[k]++;
+                    }
+                }
+            }
+
+            // ロジックF: 閾値セットごとに最上位の断層位置を求め、前回と比較する
+            if (to - from < 3) continue;
+            for (int k = 0; k < n; k++) {
+                int position = -1;
+                for (int i = 1; i < to - from; i++) {
+                    if (race.cliffRatio[from + i] >= t.cliffRatio[k]) {
+                        position = i;
+                        break;
+                    }
+                }
+                if (position < 0) continue; // 断層なし → 前回の断層位置は更新しない
+                int prevPosition = previousCliff[k];
+                previousCliff[k] = position;
+                if (prevPosition == RaceAnomalyState.NO_CLIFF || prevPosition == position) continue;
+                if (position < prevPosition) condenseCounts[k]++;
+                else spreadCounts[k]++;
+            }
+        }
+    }
+
+    private static AlertKind phaseKind(byte phase) {
+        return switch (OddsAnomalyDetector.Phase.values()[phase]) {
+            case MORNING -> AlertKind.PHASE_MORNING;
+            case PRE_30 -> AlertKind.PHASE_PRE_30;
+            case PRE_10 -> AlertKind.PHASE_PRE_10;
+        };
+    }
+
+    /**
+     * 1レース分の閾値によらない値。
+     * 馬ごとの値はページ順・ページ内は有効な単勝オッズの馬の順に並べ、
+     * ページ s の馬は {@code offsets[s]} から {@code offsets[s + 1]} の手前までに格納する。
+     */
+    private static final class RaceSeries {
+
+        private final int snapshotCount;
+        private final int[] offsets;
+        /** 日付が変わり、このページの前に検知状態をリセットするかどうか */
+        private final boolean[] dayReset;
+        /** フェーズの序数（発走後は NO_PHASE） */
+        private final byte[] phase;
+        /** 馬番に対応するスロットの数（RaceAnomalyState と同じ割り当て） */
+        private int slotCount;
+
+        private final int[] slot;
+        private final int[] winRank;
+        /** ロジックA: 前回比の支持率増加量（10桁固定小数点） */
+        private final long[] supportIncrease;
+        /** ロジックB: 単勝順位 - 複勝順位 */
+        private final int[] rankGap;
+        /** ロジックC: その日の初回オッズからの支持率逸脱量（10桁固定小数点） */
+        private final long[] trendDeviation;
+        /** ロジックD: 支持率加速度（6桁固定小数点） */
+        private final long[] acceleration;
+        /** ロジックE: フェーズ内の基準点からの支持率逸脱量（10桁固定小数点） */
+        private final long[] phaseDeviation;
+        /** ロジックF: 単勝オッズ昇順の隣接比率 */
+        private final double[] cliffRatio;
+
+        RaceSeries(int snapshotCount, int entryCount) {
+            this.snapshotCount = snapshotCount;
+            this.offsets = new int[snapshotCount + 1];
+            this.dayReset = new boolean[snapshotCount];
+            this.phase = new byte[snapshotCount];
+            this.slot = new int[entryCount];
+            this.winRank = new int[entryCount];
+            this.supportIncrease = new long[entryCount];
+            this.rankGap = new int[entryCount];
+            this.trendDeviation = new long[entryCount];
+            this.acceleration = new long[entryCount];
+            this.phaseDeviation = new long[entryCount];
+            this.cliffRatio = new double[entryCount];
+        }
+    }
+
+    /** 閾値セットの各閾値を閾値ごとの配列に並べ替えたもの（インデックスは閾値セット番号） */
+    private static final class Thresholds {
+
+        private final int size;
+        private final long[] supportRate;
+        private final long[] trendDeviation;
+        private final int[] rankGap;
+        private final int[] trendRankMin;
+        private final int[] trendRankMax;
+        private final long[] acceleration;
+        private final double[] cliffRatio;
+
+        Thresholds(List<DetectorParameters> parameterSets) {
+            size = parameterSets.size();
+            supportRate = new long[size];
+            trendDeviation = new long[size];
+            rankGap = new int[size];
+            trendRankMin = new int[size];
+            trendRankMax = new int[size];
+            acceleration = new long[size];
+            cliffRatio = new double[size];
+            for (int k = 0; k < size; k++) {
+                DetectorParameters p = parameterSets.get(k);
+                supportRate[k] = p.supportRateThreshold();
+                trendDeviation[k] = p.trendDeviationThreshold();
+                rankGap[k] = p.rankGapThreshold();
+                trendRankMin[k] = p.trendRankMin();
+                trendRankMax[k] = p.trendRankMax();
+                acceleration[k] = p.accelerationThreshold();
+                cliffRatio[k] = p.cliffRatioThreshold();
+            }
+        }
+    }
+}
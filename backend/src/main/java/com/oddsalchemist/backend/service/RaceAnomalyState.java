@@ -0,0 +1,233 @@
+package com.oddsalchemist.backend.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 1レース分の異常検知状態を保持するクラス。
+ * 馬ごとの状態を馬番をインデックスとしたプリミティブ配列で保持し、
+ * 「URL:馬番」形式の文字列キーを生成せずに参照できるようにする。
+ * <p>
+ * スレッドセーフではないため、呼び出し側でインスタンス単位に同期すること。
+ */
+final class RaceAnomalyState {
+
+    /** 前回の順位乖離量が存在しないことを表す値 */
+    static final int NO_RANK_GAP = Integer.MIN_VALUE;
+
+    /** 前回の断層位置が存在しないことを表す値 */
+    static final int NO_CLIFF = -1;
+
+    /** 馬番をそのままインデックスとして使用する上限（1〜99番） */
+    private static final int MAX_NUMBERED_SLOT = 99;
+
+    /** 初期の配列長（フルゲート18頭 + 予備） */
+    private static final int INITIAL_CAPACITY = 19;
+
+    private static final int PHASE_COUNT = OddsAnomalyDetector.Phase.values().length;
+
+    /** 数値でない馬番に割り当てたインデックス（該当する馬番がある場合のみ生成） */
+    private Map<String, Integer> extraSlots;
+
+    // ===== 前回スナップショット（ロジックA・D） =====
+    private double[] snapshotOdds;
+    private long[] snapshotEpochSecond;
+    private int[] snapshotNano;
+
+    /** その日の初回detect()呼び出し時の単勝オッズ（ロジックC） */
+    private double[] baselineOdds;
+
+    /** フェーズ別の基準単勝オッズ（ロジックE）。インデックス: スロット × フェーズ数 + フェーズ序数 */
+    private double[] phaseBaselineOdds;
+
+    /** 前回の単複順位乖離量（ロジックB） */
+    private int[] previousRankGap;
+
+    // ===== detect() 1回分の作業領域 =====
+    private int[] winRank;
+    private int[] placeRank;
+
+    /** 前回の断層位置（ロジックF） */
+    private int previousCliffPosition = NO_CLIFF;
+
+    RaceAnomalyState() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * 馬番に対応する配列インデックスを返します。
+     * 1〜99 の数値はそのまま使用し、それ以外は初出時に100番以降を割り当てます。
+     */
+    int slotOf(String horseNumber) {
+        int slot = parseHorseNumber(horseNumber);
+        if (slot < 0) {
+            if (extraSlots == null) {
+                extraSlots = new HashMap<>();
+            }
+            Integer assigned = extraSlots.get(horseNumber);
+            if (assigned == null) {
+                assigned = MAX_NUMBERED_SLOT + 1 + extraSlots.size();
+                extraSlots.put(horseNumber, assigned);
+            }
+            slot = assigned;
+        }
+        ensureCapacity(slot + 1);
+        return slot;
+    }
+
+    /** 作業領域の順位をクリアします。 */
+    void clearRank(int slot) {
+        winRank[slot] = 0;
+        placeRank[slot] = 0;
+    }
+
+    int winRank(int slot) {
+        return winRank[slot];
+    }
+
+    void setWinRank(int slot, int rank) {
+        winRank[slot] = rank;
+    }
+
+    int placeRank(int slot) {
+        return placeRank[slot];
+    }
+
+    void setPlaceRank(int slot, int rank) {
+        placeRank[slot] = rank;
+    }
+
+    /** 上位3番人気（単勝1〜3位）かどうか */
+    boolean isTop3(int slot) {
+        int rank = winRank[slot];
+        return rank > 0 && rank <= 3;
+    }
+
+    boolean hasSnapshot(int slot) {
+        return !Double.isNaN(snapshotOdds[slot]);
+    }
+
+    double snapshotOdds(int slot) {
+        return snapshotOdds[slot];
+    }
+
+    /** 前回スナップショットの取得時刻から {@code now} までの経過秒数（{@link ChronoUnit#SECONDS} と同じ切り捨て） */
+    long secondsSinceSnapshot(int slot, Instant now) {
+        long seconds = now.getEpochSecond() - snapshotEpochSecond[slot];
+        long nanos = now.getNano() - snapshotNano[slot];
+        if (seconds > 0 && nanos < 0) {
+            seconds--;
+        } else if (seconds < 0 && nanos > 0) {
+            seconds++;
+        }
+        return seconds;
+    }
+
+    void putSnapshot(int slot, double winOdds, Instant processedAt) {
+        snapshotOdds[slot] = winOdds;
+        snapshotEpochSecond[slot] = processedAt.getEpochSecond();
+        snapshotNano[slot] = processedAt.getNano();
+    }
+
+    /** 基準オッズが未設定の場合のみ設定し、設定済みの基準オッズを返します。 */
+    double baselineOddsIfAbsent(int slot, double winOdds) {
+        if (Double.isNaN(baselineOdds[slot])) {
+            baselineOdds[slot] = winOdds;
+        }
+        return baselineOdds[slot];
+    }
+
+    /** フェーズ別基準オッズが未設定の場合のみ設定し、設定済みの基準オッズを返します。 */
+    double phaseBaselineOddsIfAbsent(int slot, OddsAnomalyDetector.Phase phase, double winOdds) {
+        int index = slot * PHASE_COUNT + phase.ordinal();
+        if (Double.isNaN(phaseBaselineOdds[index])) {
+            phaseBaselineOdds[index] = winOdds;
+        }
+        return phaseBaselineOdds[index];
+    }
+
+    int previousRankGap(int slot) {
+        return previousRankGap[slot];
+    }
+
+    void setPreviousRankGap(int slot, int gap) {
+        previousRankGap[slot] = gap;
+    }
+
+    int previousCliffPosition() {
+        return previousCliffPosition;
+    }
+
+    void setPreviousCliffPosition(int position) {
+        previousCliffPosition = position;
+    }
+
+    /** 1〜99 の数値馬番を返します。それ以外は -1。 */
+    private static int parseHorseNumber(String horseNumber) {
+        if (horseNumber == null) {
+            return -1;
+        }
+        int length = horseNumber.length();
+        if (length == 0 || length > 2) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = horseNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        // "01" と "1" は別の馬番文字列として扱う（従来の文字列キーと同じ区別）
+        if (value == 0 || (length == 2 && horseNumber.charAt(0) == '0')) {
+            return -1;
+        }
+        return value;
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = snapshotOdds.length;
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, capacity * 2);
+        double[] oldSnapshotOdds = snapshotOdds;
+        long[] oldEpochSecond = snapshotEpochSecond;
+        int[] oldNano = snapshotNano;
+        double[] oldBaseline = baselineOdds;
+        double[] oldPhaseBaseline = phaseBaselineOdds;
+        int[] oldRankGap = previousRankGap;
+        int[] oldWinRank = winRank;
+        int[] oldPlaceRank = placeRank;
+
+        allocate(newCapacity);
+
+        System.arraycopy(oldSnapshotOdds, 0, snapshotOdds, 0, capacity);
+        System.arraycopy(oldEpochSecond, 0, snapshotEpochSecond, 0, capacity);
+        System.arraycopy(oldNano, 0, snapshotNano, 0, capacity);
+        System.arraycopy(oldBaseline, 0, baselineOdds, 0, capacity);
+        System.arraycopy(oldPhaseBaseline, 0, phaseBaselineOdds, 0, capacity * PHASE_COUNT);
+        System.arraycopy(oldRankGap, 0, previousRankGap, 0, capacity);
+        System.arraycopy(oldWinRank, 0, winRank, 0, capacity);
+        System.arraycopy(oldPlaceRank, 0, placeRank, 0, capacity);
+    }
+
+    private void allocate(int capacity) {
+        snapshotOdds = new double[capacity];
+        Arrays.fill(snapshotOdds, Double.NaN);
+        snapshotEpochSecond = new long[capacity];
+        snapshotNano = new int[capacity];
+        baselineOdds = new double[capacity];
+        Arrays.fill(baselineOdds, Double.NaN);
+        phaseBaselineOdds = new double[capacity * PHASE_COUNT];
+        Arrays.fill(phaseBaselineOdds, Double.NaN);
+        previousRankGap = new int[capacity];
+        Arrays.fill(previousRankGap, NO_RANK_GAP);
+        winRank = new int[capacity];
+        placeRank = new int[capacity];
+    }
+}
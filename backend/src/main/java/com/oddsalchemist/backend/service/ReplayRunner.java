@@ -0,0 +1,429 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.AlertStoreProperties;
+import com.oddsalchemist.backend.config.FetchLimitProperties;
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
+import com.oddsalchemist.backend.config.ScrapingProperties;
+import com.oddsalchemist.backend.config.SheetsWriteProperties;
+import com.oddsalchemist.backend.config.SlackProperties;
+import com.oddsalchemist.backend.dto.AnomalyAlertDto;
+import com.oddsalchemist.backend.dto.OddsData;
+import com.oddsalchemist.backend.parser.RaceOddsParser;
+import com.oddsalchemist.backend.parser.RacePageParser;
+import com.oddsalchemist.backend.parser.StreamingRaceOddsParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * {@link PageRecorder} で記録したページを OddsSyncService に順に流し込み、
+ * パース・異常検知・書き込み（差分エンコード・書き込み待ちへの登録・履歴索引への反映）までを再実行するリプレイ。
+ * <p>
+ * 時刻は各ページの取得日時に合わせた仮想時刻（Clock）で進め、待ち時間なしで実行する。
+ * 同じ記録・同じ設定であれば、検知されるアラートは毎回同じになる（閾値の調整・処理性能の計測に使用）。
+ * Sheets・Slack には書き込まない。
+ * <p>
+ * コマンドラインからは {@code <1日分の記録ディレクトリ> [jsoup|streaming]} を引数に実行し、
+ * アラートの時系列と処理段階ごとの所要時間をログに出力する。
+ */
+public class ReplayRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayRunner.class);
+
+    /** リプレイで使用する追記先のレンジ（書き込み行数を数えるのみ） */
+    private static final String ODDS_RANGE = "OddsData!A:H";
+
+    /** 処理段階 */
+    public enum Stage {
+        /** HTMLのパース */
+        PARSE,
+        /** 異常検知 */
+        DETECT,
+        /** パース・異常検知以外（アラート・オッズ行の書き込み待ちへの登録、差分エンコード、履歴索引への反映） */
+        PERSIST,
+        /** 1ページの処理全体 */
+        TOTAL
+    }
+
+    /**
+     * 処理段階ごとの所要時間。
+     *
+     * @param calls 実行回数
+     * @param total 合計所要時間
+     */
+    public record StageTiming(long calls, Duration total) {
+
+        /** 1回あたりの平均所要時間を返します。 */
+        public Duration mean() {
+            return calls == 0 ? Duration.ZERO : total.dividedBy(calls);
+        }
+    }
+
+    /**
+     * 検知したアラート1件。
+     *
+     * @param fetchedAt 検知のもとになったページの取得日時
+     * @param url       レースURL
+     * @param alert     アラート（detectedAt は仮想時刻）
+     */
+    public record AlertEvent(Instant fetchedAt, String url, AnomalyAlertDto alert) {}
+
+    /**
+     * リプレイの結果。
+     *
+     * @param pages       処理したページ数
+     * @param rowsWritten 書き込み待ちに登録したオッズ行数
+     * @param alerts      検知したアラート（取得日時順）
+     * @param timings     処理段階ごとの所要時間
+     * @param elapsed     リプレイ全体の実行時間
+     */
+    public record Report(int pages, long rowsWritten, List<AlertEvent> alerts,
+                         Map<Stage, StageTiming> timings, Duration elapsed) {
+
+        /** 1秒あたりの処理ページ数を返します。 */
+        public double pagesPerSecond() {
+            return elapsed.isZero() ? 0 : pages / (elapsed.toNanos() / 1_000_000_000d);
+        }
+    }
+
+    private final RacePageParser parser;
+    private final OddsDeltaProperties deltaProperties;
+
+    /** 処理系ごとのオッズ履歴の索引を作る（テストでは生成した索引を検査する） */
+    private final Supplier<OddsHistoryIndex> historyIndexFactory;
+
+    /**
+     * @param parser          使用するパーサー
+     * @param deltaProperties 差分書き込みの設定（書き込み行数の比較に使用）
+     */
+    public ReplayRunner(RacePageParser parser, OddsDeltaProperties deltaProperties) {
+        this(parser, deltaProperties, OddsHistoryIndex::new);
+    }
+
+    /** テスト用コンストラクタ（オッズ履歴の索引の生成方法を指定可能） */
+    ReplayRunner(RacePageParser parser, OddsDeltaProperties deltaProperties,
+                 Supplier<OddsHistoryIndex> historyIndexFactory) {
+        this.parser = parser;
+        this.deltaProperties = deltaProperties;
+        this.historyIndexFactory = historyIndexFactory;
+    }
+
+    /**
+     * 記録したページを1スレッドで処理します。{@code run(pages, 1)} と同じです。
+     *
+     * @param pages 取得日時順のページ
+     */
+    public Report run(List<PageRecorder.RecordedPage> pages) throws IOException {
+        return run(pages, 1);
+    }
+
+    /**
+     * 記録したページをレース（URL）ごとに分け、ForkJoinPool の parallelism 個のスレッドで並列に処理します。
+     * <p>
+     * 異常検知・差分書き込みの状態はスレッドごとの処理系に持ち、レースの処理が終わるたびにそのレースの状態を破棄するため、
+     * レース同士は互いに影響しない。結果はレースごとの結果を取得日時・URL・検知順に並べて1つにまとめるため、
+     * 並列数によらず同じアラート・書き込み行数になる（所要時間は各スレッドの合計）。
+     * 実行のたびに処理系を作り直します。
+     *
+     * @param pages       取得日時順のページ
+     * @param parallelism 並列数（1以上）
+     */
+    public Report run(List<PageRecorder.RecordedPage> pages, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("並列数は1以上を指定してください: " + parallelism);
+        }
+        // URL 昇順・各レース内は取得日時順
+        Map<String, List<PageRecorder.RecordedPage>> races = new TreeMap<>();
+        for (PageRecorder.RecordedPage page : pages) {
+            races.computeIfAbsent(page.url(), k -> new ArrayList<>()).add(page);
+        }
+
+        ConcurrentHashMap<Thread, Pipeline> pipelines = new ConcurrentHashMap<>();
+        List<Callable<RaceResult>> tasks = new ArrayList<>(races.size());
+        for (List<PageRecorder.RecordedPage> racePages : races.values()) {
+            tasks.add(() -> pipelines.computeIfAbsent(Thread.currentThread(), t -> new Pipeline()).replay(racePages));
+        }
+
+        long started = System.nanoTime();
+        List<RaceResult> results = new ArrayList<>(tasks.size());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<RaceResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("リプレイが中断されました");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("リプレイに失敗しました", e.getCause());
+        } finally {
+            pool.shutdown();
+            pipelines.values().forEach(Pipeline::close);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        // レースの結果を URL 昇順に連結し、取得日時で安定ソートする（同じ取得日時は URL 順・検知順）
+        List<AlertEvent> alerts = new ArrayList<>();
+        long rowsWritten = 0;
+        for (RaceResult result : results) {
+            alerts.addAll(result.alerts());
+            rowsWritten += result.rowsWritten();
+        }
+        alerts.sort(Comparator.comparing(AlertEvent::fetchedAt));
+
+        Map<Stage, StageTiming> timings = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            long calls = 0;
+            long nanos = 0;
+            for (Pipeline pipeline : pipelines.values()) {
+                calls += pipeline.calls[stage.ordinal()];
+                nanos += pipeline.nanos[stage.ordinal()];
+            }
+            timings.put(stage, new StageTiming(calls, Duration.ofNanos(nanos)));
+        }
+        return new Report(pages.size(), rowsWritten, List.copyOf(alerts), timings, elapsed);
+    }
+
+    /**
+     * 記録をリプレイし、結果をログに出力します。
+     * 引数: {@code <記録ディレクトリ> [jsoup|streaming] [並列数]}。
+     * 記録ディレクトリに日付ごとのディレクトリがある場合は、すべての日の記録をリプレイします。
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            logger.error("使い方: ReplayRunner <記録ディレクトリ> [jsoup|streaming] [並列数]");
+            return;
+        }
+        RacePageParser parser = args.length > 1 && args[1].equals("streaming")
+                ? new StreamingRaceOddsParser() : new RaceOddsParser();
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        List<PageRecorder.RecordedPage> pages = readRecordings(Path.of(args[0]));
+        Report report = new ReplayRunner(parser, new OddsDeltaProperties(false, 0)).run(pages, parallelism);
+
+        for (AlertEvent event : report.alerts()) {
+            AnomalyAlertDto alert = event.alert();
+            logger.info("{} {} {} {} {} {}", alert.detectedAt(), alert.raceName(), alert.horseNumber(),
+                    alert.horseName(), alert.alertType(), alert.value());
+        }
+        logger.info("リプレイ完了: ページ数={}, 書き込み行数={}, アラート件数={}, 並列数={}, 実行時間={}ms, {} ページ/秒",
+                report.pages(), report.rowsWritten(), report.alerts().size(), parallelism,
+                report.elapsed().toMillis(), String.format("%.1f", report.pagesPerSecond()));
+        report.timings().forEach((stage, timing) -> logger.info("  {}: 回数={}, 合計={}ms, 平均={}µs",
+                stage, timing.calls(), timing.total().toMillis(), timing.mean().toNanos() / 1_000));
+    }
+
+    /** 記録ディレクトリ（1日分、または日付ごとのディレクトリを含むディレクトリ）の記録を読み込みます。 */
+    static List<PageRecorder.RecordedPage> readRecordings(Path directory) throws IOException {
+        List<Path> days = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            entries.forEach(days::add);
+        }
+        if (days.isEmpty()) {
+            return PageRecorder.readDay(directory);
+        }
+        days.sort(Comparator.naturalOrder());
+        List<PageRecorder.RecordedPage> pages = new ArrayList<>();
+        for (Path day : days) {
+            pages.addAll(PageRecorder.readDay(day));
+        }
+        return pages;
+    }
+
+    /**
+     * 1レース分の結果。
+     *
+     * @param alerts      検知したアラート（検知順）
+     * @param rowsWritten 書き込み待ちに登録したオッズ行数
+     */
+    private record RaceResult(List<AlertEvent> alerts, long rowsWritten) {}
+
+    /**
+     * 1スレッド分の処理系（OddsSyncService とその依存先・仮想時刻・所要時間の集計）。
+     * 同時に使用するのは1スレッドのみ。
+     */
+    private final class Pipeline {
+
+        private final ReplayClock clock = new ReplayClock(Instant.EPOCH, ZoneId.systemDefault());
+        private final long[] calls = new long[Stage.values().length];
+        private final long[] nanos = new long[Stage.values().length];
+        private final ReplayPageSource pageSource = new ReplayPageSource();
+        private final SheetsWriteQueue writeQueue = new SheetsWriteQueue(new DiscardingSheetStore(),
+                new SheetsWriteProperties(null, 0, Integer.MAX_VALUE, null, null, null, null, null), clock);
+        private final OddsHistoryIndex historyIndex = historyIndexFactory.get();
+        private final OddsSyncService syncService;
+
+        /** 処理中のレースで検知したアラート */
+        private List<AlertEvent> alerts;
+
+        Pipeline() {
+            RacePageParser timedParser = html -> {
+                long start = System.nanoTime();
+                try {
+                    return parser.parsePage(html);
+                } finally {
+                    calls[Stage.PARSE.ordinal()]++;
+                    nanos[Stage.PARSE.ordinal()] += System.nanoTime() - start;
+                }
+            };
+            AlertStoreProperties alertDefaults = new AlertStoreProperties(0, 0);
+            AlertStore alertStore = new AlertStore(alertDefaults.capacity(), alertDefaults.retentionDays(), clock);
+            OddsAnomalyDetector detector = new OddsAnomalyDetector(alertStore, clock, DetectorParameters.defaults()) {
+                @Override
+                public List<AnomalyAlertDto> detect(List<OddsData> oddsList, Optional<LocalTime> startTime) {
+                    long start = System.nanoTime();
+                    List<AnomalyAlertDto> detected = super.detect(oddsList, startTime);
+                    calls[Stage.DETECT.ordinal()]++;
+                    nanos[Stage.DETECT.ordinal()] += System.nanoTime() - start;
+                    String url = oddsList.isEmpty() ? null : oddsList.get(0).url();
+                    for (AnomalyAlertDto alert : detected) {
+                        alerts.add(new AlertEvent(clock.instant(), url, alert));
+                    }
+                    return detected;
+                }
+            };
+            syncService = new OddsSyncService(pageSource, timedParser, writeQueue, detector,
+                    new SlackNotifyClient(new SlackProperties(null, false), null, clock), historyIndex,
+                    deltaProperties, PageRecorder.disabled(), clock);
+        }
+
+        /** 1レース分のページを取得日時順に処理し、処理後にそのレースの状態（オッズ履歴の索引を含む）を破棄します。 */
+        RaceResult replay(List<PageRecorder.RecordedPage> racePages) throws IOException {
+            alerts = new ArrayList<>();
+            long rowsWritten = 0;
+            for (PageRecorder.RecordedPage page : racePages) {
+                clock.set(page.fetchedAt());
+                pageSource.next = page.html();
+                long parseBefore = nanos[Stage.PARSE.ordinal()];
+                long detectBefore = nanos[Stage.DETECT.ordinal()];
+                long start = System.nanoTime();
+                rowsWritten += syncService.fetchAndSaveOdds(page.url(), ODDS_RANGE);
+                long total = System.nanoTime() - start;
+                calls[Stage.TOTAL.ordinal()]++;
+                nanos[Stage.TOTAL.ordinal()] += total;
+                calls[Stage.PERSIST.ordinal()]++;
+                nanos[Stage.PERSIST.ordinal()] += total - (nanos[Stage.PARSE.ordinal()] - parseBefore)
+                        - (nanos[Stage.DETECT.ordinal()] - detectBefore);
+            }
+            if (!racePages.isEmpty()) {
+                syncService.clearStateForUrl(racePages.get(0).url());
+                syncService.clearCachedStartTime(racePages.get(0).url());
+            }
+            // リプレイでは索引を参照しないため、レースごとに破棄する（レースをまたいで行を溜めない）
+            historyIndex.invalidate();
+            // 書き込み待ちに溜まった行を破棄先に書き出す（レースをまたいでメモリに溜めない）
+            while (writeQueue.pendingRowCount() > 0) {
+                writeQueue.flushBatch();
+            }
+            return new RaceResult(alerts, rowsWritten);
+        }
+
+        void close() {
+            writeQueue.stop();
+            pageSource.close();
+        }
+    }
+
+    /** 取得日時に合わせて進める仮想時刻 */
+    private static final class ReplayClock extends Clock {
+
+        private final ZoneId zone;
+        private Instant now;
+
+        ReplayClock(Instant now, ZoneId zone) {
+            this.now = now;
+            this.zone = zone;
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new ReplayClock(now, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    /** 次に処理する記録のHTMLを返す取得元（通信しない） */
+    private static final class ReplayPageSource extends OddsScrapingService {
+
+        private String next;
+
+        ReplayPageSource() {
+            super(new FetchRateLimiter(new FetchLimitProperties(0, 0)),
+                    new ScrapingProperties(null, 0, 0, null, 0, null, null, null));
+        }
+
+        @Override
+        public Optional<String> fetchHtmlIfChanged(String url, Optional<LocalTime> startTime) {
+            String html = next;
+            next = null;
+            return Optional.ofNullable(html);
+        }
+
+        @Override
+        public void forget(String url) {
+        }
+
+        @Override
+        public void commit(String url) {
+        }
+    }
+
+    /** 書き込まれた行を破棄する保存先（リプレイでは書き込み行数のみ数える） */
+    private static final class DiscardingSheetStore implements SheetStore {
+
+        @Override
+        public List<List<Object>> readData(String range) {
+            return List.of();
+        }
+
+        @Override
+        public void clearAndWriteData(String range, List<List<Object>> values) {
+        }
+
+        @Override
+        public void writeData(String range, List<List<Object>> values) {
+        }
+
+        @Override
+        public void appendBatch(Map<String, List<List<Object>>> rowsByRange) {
+        }
+    }
+}
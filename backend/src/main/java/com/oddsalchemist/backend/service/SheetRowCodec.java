@@ -0,0 +1,103 @@
+package com.oddsalchemist.backend.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * シートの行データをローカルファイルに記録するためのバイナリ形式。
+ * SheetsWriteAheadLog と LocalSegmentSheetStore が共有する。
+ * <p>
+ * 値は型（null・文字列・小数・整数・真偽値）を付けて書き込み、読み込み時に同じ型で復元する。
+ * レコードは「ペイロード長(int) + CRC32(int) + ペイロード」の形式で、書き込み途中で停止した末尾を検出できる。
+ */
+final class SheetRowCodec {
+
+    /** レコードヘッダー長（ペイロード長 + CRC32） */
+    static final int HEADER_BYTES = 8;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_DOUBLE = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+
+    private SheetRowCodec() {
+    }
+
+    /** ペイロードにヘッダー（長さ・CRC32）を付けます。 */
+    static ByteBuffer frame(byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(checksum(payload, 0, payload.length)).put(payload).flip();
+        return record;
+    }
+
+    static int checksum(byte[] payload, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    static void writeRow(DataOutputStream out, List<Object> row) throws IOException {
+        out.writeInt(row.size());
+        for (Object value : row) {
+            writeValue(out, value);
+        }
+    }
+
+    static List<Object> readRow(DataInputStream in) throws IOException {
+        int cellCount = in.readInt();
+        List<Object> row = new ArrayList<>(cellCount);
+        for (int j = 0; j < cellCount; j++) {
+            row.add(readValue(in));
+        }
+        return row;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(bool);
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_STRING -> readString(in);
+            case TYPE_DOUBLE -> in.readDouble();
+            case TYPE_LONG -> in.readLong();
+            case TYPE_BOOLEAN -> in.readBoolean();
+            default -> throw new IOException("不明な値の種類があります: " + type);
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.oddsalchemist.backend.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OddsData / Alerts / Targets シートの読み書き先。
+ * レンジは Sheets と同じ A1 表記（例: "OddsData!A:I", "Targets!A2:C"）で指定する。
+ * <p>
+ * 既定は Google Sheets（{@link GoogleSheetsService}）。
+ * {@code odds.storage.backend=local} の場合はローカルファイル（{@link LocalSegmentSheetStore}）が使用され、
+ * Sheets は任意の書き出し先になる。
+ */
+public interface SheetStore {
+
+    /**
+     * 指定レンジのデータを読み込みます。値は文字列で返します。値が存在しない場合は空リストを返します。
+     */
+    List<List<Object>> readData(String range) throws IOException;
+
+    /**
+     * 指定レンジをクリアしてからデータを書き込みます。values が空の場合はクリアのみ行います。
+     */
+    void clearAndWriteData(String range, List<List<Object>> values) throws IOException;
+
+    /**
+     * 指定レンジの先頭から、クリアせずにデータを上書きします。
+     * 既存の行数より values が少ない場合、残りの行はそのまま残ります。
+     */
+    void writeData(String range, List<List<Object>> values) throws IOException;
+
+    /**
+     * 複数シートへの追記をまとめて行います。キーのレンジのシート名部分で追記先を決め、キーの順に追記します。
+     *
+     * @param rowsByRange レンジ → 追記する行
+     * @throws SheetWriteRejectedException 再試行しても成功しない内容の場合（存在しないシート・不正な行など）
+     * @throws IOException                 通信エラーなど、再試行で成功する可能性がある場合
+     */
+    void appendBatch(Map<String, List<List<Object>>> rowsByRange) throws IOException;
+}
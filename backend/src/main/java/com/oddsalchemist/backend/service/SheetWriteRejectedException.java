@@ -0,0 +1,18 @@
+package com.oddsalchemist.backend.service;
+
+import java.io.IOException;
+
+/**
+ * 書き込み先が追記を拒否したことを表す例外（存在しないシート・不正な行・不正なレンジなど）。
+ * 同じ内容で再試行しても成功しないため、{@link SheetsWriteQueue} は再試行せずに該当の追記を破棄する。
+ */
+public class SheetWriteRejectedException extends IOException {
+
+    public SheetWriteRejectedException(String message) {
+        super(message);
+    }
+
+    public SheetWriteRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
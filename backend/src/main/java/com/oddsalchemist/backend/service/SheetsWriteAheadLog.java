@@ -0,0 +1,369 @@
+package com.oddsalchemist.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sheets への追記内容を、書き込み前にローカルファイルへ記録する追記専用ログ（write-ahead log）。
+ * <p>
+ * 1レコードは「ペイロード長(int) + CRC32(int) + ペイロード」の形式で、ペイロードは種類・通番と、追記の場合はレンジ・行データ。
+ * fsync は {@link #syncThrough} で行い、同時に待っている追記をまとめて1回で行う（グループコミット）。
+ * Sheets への書き込みが完了したレコードは {@link #acknowledge} で通知を受けて完了レコードを書き込み、
+ * 未完了のレコードがなくなった時点でファイルを切り詰める。未完了のレコードが残ったまま完了済みの領域が
+ * 一定サイズを超えた場合は、未完了のレコードだけを新しいファイルに書き出して置き換える。
+ * <p>
+ * 起動時には未完了のレコードを読み込んで返す。書き込み途中で停止した末尾の不完全なレコードは破棄する。
+ */
+final class SheetsWriteAheadLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SheetsWriteAheadLog.class);
+
+    /** 完了済みの領域がこのサイズを超えたら、未完了のレコードだけを残すよう書き直す */
+    private static final long COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+
+    /** レコードの種類: 追記 */
+    private static final byte KIND_APPEND = 1;
+    /** レコードの種類: 指定した通番までの書き込み完了 */
+    private static final byte KIND_ACK = 2;
+
+    /**
+     * ログに記録された追記1回分。完了レコードの読み込み時は range が null になる。
+     *
+     * @param sequence 通番（記録順に単調増加）
+     * @param range    追記先のレンジ
+     * @param rows     追記する行
+     */
+    record Entry(long sequence, String range, List<List<Object>> rows) {}
+
+    private final Path path;
+
+    /** ファイル・オフセットの更新を保護するロック */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** fsync を1スレッドずつ行うためのロック（取得順: syncLock → lock） */
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private FileChannel channel;
+
+    /** 次のレコードを書き込む位置 */
+    private long writeOffset;
+
+    /** fsync 済みの最後の通番 */
+    private long syncedSequence;
+
+    /** 完了済みのレコードの終端位置（この位置より前は不要） */
+    private long acknowledgedOffset;
+
+    /** 次に付与する通番 */
+    private long nextSequence = 1;
+
+    /** 未完了のレコードの {通番, 終端位置}（記録順） */
+    private final Deque<long[]> unacknowledged = new ArrayDeque<>();
+
+    /** 起動時に読み込んだ未完了のレコード */
+    private final List<Entry> recovered;
+
+    private SheetsWriteAheadLog(Path path, FileChannel channel, List<Entry> recovered) {
+        this.path = path;
+        this.channel = channel;
+        this.recovered = recovered;
+    }
+
+    /**
+     * ログファイルを開き、未完了のレコードを読み込みます。ファイルがない場合は作成します。
+     *
+     * @param path ログファイルのパス
+     * @return 開いたログ
+     */
+    static SheetsWriteAheadLog open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        List<Entry> entries = new ArrayList<>();
+        List<Long> endOffsets = new ArrayList<>();
+        long validEnd = scan(channel, entries, endOffsets);
+        if (validEnd < channel.size()) {
+            logger.warn("書き込みログの末尾に不完全なレコードがあったため破棄しました: path={}, 破棄バイト数={}",
+                    path, channel.size() - validEnd);
+        }
+        if (entries.isEmpty()) {
+            validEnd = 0;
+        }
+        if (validEnd < channel.size()) {
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        SheetsWriteAheadLog log = new SheetsWriteAheadLog(path, channel, Collections.unmodifiableList(entries));
+        log.writeOffset = validEnd;
+        for (int i = 0; i < entries.size(); i++) {
+            log.unacknowledged.addLast(new long[]{entries.get(i).sequence(), endOffsets.get(i)});
+        }
+        if (!entries.isEmpty()) {
+            log.nextSequence = entries.get(entries.size() - 1).sequence() + 1;
+        }
+        log.syncedSequence = log.nextSequence - 1;
+        return log;
+    }
+
+    /** 起動時に読み込んだ未完了のレコードを記録順に返します。 */
+    List<Entry> recovered() {
+        return recovered;
+    }
+
+    /**
+     * 追記内容をログに記録します。ディスクへの書き込み（fsync）は行わないため、
+     * 永続化が必要な場合は続けて {@link #syncThrough} を呼び出すこと。
+     *
+     * @param range 追記先のレンジ
+     * @param rows  追記する行
+     * @return 付与した通番
+     */
+    long append(String range, List<List<Object>> rows) throws IOException {
+        lock.lock();
+        try {
+            long sequence = nextSequence;
+            long position = write(encode(KIND_APPEND, sequence, range, rows));
+            nextSequence++;
+            unacknowledged.addLast(new long[]{sequence, position});
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 指定した通番までのレコードをディスクに書き込み（fsync）ます。
+     * fsync を待っている間に他のスレッドが同じ通番以降まで書き込んだ場合は、追加の fsync を行いません。
+     *
+     * @param sequence 永続化する最後の通番
+     */
+    void syncThrough(long sequence) throws IOException {
+        syncLock.lock();
+        try {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            long target;
+            FileChannel current;
+            lock.lock();
+            try {
+                target = nextSequence - 1;
+                current = channel;
+            } finally {
+                lock.unlock();
+            }
+            current.force(false);
+            syncedSequence = Math.max(syncedSequence, target);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * 指定した通番までのレコードが Sheets に書き込まれたことを記録します。
+     * 未完了のレコードが残る場合は完了レコードを書き込み、なくなった場合はファイルを切り詰めます。
+     * 完了レコードは fsync しないため、直後にクラッシュした場合は完了済みの追記が再送されることがある。
+     *
+     * @param sequence 書き込みが完了した最後の通番
+     */
+    void acknowledge(long sequence) throws IOException {
+        syncLock.lock();
+        lock.lock();
+        try {
+            boolean changed = false;
+            while (!unacknowledged.isEmpty() && unacknowledged.peekFirst()[0] <= sequence) {
+                acknowledgedOffset = unacknowledged.pollFirst()[1];
+                changed = true;
+            }
+            if (!changed) {
+                return;
+            }
+            if (unacknowledged.isEmpty()) {
+                if (writeOffset > 0) {
+                    channel.truncate(0);
+                    channel.force(true);
+                }
+                writeOffset = 0;
+                acknowledgedOffset = 0;
+                syncedSequence = nextSequence - 1;
+            } else if (acknowledgedOffset >= COMPACT_THRESHOLD_BYTES) {
+                compact();
+            } else {
+                write(encode(KIND_ACK, sequence, null, List.of()));
+            }
+        } finally {
+            lock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    /** writeOffset の位置にレコードを書き込みます（lock 保持中に呼び出す）。 */
+    private long write(ByteBuffer record) throws IOException {
+        long position = writeOffset;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        writeOffset = position;
+        return position;
+    }
+
+    /** 未完了のレコード数 */
+    int pendingCount() {
+        lock.lock();
+        try {
+            return unacknowledged.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        lock.lock();
+        try {
+            channel.force(true);
+            channel.close();
+        } finally {
+            lock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    /** 完了済みの領域を除いた内容で新しいファイルを作成し、置き換えます（lock・syncLock 保持中に呼び出す）。 */
+    private void compact() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        long remaining = writeOffset - acknowledgedOffset;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long copied = 0;
+            while (copied < remaining) {
+                copied += channel.transferTo(acknowledgedOffset + copied, remaining - copied, out);
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        for (long[] record : unacknowledged) {
+            record[1] -= acknowledgedOffset;
+        }
+        logger.info("書き込みログを圧縮しました: 破棄バイト数={}, 残りバイト数={}", acknowledgedOffset, remaining);
+        writeOffset = remaining;
+        acknowledgedOffset = 0;
+        syncedSequence = nextSequence - 1;
+    }
+
+    /**
+     * ファイル先頭から完全なレコードを読み込みます。完了レコードより前の追記は結果に含めません。
+     *
+     * @return 最後の完全なレコードの終端位置
+     */
+    private static long scan(FileChannel channel, List<Entry> entries, List<Long> endOffsets) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(SheetRowCodec.HEADER_BYTES);
+        while (size - position >= SheetRowCodec.HEADER_BYTES) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length < 0 || length > size - position - SheetRowCodec.HEADER_BYTES) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, position + SheetRowCodec.HEADER_BYTES);
+            if (SheetRowCodec.checksum(payload.array(), 0, length) != checksum) {
+                break;
+            }
+            position += SheetRowCodec.HEADER_BYTES + length;
+            Entry entry = decode(payload.array());
+            if (entry.range() == null) {
+                while (!entries.isEmpty() && entries.get(0).sequence() <= entry.sequence()) {
+                    entries.remove(0);
+                    endOffsets.remove(0);
+                }
+            } else {
+                entries.add(entry);
+                endOffsets.add(position);
+            }
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("書き込みログの読み込み中にファイル終端に達しました");
+            }
+        }
+    }
+
+    private static ByteBuffer encode(byte kind, long sequence, String range, List<List<Object>> rows)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + rows.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(kind);
+            out.writeLong(sequence);
+            if (kind == KIND_ACK) {
+                return frame(bytes, out);
+            }
+            SheetRowCodec.writeString(out, range);
+            out.writeInt(rows.size());
+            for (List<Object> row : rows) {
+                SheetRowCodec.writeRow(out, row);
+            }
+            return frame(bytes, out);
+        }
+    }
+
+    /** ペイロードにヘッダー（長さ・CRC32）を付けます。 */
+    private static ByteBuffer frame(ByteArrayOutputStream bytes, DataOutputStream out) throws IOException {
+        out.flush();
+        return SheetRowCodec.frame(bytes.toByteArray());
+    }
+
+    private static Entry decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte kind = in.readByte();
+            long sequence = in.readLong();
+            if (kind == KIND_ACK) {
+                return new Entry(sequence, null, List.of());
+            }
+            if (kind != KIND_APPEND) {
+                throw new IOException("書き込みログに不明なレコードの種類があります: " + kind);
+            }
+            String range = SheetRowCodec.readString(in);
+            int rowCount = in.readInt();
+            List<List<Object>> rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                rows.add(SheetRowCodec.readRow(in));
+            }
+            return new Entry(sequence, range, rows);
+        }
+    }
+}
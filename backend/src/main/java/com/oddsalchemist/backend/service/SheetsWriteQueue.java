@@ -0,0 +1,471 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.SheetsWriteProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sheets への追記を受け付け、バックグラウンドでまとめて書き込む待ち行列（write-behind）。
+ * <p>
+ * 全レース分の追記を受け付け順に溜め、最大行数に達するか最初の行を受け付けてから一定時間が経過した時点で、
+ * {@link SheetStore#appendBatch} の1回の呼び出し（Sheets の場合は API 呼び出し1回）で書き込む。
+ * スクレイピングのスレッドは待ち行列に追加するだけで戻るため、Sheets の応答時間の影響を受けない。
+ * <p>
+ * 書き込みに失敗した行は待ち行列の先頭に戻し、間隔を倍にしながら再試行する。
+ * 書き込み先が追記を拒否した場合（{@link SheetWriteRejectedException}・実行時例外）は、まとめた追記を1回分ずつ書き込み直し、
+ * それでも拒否される追記は内容を ERROR ログに出力して破棄する（以降の追記が書き込めなくなるのを防ぐ）。
+ * 書き込み待ちの行数が上限に達した場合、追加する側は空きができるまで待たされる（上限時間を超えた場合は IOException）。
+ * <p>
+ * odds.sheets-write.wal-path を指定した場合、追加した行は待ち行列に入れる前にローカルの {@link SheetsWriteAheadLog} に記録し、
+ * Sheets への書き込みが完了した時点で完了を記録する。起動時には書き込みが完了していない行を待ち行列に戻すため、
+ * 書き込み待ちのまま停止・クラッシュしても行は失われない。
+ */
+@Service
+public class SheetsWriteQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SheetsWriteQueue.class);
+
+    /** 再試行間隔の初期値 */
+    private static final Duration INITIAL_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private final SheetStore sheetStore;
+    private final SheetsWriteProperties properties;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** 待ち行列の状態が変化したことを通知する条件（追加・書き込み完了・停止） */
+    private final Condition changed = lock.newCondition();
+
+    private final Deque<PendingWrite> pending = new ArrayDeque<>();
+
+    /** 書き込み待ちの行数 */
+    private int pendingRows;
+
+    /** 書き込み待ちと書き込み中の合計行数（追加時の上限判定に使用） */
+    private int queuedRows;
+
+    /** 最も古い書き込み待ちを受け付けた時刻（書き込み待ちがない場合は null） */
+    private Instant oldestPendingAt;
+
+    private boolean stopping;
+
+    private Thread flusher;
+
+    /** 追記内容のローカル記録（wal-path 未指定の場合、または開けなかった場合は null） */
+    private final SheetsWriteAheadLog wal;
+
+    /**
+     * 書き込み待ちの追記1回分
+     *
+     * @param walSequence ローカル記録の通番（記録していない場合は 0）
+     */
+    private record PendingWrite(String range, List<List<Object>> rows, Instant enqueuedAt, long walSequence) {}
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public SheetsWriteQueue(SheetStore sheetStore, SheetsWriteProperties properties) {
+        this(sheetStore, properties, Clock.systemDefaultZone());
+    }
+
+    /** テスト用コンストラクタ（Clockを指定可能。書き込みスレッドは start() を呼ぶまで起動しない） */
+    SheetsWriteQueue(SheetStore sheetStore, SheetsWriteProperties properties, Clock clock) {
+        this.sheetStore = sheetStore;
+        this.properties = properties;
+        this.clock = clock;
+        this.wal = openWal(properties.walPath());
+        if (wal != null) {
+            restore(wal.recovered());
+        }
+    }
+
+    /** ローカル記録を開きます。開けなかった場合はメモリ上の待ち行列だけで動作します。 */
+    private static SheetsWriteAheadLog openWal(String walPath) {
+        if (walPath == null) {
+            return null;
+        }
+        try {
+            return SheetsWriteAheadLog.open(Path.of(walPath));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Sheets書き込みログを開けなかったため、ローカルに記録せずに動作します: path={}, error={}",
+                    walPath, e.getMessage());
+            return null;
+        }
+    }
+
+    /** 前回の停止時に書き込みが完了していなかった行を待ち行列に戻します。 */
+    private void restore(List<SheetsWriteAheadLog.Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Instant now = clock.instant();
+        for (SheetsWriteAheadLog.Entry entry : entries) {
+            pending.addLast(new PendingWrite(entry.range(), entry.rows(), now, entry.sequence()));
+            pendingRows += entry.rows().size();
+        }
+        queuedRows = pendingRows;
+        oldestPendingAt = now;
+        logger.info("前回書き込みが完了していなかった行を書き込み待ちに戻しました: 追記数={}, 行数={}",
+                entries.size(), pendingRows);
+    }
+
+    /**
+     * 書き込みスレッドを起動します。
+     */
+    @PostConstruct
+    public void start() {
+        flusher = Thread.ofPlatform().name("sheets-writer").daemon().start(this::runFlusher);
+        logger.info("Sheets書き込みキューを開始しました: 書き込み間隔={}, 最大行数={}, 上限行数={}",
+                properties.flushInterval(), properties.maxBatchRows(), properties.queueCapacity());
+    }
+
+    /**
+     * 書き込みスレッドを停止し、書き込み待ちの行をすべて書き込みます。
+     * 書き込みに失敗した場合は残りの行数を ERROR ログに出力します。
+     * 書き込みスレッドが終了しない場合は、同じ行を並行して書き込まないよう停止時の書き込みを行いません。
+     */
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            stopping = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null && !awaitFlusherExit()) {
+            // 書き込みスレッドが書き込み中の可能性があるため、待ち行列・書き込みログには触れない
+            logger.error("Sheets書き込みスレッドが終了しないため、停止時の書き込みを行いません: {}行", pendingRowCount());
+            return;
+        }
+        while (pendingRowCount() > 0) {
+            if (!flushBatch()) {
+                if (wal != null) {
+                    logger.error("停止時のSheets書き込みに失敗しました。未書き込みの行は次回起動時に再送します: {}行", pendingRowCount());
+                } else {
+                    logger.error("停止時のSheets書き込みに失敗したため、未書き込みの行を破棄します: {}行", pendingRowCount());
+                }
+                break;
+            }
+        }
+        if (wal != null) {
+            try {
+                wal.close();
+            } catch (IOException e) {
+                logger.warn("Sheets書き込みログのクローズに失敗しました: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 書き込みスレッドの終了を待ちます。
+     * 時間内に終了しない場合は割り込みを送り、もう一度同じ時間だけ待ちます。
+     *
+     * @return 書き込みスレッドが終了した場合 true
+     */
+    private boolean awaitFlusherExit() {
+        long timeoutMillis = properties.shutdownTimeout().toMillis();
+        try {
+            flusher.join(timeoutMillis);
+            if (flusher.isAlive()) {
+                logger.warn("Sheets書き込みスレッドが時間内に終了しないため割り込みます: {}ms", timeoutMillis);
+                flusher.interrupt();
+                flusher.join(timeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !flusher.isAlive();
+    }
+
+    /**
+     * 追記する行を書き込み待ちに追加します。
+     * 書き込み待ちの行数が上限に達している場合は、空きができるまで待ちます。
+     * ローカル記録が有効な場合は、記録をディスクに書き込んでから戻ります。
+     *
+     * @param range 追記先のレンジ（例: "OddsData!A:H"）
+     * @param rows  追記する行
+     * @throws IOException 上限時間内に空きができなかった場合、または待機中に割り込まれた場合
+     */
+    public void enqueue(String range, List<List<Object>> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int size = rows.size();
+        long walSequence = 0;
+        lock.lock();
+        try {
+            long remainingNanos = properties.enqueueTimeout().toNanos();
+            // 1回分が上限を超える場合でも、待ち行列が空になれば受け付ける
+            while (queuedRows > 0 && queuedRows + size > properties.queueCapacity()) {
+                if (remainingNanos <= 0) {
+                    throw new IOException("Sheets書き込みキューが満杯のため受け付けられませんでした: 待ち行数=" + queuedRows);
+                }
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+            // 待ち行列と同じ順序で記録するため、ロックを保持したまま記録する（fsync はロック外で行う）
+            walSequence = appendToWal(range, rows);
+            Instant now = clock.instant();
+            pending.addLast(new PendingWrite(range, new ArrayList<>(rows), now, walSequence));
+            if (oldestPendingAt == null) {
+                oldestPendingAt = now;
+            }
+            pendingRows += size;
+            queuedRows += size;
+            changed.signalAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sheets書き込みキューへの追加が中断されました", e);
+        } finally {
+            lock.unlock();
+        }
+        if (walSequence > 0) {
+            try {
+                wal.syncThrough(walSequence);
+            } catch (IOException e) {
+                logger.error("Sheets書き込みログのディスク書き込みに失敗しました: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * ローカル記録に追記します。記録に失敗した場合も待ち行列への追加は続けます。
+     *
+     * @return 記録した通番（記録しなかった場合は 0）
+     */
+    private long appendToWal(String range, List<List<Object>> rows) {
+        if (wal == null) {
+            return 0;
+        }
+        try {
+            return wal.append(range, rows);
+        } catch (IOException e) {
+            logger.error("Sheets書き込みログへの記録に失敗しました。この追記はメモリ上でのみ保持します: range={}, error={}",
+                    range, e.getMessage());
+            return 0;
+        }
+    }
+
+    /** 書き込み待ちと書き込み中の合計行数 */
+    int pendingRowCount() {
+        lock.lock();
+        try {
+            return queuedRows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 書き込み待ちの先頭から最大行数分を取り出し、1回の API 呼び出しで書き込みます。
+     * 失敗した場合は取り出した行を待ち行列の先頭に戻します。
+     * 書き込み先が追記を拒否した場合は {@link #flushIndividually} で1回分ずつ書き込み直します。
+     *
+     * @return 書き込みに成功した場合（書き込み待ちがない場合を含む）true
+     */
+    boolean flushBatch() {
+        List<PendingWrite> batch = new ArrayList<>();
+        int rows = 0;
+        lock.lock();
+        try {
+            while (!pending.isEmpty()
+                    && (batch.isEmpty() || rows + pending.peekFirst().rows().size() <= properties.maxBatchRows())) {
+                PendingWrite write = pending.pollFirst();
+                batch.add(write);
+                rows += write.rows().size();
+            }
+            pendingRows -= rows;
+            oldestPendingAt = pending.isEmpty() ? null : pending.peekFirst().enqueuedAt();
+        } finally {
+            lock.unlock();
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        Map<String, List<List<Object>>> rowsByRange = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            rowsByRange.computeIfAbsent(write.range(), k -> new ArrayList<>()).addAll(write.rows());
+        }
+        try {
+            sheetStore.appendBatch(rowsByRange);
+        } catch (SheetWriteRejectedException | RuntimeException e) {
+            logger.warn("Sheetsが一括追記を拒否しました。追記ごとに書き込み直します: 追記数={}, 行数={}, error={}",
+                    batch.size(), rows, e.getMessage());
+            return flushIndividually(batch);
+        } catch (IOException e) {
+            logger.warn("Sheetsへの一括追記に失敗しました。再試行します: 行数={}, error={}", rows, e.getMessage());
+            requeue(batch);
+            return false;
+        }
+        complete(batch);
+        return true;
+    }
+
+    /**
+     * 追記を1回分ずつ受け付け順に書き込みます。拒否された追記は内容を ERROR ログに出力して破棄し、完了として扱います。
+     * 拒否以外の理由で失敗した場合は、その追記と残りを待ち行列の先頭に戻します。
+     *
+     * @return すべての追記を書き込んだ（または破棄した）場合 true
+     */
+    private boolean flushIndividually(List<PendingWrite> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            try {
+                sheetStore.appendBatch(Map.of(write.range(), write.rows()));
+            } catch (SheetWriteRejectedException | RuntimeException e) {
+                logger.error("Sheetsが追記を拒否したため破棄します: range={}, 行数={}, error={}, rows={}",
+                        write.range(), write.rows().size(), e.getMessage(), write.rows());
+            } catch (IOException e) {
+                logger.warn("Sheetsへの追記に失敗しました。再試行します: range={}, 行数={}, error={}",
+                        write.range(), write.rows().size(), e.getMessage());
+                requeue(batch.subList(i, batch.size()));
+                return false;
+            }
+            complete(List.of(write));
+        }
+        return true;
+    }
+
+    /** 取り出した追記を受け付け順のまま待ち行列の先頭に戻します。 */
+    private void requeue(List<PendingWrite> writes) {
+        lock.lock();
+        try {
+            for (int i = writes.size() - 1; i >= 0; i--) {
+                PendingWrite write = writes.get(i);
+                pending.addFirst(write);
+                pendingRows += write.rows().size();
+            }
+            oldestPendingAt = writes.get(0).enqueuedAt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 書き込み（または破棄）が完了した追記を書き込み中の行数から除き、ローカル記録に反映します。 */
+    private void complete(List<PendingWrite> writes) {
+        int rows = 0;
+        for (PendingWrite write : writes) {
+            rows += write.rows().size();
+        }
+        lock.lock();
+        try {
+            queuedRows -= rows;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        acknowledgeWal(writes);
+    }
+
+    /** 書き込みが完了した追記をローカル記録に反映します。 */
+    private void acknowledgeWal(List<PendingWrite> batch) {
+        if (wal == null) {
+            return;
+        }
+        long lastSequence = 0;
+        for (PendingWrite write : batch) {
+            lastSequence = Math.max(lastSequence, write.walSequence());
+        }
+        if (lastSequence == 0) {
+            return;
+        }
+        try {
+            wal.acknowledge(lastSequence);
+        } catch (IOException e) {
+            logger.warn("Sheets書き込みログへの完了の記録に失敗しました（次回起動時に同じ行が再送される可能性があります）: {}",
+                    e.getMessage());
+        }
+    }
+
+    /** 書き込みスレッドの処理。書き込み時期になるまで待ち、書き込みに失敗した場合は間隔を空けて再試行します。 */
+    private void runFlusher() {
+        Duration backoff = INITIAL_RETRY_BACKOFF;
+        while (true) {
+            try {
+                if (!awaitFlushDue()) {
+                    return;
+                }
+                if (flushBatch()) {
+                    backoff = INITIAL_RETRY_BACKOFF;
+                } else {
+                    if (!awaitStopping(backoff)) {
+                        return;
+                    }
+                    backoff = backoff.multipliedBy(2);
+                    if (backoff.compareTo(properties.maxRetryBackoff()) > 0) {
+                        backoff = properties.maxRetryBackoff();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 最大行数に達するか、最も古い書き込み待ちから書き込み間隔が経過するまで待ちます。
+     *
+     * @return 書き込み時期になった場合 true、停止要求を受けた場合 false
+     */
+    private boolean awaitFlushDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!stopping) {
+                if (pending.isEmpty()) {
+                    changed.await();
+                    continue;
+                }
+                if (pendingRows >= properties.maxBatchRows()) {
+                    return true;
+                }
+                long waitNanos = Duration.between(clock.instant(),
+                        oldestPendingAt.plus(properties.flushInterval())).toNanos();
+                if (waitNanos <= 0) {
+                    return true;
+                }
+                changed.awaitNanos(waitNanos);
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 指定時間が経過するまで待ちます。
+     *
+     * @return 指定時間が経過した場合 true、停止要求を受けた場合 false
+     */
+    private boolean awaitStopping(Duration duration) throws InterruptedException {
+        lock.lock();
+        try {
+            long remainingNanos = duration.toNanos();
+            while (!stopping && remainingNanos > 0) {
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+            return !stopping;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package com.oddsalchemist.backend.service;
 
+import com.oddsalchemist.backend.config.SheetsWriteProperties;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * 監視対象URLをインメモリ＋Google Sheetsで管理するスレッドセーフなストア。
+ * 監視対象URLをインメモリ＋Targets シート（SheetStore。既定は Google Sheets）で管理するスレッドセーフなストア。
  * 起動時に Targets シートからURLを復元し、追加・削除のたびにシートへ永続化する。
+ * <p>
+ * スクレイピングごとに更新される実行時刻は変更ありとして記録するだけで、
+ * 一定間隔（odds.sheets-write.targets-flush-interval）ごとに変更がある場合のみまとめて書き込む。停止時にも書き込む。
+ * 書き込み時は行数が前回から減っていなければクリアせずに上書きする（API 呼び出し1回）。
  */
 @Service
 public class TargetUrlStore {
@@ -26,20 +36,73 @@ public class TargetUrlStore {
     public record TargetUrlInfo(String url, String lastExecutionTime, String nextScheduledTime) {}
 
     private final ConcurrentHashMap<String, TargetUrlInfo> urlMap = new ConcurrentHashMap<>();
-    private final GoogleSheetsService googleSheetsService;
+    private final SheetStore sheetStore;
 
-    public TargetUrlStore(GoogleSheetsService googleSheetsService) {
-        this.googleSheetsService = googleSheetsService;
+    /** 変更ありの書き込みを行う定期タスク用（テスト用コンストラクタでは null） */
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final Duration flushInterval;
+
+    /** インメモリ状態を変更するたびに増える番号 */
+    private final AtomicLong changeCount = new AtomicLong();
+
+    /** シートへ書き込み済みの変更番号（persistToSheet 内で更新） */
+    private long persistedChangeCount;
+
+    /** シートに書き込まれている行数。不明な場合は Integer.MAX_VALUE（次回の書き込みでクリアする） */
+    private int persistedRowCount = Integer.MAX_VALUE;
+
+    /** Spring が使用するコンストラクタ */
+    @Autowired
+    public TargetUrlStore(SheetStore sheetStore, SheetsWriteProperties properties) {
+        this.sheetStore = sheetStore;
+        this.taskScheduler = new ThreadPoolTaskScheduler();
+        this.flushInterval = properties.targetsFlushInterval();
+    }
+
+    /** テスト用コンストラクタ（定期的な書き込みは行わない） */
+    TargetUrlStore(SheetStore sheetStore) {
+        this.sheetStore = sheetStore;
+        this.taskScheduler = null;
+        this.flushInterval = null;
+    }
+
+    /**
+     * Targets シートから復元し、変更ありの書き込みを行う定期タスクを開始します。
+     */
+    @PostConstruct
+    public void start() {
+        loadFromSheet();
+        if (taskScheduler == null) {
+            return;
+        }
+        taskScheduler.setPoolSize(1);
+        taskScheduler.setThreadNamePrefix("targets-flush-");
+        taskScheduler.initialize();
+        taskScheduler.scheduleAtFixedRate(this::flushIfDirty, flushInterval);
+        logger.info("Targetsシートの定期書き込みを開始しました: 間隔={}", flushInterval);
+    }
+
+    /**
+     * 定期タスクを停止し、未書き込みの変更があれば書き込みます。
+     */
+    @PreDestroy
+    public void stop() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+        flushIfDirty();
     }
 
     /**
      * 起動時に Google Sheets の Targets シートからURLと実行時刻を復元します。
      * 読み込み失敗時は WARN ログのみ出力し、インメモリ空のまま起動を継続します。
      */
-    @PostConstruct
     public void loadFromSheet() {
         try {
-            List<List<Object>> rows = googleSheetsService.readData(TARGETS_RANGE);
+            List<List<Object>> rows = sheetStore.readData(TARGETS_RANGE);
+            synchronized (this) {
+                persistedRowCount = rows.size();
+            }
             for (List<Object> row : rows) {
                 if (row.isEmpty()) continue;
                 String url = row.get(0).toString().trim();
@@ -106,6 +169,7 @@ public class TargetUrlStore {
             return false;
         }
         urlMap.put(url, new TargetUrlInfo(url, null, null));
+        changeCount.incrementAndGet();
         logger.info("監視対象URLを追加: {}", url);
         persistToSheet();
         return true;
@@ -119,6 +183,7 @@ public class TargetUrlStore {
     public boolean removeUrl(String url) {
         TargetUrlInfo removed = urlMap.remove(url);
         if (removed != null) {
+            changeCount.incrementAndGet();
             logger.info("監視対象URLを削除: {}", url);
             persistToSheet();
             return true;
@@ -128,21 +193,40 @@ public class TargetUrlStore {
 
     /**
      * URLの最終実行時間と次回予定時間を更新します。
-     * Sheetsへの書き込みは行いません（呼び出し元が persistToSheet() を責務として持ちます）。
+     * Sheetsへはこの場で書き込まず、変更ありとして記録します（定期タスク・停止時にまとめて書き込まれます）。
      *
      * @param url           対象URL
      * @param lastExecution 最終実行時間（形式: yyyy/MM/dd HH:mm:ss）
      * @param nextScheduled 次回予定時間（形式: yyyy/MM/dd HH:mm:ss）
      */
     public void updateExecutionTimes(String url, String lastExecution, String nextScheduled) {
-        urlMap.computeIfPresent(url, (k, v) -> new TargetUrlInfo(url, lastExecution, nextScheduled));
+        if (urlMap.computeIfPresent(url, (k, v) -> new TargetUrlInfo(url, lastExecution, nextScheduled)) != null) {
+            changeCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 前回の書き込み以降に変更がある場合のみ、Targets シートへ書き込みます。
+     */
+    public synchronized void flushIfDirty() {
+        if (isDirty()) {
+            persistToSheet();
+        }
+    }
+
+    /** 前回の書き込み以降に変更があるかを返します。 */
+    synchronized boolean isDirty() {
+        return changeCount.get() != persistedChangeCount;
     }
 
     /**
      * 現在のインメモリ状態を Targets シートへ全件上書き保存します。
-     * 失敗時は ERROR ログのみ出力し、インメモリへの変更は確定済みとして扱います。
+     * 行数が前回の書き込みから減っていない場合はクリアせずに上書きし、減った場合のみクリアしてから書き込みます。
+     * 失敗時は ERROR ログのみ出力し、インメモリへの変更は確定済みとして扱います（次回の定期タスクで再度書き込みます）。
      */
-    public void persistToSheet() {
+    public synchronized void persistToSheet() {
+        // 書き込み中の変更は次回の書き込み対象とするため、行の作成前に変更番号を取得する
+        long changeCountAtWrite = changeCount.get();
         try {
             List<List<Object>> rows = new ArrayList<>();
             for (TargetUrlInfo info : urlMap.values()) {
@@ -151,7 +235,13 @@ public class TargetUrlStore {
                         Objects.requireNonNullElse(info.lastExecutionTime(), ""),
                         Objects.requireNonNullElse(info.nextScheduledTime(), "")));
             }
-            googleSheetsService.clearAndWriteData(TARGETS_RANGE, rows);
+            if (rows.size() < persistedRowCount) {
+                sheetStore.clearAndWriteData(TARGETS_RANGE, rows);
+            } else {
+                sheetStore.writeData(TARGETS_RANGE, rows);
+            }
+            persistedRowCount = rows.size();
+            persistedChangeCount = changeCountAtWrite;
         } catch (Exception e) {
             logger.error("Sheetsへの書き込みに失敗しました。インメモリへの変更は確定済みです", e);
         }
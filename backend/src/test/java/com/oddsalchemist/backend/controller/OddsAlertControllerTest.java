@@ -0,0 +1,157 @@
+package com.oddsalchemist.backend.controller;
+
+import com.oddsalchemist.backend.dto.AlertFeedDto;
+import com.oddsalchemist.backend.dto.AlertFeedItemDto;
+import com.oddsalchemist.backend.dto.AnomalyAlertDto;
+import com.oddsalchemist.backend.service.AlertStore;
+import com.oddsalchemist.backend.service.AlertStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class OddsAlertControllerTest {
+
+    private static final String URL = "https://example.com/race/A";
+
+    private AlertStore alertStore;
+    private AlertStreamService alertStreamService;
+    private OddsAlertController controller;
+
+    @BeforeEach
+    void setUp() {
+        alertStore = mock(AlertStore.class);
+        alertStreamService = mock(AlertStreamService.class);
+        controller = new OddsAlertController(alertStore, alertStreamService);
+    }
+
+    @Test
+    void getAlerts_条件なしの場合は全件を200で返し総件数ヘッダーを付与すること() {
+        List<AnomalyAlertDto> alerts = List.of(alert("5", "支持率急増"), alert("7", "順位乖離"));
+        when(alertStore.find(AlertStore.Filter.NONE, 0, Integer.MAX_VALUE))
+                .thenReturn(new AlertStore.Page(alerts, 2));
+
+        ResponseEntity<List<AnomalyAlertDto>> response = controller.getAlerts(null, null, null, 0, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(alerts);
+        assertThat(response.getHeaders().getFirst("X-Total-Count")).isEqualTo("2");
+    }
+
+    @Test
+    void getAlerts_絞り込み条件とページ範囲がストアに渡されること() {
+        List<AnomalyAlertDto> alerts = List.of(alert("5", "支持率急増"));
+        AlertStore.Filter filter = new AlertStore.Filter(URL, "5", "支持率急増");
+        when(alertStore.find(filter, 10, 20)).thenReturn(new AlertStore.Page(alerts, 11));
+
+        ResponseEntity<List<AnomalyAlertDto>> response = controller.getAlerts(URL, "5", "支持率急増", 10, 20, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(alerts);
+        assertThat(response.getHeaders().getFirst("X-Total-Count")).isEqualTo("11");
+    }
+
+    @Test
+    void getAlerts_offsetやlimitが負の場合は400が返されること() {
+        assertThat(controller.getAlerts(null, null, null, -1, null, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(controller.getAlerts(null, null, null, 0, -1, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(alertStore);
+    }
+
+    @Test
+    void getAlerts_ETagが一致する場合は304が返されること() {
+        when(alertStore.revision()).thenReturn("12-1-20534");
+
+        ResponseEntity<List<AnomalyAlertDto>> response =
+                controller.getAlerts(null, null, null, 0, null, "\"12-1-20534\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        verify(alertStore, never()).find(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getAlerts_ETagが一致しない場合は200と現在のETagが返されること() {
+        when(alertStore.revision()).thenReturn("13-1-20534");
+        when(alertStore.find(AlertStore.Filter.NONE, 0, Integer.MAX_VALUE))
+                .thenReturn(new AlertStore.Page(List.of(), 0));
+
+        ResponseEntity<List<AnomalyAlertDto>> response =
+                controller.getAlerts(null, null, null, 0, null, "\"12-1-20534\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"13-1-20534\"");
+    }
+
+    // ===== getAlertFeed =====
+
+    @Test
+    void getAlertFeed_カーソルより新しいアラートと次回カーソルが返されること() {
+        when(alertStore.revision()).thenReturn("8-1-20534");
+        AnomalyAlertDto alert = alert("5", "支持率急増");
+        when(alertStore.findSince(new AlertStore.Filter(URL, null, null), 6, Integer.MAX_VALUE))
+                .thenReturn(new AlertStore.Feed(
+                        List.of(new AlertStore.Entry(8, URL, alert, LocalDate.of(2026, 3, 22))), 8, false));
+
+        ResponseEntity<AlertFeedDto> response = controller.getAlertFeed(6, URL, null, null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new AlertFeedDto(
+                List.of(AlertFeedItemDto.of(8, URL, alert)), 8, false));
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"8-1-20534\"");
+    }
+
+    @Test
+    void getAlertFeed_ETagが一致する場合は304が返されること() {
+        when(alertStore.revision()).thenReturn("8-1-20534");
+
+        ResponseEntity<AlertFeedDto> response =
+                controller.getAlertFeed(8, null, null, null, null, "W/\"8-1-20534\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(alertStore, never()).findSince(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getAlertFeed_不正なsinceやlimitの場合は400が返されること() {
+        assertThat(controller.getAlertFeed(-1, null, null, null, null, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(controller.getAlertFeed(0, null, null, null, 0, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(alertStore);
+    }
+
+    // ===== streamAlerts =====
+
+    @Test
+    void streamAlerts_絞り込み条件とLastEventIDが配信サービスに渡されること() {
+        controller.streamAlerts(URL, null, "支持率急増", "42");
+
+        verify(alertStreamService).subscribe(new AlertStore.Filter(URL, null, "支持率急増"), 42L);
+    }
+
+    @Test
+    void streamAlerts_LastEventIDが未指定または不正な場合は新規接続として扱われること() {
+        controller.streamAlerts(null, null, null, null);
+        controller.streamAlerts(null, null, null, "abc");
+        controller.streamAlerts(null, null, null, "-1");
+
+        verify(alertStreamService, times(3)).subscribe(AlertStore.Filter.NONE, null);
+    }
+
+    private AnomalyAlertDto alert(String horseNumber, String alertType) {
+        return new AnomalyAlertDto("テストレース", horseNumber, "馬" + horseNumber, alertType, 0.03,
+                "2026/03/22 10:00:00");
+    }
+}
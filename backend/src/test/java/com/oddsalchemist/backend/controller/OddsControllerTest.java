@@ -1,6 +1,8 @@
 package com.oddsalchemist.backend.controller;
 
 import com.oddsalchemist.backend.service.GoogleSheetsService;
+import com.oddsalchemist.backend.service.OddsHistoryService;
+import com.oddsalchemist.backend.service.OddsSyncService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
@@ -17,12 +19,16 @@ import static org.mockito.Mockito.*;
 class OddsControllerTest {
 
     private GoogleSheetsService googleSheetsService;
+    private OddsHistoryService oddsHistoryService;
+    private OddsSyncService oddsSyncService;
     private OddsController controller;
 
     @BeforeEach
     void setUp() {
         googleSheetsService = mock(GoogleSheetsService.class);
-        controller = new OddsController(googleSheetsService);
+        oddsHistoryService = mock(OddsHistoryService.class);
+        oddsSyncService = mock(OddsSyncService.class);
+        controller = new OddsController(googleSheetsService, oddsHistoryService, oddsSyncService);
     }
 
     // ===== clearSheet =====
@@ -34,7 +40,9 @@ class OddsControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(((Map<?, ?>) response.getBody()).get("message").toString())
                 .contains("OddsData");
-        verify(googleSheetsService).clearAndWriteData(eq("OddsData!A2:H"), eq(List.of()));
+        verify(googleSheetsService).clearAndWriteData(eq("OddsData!A2:I"), eq(List.of()));
+        verify(oddsHistoryService).invalidate();
+        verify(oddsSyncService).resetPersistedSnapshots();
     }
 
     @Test
@@ -45,6 +53,7 @@ class OddsControllerTest {
         assertThat(((Map<?, ?>) response.getBody()).get("message").toString())
                 .contains("Alerts");
         verify(googleSheetsService).clearAndWriteData(eq("Alerts!A2:G"), eq(List.of()));
+        verifyNoInteractions(oddsHistoryService, oddsSyncService);
     }
 
     @Test
@@ -65,5 +74,6 @@ class OddsControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
         assertThat(((Map<?, ?>) response.getBody()).get("message").toString())
                 .contains("クリアに失敗しました");
+        verifyNoInteractions(oddsHistoryService);
     }
 }
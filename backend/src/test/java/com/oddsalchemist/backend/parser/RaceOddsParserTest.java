@@ -303,4 +303,37 @@ class RaceOddsParserTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0).raceName()).isEqualTo("有馬記念");
     }
+
+    // ===== parsePage のテスト =====
+
+    @Test
+    void parsePage_1回のパースでオッズ行とレース名と発走時刻をまとめて取得できること() {
+        String rows = horseRow(1, 1, "キタサンブラック", "2.5", "1.2 - 1.5")
+                    + horseRow(2, 2, "イクイノックス", "1.8", "1.1-1.3");
+        String html = buildHtml("中山記念", rows)
+                .replace("<table", "<div class=\"hr-predictRaceInfo__text\">15:35発走</div><table");
+
+        ParsedRacePage page = parser.parsePage(html);
+
+        assertThat(page.raceName()).isEqualTo("中山記念");
+        assertThat(page.startTime()).contains(LocalTime.of(15, 35));
+        assertThat(page.oddsList()).extracting(OddsData::horseName)
+                .containsExactly("キタサンブラック", "イクイノックス");
+        assertThat(page.diagnostics().rowCount()).isEqualTo(2);
+        assertThat(page.diagnostics().skippedRowCount()).isZero();
+    }
+
+    @Test
+    void parsePage_馬名のない行はスキップ件数に計上されること() {
+        String rows = horseRow(1, 1, "キタサンブラック", "2.5", "1.2 - 1.5")
+                    + horseRow(2, 2, "", "1.8", "1.1-1.3");
+        String html = buildHtml("中山記念", rows);
+
+        ParsedRacePage page = parser.parsePage(html);
+
+        assertThat(page.oddsList()).hasSize(1);
+        assertThat(page.startTime()).isEmpty();
+        assertThat(page.diagnostics().rowCount()).isEqualTo(2);
+        assertThat(page.diagnostics().skippedRowCount()).isEqualTo(1);
+    }
 }
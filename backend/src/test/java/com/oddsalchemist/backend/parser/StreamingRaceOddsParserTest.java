@@ -0,0 +1,116 @@
+package com.oddsalchemist.backend.parser;
+
+import com.oddsalchemist.backend.dto.OddsData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * StreamingRaceOddsParser の単体テスト。
+ * 既定の Jsoup エンジン（RaceOddsParser）と同一の解析結果になることを中心に検証する。
+ */
+class StreamingRaceOddsParserTest {
+
+    private RaceOddsParser jsoupParser;
+    private StreamingRaceOddsParser streamingParser;
+
+    @BeforeEach
+    void setUp() {
+        jsoupParser = new RaceOddsParser();
+        streamingParser = new StreamingRaceOddsParser();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"fixtures/sportsnavi_odds_18.html", "fixtures/sportsnavi_odds_8.html"})
+    void parsePage_フィクスチャページでJsoupエンジンと同一の結果になること(String fixture) throws IOException {
+        String html = readFixture(fixture);
+
+        ParsedRacePage expected = jsoupParser.parsePage(html);
+        ParsedRacePage actual = streamingParser.parsePage(html);
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.oddsList()).isNotEmpty();
+    }
+
+    @Test
+    void parsePage_18頭立てページから全馬と発走時刻を抽出できること() throws IOException {
+        ParsedRacePage page = streamingParser.parsePage(readFixture("fixtures/sportsnavi_odds_18.html"));
+
+        assertThat(page.raceName()).isEqualTo("有馬記念");
+        assertThat(page.startTime()).contains(LocalTime.of(15, 40));
+        assertThat(page.oddsList()).hasSize(18);
+        // script 内の偽の行やコメント内の見出しは拾わないこと
+        assertThat(page.diagnostics().rowCount()).isEqualTo(18);
+        // 文字参照がデコードされること
+        assertThat(page.oddsList()).extracting(OddsData::horseName).contains("ジャスティン&パレス");
+        // 取消馬（オッズなし）も行として残ること
+        assertThat(page.oddsList().get(17).winOdds()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // 発走テキストを含む div
+            "<html><body><h2 class=\"hr-predictRaceInfo__title\">阪神大賞典</h2>"
+                    + "<div class=\"hr-predictRaceInfo__text\">15:30発走</div></body></html>",
+            // 発走を含まない div は無視して dd にフォールバック
+            "<html><body><div class=\"hr-predictRaceInfo__text\">芝2000m</div>"
+                    + "<dl class=\"hr-predictRaceInfo__raceData\"><dd>01:30</dd><dd>15:25</dd></dl></body></html>",
+            // time 要素
+            "<html><body><h2 class=\"hr-predictRaceInfo__title\">有馬記念</h2><time>15:25</time></body></html>",
+            // 空のHTML
+            "",
+            // 終了タグ省略・入れ子のブロック要素・br を含むレース名
+            "<table><tr class='hr-tableValue__row'><td class='hr-tableValue__data--number'>3"
+                    + "<td class='hr-tableValue__data--horse'>馬<div>名</div>X<td class='hr-tableValue__data--odds'> 12.5 "
+                    + "<tr class='hr-tableValue__row'><td class='hr-tableValue__data--number'>4"
+                    + "<td class='HR-tableValue__data--horse'>ウマ</table>"
+                    + "<h2 class='hr-predictRaceInfo__title'>A<br>B<span>C</span> D </h2>"
+    })
+    void parsePage_境界ケースでJsoupエンジンと同一の結果になること(String html) {
+        assertThat(streamingParser.parsePage(html)).isEqualTo(jsoupParser.parsePage(html));
+    }
+
+    @Test
+    void parsePage_h2がない場合はtitleタグからレース名を抽出すること() {
+        String html = """
+            <html>
+              <head><title>競馬 - 有馬記念 オッズ - スポーツナビ</title></head>
+              <body>
+                <table><tbody>
+                  <tr class="hr-tableValue__row">
+                    <td class="hr-tableValue__data hr-tableValue__data--number">
+                      <span class="hr-icon__bracketNum hr-icon__bracketNum--1">1</span>
+                    </td>
+                    <td class="hr-tableValue__data hr-tableValue__data--number">1</td>
+                    <td class="hr-tableValue__data hr-tableValue__data--horse"><a href="/dummy/">テスト馬</a></td>
+                    <td class="hr-tableValue__data hr-tableValue__data--odds"><span>5.0</span></td>
+                    <td class="hr-tableValue__data hr-tableValue__data--odds"><span>1.5 - 2.0</span></td>
+                  </tr>
+                </tbody></table>
+              </body>
+            </html>
+            """;
+
+        ParsedRacePage page = streamingParser.parsePage(html);
+
+        assertThat(page.raceName()).isEqualTo("有馬記念");
+        assertThat(page.oddsList()).containsExactly(
+                new OddsData("有馬記念", "1", "テスト馬", 5.0, 1.5, 2.0, null));
+        assertThat(page).isEqualTo(jsoupParser.parsePage(html));
+    }
+
+    private static String readFixture(String name) throws IOException {
+        try (InputStream in = StreamingRaceOddsParserTest.class.getClassLoader().getResourceAsStream(name)) {
+            assertThat(in).as("fixture %s", name).isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.oddsalchemist.backend.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BurstAdmissionControlTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-22T05:50:00Z");
+
+    /** 上限 6回/分 → 枠の間隔は10秒 */
+    private final BurstAdmissionControl admission = new BurstAdmissionControl(6, Duration.ofMinutes(1));
+
+    @Test
+    void admit_枠が空いている場合は希望どおりの遅延を返すこと() {
+        assertThat(admission.admit(NOW, Duration.ofSeconds(15))).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    @Test
+    void admit_同じ時刻を希望した複数レースは枠の間隔ずつずらされること() {
+        assertThat(admission.admit(NOW, Duration.ofSeconds(15))).isEqualTo(Duration.ofSeconds(15));
+        assertThat(admission.admit(NOW, Duration.ofSeconds(15))).isEqualTo(Duration.ofSeconds(25));
+        assertThat(admission.admit(NOW, Duration.ofSeconds(15))).isEqualTo(Duration.ofSeconds(35));
+    }
+
+    @Test
+    void admit_空き枠が通常間隔以降になる場合は予約せず通常間隔を返すこと() {
+        for (int i = 0; i < 5; i++) {
+            admission.admit(NOW, Duration.ofSeconds(15));
+        }
+        // 15, 25, 35, 45, 55秒後が予約済み → 次の枠は65秒後で1分を超える
+        assertThat(admission.admit(NOW, Duration.ofSeconds(15))).isEqualTo(Duration.ofMinutes(1));
+
+        // 枠を消費していないため、時間が経過すれば再び短間隔で予約できること
+        assertThat(admission.admit(NOW.plusSeconds(50), Duration.ofSeconds(15))).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    @Test
+    void admit_1分あたりの予約数が上限ちょうどに抑えられること() {
+        List<Instant> slots = new ArrayList<>();
+        for (int second = 0; second < 60; second++) {
+            for (int race = 0; race < 10; race++) {
+                Instant now = NOW.plusSeconds(second);
+                Duration delay = admission.admit(now, Duration.ofSeconds(10));
+                if (delay.compareTo(Duration.ofMinutes(1)) < 0) {
+                    slots.add(now.plus(delay));
+                }
+            }
+        }
+        // 10秒間隔の枠が 10秒後〜110秒後まで埋まる
+        assertThat(slots).hasSize(11);
+        int busiest = 0;
+        for (Instant from : slots) {
+            busiest = Math.max(busiest, (int) slots.stream()
+                    .filter(slot -> !slot.isBefore(from) && slot.isBefore(from.plus(Duration.ofMinutes(1))))
+                    .count());
+        }
+        assertThat(busiest).isEqualTo(6);
+    }
+
+    @Test
+    void admit_間隔の異なるレースが混在しても上限に達するまでは希望どおりの間隔で予約できること() {
+        // 既定の上限 60回/分 → 枠の間隔は1秒
+        BurstAdmissionControl defaults = new BurstAdmissionControl(60, Duration.ofMinutes(1));
+        Instant now = NOW;
+        for (int cycle = 0; cycle < 4; cycle++) {
+            // 10分前の段階（30秒間隔）のレースが先に予約しても、5分前の段階（15秒間隔）のレースは遅らされない
+            assertThat(defaults.admit(now, Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(30));
+            assertThat(defaults.admit(now.plusSeconds(1), Duration.ofSeconds(15))).isEqualTo(Duration.ofSeconds(15));
+            assertThat(defaults.admit(now.plusSeconds(16), Duration.ofSeconds(15))).isEqualTo(Duration.ofSeconds(15));
+            now = now.plusSeconds(30);
+        }
+    }
+
+    @Test
+    void admit_予約済みの時刻の間に空きがあれば希望時刻に近い空きに入ること() {
+        assertThat(admission.admit(NOW, Duration.ofSeconds(10))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(admission.admit(NOW, Duration.ofSeconds(40))).isEqualTo(Duration.ofSeconds(40));
+
+        // 25秒後は 10秒後・40秒後の予約と枠の間隔（10秒）以上離れている
+        assertThat(admission.admit(NOW, Duration.ofSeconds(25))).isEqualTo(Duration.ofSeconds(25));
+        // 32秒後は 25秒後・40秒後の予約に近いため、40秒後の次の空き（50秒後）になる
+        assertThat(admission.admit(NOW, Duration.ofSeconds(32))).isEqualTo(Duration.ofSeconds(50));
+    }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
@@ -30,7 +31,7 @@ class OddsScrapingSchedulerTest {
     void setUp() {
         oddsSyncService = mock(OddsSyncService.class);
         targetUrlStore = mock(TargetUrlStore.class);
-        props = new ScrapingProperties("OddsData!A:H", 0);
+        props = new ScrapingProperties("OddsData!A:H", 0, 0, null, 0, null, null, null);
     }
 
     // ===== scrapeAllTargets のテスト =====
@@ -156,6 +157,27 @@ class OddsScrapingSchedulerTest {
         assertThat(delay).isEqualTo(OddsScrapingScheduler.DELAY_30MIN);
     }
 
+    @Test
+    void calculateDelayForUrl_短間隔の段階が設定されている場合は残り時間に応じた間隔を返すこと() {
+        // 段階は within の昇順に並べ替えられること
+        ScrapingProperties burstProps = new ScrapingProperties("OddsData!A:H", 0, 0, List.of(
+                new ScrapingProperties.BurstStep(Duration.ofMinutes(10), Duration.ofSeconds(30)),
+                new ScrapingProperties.BurstStep(Duration.ofMinutes(5), Duration.ofSeconds(15))), 0, null, null, null);
+        OddsScrapingScheduler scheduler = new OddsScrapingScheduler(oddsSyncService, burstProps, targetUrlStore);
+        when(oddsSyncService.getCachedStartTime("https://example.com/race/1"))
+                .thenReturn(Optional.of(LocalTime.of(15, 0)));
+
+        assertThat(scheduler.calculateDelayForUrl("https://example.com/race/1", LocalTime.of(14, 45)))
+                .isEqualTo(OddsScrapingScheduler.DELAY_1MIN);
+        assertThat(scheduler.calculateDelayForUrl("https://example.com/race/1", LocalTime.of(14, 50)))
+                .isEqualTo(Duration.ofSeconds(30));
+        assertThat(scheduler.calculateDelayForUrl("https://example.com/race/1", LocalTime.of(14, 55, 30)))
+                .isEqualTo(Duration.ofSeconds(15));
+        // 発走直後は短間隔にしないこと
+        assertThat(scheduler.calculateDelayForUrl("https://example.com/race/1", LocalTime.of(15, 0, 30)))
+                .isEqualTo(OddsScrapingScheduler.DELAY_1MIN);
+    }
+
     // ===== scheduleUrl / cancelUrl のテスト =====
 
     @Test
@@ -250,7 +272,7 @@ class OddsScrapingSchedulerTest {
     }
 
     @Test
-    void scrapeAndReschedule_完了後にupdateExecutionTimesとpersistToSheetが呼ばれること() throws Exception {
+    void scrapeAndReschedule_完了後にupdateExecutionTimesが呼ばれSheetsへは即時に書き込まないこと() throws Exception {
         String url = "https://example.com/race/1";
         when(targetUrlStore.containsUrl(url)).thenReturn(true);
         when(oddsSyncService.fetchAndSaveOdds(eq(url), any())).thenReturn(3);
@@ -261,14 +283,14 @@ class OddsScrapingSchedulerTest {
         try {
             scheduler.scrapeAndReschedule(url);
             verify(targetUrlStore).updateExecutionTimes(eq(url), anyString(), anyString());
-            verify(targetUrlStore).persistToSheet();
+            verify(targetUrlStore, never()).persistToSheet();
         } finally {
             scheduler.stop();
         }
     }
 
     @Test
-    void updateAndPersistExecutionTimes_updateExecutionTimesとpersistToSheetが呼ばれること() {
+    void updateAndPersistExecutionTimes_updateExecutionTimesが呼ばれSheetsへは即時に書き込まないこと() {
         String url = "https://example.com/race/1";
         when(oddsSyncService.getCachedStartTime(url)).thenReturn(Optional.empty());
 
@@ -276,13 +298,42 @@ class OddsScrapingSchedulerTest {
         scheduler.updateAndPersistExecutionTimes(url);
 
         verify(targetUrlStore).updateExecutionTimes(eq(url), anyString(), anyString());
-        verify(targetUrlStore).persistToSheet();
+        verify(targetUrlStore, never()).persistToSheet();
+    }
+
+    @Test
+    void updateAndPersistExecutionTimes_スケジュール済みの次回実行時刻がそのまま記録されること() {
+        String url = "https://example.com/race/1";
+        ScrapingProperties debugProps = new ScrapingProperties("OddsData!A:H", 2, 0, null, 0, null, null, null);
+
+        OddsScrapingScheduler scheduler = new OddsScrapingScheduler(oddsSyncService, debugProps, targetUrlStore);
+        scheduler.scheduleUrl(url);
+        String expected = LocalDateTime.ofInstant(scheduler.getNextFireTime(url).orElseThrow(), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+
+        scheduler.updateAndPersistExecutionTimes(url);
+
+        verify(targetUrlStore).updateExecutionTimes(eq(url), anyString(), eq(expected));
+    }
+
+    @Test
+    void cancelUrl_キャンセル後は次回実行時刻が返らないこと() {
+        String url = "https://example.com/race/1";
+        when(oddsSyncService.getCachedStartTime(url)).thenReturn(Optional.empty());
+
+        OddsScrapingScheduler scheduler = new OddsScrapingScheduler(oddsSyncService, props, targetUrlStore);
+        scheduler.scheduleUrl(url);
+        assertThat(scheduler.getNextFireTime(url)).isPresent();
+
+        scheduler.cancelUrl(url);
+
+        assertThat(scheduler.getNextFireTime(url)).isEmpty();
     }
 
     @Test
     void scheduleUrl_デバッグ間隔が設定されている場合は固定間隔でスケジュールされること() {
         String url = "https://example.com/race/1";
-        ScrapingProperties debugProps = new ScrapingProperties("OddsData!A:H", 2);
+        ScrapingProperties debugProps = new ScrapingProperties("OddsData!A:H", 2, 0, null, 0, null, null, null);
         when(oddsSyncService.getCachedStartTime(url)).thenReturn(Optional.empty());
 
         OddsScrapingScheduler scheduler = new OddsScrapingScheduler(oddsSyncService, debugProps, targetUrlStore);
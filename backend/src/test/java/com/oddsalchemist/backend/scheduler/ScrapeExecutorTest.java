@@ -0,0 +1,124 @@
+package com.oddsalchemist.backend.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapeExecutorTest {
+
+    private final ScrapeExecutor executor = new ScrapeExecutor(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    void submit_タスクが仮想スレッドで実行されること() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.submit("https://race.netkeiba.com/race/1", () -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(virtual.get()).isTrue();
+    }
+
+    @Test
+    void submit_同一ホストの同時実行数が上限を超えないこと() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(5);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            executor.submit("https://race.netkeiba.com/race/" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        waitUntilActive("race.netkeiba.com", 2);
+        assertThat(running.get()).isEqualTo(2);
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(executor.activeCount("race.netkeiba.com")).isZero();
+    }
+
+    @Test
+    void submit_別ホストのタスクは上限に達したホストの空きを待たずに実行されること() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) {
+            executor.submit("https://race.netkeiba.com/race/" + i, () -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        waitUntilActive("race.netkeiba.com", 2);
+
+        CountDownLatch other = new CountDownLatch(1);
+        executor.submit("https://nar.netkeiba.com/race/1", other::countDown);
+
+        assertThat(other.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void submit_タスクが例外を送出しても枠が解放されること() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            executor.submit("https://race.netkeiba.com/race/" + i, () -> {
+                throw new IllegalStateException("解析失敗");
+            });
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        executor.submit("https://race.netkeiba.com/race/ok", done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void submit_停止後のタスクは実行されないこと() throws Exception {
+        executor.stop();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        executor.submit("https://race.netkeiba.com/race/1", () -> ran.set(true));
+
+        Thread.sleep(50);
+        assertThat(ran.get()).isFalse();
+    }
+
+    @Test
+    void hostOf_URLのホスト名を返すこと() {
+        assertThat(ScrapeExecutor.hostOf("https://race.netkeiba.com/race/shutuba.html?race_id=1"))
+                .isEqualTo("race.netkeiba.com");
+        assertThat(ScrapeExecutor.hostOf("not a url")).isEqualTo("not a url");
+    }
+
+    private void waitUntilActive(String host, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.activeCount(host) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(executor.activeCount(host)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,153 @@
+package com.oddsalchemist.backend.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TimingWheel の単体テスト。
+ * tick スレッドは起動せず、advance() に時刻を渡して発火を検証する。
+ */
+class TimingWheelTest {
+
+    private static final Instant ORIGIN = Instant.parse("2026-03-22T03:00:00Z");
+
+    private final List<String> fired = new ArrayList<>();
+    private TimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel(Duration.ofSeconds(1), 8, Clock.fixed(ORIGIN, ZoneOffset.UTC), fired::add);
+    }
+
+    @Test
+    void advance_発火時刻に達したタイマーだけが発火すること() {
+        wheel.schedule("race/1", ORIGIN.plusSeconds(3));
+        wheel.schedule("race/2", ORIGIN.plusSeconds(5));
+
+        wheel.advance(ORIGIN.plusSeconds(2));
+        assertThat(fired).isEmpty();
+
+        wheel.advance(ORIGIN.plusSeconds(3));
+        assertThat(fired).containsExactly("race/1");
+        assertThat(wheel.nextFireTime("race/1")).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void advance_端数のある発火時刻は次のtick境界で発火し早まらないこと() {
+        wheel.schedule("race/1", ORIGIN.plusMillis(2500));
+
+        wheel.advance(ORIGIN.plusMillis(2999));
+        assertThat(fired).isEmpty();
+
+        wheel.advance(ORIGIN.plusSeconds(3));
+        assertThat(fired).containsExactly("race/1");
+    }
+
+    @Test
+    void advance_スロット数を超える先のタイマーは周回後に発火すること() {
+        // スロット数8 のため、20秒後は 2周と4 tick 先
+        wheel.schedule("race/1", ORIGIN.plusSeconds(20));
+
+        wheel.advance(ORIGIN.plusSeconds(4));
+        wheel.advance(ORIGIN.plusSeconds(12));
+        assertThat(fired).isEmpty();
+
+        wheel.advance(ORIGIN.plusSeconds(20));
+        assertThat(fired).containsExactly("race/1");
+    }
+
+    @Test
+    void advance_1周以上まとめて進んだ場合も期限切れのタイマーがすべて発火すること() {
+        wheel.schedule("race/1", ORIGIN.plusSeconds(3));
+        wheel.schedule("race/2", ORIGIN.plusSeconds(30));
+        wheel.schedule("race/3", ORIGIN.plusSeconds(100));
+
+        wheel.advance(ORIGIN.plusSeconds(60));
+
+        assertThat(fired).containsExactlyInAnyOrder("race/1", "race/2");
+        assertThat(wheel.nextFireTime("race/3")).contains(ORIGIN.plusSeconds(100));
+    }
+
+    @Test
+    void schedule_登録済みのキーは発火時刻が置き換えられること() {
+        wheel.schedule("race/1", ORIGIN.plusSeconds(3));
+        wheel.schedule("race/1", ORIGIN.plusSeconds(6));
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.nextFireTime("race/1")).contains(ORIGIN.plusSeconds(6));
+
+        wheel.advance(ORIGIN.plusSeconds(5));
+        assertThat(fired).isEmpty();
+        wheel.advance(ORIGIN.plusSeconds(6));
+        assertThat(fired).containsExactly("race/1");
+    }
+
+    @Test
+    void schedule_過去の時刻は次のtickで発火すること() {
+        wheel.advance(ORIGIN.plusSeconds(10));
+        wheel.schedule("race/1", ORIGIN.plusSeconds(1));
+
+        wheel.advance(ORIGIN.plusSeconds(10));
+        assertThat(fired).isEmpty();
+        wheel.advance(ORIGIN.plusSeconds(11));
+        assertThat(fired).containsExactly("race/1");
+    }
+
+    @Test
+    void cancel_取り消したタイマーは発火しないこと() {
+        wheel.schedule("race/1", ORIGIN.plusSeconds(3));
+        wheel.schedule("race/2", ORIGIN.plusSeconds(3));
+
+        assertThat(wheel.cancel("race/1")).isTrue();
+        assertThat(wheel.cancel("race/unknown")).isFalse();
+        wheel.advance(ORIGIN.plusSeconds(3));
+
+        assertThat(fired).containsExactly("race/2");
+    }
+
+    @Test
+    void advance_ハンドラーが例外を送出しても残りのタイマーは発火すること() {
+        List<String> handled = new ArrayList<>();
+        TimingWheel failing = new TimingWheel(Duration.ofSeconds(1), 8, Clock.fixed(ORIGIN, ZoneOffset.UTC), key -> {
+            handled.add(key);
+            throw new IllegalStateException("処理失敗");
+        });
+        failing.schedule("race/1", ORIGIN.plusSeconds(1));
+        failing.schedule("race/2", ORIGIN.plusSeconds(1));
+
+        failing.advance(ORIGIN.plusSeconds(1));
+
+        assertThat(handled).containsExactlyInAnyOrder("race/1", "race/2");
+    }
+
+    @Test
+    void start_tickスレッドが発火時刻にハンドラーを呼び出すこと() throws Exception {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        TimingWheel live = new TimingWheel(Duration.ofMillis(10), 8, Clock.systemUTC(), key -> {
+            handled.add(key);
+            latch.countDown();
+        });
+        live.start();
+        try {
+            live.schedule("race/1", Instant.now().plusMillis(50));
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(handled).containsExactly("race/1");
+        } finally {
+            live.stop();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.AnomalyAlertDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AlertStore の単体テスト。
+ * 上限件数・保持日数による破棄と、索引を使った絞り込み・ページングを検証する。
+ */
+class AlertStoreTest {
+
+    private static final String URL_A = "https://example.com/race/1";
+    private static final String URL_B = "https://example.com/race/2";
+
+    private MutableClock clock;
+    private AlertStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC);
+        store = new AlertStore(5, 1, clock);
+    }
+
+    @Test
+    void findAll_追加した順に返されること() {
+        store.addAll(URL_A, List.of(alert("5", "支持率急増"), alert("7", "順位乖離")));
+        store.addAll(URL_B, List.of(alert("1", "支持率急増")));
+
+        assertThat(store.findAll())
+                .extracting(AnomalyAlertDto::horseNumber)
+                .containsExactly("5", "7", "1");
+    }
+
+    @Test
+    void addAll_上限件数を超えた場合は古い順に破棄されること() {
+        for (int i = 1; i <= 7; i++) {
+            store.addAll(URL_A, List.of(alert(String.valueOf(i), "支持率急増")));
+        }
+
+        assertThat(store.findAll())
+                .extracting(AnomalyAlertDto::horseNumber)
+                .containsExactly("3", "4", "5", "6", "7");
+        // 破棄されたアラートは索引からも除かれること
+        assertThat(store.find(new AlertStore.Filter(URL_A, "1", null), 0, 10).total()).isZero();
+        assertThat(store.find(new AlertStore.Filter(URL_A, null, null), 0, 10).total()).isEqualTo(5);
+    }
+
+    @Test
+    void find_保持日数を過ぎたアラートは返されないこと() {
+        store.addAll(URL_A, List.of(alert("5", "支持率急増")));
+
+        clock.setInstant(Instant.parse("2026-03-23T01:00:00Z"));
+
+        // 追加がなくても参照時点で保持日数切れは除外される
+        assertThat(store.findAll()).isEmpty();
+        assertThat(store.find(new AlertStore.Filter(URL_A, null, null), 0, 10).total()).isZero();
+
+        store.addAll(URL_A, List.of(alert("6", "順位乖離")));
+        assertThat(store.findAll()).extracting(AnomalyAlertDto::horseNumber).containsExactly("6");
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void find_URLと馬番と検知タイプで絞り込めること() {
+        store.addAll(URL_A, List.of(alert("5", "支持率急増"), alert("5", "順位乖離"), alert("7", "支持率急増")));
+        store.addAll(URL_B, List.of(alert("5", "支持率急増")));
+
+        assertThat(store.find(new AlertStore.Filter(URL_A, null, null), 0, 10).total()).isEqualTo(3);
+        assertThat(store.find(new AlertStore.Filter(URL_A, "5", null), 0, 10).total()).isEqualTo(2);
+        assertThat(store.find(new AlertStore.Filter(URL_A, "5", "順位乖離"), 0, 10).alerts())
+                .extracting(AnomalyAlertDto::alertType)
+                .containsExactly("順位乖離");
+        assertThat(store.find(new AlertStore.Filter(null, null, "支持率急増"), 0, 10).total()).isEqualTo(3);
+        // URLを指定しない馬番のみの絞り込みは全レースが対象
+        assertThat(store.find(new AlertStore.Filter(null, "5", null), 0, 10).total()).isEqualTo(3);
+        assertThat(store.find(new AlertStore.Filter("https://example.com/unknown", null, null), 0, 10).total()).isZero();
+    }
+
+    @Test
+    void find_offsetとlimitで指定範囲のみ返し総件数は全一致件数であること() {
+        store.addAll(URL_A, List.of(
+                alert("1", "支持率急増"), alert("2", "支持率急増"), alert("3", "支持率急増"), alert("4", "支持率急増")));
+
+        AlertStore.Page page = store.find(AlertStore.Filter.NONE, 1, 2);
+
+        assertThat(page.alerts()).extracting(AnomalyAlertDto::horseNumber).containsExactly("2", "3");
+        assertThat(page.total()).isEqualTo(4);
+    }
+
+    @Test
+    void findSince_カーソルより新しいアラートのみを返し次回カーソルは最新の通番であること() {
+        store.addAll(URL_A, List.of(alert("1", "支持率急増"), alert("2", "順位乖離")));
+        AlertStore.Feed first = store.findSince(AlertStore.Filter.NONE, 0, 10);
+        assertThat(first.entries()).extracting(AlertStore.Entry::sequence).containsExactly(1L, 2L);
+        assertThat(first.nextCursor()).isEqualTo(2L);
+
+        store.addAll(URL_B, List.of(alert("3", "支持率急増")));
+        store.addAll(URL_A, List.of(alert("4", "順位乖離")));
+
+        // URL_A のみ: URL_B の通番3は読み飛ばし、次回カーソルは全体の最新通番
+        AlertStore.Feed second = store.findSince(new AlertStore.Filter(URL_A, null, null), first.nextCursor(), 10);
+        assertThat(second.entries()).extracting(e -> e.alert().horseNumber()).containsExactly("4");
+        assertThat(second.nextCursor()).isEqualTo(4L);
+        assertThat(second.truncated()).isFalse();
+
+        AlertStore.Feed none = store.findSince(AlertStore.Filter.NONE, second.nextCursor(), 10);
+        assertThat(none.entries()).isEmpty();
+        assertThat(none.nextCursor()).isEqualTo(4L);
+    }
+
+    @Test
+    void findSince_limitを超える場合は最後に返した通番を次回カーソルとすること() {
+        store.addAll(URL_A, List.of(alert("1", "支持率急増"), alert("2", "支持率急増"), alert("3", "支持率急増")));
+
+        AlertStore.Feed feed = store.findSince(new AlertStore.Filter(null, null, "支持率急増"), 0, 2);
+
+        assertThat(feed.entries()).extracting(AlertStore.Entry::sequence).containsExactly(1L, 2L);
+        assertThat(feed.nextCursor()).isEqualTo(2L);
+        assertThat(store.findSince(new AlertStore.Filter(null, null, "支持率急増"), 2, 2).entries())
+                .extracting(AlertStore.Entry::sequence).containsExactly(3L);
+    }
+
+    @Test
+    void findSince_カーソル直後が破棄済みまたは未来のカーソルの場合はtruncatedになること() {
+        for (int i = 1; i <= 7; i++) {
+            store.addAll(URL_A, List.of(alert(String.valueOf(i), "支持率急増")));
+        }
+
+        // 通番1〜2は上限件数超過で破棄済み
+        AlertStore.Feed stale = store.findSince(AlertStore.Filter.NONE, 1, 10);
+        assertThat(stale.truncated()).isTrue();
+        assertThat(stale.entries()).extracting(AlertStore.Entry::sequence).containsExactly(3L, 4L, 5L, 6L, 7L);
+
+        // 再起動前のカーソル（最新通番より大きい）は先頭から取り直す
+        AlertStore.Feed future = store.findSince(AlertStore.Filter.NONE, 100, 10);
+        assertThat(future.truncated()).isTrue();
+        assertThat(future.entries()).hasSize(5);
+
+        assertThat(store.findSince(AlertStore.Filter.NONE, 0, 10).truncated()).isFalse();
+    }
+
+    @Test
+    void revision_追加や日付変更でのみ変化すること() {
+        String initial = store.revision();
+        assertThat(store.revision()).isEqualTo(initial);
+
+        store.addAll(URL_A, List.of(alert("1", "支持率急増")));
+        String added = store.revision();
+        assertThat(added).isNotEqualTo(initial);
+
+        clock.setInstant(Instant.parse("2026-03-23T01:00:00Z"));
+        assertThat(store.revision()).isNotEqualTo(added);
+    }
+
+    @Test
+    void revision_通番が同じでも再起動後の別インスタンスとは一致しないこと() {
+        AlertStore restarted = new AlertStore(5, 1, clock);
+        store.addAll(URL_A, List.of(alert("1", "支持率急増")));
+        restarted.addAll(URL_B, List.of(alert("2", "順位乖離")));
+
+        assertThat(restarted.revision()).isNotEqualTo(store.revision());
+        assertThat(new AlertStore(5, 1, clock).revision()).isNotEqualTo(new AlertStore(5, 1, clock).revision());
+    }
+
+    private AnomalyAlertDto alert(String horseNumber, String alertType) {
+        return new AnomalyAlertDto("テストレース", horseNumber, "馬" + horseNumber, alertType, 0.03,
+                "2026/03/22 10:00:00");
+    }
+
+    /** テスト用の可変クロック */
+    static class MutableClock extends Clock {
+        private Instant instant;
+        private final ZoneId zone;
+
+        MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        void setInstant(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override public ZoneId getZone() { return zone; }
+        @Override public Clock withZone(ZoneId zone) { return new MutableClock(instant, zone); }
+        @Override public Instant instant() { return instant; }
+    }
+}
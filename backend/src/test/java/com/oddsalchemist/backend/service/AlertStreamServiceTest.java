@@ -0,0 +1,164 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.AlertFeedItemDto;
+import com.oddsalchemist.backend.dto.AnomalyAlertDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AlertStreamService の単体テスト。
+ * 送信処理は呼び出し元スレッドで即時実行し、SseEmitter に送られたイベントを記録して検証する。
+ */
+class AlertStreamServiceTest {
+
+    private static final String URL_A = "https://example.com/race/1";
+    private static final String URL_B = "https://example.com/race/2";
+
+    private AlertStore store;
+    private AlertStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new AlertStore(5, 1, Clock.fixed(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC));
+        service = new AlertStreamService(store, Runnable::run);
+    }
+
+    @Test
+    void subscribe_接続後に追加されたアラートのみが通番をIDとして配信されること() {
+        store.addAll(URL_A, List.of(alert("1", "支持率急増")));
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(emitter, AlertStore.Filter.NONE, null);
+
+        store.addAll(URL_A, List.of(alert("5", "支持率急増"), alert("7", "順位乖離")));
+
+        assertThat(emitter.alerts())
+                .extracting(AlertFeedItemDto::horseNumber)
+                .containsExactly("5", "7");
+        assertThat(emitter.alerts())
+                .extracting(AlertFeedItemDto::sequence)
+                .containsExactly(2L, 3L);
+        assertThat(emitter.frames.get(0)).contains("id:2").contains("event:alert");
+    }
+
+    @Test
+    void subscribe_URLと検知タイプで絞り込まれること() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(emitter, new AlertStore.Filter(URL_A, null, "支持率急増"), null);
+
+        store.addAll(URL_A, List.of(alert("5", "支持率急増"), alert("7", "順位乖離")));
+        store.addAll(URL_B, List.of(alert("1", "支持率急増")));
+
+        assertThat(emitter.alerts())
+                .extracting(AlertFeedItemDto::horseNumber)
+                .containsExactly("5");
+    }
+
+    @Test
+    void subscribe_LastEventIDを指定した場合は切断中のアラートが再送されること() {
+        store.addAll(URL_A, List.of(alert("1", "支持率急増"), alert("2", "支持率急増"), alert("3", "支持率急増")));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        service.register(emitter, AlertStore.Filter.NONE, 1L);
+        store.addAll(URL_A, List.of(alert("4", "支持率急増")));
+
+        assertThat(emitter.alerts())
+                .extracting(AlertFeedItemDto::sequence)
+                .containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void subscribe_再送対象が破棄済みの場合はtruncatedイベントが先に送られること() {
+        for (int i = 1; i <= 8; i++) {
+            store.addAll(URL_A, List.of(alert(String.valueOf(i), "支持率急増")));
+        }
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        service.register(emitter, AlertStore.Filter.NONE, 1L);
+
+        assertThat(emitter.frames.get(0)).contains("event:truncated");
+        assertThat(emitter.alerts())
+                .extracting(AlertFeedItemDto::sequence)
+                .containsExactly(4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void send_送信に失敗した購読は解除され他の購読者には配信が続くこと() {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failOnSend = true;
+        RecordingEmitter healthy = new RecordingEmitter();
+        service.register(broken, AlertStore.Filter.NONE, null);
+        service.register(healthy, AlertStore.Filter.NONE, null);
+
+        store.addAll(URL_A, List.of(alert("5", "支持率急増")));
+
+        assertThat(service.subscriberCount()).isEqualTo(1);
+        assertThat(healthy.alerts()).hasSize(1);
+    }
+
+    @Test
+    void sendHeartbeat_全購読者にコメント行が送られること() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(emitter, AlertStore.Filter.NONE, null);
+
+        service.sendHeartbeat();
+
+        assertThat(emitter.frames).containsExactly(":heartbeat\n\n");
+    }
+
+    @Test
+    void stop_すべての接続が終了されること() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(emitter, AlertStore.Filter.NONE, null);
+
+        service.stop();
+        store.addAll(URL_A, List.of(alert("5", "支持率急増")));
+
+        assertThat(service.subscriberCount()).isZero();
+        assertThat(emitter.alerts()).isEmpty();
+    }
+
+    private AnomalyAlertDto alert(String horseNumber, String alertType) {
+        return new AnomalyAlertDto("テストレース", horseNumber, "馬" + horseNumber, alertType, 0.03,
+                "2026/03/22 10:00:00");
+    }
+
+    /** 送信されたイベントを記録する SseEmitter */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        /** イベントごとのテキスト部分（データ本体を除く） */
+        private final List<String> frames = new ArrayList<>();
+        private final List<AlertFeedItemDto> alerts = new ArrayList<>();
+        private boolean failOnSend;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failOnSend) {
+                throw new IOException("connection reset");
+            }
+            StringBuilder frame = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof AlertFeedItemDto item) {
+                    alerts.add(item);
+                } else {
+                    frame.append(part.getData());
+                }
+            }
+            frames.add(frame.toString());
+        }
+
+        List<AlertFeedItemDto> alerts() {
+            return alerts;
+        }
+    }
+}
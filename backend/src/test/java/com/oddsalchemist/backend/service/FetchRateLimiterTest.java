@@ -0,0 +1,103 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.FetchLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * FetchRateLimiter の単体テスト。
+ * 待ちが発生する取得は別スレッドで実行し、待ち件数（waitStats().queued()）を見ながら順序を検証する。
+ */
+class FetchRateLimiterTest {
+
+    private static final String URL = "https://race.netkeiba.com/race/shutuba.html?race_id=";
+
+    @Test
+    void acquire_トークンを使い切った後は取得頻度の上限で待たされること() throws Exception {
+        FetchRateLimiter limiter = new FetchRateLimiter(new FetchLimitProperties(20, 1));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(URL + i, FetchRateLimiter.LOWEST_PRIORITY);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // 1件目はバケットのトークン、残り4件は 1/20秒ずつ待つ
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(190));
+        assertThat(limiter.waitStats().acquired()).isEqualTo(5);
+        assertThat(limiter.waitStats().maxWait()).isPositive();
+    }
+
+    @Test
+    void acquire_許可待ちの取得は発走時刻が近い順に許可されること() throws Exception {
+        // 1件目でトークンを使い切り、以降は 1/4秒ごとに1件ずつ許可される
+        FetchRateLimiter limiter = new FetchRateLimiter(new FetchLimitProperties(4, 1));
+        limiter.acquire(URL + "0", 0);
+        List<Long> order = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        long[] priorities = {1800, 60, 600, FetchRateLimiter.LOWEST_PRIORITY};
+        for (int i = 0; i < priorities.length; i++) {
+            long priority = priorities[i];
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    limiter.acquire(URL + priority, priority);
+                    order.add(priority);
+                } catch (InterruptedIOException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            waitUntilQueued(limiter, i + 1);
+        }
+
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertThat(order).containsExactly(60L, 600L, 1800L, FetchRateLimiter.LOWEST_PRIORITY);
+    }
+
+    @Test
+    void acquire_待機中に割り込まれた場合はInterruptedIOExceptionが送出され待ちから外れること() throws Exception {
+        // 時刻を進めない限りトークンは補充されない
+        AtomicLong now = new AtomicLong();
+        FetchRateLimiter limiter = new FetchRateLimiter(new FetchLimitProperties(1, 1), now::get);
+        limiter.acquire(URL + "1", 0);
+        AtomicReference<Exception> thrown = new AtomicReference<>();
+
+        Thread waiting = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire(URL + "2", 0);
+            } catch (InterruptedIOException e) {
+                thrown.set(e);
+            }
+        });
+        waitUntilQueued(limiter, 1);
+        waiting.interrupt();
+        waiting.join(5000);
+
+        assertThat(thrown.get()).isInstanceOf(InterruptedIOException.class);
+        assertThat(limiter.waitStats().queued()).isZero();
+
+        // 割り込まれた取得がトークンを消費していないこと（1秒分の補充で次の取得が待たずに許可される）
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.acquire(URL + "3", 0)).isZero();
+    }
+
+    private static void waitUntilQueued(FetchRateLimiter limiter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.waitStats().queued() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(limiter.waitStats().queued()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,179 @@
+package com.oddsalchemist.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LocalSegmentSheetStore の単体テスト。
+ * 一時ディレクトリに保存し、開き直した後の読み込み・末尾の不完全なレコードの切り詰めを検証する。
+ */
+class LocalSegmentSheetStoreTest {
+
+    private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+    private static final Clock DAY1 = Clock.fixed(Instant.parse("2026-03-19T01:00:00Z"), JST);
+    private static final Clock DAY2 = Clock.fixed(Instant.parse("2026-03-20T01:00:00Z"), JST);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendBatch_追記した行が2行目から読めて途中の行からも読めること() throws IOException {
+        LocalSegmentSheetStore store = new LocalSegmentSheetStore(directory, DAY1, null);
+
+        store.appendBatch(Map.of("OddsData!A:I", List.of(row("1", "3.5"), row("2", "5.0"), row("3", "12.1"))));
+
+        assertThat(store.readData("OddsData!A:I")).hasSize(4);
+        assertThat(store.readData("OddsData!A:I").get(0)).isEmpty();
+        assertThat(store.readData("OddsData!A3:I")).hasSize(2);
+        assertThat(store.readData("OddsData!A3:I").get(0).get(3)).isEqualTo("2");
+        assertThat(store.readData("OddsData!D2:F2")).containsExactly(List.of("1", "シンザン", "3.5"));
+        store.close();
+    }
+
+    @Test
+    void appendBatch_日付をまたいだ追記を開き直した後も順番どおりに読めること() throws IOException {
+        LocalSegmentSheetStore day1 = new LocalSegmentSheetStore(directory, DAY1, null);
+        day1.appendBatch(Map.of("OddsData!A:I", List.of(row("1", "3.5"))));
+        day1.close();
+        LocalSegmentSheetStore day2 = new LocalSegmentSheetStore(directory, DAY2, null);
+        day2.appendBatch(Map.of("OddsData!A:I", List.of(row("1", "3.1"))));
+        day2.close();
+
+        LocalSegmentSheetStore reopened = new LocalSegmentSheetStore(directory, DAY2, null);
+
+        assertThat(Files.exists(directory.resolve("OddsData/2026-03-19.seg"))).isTrue();
+        assertThat(Files.exists(directory.resolve("OddsData/2026-03-20.seg"))).isTrue();
+        assertThat(reopened.readData("OddsData!F2:F")).containsExactly(List.of("3.5"), List.of("3.1"));
+        reopened.close();
+    }
+
+    @Test
+    void open_末尾の不完全なレコードを切り詰めて以降の追記が読めること() throws IOException {
+        LocalSegmentSheetStore store = new LocalSegmentSheetStore(directory, DAY1, null);
+        store.appendBatch(Map.of("OddsData!A:I", List.of(row("1", "3.5"), row("2", "5.0"))));
+        store.close();
+        Path segment = directory.resolve("OddsData/2026-03-19.seg");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        LocalSegmentSheetStore reopened = new LocalSegmentSheetStore(directory, DAY1, null);
+        reopened.appendBatch(Map.of("OddsData!A:I", List.of(row("3", "12.1"))));
+
+        assertThat(reopened.readData("OddsData!D2:D")).containsExactly(List.of("1"), List.of("3"));
+        reopened.close();
+    }
+
+    @Test
+    void writeData_上書きとクリアの内容が開き直した後も残ること() throws IOException {
+        LocalSegmentSheetStore store = new LocalSegmentSheetStore(directory, DAY1, null);
+        store.writeData("Targets!A2:C", List.of(
+                List.of("https://example.com/race/A", "10:00", "false"),
+                List.of("https://example.com/race/B", "11:00", "false")));
+        store.clearAndWriteData("Targets!A2:C", List.of(List.of("https://example.com/race/B", "11:00", "true")));
+        store.close();
+
+        LocalSegmentSheetStore reopened = new LocalSegmentSheetStore(directory, DAY1, null);
+
+        assertThat(reopened.readData("Targets!A2:C"))
+                .containsExactly(List.of("https://example.com/race/B", "11:00", "true"));
+        assertThat(reopened.readData("Targets!A1:C1")).isEmpty();
+        reopened.close();
+    }
+
+    @Test
+    void clearAndWriteData_追記シートは2行目以降のクリアでセグメントを削除し部分的な上書きは例外になること() throws IOException {
+        LocalSegmentSheetStore store = new LocalSegmentSheetStore(directory, DAY1, null);
+        store.appendBatch(Map.of("OddsData!A:I", List.of(row("1", "3.5"))));
+
+        assertThatThrownBy(() -> store.clearAndWriteData("OddsData!A3:I3", List.of()))
+                .isInstanceOf(IOException.class);
+        store.clearAndWriteData("OddsData!A2:I", List.of());
+
+        assertThat(store.readData("OddsData!A:I")).isEmpty();
+        assertThat(Files.exists(directory.resolve("OddsData/2026-03-19.seg"))).isFalse();
+        store.close();
+    }
+
+    @Test
+    void clearAndWriteData_追記前にクリアした追記シートにも追記でき開き直した後も読めること() throws IOException {
+        LocalSegmentSheetStore store = new LocalSegmentSheetStore(directory, DAY1, null);
+        store.clearAndWriteData("OddsData!A2:I", List.of());
+        store.clearAndWriteData("Alerts!A2:G", List.of());
+
+        store.appendBatch(Map.of("OddsData!A:I", List.of(row("1", "3.5")),
+                "Alerts!A:G", List.of(List.of("2026/03/19 10:00:00", "https://example.com/race/A"))));
+        store.close();
+
+        assertThat(Files.exists(directory.resolve("OddsData.tbl"))).isFalse();
+        assertThat(Files.exists(directory.resolve("Alerts.tbl"))).isFalse();
+        LocalSegmentSheetStore reopened = new LocalSegmentSheetStore(directory, DAY1, null);
+        reopened.appendBatch(Map.of("OddsData!A:I", List.of(row("2", "5.0"))));
+        assertThat(reopened.readData("OddsData!D2:D")).containsExactly(List.of("1"), List.of("2"));
+        assertThat(reopened.readData("Alerts!B2:B")).containsExactly(List.of("https://example.com/race/A"));
+        reopened.close();
+    }
+
+    @Test
+    void open_追記シートの空の上書き用ファイルは削除され追記できること() throws IOException {
+        // 以前の版で追記前のクリアにより作られたファイル
+        Files.createFile(directory.resolve("OddsData.tbl"));
+
+        LocalSegmentSheetStore store = new LocalSegmentSheetStore(directory, DAY1, null);
+        store.appendBatch(Map.of("OddsData!A:I", List.of(row("1", "3.5"))));
+
+        assertThat(Files.exists(directory.resolve("OddsData.tbl"))).isFalse();
+        assertThat(store.readData("OddsData!D2:D")).containsExactly(List.of("1"));
+        store.close();
+    }
+
+    @Test
+    void appendBatch_Sheetsへの書き出しに失敗してもローカルの追記は成功すること() throws IOException {
+        SheetStore failing = new SheetStore() {
+            @Override
+            public List<List<Object>> readData(String range) {
+                return List.of();
+            }
+
+            @Override
+            public void clearAndWriteData(String range, List<List<Object>> values) throws IOException {
+                throw new IOException("quota exceeded");
+            }
+
+            @Override
+            public void writeData(String range, List<List<Object>> values) throws IOException {
+                throw new IOException("quota exceeded");
+            }
+
+            @Override
+            public void appendBatch(Map<String, List<List<Object>>> rowsByRange) throws IOException {
+                throw new IOException("quota exceeded");
+            }
+        };
+        LocalSegmentSheetStore store = new LocalSegmentSheetStore(directory, DAY1, failing);
+
+        store.appendBatch(Map.of("Alerts!A:G", List.of(List.of("2026/03/19 10:00:00", "テストレース"))));
+
+        assertThat(store.readData("Alerts!A2:B")).containsExactly(List.of("2026/03/19 10:00:00", "テストレース"));
+        store.close();
+    }
+
+    private static List<Object> row(String horseNumber, String winOdds) {
+        return List.of("2026/03/19 10:00:00", "https://example.com/race/A", "テストレース",
+                horseNumber, "シンザン", winOdds, "1.5", "2.0", "K");
+    }
+}
@@ -1,10 +1,13 @@
 package com.oddsalchemist.backend.service;
 
+import com.oddsalchemist.backend.config.AlertStoreProperties;
 import com.oddsalchemist.backend.dto.AnomalyAlertDto;
 import com.oddsalchemist.backend.dto.OddsData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalTime;
@@ -29,7 +32,7 @@ class OddsAnomalyDetectorTest {
 
     @BeforeEach
     void setUp() {
-        detector = new OddsAnomalyDetector();
+        detector = newDetector(Clock.systemDefaultZone());
     }
 
     // ===== ロジックA: 支持率急増検知 =====
@@ -97,6 +100,32 @@ class OddsAnomalyDetectorTest {
         assertThat(alerts).isEmpty();
     }
 
+    @Test
+    void detect_閾値を指定した場合は既定値未満の支持率増加でもアラートが発生すること() {
+        DetectorParameters defaults = DetectorParameters.defaults();
+        // 支持率急増の閾値のみ 0.002 に下げる
+        detector = newDetector(Clock.systemDefaultZone(), new DetectorParameters(
+                20_000_000L, defaults.trendDeviationThreshold(), defaults.rankGapThreshold(),
+                defaults.trendRankMin(), defaults.trendRankMax(), defaults.accelerationThreshold(),
+                defaults.cliffRatioThreshold()));
+        detector.detect(List.of(
+                odds("1", "人気馬A", 1.5, 1.1, 1.3),
+                odds("2", "人気馬B", 2.0, 1.2, 1.5),
+                odds("3", "人気馬C", 3.0, 1.4, 2.0),
+                odds("8", "大穴馬", 20.0, 4.0, 8.0)
+        ));
+
+        // 単勝 20.0 → 19.0: 支持率増加 ≈ 0.0026 >= 0.002
+        List<AnomalyAlertDto> alerts = detector.detect(List.of(
+                odds("1", "人気馬A", 1.5, 1.1, 1.3),
+                odds("2", "人気馬B", 2.0, 1.2, 1.5),
+                odds("3", "人気馬C", 3.0, 1.4, 2.0),
+                odds("8", "大穴馬", 19.0, 4.0, 8.0)
+        ));
+
+        assertThat(alerts).extracting(AnomalyAlertDto::alertType).containsExactly("支持率急増");
+    }
+
     @Test
     void detect_上位3番人気は支持率急増が大きくてもアラートが発生しないこと() {
         // 1回目: 1〜3位 + 4位以降
@@ -426,7 +455,7 @@ class OddsAnomalyDetectorTest {
     @Test
     void detectAcceleration_初回実行ではアラートが発生しないこと() {
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         List<AnomalyAlertDto> alerts = detector.detect(List.of(
                 odds("1", "人気馬A", 1.5, 1.1, 1.3),
@@ -442,7 +471,7 @@ class OddsAnomalyDetectorTest {
     void detectAcceleration_閾値以上の加速度でアラートが発生すること() {
         // 加速度 = (1/5 - 1/10) / (60秒/60) = 0.1 / 1分 = 0.1 >= 0.005
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         detector.detect(List.of(
                 odds("1", "人気馬A", 1.5, 1.1, 1.3),
@@ -471,7 +500,7 @@ class OddsAnomalyDetectorTest {
     void detectAcceleration_閾値未満の加速度ではアラートが発生しないこと() {
         // 加速度 = (1/19 - 1/20) / (60秒/60) ≈ 0.00263/分 < 0.005
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         detector.detect(List.of(
                 odds("1", "人気馬A", 1.5, 1.1, 1.3),
@@ -494,7 +523,7 @@ class OddsAnomalyDetectorTest {
     @Test
     void detectAcceleration_上位3番人気はアラートが発生しないこと() {
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         detector.detect(List.of(
                 odds("1", "人気馬A", 2.0, 1.2, 1.5),
@@ -522,7 +551,7 @@ class OddsAnomalyDetectorTest {
     void detectAcceleration_間隔が長いほど加速度が小さくなること() {
         // 同じオッズ変化でも経過時間が長いと加速度が小さくなる
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         detector.detect(List.of(
                 odds("1", "人気馬A", 1.5, 1.1, 1.3),
@@ -547,7 +576,7 @@ class OddsAnomalyDetectorTest {
     void detect_同一インスタンスで日付が変わると基準値がリセットされること() {
         // 可変クロックを使って同一インスタンスでの日付変更をテスト
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         // day1: 基準値登録（5番馬: 20.0）
         detector.detect(buildRace(1.5, 2.0, 3.0, 8.0, 20.0));
@@ -587,7 +616,7 @@ class OddsAnomalyDetectorTest {
     void detectPhaseDeviation_PRE30フェーズで逸脱アラートが発生すること() {
         // クロック 09:00、発走 09:20 → 残り20分 → PRE_30 フェーズ
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
         Optional<LocalTime> startTime = Optional.of(LocalTime.of(9, 20));
 
         // 1回目: 5番馬 20.0 → PRE_30 基準値設定
@@ -606,7 +635,7 @@ class OddsAnomalyDetectorTest {
     void detectPhaseDeviation_PRE10フェーズで逸脱アラートが発生すること() {
         // クロック 09:00、発走 09:05 → 残り5分 → PRE_10 フェーズ
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
         Optional<LocalTime> startTime = Optional.of(LocalTime.of(9, 5));
 
         // 1回目: 5番馬 20.0 → PRE_10 基準値設定
@@ -625,7 +654,7 @@ class OddsAnomalyDetectorTest {
     void detectPhaseDeviation_発走後はアラートが発生しないこと() {
         // クロック 09:10、発走 09:05 → 残り -5分 → null → スキップ
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:10:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
         Optional<LocalTime> startTime = Optional.of(LocalTime.of(9, 5));
 
         detector.detect(buildRace(1.5, 2.0, 3.0, 8.0, 20.0), startTime);
@@ -638,7 +667,7 @@ class OddsAnomalyDetectorTest {
     void detectPhaseDeviation_上位3番人気はフェーズ逸脱対象外であること() {
         // クロック 09:00、発走 09:05 → PRE_10 フェーズ
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
         Optional<LocalTime> startTime = Optional.of(LocalTime.of(9, 5));
 
         detector.detect(List.of(
@@ -666,7 +695,7 @@ class OddsAnomalyDetectorTest {
     void detectPhaseDeviation_フェーズ間で基準値が独立していること() {
         // MORNING 基準値と PRE_30 基準値は別々に管理される
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         // MORNING フェーズ: 5番馬 20.0 で基準値登録
         detector.detect(buildRace(1.5, 2.0, 3.0, 8.0, 20.0));
@@ -804,7 +833,7 @@ class OddsAnomalyDetectorTest {
     @Test
     void detectRankDivergenceTrend_日付変更後はpreviousRankGapがリセットされること() {
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         List<OddsData> gap3 = List.of(
                 odds("1", "馬1", 1.5, 2.5, 3.5),
@@ -947,7 +976,7 @@ class OddsAnomalyDetectorTest {
     @Test
     void detectOddsCliff_日付変更後にpreviousCliffPositionがリセットされること() {
         MutableClock clock = new MutableClock(Instant.parse("2026-01-01T09:00:00Z"), ZoneOffset.UTC);
-        detector = new OddsAnomalyDetector(clock);
+        detector = newDetector(clock);
 
         // day1: 断層位置=3 を記録
         detector.detect(List.of(
@@ -971,6 +1000,96 @@ class OddsAnomalyDetectorTest {
         assertThat(alerts.stream().filter(a -> a.alertType().startsWith("オッズ断層"))).isEmpty();
     }
 
+    // ===== レース単位の検知状態 =====
+
+    @Test
+    void clearStateForUrl_指定URLの状態のみ削除されること() {
+        String otherUrl = "https://example.com/race/2";
+        List<OddsData> before = List.of(
+                odds("1", "人気馬A", 1.5, 1.1, 1.3),
+                odds("2", "人気馬B", 2.0, 1.2, 1.5),
+                odds("3", "人気馬C", 3.0, 1.4, 2.0),
+                odds("5", "中穴馬", 10.0, 3.0, 5.0));
+        List<OddsData> after = List.of(
+                odds("1", "人気馬A", 1.5, 1.1, 1.3),
+                odds("2", "人気馬B", 2.0, 1.2, 1.5),
+                odds("3", "人気馬C", 3.0, 1.4, 2.0),
+                odds("5", "中穴馬", 5.0, 3.0, 5.0));
+        detector.detect(before);
+        detector.detect(withUrl(before, otherUrl));
+
+        detector.clearStateForUrl(URL);
+
+        // 削除したURLは前回データなし → 支持率急増は検知されない
+        assertThat(detector.detect(after))
+                .noneMatch(a -> a.alertType().equals("支持率急増"));
+        // 別URLの前回データは残っている
+        assertThat(detector.detect(withUrl(after, otherUrl)))
+                .anyMatch(a -> a.alertType().equals("支持率急増") && a.horseNumber().equals("5"));
+    }
+
+    @Test
+    void detect_数値でない馬番でも前回データと比較されること() {
+        detector.detect(List.of(
+                odds("1", "人気馬A", 1.5, 1.1, 1.3),
+                odds("2", "人気馬B", 2.0, 1.2, 1.5),
+                odds("3", "人気馬C", 3.0, 1.4, 2.0),
+                odds("外1", "外国馬", 10.0, 3.0, 5.0),
+                odds("05", "ゼロ埋め馬", 20.0, 4.0, 6.0)));
+
+        List<AnomalyAlertDto> alerts = detector.detect(List.of(
+                odds("1", "人気馬A", 1.5, 1.1, 1.3),
+                odds("2", "人気馬B", 2.0, 1.2, 1.5),
+                odds("3", "人気馬C", 3.0, 1.4, 2.0),
+                odds("外1", "外国馬", 5.0, 3.0, 5.0),
+                odds("05", "ゼロ埋め馬", 10.0, 4.0, 6.0)));
+
+        assertThat(alerts)
+                .filteredOn(a -> a.alertType().equals("支持率急増"))
+                .extracting(AnomalyAlertDto::horseNumber)
+                .containsExactlyInAnyOrder("外1", "05");
+    }
+
+    // ===== 固定小数点による支持率計算 =====
+
+    @Test
+    void toSupportRate_小数点以下1桁のオッズでBigDecimal計算と一致すること() {
+        // 1.0〜9999.9 の全単勝オッズ
+        for (int tenths = 10; tenths <= 99_999; tenths++) {
+            double odds = tenths / 10.0;
+            assertThat(OddsAnomalyDetector.toSupportRate(odds))
+                    .as("odds=%s", odds)
+                    .isEqualTo(bigDecimalSupportRate(odds));
+        }
+    }
+
+    @Test
+    void toSupportRate_整数化できないオッズでもBigDecimal計算と一致すること() {
+        for (double odds : new double[] {1.23456789, 3.14159, 0.00005, 1_234_567.8, 12.34567, 7.0000001}) {
+            assertThat(OddsAnomalyDetector.toSupportRate(odds))
+                    .as("odds=%s", odds)
+                    .isEqualTo(bigDecimalSupportRate(odds));
+        }
+    }
+
+    @Test
+    void toAcceleration_経過秒が3の倍数の場合にBigDecimal計算と一致すること() {
+        double[] odds = {2.5, 4.8, 7.1, 10.0, 15.3, 33.3, 99.9, 150.0};
+        long[] seconds = {3, 30, 60, 90, 120, 300, 1_800, 3_597};
+        for (double from : odds) {
+            for (double to : odds) {
+                BigDecimal deltaRate = BigDecimal.valueOf(bigDecimalSupportRate(to) - bigDecimalSupportRate(from), 10);
+                for (long deltaSeconds : seconds) {
+                    BigDecimal expected = deltaRate.divide(
+                            BigDecimal.valueOf(deltaSeconds / 60.0), 6, RoundingMode.HALF_UP);
+                    assertThat(OddsAnomalyDetector.toAcceleration(deltaRate.unscaledValue().longValueExact(), deltaSeconds))
+                            .as("from=%s, to=%s, seconds=%s", from, to, deltaSeconds)
+                            .isEqualTo(expected.unscaledValue().longValueExact());
+                }
+            }
+        }
+    }
+
     // ===== ヘルパークラス =====
 
     /** テスト用の可変クロック。同一インスタンスで時刻を変更してテストできる。 */
@@ -994,6 +1113,18 @@ class OddsAnomalyDetectorTest {
 
     // ===== ヘルパーメソッド =====
 
+    /** 既定設定のアラートストア・検知閾値で検知器を生成する */
+    static OddsAnomalyDetector newDetector(Clock clock) {
+        return newDetector(clock, DetectorParameters.defaults());
+    }
+
+    /** 既定設定のアラートストアと指定した検知閾値で検知器を生成する */
+    static OddsAnomalyDetector newDetector(Clock clock, DetectorParameters parameters) {
+        AlertStoreProperties defaults = new AlertStoreProperties(0, 0);
+        return new OddsAnomalyDetector(new AlertStore(defaults.capacity(), defaults.retentionDays(), clock),
+                clock, parameters);
+    }
+
     /**
      * 5頭のレースデータを生成する。馬番1〜5、単勝オッズは引数順で設定。
      * テスト用に単勝順位が固定になるよう昇順で渡すこと。
@@ -1008,6 +1139,19 @@ class OddsAnomalyDetectorTest {
         );
     }
 
+    /** 変更前の実装と同じ BigDecimal による支持率（小数点以下10桁の非スケール値） */
+    private static long bigDecimalSupportRate(double odds) {
+        return BigDecimal.ONE.divide(BigDecimal.valueOf(odds), 10, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+    }
+
+    private List<OddsData> withUrl(List<OddsData> list, String url) {
+        return list.stream()
+                .map(d -> new OddsData(d.raceName(), d.horseNumber(), d.horseName(),
+                        d.winOdds(), d.placeOddsMin(), d.placeOddsMax(), url))
+                .toList();
+    }
+
     private OddsData odds(String number, String name, double win, double placeMin, double placeMax) {
         return new OddsData(RACE, number, name, win, placeMin, placeMax, URL);
     }
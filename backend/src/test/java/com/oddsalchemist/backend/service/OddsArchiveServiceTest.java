@@ -0,0 +1,85 @@
+package com.oddsalchemist.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OddsArchiveService の単体テスト。
+ * OddsData の行を持つ SheetStore から OddsHistoryService 経由で読み込み、対象日の行だけを書き出すことを検証する。
+ */
+class OddsArchiveServiceTest {
+
+    private static final String URL_A = "https://example.com/race/A";
+    private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-20T00:00:00Z"), JST);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void archive_対象日の行だけを書き出し差分書き込みは復元して保存すること() throws IOException {
+        OddsArchiveService service = new OddsArchiveService(historyOf(List.of(
+                List.of("2026/03/18 23:59:00", URL_A, "テストレース", "1", "シンザン", "4.0", "1.5", "2.0", "K"),
+                List.of("2026/03/19 10:00:00", URL_A, "テストレース", "1", "シンザン", "3.5", "1.5", "2.0", "K"),
+                List.of("2026/03/19 10:00:00", URL_A, "テストレース", "2", "ハクチカラ", "5.0", "2.0", "3.0", "K"),
+                List.of("2026/03/19 10:01:00", URL_A, "テストレース", "2", "ハクチカラ", "4.8", "2.0", "3.0", "D"))),
+                directory, true, CLOCK);
+
+        int rows = service.archive(LocalDate.of(2026, 3, 19));
+        OddsArchive archive = service.open(LocalDate.of(2026, 3, 19)).orElseThrow();
+
+        assertThat(rows).isEqualTo(4);
+        assertThat(archive.horseSeries(URL_A, "シンザン").orElseThrow().winOdds()).containsExactly(3.5, 3.5);
+        assertThat(archive.horseSeries(URL_A, "シンザン").orElseThrow().epochSeconds()).containsExactly(
+                LocalDateTime.of(2026, 3, 19, 10, 0).atZone(JST).toEpochSecond(),
+                LocalDateTime.of(2026, 3, 19, 10, 1).atZone(JST).toEpochSecond());
+        assertThat(archive.horseSeries(URL_A, "ハクチカラ").orElseThrow().winOdds()).containsExactly(5.0, 4.8);
+    }
+
+    @Test
+    void archivePreviousDay_前日分を書き出し対象の行がない日はファイルを作らないこと() throws IOException {
+        OddsArchiveService service = new OddsArchiveService(historyOf(List.of(
+                List.of("2026/03/19 10:00:00", URL_A, "テストレース", "1", "シンザン", "3.5", "1.5", "2.0"))),
+                directory, true, CLOCK);
+
+        service.archivePreviousDay();
+
+        assertThat(service.open(LocalDate.of(2026, 3, 19))).isPresent();
+        assertThat(service.archive(LocalDate.of(2026, 3, 17))).isZero();
+        assertThat(service.open(LocalDate.of(2026, 3, 17))).isEmpty();
+    }
+
+    private static OddsHistoryService historyOf(List<List<Object>> rows) {
+        SheetStore store = new SheetStore() {
+            @Override
+            public List<List<Object>> readData(String range) {
+                return rows;
+            }
+
+            @Override
+            public void clearAndWriteData(String range, List<List<Object>> values) {
+            }
+
+            @Override
+            public void writeData(String range, List<List<Object>> values) {
+            }
+
+            @Override
+            public void appendBatch(Map<String, List<List<Object>>> rowsByRange) {
+            }
+        };
+        return new OddsHistoryService(store);
+    }
+}
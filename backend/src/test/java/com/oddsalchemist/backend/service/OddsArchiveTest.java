@@ -0,0 +1,109 @@
+package com.oddsalchemist.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * OddsArchive の単体テスト。
+ * 一時ディレクトリに書き出したファイルを読み込み、馬ごと・レースごと・列を指定した読み込みを検証する。
+ */
+class OddsArchiveTest {
+
+    private static final String URL_A = "https://example.com/race/A";
+    private static final String URL_B = "https://example.com/race/B";
+    private static final long T0 = 1_773_882_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void horseSeries_書き出した時系列が取得日時昇順で読めること() throws IOException {
+        Path file = directory.resolve("2026-03-19.oddsarc");
+        int rows = new OddsArchive.Writer()
+                .add(URL_A, "テストレース", 1, "シンザン", T0 + 60, 3.3, 1.6, 2.1)
+                .add(URL_A, "テストレース", 1, "シンザン", T0, 3.5, 1.5, 2.0)
+                .add(URL_A, "テストレース", 2, "ハクチカラ", T0, 12.4, 2.0, 3.0)
+                .write(file);
+
+        OddsArchive archive = OddsArchive.open(file);
+        OddsArchive.Series series = archive.horseSeries(URL_A, "シンザン").orElseThrow();
+
+        assertThat(rows).isEqualTo(3);
+        assertThat(archive.rowCount()).isEqualTo(3);
+        assertThat(archive.raceName(URL_A)).contains("テストレース");
+        assertThat(series.horseNumber()).isEqualTo(1);
+        assertThat(series.epochSeconds()).containsExactly(T0, T0 + 60);
+        assertThat(series.winOdds()).containsExactly(3.5, 3.3);
+        assertThat(series.placeOddsMin()).containsExactly(1.5, 1.6);
+        assertThat(series.placeOddsMax()).containsExactly(2.0, 2.1);
+        assertThat(archive.horseSeries(URL_A, "タケホープ")).isEmpty();
+        assertThat(archive.horseSeries(URL_B, "シンザン")).isEmpty();
+    }
+
+    @Test
+    void raceSeries_指定した列だけを馬番昇順で読み込むこと() throws IOException {
+        Path file = directory.resolve("2026-03-19.oddsarc");
+        new OddsArchive.Writer()
+                .add(URL_A, "テストレース", 2, "ハクチカラ", T0, 5.0, 2.0, 3.0)
+                .add(URL_A, "テストレース", 1, "シンザン", T0, 3.5, 1.5, 2.0)
+                .add(URL_B, "別レース", 1, "タケホープ", T0, 2.0, 1.1, 1.5)
+                .write(file);
+
+        List<OddsArchive.Series> race = OddsArchive.open(file)
+                .raceSeries(URL_A, EnumSet.of(OddsArchive.Column.WIN_ODDS));
+
+        assertThat(race).extracting(OddsArchive.Series::horseName).containsExactly("シンザン", "ハクチカラ");
+        assertThat(race.get(1).winOdds()).containsExactly(5.0);
+        assertThat(race.get(1).epochSeconds()).isNull();
+        assertThat(race.get(1).placeOddsMin()).isNull();
+        assertThat(race.get(1).size()).isEqualTo(1);
+    }
+
+    @Test
+    void horseSeries_オッズがない行はNaNで同じ取得日時の行は最後に追加した値になること() throws IOException {
+        Path file = directory.resolve("2026-03-19.oddsarc");
+        new OddsArchive.Writer()
+                .add(URL_A, "テストレース", 1, "シンザン", T0, 3.5, null, null)
+                .add(URL_A, "テストレース", 1, "シンザン", T0 + 30, 3.4, 1.5, 2.0)
+                .add(URL_A, "テストレース", 1, "シンザン", T0 + 30, 3.2, 1.5, 2.0)
+                .write(file);
+
+        OddsArchive.Series series = OddsArchive.open(file).horseSeries(URL_A, "シンザン").orElseThrow();
+
+        assertThat(series.winOdds()).containsExactly(3.5, 3.2);
+        assertThat(Double.isNaN(series.placeOddsMin()[0])).isTrue();
+        assertThat(series.placeOddsMin()[1]).isEqualTo(1.5);
+    }
+
+    @Test
+    void write_変化のない時系列は1行あたり数バイトに収まること() throws IOException {
+        Path file = directory.resolve("2026-03-19.oddsarc");
+        OddsArchive.Writer writer = new OddsArchive.Writer();
+        for (int horse = 1; horse <= 16; horse++) {
+            for (int minute = 0; minute < 300; minute++) {
+                writer.add(URL_A, "テストレース", horse, "馬" + horse, T0 + minute * 60L,
+                        10.0 + horse, 1.5, 2.0 + (minute % 10 == 0 ? 0.1 : 0));
+            }
+        }
+
+        int rows = writer.write(file);
+
+        assertThat(Files.size(file) / rows).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void open_形式が異なるファイルはIOExceptionになること() throws IOException {
+        Path file = Files.writeString(directory.resolve("broken.oddsarc"), "not an archive");
+
+        assertThatThrownBy(() -> OddsArchive.open(file)).isInstanceOf(IOException.class);
+    }
+}
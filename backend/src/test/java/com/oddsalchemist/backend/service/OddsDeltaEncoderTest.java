@@ -0,0 +1,102 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OddsDeltaEncoder の単体テスト。
+ * 書き込みは encode → commit の順に行い、書き込み待ちへの登録に成功した場合の動作を再現する。
+ */
+class OddsDeltaEncoderTest {
+
+    private static final String URL = "https://example.com/race/A";
+
+    @Test
+    void encode_最初の書き込みは全馬の行にKが付き以降は変化した馬の行だけにDが付くこと() {
+        OddsDeltaEncoder encoder = new OddsDeltaEncoder(new OddsDeltaProperties(true, 10));
+
+        List<List<Object>> first = write(encoder, row("1", "シンザン", "3.5"), row("2", "ハクチカラ", "5.0"));
+        List<List<Object>> second = write(encoder, row("1", "シンザン", "3.5"), row("2", "ハクチカラ", "4.8"));
+
+        assertThat(first).extracting(r -> r.get(8)).containsExactly("K", "K");
+        assertThat(second).hasSize(1);
+        assertThat(second.get(0).get(4)).isEqualTo("ハクチカラ");
+        assertThat(second.get(0).get(8)).isEqualTo("D");
+    }
+
+    @Test
+    void encode_変化した馬がいない場合は書き込む行が空で前回の内容も変わらないこと() {
+        OddsDeltaEncoder encoder = new OddsDeltaEncoder(new OddsDeltaProperties(true, 10));
+        write(encoder, row("1", "シンザン", "3.5"));
+
+        OddsDeltaEncoder.Encoded unchanged = encoder.encode(URL, List.of(row("1", "シンザン", "3.5")));
+
+        assertThat(unchanged.rows()).isEmpty();
+        assertThat(unchanged.next()).isNull();
+    }
+
+    @Test
+    void encode_指定回数ごとと出走取消時は全馬の行を書き込むこと() {
+        OddsDeltaEncoder encoder = new OddsDeltaEncoder(new OddsDeltaProperties(true, 3));
+
+        write(encoder, row("1", "シンザン", "3.5"), row("2", "ハクチカラ", "5.0"));
+        assertThat(write(encoder, row("1", "シンザン", "3.4"), row("2", "ハクチカラ", "5.0"))).hasSize(1);
+        assertThat(write(encoder, row("1", "シンザン", "3.3"), row("2", "ハクチカラ", "5.0"))).hasSize(1);
+        // 3回目の書き込みの次はキーフレーム
+        assertThat(write(encoder, row("1", "シンザン", "3.2"), row("2", "ハクチカラ", "5.0")))
+                .extracting(r -> r.get(8)).containsExactly("K", "K");
+
+        // ハクチカラが出走取消（前回書き込んだ馬がいない）
+        assertThat(write(encoder, row("1", "シンザン", "3.2")))
+                .extracting(r -> r.get(8)).containsExactly("K");
+    }
+
+    @Test
+    void commit_書き込み待ちへの登録に失敗した分は前回の内容に含まれないこと() {
+        OddsDeltaEncoder encoder = new OddsDeltaEncoder(new OddsDeltaProperties(true, 10));
+        write(encoder, row("1", "シンザン", "3.5"));
+
+        // 登録に失敗した（commit しない）
+        encoder.encode(URL, List.of(row("1", "シンザン", "3.1")));
+
+        assertThat(encoder.encode(URL, List.of(row("1", "シンザン", "3.1"))).rows()).hasSize(1);
+    }
+
+    @Test
+    void encode_無効の場合は全馬の行をI列なしでそのまま返すこと() {
+        OddsDeltaEncoder encoder = new OddsDeltaEncoder(new OddsDeltaProperties(false, 10));
+        List<List<Object>> rows = List.of(row("1", "シンザン", "3.5"));
+
+        write(encoder, row("1", "シンザン", "3.5"));
+        OddsDeltaEncoder.Encoded encoded = encoder.encode(URL, rows);
+
+        assertThat(encoded.rows()).isEqualTo(rows);
+        assertThat(encoded.rows().get(0)).hasSize(8);
+        assertThat(encoded.next()).isNull();
+    }
+
+    @Test
+    void forget_破棄後の書き込みは全馬の行になること() {
+        OddsDeltaEncoder encoder = new OddsDeltaEncoder(new OddsDeltaProperties(true, 10));
+        write(encoder, row("1", "シンザン", "3.5"), row("2", "ハクチカラ", "5.0"));
+
+        encoder.forget(URL);
+
+        assertThat(write(encoder, row("1", "シンザン", "3.5"), row("2", "ハクチカラ", "5.0"))).hasSize(2);
+    }
+
+    @SafeVarargs
+    private static List<List<Object>> write(OddsDeltaEncoder encoder, List<Object>... rows) {
+        OddsDeltaEncoder.Encoded encoded = encoder.encode(URL, List.of(rows));
+        encoder.commit(URL, encoded);
+        return encoded.rows();
+    }
+
+    private static List<Object> row(String horseNumber, String horseName, String winOdds) {
+        return List.of("2026/03/19 10:00:00", URL, "テストレース", horseNumber, horseName, winOdds, "1.5", "2.0");
+    }
+}
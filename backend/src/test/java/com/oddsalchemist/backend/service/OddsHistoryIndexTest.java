@@ -0,0 +1,133 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.HorseDto;
+import com.oddsalchemist.backend.dto.OddsHistoryItemDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * OddsHistoryIndex の単体テスト。
+ * 書き込み時の追加と Sheets からの読み込みが重複・前後しても、時系列が正しく保たれることを検証する。
+ */
+class OddsHistoryIndexTest {
+
+    private static final String URL_A = "https://example.com/race/A";
+    private static final String URL_B = "https://example.com/race/B";
+
+    private OddsHistoryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new OddsHistoryIndex();
+    }
+
+    @Test
+    void addRows_同じ取得日時の行を重複して追加しても1件になること() {
+        List<List<Object>> rows = List.of(
+                row("2026/03/19 10:00:00", URL_A, "1", "シンザン", "3.5"),
+                row("2026/03/19 10:05:00", URL_A, "1", "シンザン", "3.3"));
+
+        index.addRows(rows);
+        index.load(rows);
+
+        assertThat(index.getHistory(URL_A, "シンザン"))
+                .extracting(OddsHistoryItemDto::detectedAt)
+                .containsExactly("2026/03/19 10:00:00", "2026/03/19 10:05:00");
+        assertThat(index.isLoaded()).isTrue();
+    }
+
+    @Test
+    void load_書き込み済みの行より古い行を後から読み込んでも取得日時昇順になること() {
+        index.addRows(List.of(row("2026/03/19 10:10:00", URL_A, "1", "シンザン", "3.0")));
+
+        index.load(List.of(
+                row("2026/03/19 10:00:00", URL_A, "1", "シンザン", "3.5"),
+                row("2026/03/19 10:05:00", URL_A, "1", "シンザン", "3.3")));
+
+        assertThat(index.getHistory(URL_A, "シンザン"))
+                .extracting(OddsHistoryItemDto::winOdds)
+                .containsExactly(3.5, 3.3, 3.0);
+    }
+
+    @Test
+    void getHorses_馬番昇順で重複なく返されること() {
+        index.addRows(List.of(
+                row("2026/03/19 10:00:00", URL_A, "2", "ハクチカラ", "5.0"),
+                row("2026/03/19 10:00:00", URL_A, "1", "シンザン", "3.5"),
+                row("2026/03/19 10:05:00", URL_A, "1", "シンザン", "3.3"),
+                row("2026/03/19 10:00:00", URL_B, "1", "タケホープ", "2.0")));
+
+        assertThat(index.getHorses(URL_A))
+                .containsExactly(new HorseDto(1, "シンザン"), new HorseDto(2, "ハクチカラ"));
+        assertThat(index.getHorses("https://example.com/race/NONE")).isEmpty();
+    }
+
+    @Test
+    void getUrls_httpで始まるURLのみ昇順で返されること() {
+        index.addRows(List.of(
+                row("2026/03/19 10:00:00", URL_B, "1", "タケホープ", "2.0"),
+                row("2026/03/19 10:00:00", "not-a-url", "1", "シンザン", "3.5"),
+                row("2026/03/19 10:00:00", URL_A, "1", "シンザン", "3.5")));
+
+        assertThat(index.getUrls()).containsExactly(URL_A, URL_B);
+        assertThat(index.getUrlToRaceNameMap()).containsKey("not-a-url");
+    }
+
+    @Test
+    void getHistory_返されたリストを変更しても索引に影響しないこと() {
+        index.addRows(List.of(row("2026/03/19 10:00:00", URL_A, "1", "シンザン", "3.5")));
+
+        index.getHistory(URL_A, "シンザン").clear();
+
+        assertThat(index.getHistory(URL_A, "シンザン")).hasSize(1);
+    }
+
+    @Test
+    void getHistory_差分書き込みで行がない時点は直前の値で補われること() {
+        index.load(List.of(
+                flagged(row("2026/03/19 10:00:00", URL_A, "1", "シンザン", "3.5"), "K"),
+                flagged(row("2026/03/19 10:00:00", URL_A, "2", "ハクチカラ", "5.0"), "K"),
+                flagged(row("2026/03/19 10:05:00", URL_A, "2", "ハクチカラ", "4.8"), "D"),
+                flagged(row("2026/03/19 10:10:00", URL_A, "1", "シンザン", "3.1"), "D")));
+
+        assertThat(index.getHistory(URL_A, "シンザン"))
+                .extracting(OddsHistoryItemDto::detectedAt, OddsHistoryItemDto::winOdds)
+                .containsExactly(
+                        tuple("2026/03/19 10:00:00", 3.5),
+                        tuple("2026/03/19 10:05:00", 3.5),
+                        tuple("2026/03/19 10:10:00", 3.1));
+        assertThat(index.getHistory(URL_A, "ハクチカラ"))
+                .extracting(OddsHistoryItemDto::winOdds)
+                .containsExactly(5.0, 4.8, 4.8);
+    }
+
+    @Test
+    void getHistory_全馬の書き込みに行がない馬は以降の時点を補わないこと() {
+        index.load(List.of(
+                flagged(row("2026/03/19 10:00:00", URL_A, "1", "シンザン", "3.5"), "K"),
+                flagged(row("2026/03/19 10:00:00", URL_A, "2", "ハクチカラ", "5.0"), "K"),
+                flagged(row("2026/03/19 10:05:00", URL_A, "2", "ハクチカラ", "4.8"), "K"),
+                flagged(row("2026/03/19 10:10:00", URL_A, "2", "ハクチカラ", "4.5"), "D")));
+
+        assertThat(index.getHistory(URL_A, "シンザン"))
+                .extracting(OddsHistoryItemDto::detectedAt)
+                .containsExactly("2026/03/19 10:00:00");
+    }
+
+    private static List<Object> row(String detectedAt, String url, String horseNumber, String horseName,
+                                    String winOdds) {
+        return List.of(detectedAt, url, "テストレース", horseNumber, horseName, winOdds, "1.5", "2.0");
+    }
+
+    private static List<Object> flagged(List<Object> row, String flag) {
+        List<Object> flaggedRow = new ArrayList<>(row);
+        flaggedRow.add(flag);
+        return flaggedRow;
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
 
@@ -46,7 +48,7 @@ class OddsHistoryServiceTest {
 
     @Test
     void getUrlToRaceNameMap_URLとレース名が正しくマップされること() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
 
         Map<String, String> map = service.getUrlToRaceNameMap();
 
@@ -60,7 +62,7 @@ class OddsHistoryServiceTest {
                 List.of("2026/03/19 10:00:00", URL_A, "最初のレース名", "1", "シンザン", "3.5", "1.5", "2.0"),
                 List.of("2026/03/19 10:05:00", URL_A, "上書きされない名前", "1", "シンザン", "3.3", "1.6", "2.1")
         );
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(rows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(rows);
 
         Map<String, String> map = service.getUrlToRaceNameMap();
 
@@ -69,7 +71,7 @@ class OddsHistoryServiceTest {
 
     @Test
     void getUrlToRaceNameMap_Sheets読み込み失敗時は空マップを返すこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenThrow(new IOException("API失敗"));
+        when(googleSheetsService.readData("OddsData!A:I")).thenThrow(new IOException("API失敗"));
 
         assertThat(service.getUrlToRaceNameMap()).isEmpty();
     }
@@ -78,7 +80,7 @@ class OddsHistoryServiceTest {
 
     @Test
     void getUrls_URLが重複なし昇順で返されること() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
 
         List<String> urls = service.getUrls();
 
@@ -87,14 +89,14 @@ class OddsHistoryServiceTest {
 
     @Test
     void getUrls_Sheetsが空の場合は空リストを返すこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(List.of());
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(List.of());
 
         assertThat(service.getUrls()).isEmpty();
     }
 
     @Test
     void getUrls_Sheets読み込み失敗時は空リストを返してシステムを止めないこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenThrow(new IOException("API失敗"));
+        when(googleSheetsService.readData("OddsData!A:I")).thenThrow(new IOException("API失敗"));
 
         assertThat(service.getUrls()).isEmpty();
     }
@@ -103,7 +105,7 @@ class OddsHistoryServiceTest {
 
     @Test
     void getHorses_指定URLの馬が馬番昇順で返されること() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
 
         List<HorseDto> horses = service.getHorses(URL_A);
 
@@ -114,7 +116,7 @@ class OddsHistoryServiceTest {
 
     @Test
     void getHorses_同じ馬の複数行が重複なく1件で返されること() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
 
         // URL_A の「シンザン」は2行あるが1件で返るべき
         List<HorseDto> horses = service.getHorses(URL_A);
@@ -125,14 +127,14 @@ class OddsHistoryServiceTest {
 
     @Test
     void getHorses_存在しないURLの場合は空リストを返すこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
 
         assertThat(service.getHorses("https://example.com/race/NONE")).isEmpty();
     }
 
     @Test
     void getHorses_Sheets読み込み失敗時は空リストを返すこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenThrow(new IOException("API失敗"));
+        when(googleSheetsService.readData("OddsData!A:I")).thenThrow(new IOException("API失敗"));
 
         assertThat(service.getHorses(URL_A)).isEmpty();
     }
@@ -141,7 +143,7 @@ class OddsHistoryServiceTest {
 
     @Test
     void getHistory_指定URLと馬名のデータが時系列昇順で返されること() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
 
         List<OddsHistoryItemDto> history = service.getHistory(URL_A, "シンザン");
 
@@ -156,7 +158,7 @@ class OddsHistoryServiceTest {
 
     @Test
     void getHistory_異なるURLの馬は含まれないこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
 
         List<OddsHistoryItemDto> history = service.getHistory(URL_B, "シンザン");
 
@@ -165,18 +167,120 @@ class OddsHistoryServiceTest {
 
     @Test
     void getHistory_データが存在しない場合は空リストを返すこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenReturn(List.of());
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(List.of());
 
         assertThat(service.getHistory(URL_A, "シンザン")).isEmpty();
     }
 
     @Test
     void getHistory_Sheets読み込み失敗時は空リストを返すこと() throws Exception {
-        when(googleSheetsService.readData("OddsData!A:H")).thenThrow(new IOException("API失敗"));
+        when(googleSheetsService.readData("OddsData!A:I")).thenThrow(new IOException("API失敗"));
 
         assertThat(service.getHistory(URL_A, "シンザン")).isEmpty();
     }
 
+    @Test
+    void getHistory_2回目以降の問い合わせではSheetsを読み直さないこと() throws Exception {
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
+
+        service.getUrls();
+        service.getHorses(URL_A);
+        List<OddsHistoryItemDto> history = service.getHistory(URL_A, "シンザン");
+
+        assertThat(history).hasSize(2);
+        verify(googleSheetsService, times(1)).readData("OddsData!A:I");
+    }
+
+    @Test
+    void getHistory_読み込みに失敗した場合は次回の問い合わせで再度読み込むこと() throws Exception {
+        when(googleSheetsService.readData("OddsData!A:I"))
+                .thenThrow(new IOException("API失敗"))
+                .thenReturn(sampleRows);
+
+        assertThat(service.getHistory(URL_A, "シンザン")).isEmpty();
+        assertThat(service.getHistory(URL_A, "シンザン")).hasSize(2);
+    }
+
+    @Test
+    void getHistory_書き込み時に索引へ追加された行が読み込み済みの行と合わせて返されること() throws Exception {
+        OddsHistoryIndex index = new OddsHistoryIndex();
+        service = new OddsHistoryService(googleSheetsService, index);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
+        service.getUrls();
+
+        index.addRows(List.of(
+                List.of("2026/03/19 10:10:00", URL_A, "テストレース", "1", "シンザン", "3.1", "1.6", "2.1")));
+
+        assertThat(service.getHistory(URL_A, "シンザン"))
+                .extracting(OddsHistoryItemDto::detectedAt)
+                .containsExactly("2026/03/19 10:00:00", "2026/03/19 10:05:00", "2026/03/19 10:10:00");
+        verify(googleSheetsService, times(1)).readData("OddsData!A:I");
+    }
+
+    // ===== 末尾読み込み =====
+
+    @Test
+    void getHistory_更新間隔の経過後は読み込み済みの最終行以降のみを読み込むこと() throws Exception {
+        AlertStoreTest.MutableClock clock = new AlertStoreTest.MutableClock(
+                Instant.parse("2026-03-19T01:00:00Z"), ZoneOffset.UTC);
+        service = new OddsHistoryService(googleSheetsService, new OddsHistoryIndex(), clock);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A4:I")).thenReturn(List.of(
+                sampleRows.get(3),
+                List.of("2026/03/19 10:10:00", URL_A, "テストレース", "1", "シンザン", "3.1", "1.6", "2.1")));
+
+        assertThat(service.getHistory(URL_A, "シンザン")).hasSize(2);
+        clock.setInstant(Instant.parse("2026-03-19T01:00:29Z"));
+        assertThat(service.getHistory(URL_A, "シンザン")).hasSize(2);
+        clock.setInstant(Instant.parse("2026-03-19T01:00:30Z"));
+        assertThat(service.getHistory(URL_A, "シンザン")).hasSize(3);
+
+        verify(googleSheetsService, times(1)).readData("OddsData!A:I");
+        verify(googleSheetsService, times(1)).readData("OddsData!A4:I");
+    }
+
+    @Test
+    void getHistory_読み込み済みの最終行が変わっていた場合は全行を読み込み直すこと() throws Exception {
+        AlertStoreTest.MutableClock clock = new AlertStoreTest.MutableClock(
+                Instant.parse("2026-03-19T01:00:00Z"), ZoneOffset.UTC);
+        service = new OddsHistoryService(googleSheetsService, new OddsHistoryIndex(), clock);
+        List<List<Object>> afterClear = List.of(
+                List.of("2026/03/19 11:00:00", URL_B, "別レース", "1", "タケホープ", "2.2", "1.1", "1.5"));
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows).thenReturn(afterClear);
+        when(googleSheetsService.readData("OddsData!A4:I")).thenReturn(List.of());
+
+        assertThat(service.getUrls()).containsExactly(URL_A, URL_B);
+        clock.setInstant(Instant.parse("2026-03-19T01:01:00Z"));
+
+        assertThat(service.getUrls()).containsExactly(URL_B);
+        assertThat(service.getHistory(URL_A, "シンザン")).isEmpty();
+    }
+
+    @Test
+    void getHistory_末尾読み込みに失敗した場合は前回までの内容を返すこと() throws Exception {
+        AlertStoreTest.MutableClock clock = new AlertStoreTest.MutableClock(
+                Instant.parse("2026-03-19T01:00:00Z"), ZoneOffset.UTC);
+        service = new OddsHistoryService(googleSheetsService, new OddsHistoryIndex(), clock);
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows);
+        when(googleSheetsService.readData("OddsData!A4:I")).thenThrow(new IOException("API失敗"));
+
+        service.getUrls();
+        clock.setInstant(Instant.parse("2026-03-19T01:01:00Z"));
+
+        assertThat(service.getHistory(URL_A, "シンザン")).hasSize(2);
+    }
+
+    @Test
+    void invalidate_次回の問い合わせで全行を読み込み直すこと() throws Exception {
+        when(googleSheetsService.readData("OddsData!A:I")).thenReturn(sampleRows).thenReturn(List.of());
+
+        assertThat(service.getUrls()).hasSize(2);
+        service.invalidate();
+
+        assertThat(service.getUrls()).isEmpty();
+        verify(googleSheetsService, times(2)).readData("OddsData!A:I");
+    }
+
     // ===== getAlerts =====
 
     @Test
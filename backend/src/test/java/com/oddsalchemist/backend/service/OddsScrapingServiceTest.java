@@ -1,77 +1,214 @@
 package com.oddsalchemist.backend.service;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import com.oddsalchemist.backend.config.FetchLimitProperties;
+import com.oddsalchemist.backend.config.ScrapingProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
-import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
+/**
+ * OddsScrapingService の単体テスト。
+ * ローカルに起動した HttpServer からHTMLを取得し、展開・文字コード判定・エラー処理を検証する。
+ */
 class OddsScrapingServiceTest {
 
-    private final OddsScrapingService oddsScrapingService = new OddsScrapingService();
+    private static final String HTML = "<html><head><title>テスト用タイトル</title></head><body></body></html>";
+
+    private HttpServer server;
+    private OddsScrapingService oddsScrapingService;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        ScrapingProperties properties = new ScrapingProperties("OddsData!A:H", 0, 0, null, 0,
+                Duration.ofSeconds(1), Duration.ofMillis(300), Duration.ofMillis(600));
+        oddsScrapingService = new OddsScrapingService(
+                new FetchRateLimiter(new FetchLimitProperties(1000, 100)), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        oddsScrapingService.close();
+        server.stop(0);
+    }
 
     @Test
-    @DisplayName("正常系: 指定したURLからHTMLを取得し、タイトルがログ出力されること")
-    void fetchHtml_Success() throws IOException {
-        String url = "https://db.netkeiba.com/";
-        String expectedTitle = "テスト用タイトル";
-        // テスト用の静的HTMLを作成し、Documentオブジェクトに変換
-        String html = "<html><head><title>" + expectedTitle + "</title></head><body></body></html>";
-        Document document = Jsoup.parse(html);
-
-        // Jsoup.connect などの static メソッドをモック化
-        try (MockedStatic<Jsoup> jsoupMock = Mockito.mockStatic(Jsoup.class)) {
-            Connection connectionMock = mock(Connection.class);
-
-            // Jsoup.connect(url) が呼ばれたら connectionMock を返す
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(connectionMock);
-            // チェーンメソッドのモック化
-            when(connectionMock.userAgent(anyString())).thenReturn(connectionMock);
-            when(connectionMock.timeout(anyInt())).thenReturn(connectionMock);
-            
-            // connectionMock.get() が呼ばれたら用意した document を返す
-            when(connectionMock.get()).thenReturn(document);
-
-            // テスト実行
-            String result = oddsScrapingService.fetchHtml(url);
-
-            // 検証: Jsoup.connect と .get() が正しく呼び出されたか
-            assertEquals(document.html(), result);
-            jsoupMock.verify(() -> Jsoup.connect(url), times(1));
-            verify(connectionMock).userAgent(anyString());
-            verify(connectionMock).timeout(anyInt());
-            verify(connectionMock, times(1)).get();
-        }
+    @DisplayName("正常系: gzip 圧縮を要求し、圧縮されたHTMLを展開して返すこと")
+    void fetchHtml_Gzip() throws IOException {
+        AtomicReference<String> acceptEncoding = new AtomicReference<>();
+        server.createContext("/race", exchange -> {
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            respond(exchange, 200, gzip(HTML.getBytes(StandardCharsets.UTF_8)));
+        });
+
+        String result = oddsScrapingService.fetchHtml(baseUrl + "/race");
+
+        assertEquals(HTML, result);
+        assertTrue(acceptEncoding.get().contains("gzip"));
+    }
+
+    @Test
+    @DisplayName("正常系: 圧縮されていないHTMLはそのまま返すこと")
+    void fetchHtml_Identity() throws IOException {
+        server.createContext("/race", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            respond(exchange, 200, HTML.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals(HTML, oddsScrapingService.fetchHtml(baseUrl + "/race"));
+    }
+
+    @Test
+    @DisplayName("正常系: Content-Type に文字コードがない場合は meta タグの文字コードで変換すること")
+    void fetchHtml_MetaCharset() throws IOException {
+        Charset eucJp = Charset.forName("EUC-JP");
+        String html = "<html><head><meta charset=\"EUC-JP\"><title>単勝オッズ</title></head></html>";
+        server.createContext("/race", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            respond(exchange, 200, html.getBytes(eucJp));
+        });
+
+        assertEquals(html, oddsScrapingService.fetchHtml(baseUrl + "/race"));
+    }
+
+    @Test
+    @DisplayName("異常系: 2xx 以外のステータスの場合にIOExceptionがスローされること")
+    void fetchHtml_ErrorStatus() {
+        server.createContext("/race", exchange -> respond(exchange, 503, new byte[0]));
+
+        assertThrows(IOException.class, () -> oddsScrapingService.fetchHtml(baseUrl + "/race"));
+    }
+
+    @Test
+    @DisplayName("異常系: レスポンスが返らない場合はタイムアウトでIOExceptionがスローされること")
+    void fetchHtml_Timeout() {
+        server.createContext("/race", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> oddsScrapingService.fetchHtml(baseUrl + "/race"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(1500)) < 0);
     }
 
     @Test
-    @DisplayName("異常系: 通信エラー発生時にIOExceptionがスローされること")
-    void fetchHtml_Failure() throws IOException {
-        String url = "https://error-url.com/";
-
-        try (MockedStatic<Jsoup> jsoupMock = Mockito.mockStatic(Jsoup.class)) {
-            Connection connectionMock = mock(Connection.class);
-
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(connectionMock);
-            when(connectionMock.userAgent(anyString())).thenReturn(connectionMock);
-            when(connectionMock.timeout(anyInt())).thenReturn(connectionMock);
-            
-            // .get() で IOException をスローするように設定
-            when(connectionMock.get()).thenThrow(new IOException("Connection timed out"));
-
-            // テスト実行と検証
-            assertThrows(IOException.class, () -> oddsScrapingService.fetchHtml(url));
+    @DisplayName("正常系: ETag がある場合は条件付きリクエストを送り、304 の場合は空を返すこと")
+    void fetchHtmlIfChanged_NotModified() throws IOException {
+        AtomicReference<String> ifNoneMatch = new AtomicReference<>();
+        server.createContext("/race", exchange -> {
+            ifNoneMatch.set(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            if ("\"v1\"".equals(ifNoneMatch.get())) {
+                respond(exchange, 304, new byte[0]);
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            respond(exchange, 200, HTML.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals(Optional.of(HTML), oddsScrapingService.fetchHtmlIfChanged(baseUrl + "/race", Optional.empty()));
+        oddsScrapingService.commit(baseUrl + "/race");
+        assertEquals(Optional.empty(), oddsScrapingService.fetchHtmlIfChanged(baseUrl + "/race", Optional.empty()));
+        assertEquals("\"v1\"", ifNoneMatch.get());
+
+        // 破棄後は条件なしで取得し直すこと
+        oddsScrapingService.forget(baseUrl + "/race");
+        assertEquals(Optional.of(HTML), oddsScrapingService.fetchHtmlIfChanged(baseUrl + "/race", Optional.empty()));
+    }
+
+    @Test
+    @DisplayName("正常系: 検証用ヘッダーがない場合はオッズテーブルが変化したときだけHTMLを返すこと")
+    void fetchHtmlIfChanged_OddsRegionHash() throws IOException {
+        AtomicReference<String> odds = new AtomicReference<>("2.5");
+        AtomicReference<String> clock = new AtomicReference<>("10:00");
+        server.createContext("/race", exchange -> respond(exchange, 200,
+                racePage(clock.get(), odds.get()).getBytes(StandardCharsets.UTF_8)));
+        String url = baseUrl + "/race";
+
+        assertTrue(oddsScrapingService.fetchHtmlIfChanged(url, Optional.empty()).isPresent());
+        oddsScrapingService.commit(url);
+
+        // テーブル外（現在時刻の表示）だけが変わった場合は変化なし
+        clock.set("10:30");
+        assertTrue(oddsScrapingService.fetchHtmlIfChanged(url, Optional.empty()).isEmpty());
+
+        odds.set("3.1");
+        assertTrue(oddsScrapingService.fetchHtmlIfChanged(url, Optional.empty()).isPresent());
+    }
+
+    @Test
+    @DisplayName("正常系: 返したHTMLの処理完了が記録されるまでは同じ内容でも次回HTMLを返し直すこと")
+    void fetchHtmlIfChanged_Uncommitted() throws IOException {
+        AtomicReference<String> ifNoneMatch = new AtomicReference<>();
+        server.createContext("/race", exchange -> {
+            ifNoneMatch.set(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            respond(exchange, 200, racePage("10:00", "2.5").getBytes(StandardCharsets.UTF_8));
+        });
+        String url = baseUrl + "/race";
+
+        // 1回目の処理が書き込み登録前に失敗した（commit されなかった）ことを再現する
+        assertTrue(oddsScrapingService.fetchHtmlIfChanged(url, Optional.empty()).isPresent());
+        assertTrue(oddsScrapingService.fetchHtmlIfChanged(url, Optional.empty()).isPresent());
+        assertNull(ifNoneMatch.get());
+
+        oddsScrapingService.commit(url);
+        assertTrue(oddsScrapingService.fetchHtmlIfChanged(url, Optional.empty()).isEmpty());
+        assertEquals("\"v1\"", ifNoneMatch.get());
+    }
+
+    @Test
+    @DisplayName("正常系: オッズ行がないページはハッシュを持たず、テーブル外の変化はハッシュに影響しないこと")
+    void oddsRegionHash_NoRows() {
+        assertNull(OddsScrapingService.oddsRegionHash(HTML));
+        assertEquals(OddsScrapingService.oddsRegionHash(racePage("10:00", "2.5")),
+                OddsScrapingService.oddsRegionHash(racePage("11:00", "2.5")));
+    }
+
+    private static String racePage(String clock, String winOdds) {
+        return "<html><body><p>現在時刻 " + clock + "</p><table class=\"hr-table\">"
+                + "<tr class=\"hr-tableValue__row\"><td>1</td><td>テスト馬</td><td>" + winOdds + "</td></tr>"
+                + "</table></body></html>";
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
         }
+        return bytes.toByteArray();
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,22 @@
 package com.oddsalchemist.backend.service;
 
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
 import com.oddsalchemist.backend.dto.AnomalyAlertDto;
 import com.oddsalchemist.backend.dto.OddsData;
+import com.oddsalchemist.backend.parser.ParsedRacePage;
 import com.oddsalchemist.backend.parser.RaceOddsParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.io.IOException;
+import java.time.Clock;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -20,7 +25,7 @@ class OddsSyncServiceTest {
 
     private OddsScrapingService scrapingService;
     private RaceOddsParser parser;
-    private GoogleSheetsService sheetsService;
+    private SheetsWriteQueue writeQueue;
     private OddsAnomalyDetector anomalyDetector;
     private SlackNotifyClient slackNotifyClient;
     private OddsSyncService service;
@@ -29,11 +34,11 @@ class OddsSyncServiceTest {
     void setUp() {
         scrapingService = mock(OddsScrapingService.class);
         parser = mock(RaceOddsParser.class);
-        sheetsService = mock(GoogleSheetsService.class);
+        writeQueue = mock(SheetsWriteQueue.class);
         anomalyDetector = mock(OddsAnomalyDetector.class);
         slackNotifyClient = mock(SlackNotifyClient.class);
         when(anomalyDetector.detect(any(), any())).thenReturn(List.of());
-        service = new OddsSyncService(scrapingService, parser, sheetsService, anomalyDetector, slackNotifyClient);
+        service = newService(new OddsHistoryIndex(), new OddsDeltaProperties(false, 0));
     }
 
     @Test
@@ -42,19 +47,21 @@ class OddsSyncServiceTest {
         String range = "OddsData!A:H";
         String dummyHtml = "<html>dummy</html>";
 
-        when(scrapingService.fetchHtml(url)).thenReturn(dummyHtml);
-        when(parser.parse(dummyHtml)).thenReturn(List.of(
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.empty(),
                 new OddsData("第1回東京1レース", "1", "キタサンブラック", 2.5, 1.2, 1.5, null)
         ));
 
         service.fetchAndSaveOdds(url, range);
 
-        verify(scrapingService).fetchHtml(url);
-        verify(parser).parse(dummyHtml);
+        verify(scrapingService).fetchHtmlIfChanged(eq(url), any());
+        // DOM構築は1回のみ（parsePage 経由）で、個別の parseStartTime は呼ばれないこと
+        verify(parser).parsePage(dummyHtml);
+        verify(parser, never()).parseStartTime(any());
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<List<Object>>> captor = ArgumentCaptor.forClass(List.class);
-        verify(sheetsService).appendData(eq(range), captor.capture());
+        verify(writeQueue).enqueue(eq(range), captor.capture());
 
         List<List<Object>> savedValues = captor.getValue();
         assertThat(savedValues).hasSize(1);
@@ -76,11 +83,10 @@ class OddsSyncServiceTest {
         String dummyHtml = "<html>dummy</html>";
         LocalTime startTime = LocalTime.of(15, 25);
 
-        when(scrapingService.fetchHtml(url)).thenReturn(dummyHtml);
-        when(parser.parse(dummyHtml)).thenReturn(List.of(
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.of(startTime),
                 new OddsData("第1回東京1レース", "1", "テスト馬", 2.5, 1.2, 1.5, null)
         ));
-        when(parser.parseStartTime(dummyHtml)).thenReturn(Optional.of(startTime));
 
         service.fetchAndSaveOdds(url, range);
 
@@ -106,8 +112,8 @@ class OddsSyncServiceTest {
         AnomalyAlertDto alert = new AnomalyAlertDto(
                 "第1回東京1レース", "5", "テスト馬", "支持率急増", 0.05, "2026-03-07T10:00:00");
 
-        when(scrapingService.fetchHtml(url)).thenReturn(dummyHtml);
-        when(parser.parse(dummyHtml)).thenReturn(List.of(
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.empty(),
                 new OddsData("第1回東京1レース", "5", "テスト馬", 10.0, 2.0, 4.0, null)
         ));
         when(anomalyDetector.detect(any(), any())).thenReturn(List.of(alert));
@@ -116,7 +122,7 @@ class OddsSyncServiceTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<List<Object>>> alertCaptor = ArgumentCaptor.forClass(List.class);
-        verify(sheetsService).appendData(eq("Alerts!A:G"), alertCaptor.capture());
+        verify(writeQueue).enqueue(eq("Alerts!A:G"), alertCaptor.capture());
 
         List<List<Object>> alertRows = alertCaptor.getValue();
         assertThat(alertRows).hasSize(1);
@@ -127,17 +133,39 @@ class OddsSyncServiceTest {
         assertThat(alertRow.get(5)).isEqualTo("支持率急増");       // F列: 検知タイプ
     }
 
+    @Test
+    void fetchAndSaveOdds_アラートの書き込み登録に失敗してもオッズの書き込みは登録されること() throws Exception {
+        String url = "https://example.com/race";
+        String range = "OddsData!A:H";
+        String dummyHtml = "<html>dummy</html>";
+
+        AnomalyAlertDto alert = new AnomalyAlertDto(
+                "第1回東京1レース", "5", "テスト馬", "支持率急増", 0.05, "2026-03-07T10:00:00");
+
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.empty(),
+                new OddsData("第1回東京1レース", "5", "テスト馬", 10.0, 2.0, 4.0, null)
+        ));
+        when(anomalyDetector.detect(any(), any())).thenReturn(List.of(alert));
+        doThrow(new IOException("Sheets書き込みキューが満杯"))
+                .when(writeQueue).enqueue(eq("Alerts!A:G"), any());
+
+        int saved = service.fetchAndSaveOdds(url, range);
+
+        assertThat(saved).isEqualTo(1);
+        verify(writeQueue).enqueue(eq(range), any());
+    }
+
     @Test
     void clearCachedStartTime_削除後にemptyを返すこと() throws Exception {
         String url = "https://example.com/race";
         String dummyHtml = "<html>dummy</html>";
         LocalTime startTime = LocalTime.of(15, 25);
 
-        when(scrapingService.fetchHtml(url)).thenReturn(dummyHtml);
-        when(parser.parse(dummyHtml)).thenReturn(List.of(
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.of(startTime),
                 new OddsData("第1回東京1レース", "1", "テスト馬", 2.5, 1.2, 1.5, null)
         ));
-        when(parser.parseStartTime(dummyHtml)).thenReturn(Optional.of(startTime));
 
         service.fetchAndSaveOdds(url, "OddsData!A:H");
         assertThat(service.getCachedStartTime(url)).isPresent();
@@ -145,4 +173,123 @@ class OddsSyncServiceTest {
         service.clearCachedStartTime(url);
         assertThat(service.getCachedStartTime(url)).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void fetchAndSaveOdds_オッズ行が0件の場合は書き込みを行わないこと() throws Exception {
+        String url = "https://example.com/race";
+        String dummyHtml = "<html>dummy</html>";
+
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.of(LocalTime.of(15, 25))));
+
+        int saved = service.fetchAndSaveOdds(url, "OddsData!A:H");
+
+        assertThat(saved).isZero();
+        verifyNoInteractions(writeQueue, anomalyDetector);
+    }
+
+    @Test
+    void fetchAndSaveOdds_書き込んだ行がオッズ履歴の索引に反映されること() throws Exception {
+        String url = "https://example.com/race";
+        String dummyHtml = "<html>dummy</html>";
+        OddsHistoryIndex historyIndex = new OddsHistoryIndex();
+        service = newService(historyIndex, new OddsDeltaProperties(false, 0));
+
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.empty(),
+                new OddsData("第1回東京1レース", "1", "キタサンブラック", 2.5, 1.2, 1.5, null)
+        ));
+
+        service.fetchAndSaveOdds(url, "OddsData!A:H");
+
+        assertThat(historyIndex.getHistory(url, "キタサンブラック")).hasSize(1);
+        assertThat(historyIndex.getHistory(url, "キタサンブラック").get(0).winOdds()).isEqualTo(2.5);
+    }
+
+    @Test
+    void fetchAndSaveOdds_前回から変化がない場合はパース・異常検知・書き込みを行わないこと() throws Exception {
+        String url = "https://example.com/race";
+
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.empty());
+
+        int saved = service.fetchAndSaveOdds(url, "OddsData!A:H");
+
+        assertThat(saved).isZero();
+        verifyNoInteractions(parser, writeQueue, anomalyDetector, slackNotifyClient);
+    }
+
+    @Test
+    void fetchAndSaveOdds_書き込みの登録に失敗した場合は取得の変化判定用の情報を確定しないこと() throws Exception {
+        String url = "https://example.com/race";
+        String range = "OddsData!A:H";
+        String dummyHtml = "<html>dummy</html>";
+
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any())).thenReturn(Optional.of(dummyHtml));
+        when(parser.parsePage(dummyHtml)).thenReturn(page(Optional.empty(),
+                new OddsData("第1回東京1レース", "1", "キタサンブラック", 2.5, 1.2, 1.5, null)
+        ));
+        doThrow(new IOException("書き込み待ちが満杯です")).doNothing().when(writeQueue).enqueue(eq(range), any());
+
+        assertThatThrownBy(() -> service.fetchAndSaveOdds(url, range)).isInstanceOf(IOException.class);
+        verify(scrapingService, never()).commit(url);
+
+        // 次回の同じ内容の取得は処理し直され、登録できた時点で確定する
+        assertThat(service.fetchAndSaveOdds(url, range)).isEqualTo(1);
+        verify(writeQueue, times(2)).enqueue(eq(range), any());
+        verify(scrapingService).commit(url);
+    }
+
+    @Test
+    void clearStateForUrl_取得時の変化判定用の情報も破棄されること() {
+        String url = "https://example.com/race";
+
+        service.clearStateForUrl(url);
+
+        verify(anomalyDetector).clearStateForUrl(url);
+        verify(scrapingService).forget(url);
+    }
+
+    @Test
+    void fetchAndSaveOdds_差分書き込みが有効な場合はオッズが変化した馬の行だけを書き込むこと() throws Exception {
+        String url = "https://example.com/race";
+        String range = "OddsData!A:H";
+        service = newService(new OddsHistoryIndex(), new OddsDeltaProperties(true, 10));
+
+        when(scrapingService.fetchHtmlIfChanged(eq(url), any()))
+                .thenReturn(Optional.of("<html>1</html>"), Optional.of("<html>2</html>"), Optional.of("<html>3</html>"));
+        when(parser.parsePage("<html>1</html>")).thenReturn(page(Optional.empty(),
+                new OddsData("第1回東京1レース", "1", "シンザン", 3.5, 1.2, 1.5, null),
+                new OddsData("第1回東京1レース", "2", "ハクチカラ", 5.0, 1.8, 2.4, null)));
+        when(parser.parsePage("<html>2</html>")).thenReturn(page(Optional.empty(),
+                new OddsData("第1回東京1レース", "1", "シンザン", 3.5, 1.2, 1.5, null),
+                new OddsData("第1回東京1レース", "2", "ハクチカラ", 4.8, 1.8, 2.4, null)));
+        when(parser.parsePage("<html>3</html>")).thenReturn(page(Optional.empty(),
+                new OddsData("第1回東京1レース", "1", "シンザン", 3.5, 1.2, 1.5, null),
+                new OddsData("第1回東京1レース", "2", "ハクチカラ", 4.8, 1.8, 2.4, null)));
+
+        assertThat(service.fetchAndSaveOdds(url, range)).isEqualTo(2);
+        assertThat(service.fetchAndSaveOdds(url, range)).isEqualTo(1);
+        assertThat(service.fetchAndSaveOdds(url, range)).isZero();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<List<Object>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(writeQueue, times(2)).enqueue(eq(range), captor.capture());
+        assertThat(captor.getAllValues().get(0)).allMatch(row -> "K".equals(row.get(8)));
+        assertThat(captor.getAllValues().get(1)).hasSize(1);
+        assertThat(captor.getAllValues().get(1).get(0).get(4)).isEqualTo("ハクチカラ");
+        assertThat(captor.getAllValues().get(1).get(0).get(8)).isEqualTo("D");
+    }
+
+    // ===== ヘルパーメソッド =====
+
+    /** モックの依存コンポーネントでサービスを生成する（ページは記録しない） */
+    private OddsSyncService newService(OddsHistoryIndex historyIndex, OddsDeltaProperties deltaProperties) {
+        return new OddsSyncService(scrapingService, parser, writeQueue, anomalyDetector, slackNotifyClient,
+                historyIndex, deltaProperties, PageRecorder.disabled(), Clock.systemDefaultZone());
+    }
+
+    private ParsedRacePage page(Optional<LocalTime> startTime, OddsData... odds) {
+        return new ParsedRacePage(List.of(odds), odds.length > 0 ? odds[0].raceName() : "", startTime,
+                new ParsedRacePage.Diagnostics(odds.length, 0));
+    }
+}
@@ -0,0 +1,72 @@
+package com.oddsalchemist.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PageRecorder の単体テスト。
+ * 一時ディレクトリに記録したページを読み込み、取得日時順の並び・末尾の不完全な記録の読み飛ばしを検証する。
+ */
+class PageRecorderTest {
+
+    private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+    private static final String URL_A = "https://example.com/race/A";
+    private static final String URL_B = "https://example.com/race/B";
+    private static final Instant T0 = Instant.parse("2026-03-19T01:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readDay_記録したページが取得日の全レース分取得日時順に読めること() throws IOException {
+        PageRecorder recorder = new PageRecorder(directory, JST);
+
+        recorder.record(URL_A, T0, "<html>A1</html>");
+        recorder.record(URL_B, T0.plusSeconds(30), "<html>B1</html>");
+        recorder.record(URL_A, T0.plusSeconds(60), "<html>A2 単勝オッズ</html>");
+
+        List<PageRecorder.RecordedPage> pages = PageRecorder.readDay(directory.resolve("2026-03-19"));
+
+        assertThat(pages).extracting(PageRecorder.RecordedPage::html)
+                .containsExactly("<html>A1</html>", "<html>B1</html>", "<html>A2 単勝オッズ</html>");
+        assertThat(pages.get(1).url()).isEqualTo(URL_B);
+        assertThat(pages.get(1).fetchedAt()).isEqualTo(T0.plusSeconds(30));
+    }
+
+    @Test
+    void readFile_末尾の不完全な記録を読み飛ばすこと() throws IOException {
+        PageRecorder recorder = new PageRecorder(directory, JST);
+        recorder.record(URL_A, T0, "<html>A1</html>");
+        recorder.record(URL_A, T0.plusSeconds(60), "<html>A2</html>");
+        Path file = directory.resolve("2026-03-19").resolve(PageRecorder.fileNameOf(URL_A));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 20);
+        }
+
+        assertThat(PageRecorder.readFile(file)).extracting(PageRecorder.RecordedPage::html)
+                .containsExactly("<html>A1</html>");
+    }
+
+    @Test
+    void record_無効の場合は何も書き込まないこと() throws IOException {
+        PageRecorder recorder = PageRecorder.disabled();
+
+        recorder.record(URL_A, T0, "<html>A1</html>");
+
+        assertThat(recorder.isEnabled()).isFalse();
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+}
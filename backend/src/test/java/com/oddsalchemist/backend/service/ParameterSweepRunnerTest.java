@@ -0,0 +1,154 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.dto.AnomalyAlertDto;
+import com.oddsalchemist.backend.dto.OddsData;
+import com.oddsalchemist.backend.parser.ParsedRacePage;
+import com.oddsalchemist.backend.parser.RacePageParser;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ParameterSweepRunner の単体テスト。
+ * 乱数で生成したオッズの推移に対し、閾値セットごとの件数が OddsAnomalyDetector を閾値ごとに実行した件数と一致することを検証する。
+ */
+class ParameterSweepRunnerTest {
+
+    private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+    private static final int HORSES = 14;
+
+    private static final DetectorParameters DEFAULTS = DetectorParameters.defaults();
+    /** 全ロジックで検知しやすい閾値 */
+    private static final DetectorParameters LOW = new DetectorParameters(
+            50_000_000L, 100_000_000L, 2, 4, 14, 1_000L, 1.2);
+    /** ほとんど検知しない閾値 */
+    private static final DetectorParameters HIGH = new DetectorParameters(
+            1_000_000_000L, 2_000_000_000L, 6, 5, 8, 50_000L, 3.0);
+    /** 閾値ごとに既定値の前後を混ぜた閾値 */
+    private static final DetectorParameters MIXED = new DetectorParameters(
+            100_000_000L, 500_000_000L, 4, 5, 12, 2_500L, 1.4);
+
+    /** HTML をキーにしたパース結果 */
+    private final Map<String, ParsedRacePage> parsed = new HashMap<>();
+    private final RacePageParser parser = parsed::get;
+
+    @Test
+    void evaluate_閾値セットごとの件数が閾値ごとに検知器を実行した件数と一致すること() {
+        List<PageRecorder.RecordedPage> pages = generate();
+        List<DetectorParameters> parameterSets = List.of(DEFAULTS, LOW, HIGH, MIXED);
+
+        List<ParameterSweepRunner.Result> results = new ParameterSweepRunner(parser, JST).run(pages, parameterSets);
+
+        assertThat(results).hasSize(parameterSets.size());
+        for (int k = 0; k < parameterSets.size(); k++) {
+            assertThat(results.get(k).parameters()).isEqualTo(parameterSets.get(k));
+            assertThat(results.get(k).countsByAlertType()).isEqualTo(detectorCounts(pages, parameterSets.get(k)));
+        }
+        // 検知しやすい閾値では全ロジックのアラートが含まれる（比較が空同士にならないこと）
+        assertThat(results.get(1).countsByAlertType().keySet()).contains(
+                "支持率急増", "順位乖離", "順位乖離[拡大中]", "順位乖離[解消中]", "トレンド逸脱", "支持率加速",
+                "フェーズ逸脱[朝]", "フェーズ逸脱[30分前]", "フェーズ逸脱[10分前]", "オッズ断層[凝縮]", "オッズ断層[拡散]");
+        assertThat(results.get(1).totalAlerts()).isGreaterThan(results.get(0).totalAlerts());
+    }
+
+    @Test
+    void evaluate_1回のパース結果を閾値セットの順序を変えて繰り返し評価できること() {
+        List<PageRecorder.RecordedPage> pages = generate();
+        ParameterSweepRunner runner = new ParameterSweepRunner(parser, JST);
+
+        ParameterSweepRunner.SweepInput input = runner.prepare(pages);
+        List<ParameterSweepRunner.Result> forward = runner.evaluate(input, List.of(DEFAULTS, LOW));
+        List<ParameterSweepRunner.Result> reversed = runner.evaluate(input, List.of(LOW, DEFAULTS));
+
+        assertThat(input.pages()).isEqualTo(pages.size());
+        assertThat(input.races()).isEqualTo(3);
+        assertThat(reversed).containsExactly(forward.get(1), forward.get(0));
+        assertThat(runner.evaluate(input, List.of())).isEmpty();
+    }
+
+    /** 閾値を指定した OddsAnomalyDetector で、ReplayRunner と同じくレースごとにページを順に処理したアラート件数 */
+    private Map<String, Long> detectorCounts(List<PageRecorder.RecordedPage> pages, DetectorParameters parameters) {
+        OddsAnomalyDetectorTest.MutableClock clock = new OddsAnomalyDetectorTest.MutableClock(Instant.EPOCH, JST);
+        OddsAnomalyDetector detector = OddsAnomalyDetectorTest.newDetector(clock, parameters);
+        Map<String, Long> counts = new HashMap<>();
+        for (String url : List.of("https://example.com/race/A", "https://example.com/race/B",
+                "https://example.com/race/C")) {
+            for (PageRecorder.RecordedPage page : pages) {
+                if (!page.url().equals(url)) {
+                    continue;
+                }
+                clock.setInstant(page.fetchedAt());
+                ParsedRacePage racePage = parsed.get(page.html());
+                List<OddsData> withUrl = racePage.oddsList().stream()
+                        .map(d -> new OddsData(d.raceName(), d.horseNumber(), d.horseName(),
+                                d.winOdds(), d.placeOddsMin(), d.placeOddsMax(), url))
+                        .toList();
+                for (AnomalyAlertDto alert : detector.detect(withUrl, racePage.startTime())) {
+                    counts.merge(alert.alertType(), 1L, Long::sum);
+                }
+            }
+            detector.clearStateForUrl(url);
+        }
+        // 比較のため種別の定義順に並べる
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        for (ParameterSweepRunner.AlertKind kind : ParameterSweepRunner.AlertKind.values()) {
+            if (counts.containsKey(kind.alertType())) {
+                ordered.put(kind.alertType(), counts.get(kind.alertType()));
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 3レース分のページを取得日時順に生成する。
+     * A・B: 09:00 から3分おきに40ページ（発走 10:30。朝・30分前・10分前・発走後のフェーズを含む）。
+     * C: 23:30 から3分おきに20ページ（発走時刻なし。日付をまたぐ）。
+     */
+    private List<PageRecorder.RecordedPage> generate() {
+        List<PageRecorder.RecordedPage> pages = new ArrayList<>();
+        pages.addAll(race("A", Instant.parse("2026-03-19T00:00:00Z"), 40, Optional.of(LocalTime.of(10, 30)), 1L));
+        pages.addAll(race("B", Instant.parse("2026-03-19T00:00:00Z"), 40, Optional.of(LocalTime.of(10, 30)), 2L));
+        pages.addAll(race("C", Instant.parse("2026-03-19T14:30:00Z"), 20, Optional.empty(), 3L));
+        pages.sort((a, b) -> a.fetchedAt().compareTo(b.fetchedAt()));
+        return pages;
+    }
+
+    private List<PageRecorder.RecordedPage> race(String name, Instant first, int count,
+                                                 Optional<LocalTime> startTime, long seed) {
+        Random random = new Random(seed);
+        double[] win = new double[HORSES];
+        for (int i = 0; i < HORSES; i++) {
+            win[i] = 1.8 * Math.pow(1.35, i);
+        }
+        List<PageRecorder.RecordedPage> pages = new ArrayList<>();
+        for (int s = 0; s < count; s++) {
+            List<OddsData> odds = new ArrayList<>();
+            for (int i = 0; i < HORSES; i++) {
+                win[i] = Math.max(1.1, win[i] * Math.exp(random.nextGaussian() * 0.15));
+                double winOdds = Math.round(win[i] * 10) / 10.0;
+                double placeMin = Math.max(1.0, Math.round(winOdds / (1.5 + random.nextDouble() * 4.0) * 10) / 10.0);
+                // まれに単勝オッズ未確定の馬を混ぜる
+                Double winOrNull = random.nextInt(30) == 0 ? null : winOdds;
+                odds.add(new OddsData("レース" + name, String.valueOf(i + 1), "馬" + (i + 1),
+                        winOrNull, placeMin, placeMin * 1.5, null));
+            }
+            String html = "<html>" + name + "-" + s + "</html>";
+            parsed.put(html, new ParsedRacePage(odds, "レース" + name, startTime,
+                    new ParsedRacePage.Diagnostics(HORSES, 0)));
+            pages.add(new PageRecorder.RecordedPage("https://example.com/race/" + name,
+                    first.plusSeconds(180L * s), html));
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,141 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.OddsDeltaProperties;
+import com.oddsalchemist.backend.dto.OddsData;
+import com.oddsalchemist.backend.parser.ParsedRacePage;
+import com.oddsalchemist.backend.parser.RacePageParser;
+import com.oddsalchemist.backend.util.SheetsDates;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ReplayRunner の単体テスト。
+ * HTML をキーに固定のパース結果を返すパーサーで、仮想時刻での異常検知・結果の再現性・処理段階の集計を検証する。
+ */
+class ReplayRunnerTest {
+
+    private static final String URL = "https://example.com/race/A";
+    private static final Instant T0 = Instant.parse("2026-03-19T01:00:00Z");
+
+    /** 2ページ目で6番（最低人気）の単勝が 50.0 → 8.0 に急落し、支持率が急増する */
+    private static final Map<String, ParsedRacePage> PAGES = Map.of(
+            "<html>1</html>", page(2.0, 4.0, 6.0, 10.0, 20.0, 50.0),
+            "<html>2</html>", page(2.0, 4.0, 6.0, 10.0, 20.0, 8.0));
+
+    private final RacePageParser parser = PAGES::get;
+
+    @Test
+    void run_記録の取得日時を仮想時刻としてアラートを検知し書き込み行数と処理段階を集計すること() throws IOException {
+        ReplayRunner.Report report = new ReplayRunner(parser, new OddsDeltaProperties(false, 0)).run(recorded());
+
+        assertThat(report.pages()).isEqualTo(2);
+        assertThat(report.rowsWritten()).isEqualTo(12);
+        assertThat(report.alerts()).isNotEmpty();
+        ReplayRunner.AlertEvent event = report.alerts().get(0);
+        assertThat(event.url()).isEqualTo(URL);
+        assertThat(event.fetchedAt()).isEqualTo(T0.plusSeconds(60));
+        assertThat(event.alert().horseName()).isEqualTo("馬6");
+        assertThat(event.alert().detectedAt()).isEqualTo(
+                LocalDateTime.ofInstant(T0.plusSeconds(60), ZoneId.systemDefault()).format(SheetsDates.FORMATTER));
+        assertThat(report.timings().get(ReplayRunner.Stage.PARSE).calls()).isEqualTo(2);
+        assertThat(report.timings().get(ReplayRunner.Stage.DETECT).calls()).isEqualTo(2);
+        assertThat(report.timings().get(ReplayRunner.Stage.TOTAL).calls()).isEqualTo(2);
+    }
+
+    @Test
+    void run_同じ記録を再実行すると同じアラートが検知されること() throws IOException {
+        ReplayRunner runner = new ReplayRunner(parser, new OddsDeltaProperties(true, 10));
+
+        ReplayRunner.Report first = runner.run(recorded());
+        ReplayRunner.Report second = runner.run(recorded());
+
+        assertThat(second.alerts()).isEqualTo(first.alerts());
+        // 差分書き込み: 2ページ目は変化した1頭分のみ
+        assertThat(first.rowsWritten()).isEqualTo(7);
+    }
+
+    @Test
+    void run_並列数によらず同じアラートと書き込み行数になること() throws IOException {
+        List<PageRecorder.RecordedPage> pages = new ArrayList<>();
+        for (int minute = 0; minute < 6; minute++) {
+            for (String race : List.of("C", "A", "B", "D")) {
+                // レースごとに1ページおきに最低人気の単勝が急落・戻る
+                pages.add(new PageRecorder.RecordedPage("https://example.com/race/" + race,
+                        T0.plusSeconds(minute * 60L), "<html>" + (minute % 2 + 1) + "</html>"));
+            }
+        }
+        ReplayRunner runner = new ReplayRunner(parser, new OddsDeltaProperties(true, 3));
+
+        ReplayRunner.Report sequential = runner.run(pages, 1);
+        ReplayRunner.Report parallel = runner.run(pages, 4);
+
+        assertThat(sequential.alerts()).isNotEmpty();
+        assertThat(parallel.alerts()).isEqualTo(sequential.alerts());
+        assertThat(parallel.rowsWritten()).isEqualTo(sequential.rowsWritten());
+        assertThat(parallel.timings().get(ReplayRunner.Stage.TOTAL).calls()).isEqualTo(24);
+        // 同じ取得日時のアラートは URL 順
+        assertThat(sequential.alerts().get(0).url()).isEqualTo("https://example.com/race/A");
+    }
+
+    @Test
+    void run_オッズ履歴の索引にレースをまたいで行が残らないこと() throws IOException {
+        List<PageRecorder.RecordedPage> pages = new ArrayList<>();
+        for (int minute = 0; minute < 3; minute++) {
+            for (String race : List.of("A", "B", "C", "D")) {
+                pages.add(new PageRecorder.RecordedPage("https://example.com/race/" + race,
+                        T0.plusSeconds(minute * 60L), "<html>" + (minute % 2 + 1) + "</html>"));
+            }
+        }
+        List<RaceCountingIndex> indexes = new CopyOnWriteArrayList<>();
+        ReplayRunner runner = new ReplayRunner(parser, new OddsDeltaProperties(false, 0), () -> {
+            RaceCountingIndex index = new RaceCountingIndex();
+            indexes.add(index);
+            return index;
+        });
+
+        runner.run(pages, 2);
+
+        assertThat(indexes).isNotEmpty();
+        assertThat(indexes).allSatisfy(index -> assertThat(index.getUrls()).isEmpty());
+        // 行は追加されるが、同時に保持するのは処理中の1レース分のみ
+        assertThat(indexes.stream().mapToInt(index -> index.maxRaces).max().orElse(0)).isEqualTo(1);
+    }
+
+    /** 行の追加のたびに保持しているレース数の最大値を記録する索引 */
+    private static final class RaceCountingIndex extends OddsHistoryIndex {
+
+        private volatile int maxRaces;
+
+        @Override
+        public void addRows(List<List<Object>> rows) {
+            super.addRows(rows);
+            maxRaces = Math.max(maxRaces, getUrls().size());
+        }
+    }
+
+    private static List<PageRecorder.RecordedPage> recorded() {
+        return List.of(
+                new PageRecorder.RecordedPage(URL, T0, "<html>1</html>"),
+                new PageRecorder.RecordedPage(URL, T0.plusSeconds(60), "<html>2</html>"));
+    }
+
+    private static ParsedRacePage page(double... winOdds) {
+        List<OddsData> odds = new ArrayList<>();
+        for (int i = 0; i < winOdds.length; i++) {
+            odds.add(new OddsData("テストレース", String.valueOf(i + 1), "馬" + (i + 1),
+                    winOdds[i], 1.1 + i, 1.5 + i, null));
+        }
+        return new ParsedRacePage(odds, "テストレース", Optional.empty(), new ParsedRacePage.Diagnostics(odds.size(), 0));
+    }
+}
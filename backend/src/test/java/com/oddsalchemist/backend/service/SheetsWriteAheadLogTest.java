@@ -0,0 +1,117 @@
+package com.oddsalchemist.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SheetsWriteAheadLog の単体テスト。
+ * 一時ディレクトリ上のファイルを開き直し、再起動時の読み込み・破損時の扱い・完了後の切り詰めを検証する。
+ */
+class SheetsWriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void open_完了していない追記が記録順に読み込まれること() throws Exception {
+        Path file = tempDir.resolve("wal.log");
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            long first = log.append("OddsData!A:H", List.of(List.of("2026/03/22 10:00:00", "A", 2.5, 3L, true)));
+            long second = log.append("Alerts!A:G", List.of(List.of("alert")));
+            log.syncThrough(second);
+            assertThat(second).isGreaterThan(first);
+        }
+
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            assertThat(log.recovered()).hasSize(2);
+            assertThat(log.recovered().get(0).range()).isEqualTo("OddsData!A:H");
+            assertThat(log.recovered().get(0).rows())
+                    .containsExactly(List.of("2026/03/22 10:00:00", "A", 2.5, 3L, true));
+            assertThat(log.recovered().get(1).range()).isEqualTo("Alerts!A:G");
+            assertThat(log.pendingCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void open_末尾の不完全なレコードは破棄され続きから追記できること() throws Exception {
+        Path file = tempDir.resolve("wal.log");
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            log.append("OddsData!A:H", List.of(List.of("A-1")));
+            log.append("OddsData!A:H", List.of(List.of("A-2")));
+        }
+        // 2件目の書き込み途中で停止した状態を再現する
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            assertThat(log.recovered()).hasSize(1);
+            assertThat(log.recovered().get(0).rows()).containsExactly(List.of("A-1"));
+            log.append("OddsData!A:H", List.of(List.of("A-3")));
+        }
+
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            assertThat(log.recovered()).extracting(SheetsWriteAheadLog.Entry::rows)
+                    .containsExactly(List.of(List.of("A-1")), List.of(List.of("A-3")));
+        }
+    }
+
+    @Test
+    void acknowledge_完了した追記は再起動後に読み込まれないこと() throws Exception {
+        Path file = tempDir.resolve("wal.log");
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            long first = log.append("OddsData!A:H", List.of(List.of("A-1")));
+            log.append("OddsData!A:H", List.of(List.of("A-2")));
+            log.acknowledge(first);
+            assertThat(log.pendingCount()).isEqualTo(1);
+        }
+
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            assertThat(log.recovered()).hasSize(1);
+            assertThat(log.recovered().get(0).rows()).containsExactly(List.of("A-2"));
+        }
+    }
+
+    @Test
+    void acknowledge_すべて完了した場合はファイルが空になり通番は引き続き増加すること() throws Exception {
+        Path file = tempDir.resolve("wal.log");
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            log.append("OddsData!A:H", List.of(List.of("A-1")));
+            long last = log.append("OddsData!A:H", List.of(List.of("A-2")));
+            log.acknowledge(last);
+
+            assertThat(Files.size(file)).isZero();
+            assertThat(log.append("OddsData!A:H", List.of(List.of("A-3")))).isGreaterThan(last);
+        }
+    }
+
+    @Test
+    void acknowledge_完了済みの領域が大きくなった場合は未完了の追記だけを残して圧縮されること() throws Exception {
+        Path file = tempDir.resolve("wal.log");
+        List<List<Object>> largeRows = List.of(List.of("x".repeat(512 * 1024)));
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            long lastLarge = 0;
+            for (int i = 0; i < 10; i++) {
+                lastLarge = log.append("OddsData!A:H", largeRows);
+            }
+            log.append("OddsData!A:H", List.of(List.of("remaining")));
+            log.acknowledge(lastLarge);
+
+            assertThat(Files.size(file)).isLessThan(1024);
+            log.append("OddsData!A:H", List.of(List.of("after-compact")));
+        }
+
+        try (SheetsWriteAheadLog log = SheetsWriteAheadLog.open(file)) {
+            assertThat(log.recovered()).extracting(SheetsWriteAheadLog.Entry::rows)
+                    .containsExactly(List.of(List.of("remaining")), List.of(List.of("after-compact")));
+        }
+    }
+}
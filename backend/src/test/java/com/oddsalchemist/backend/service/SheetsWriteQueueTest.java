@@ -0,0 +1,361 @@
+package com.oddsalchemist.backend.service;
+
+import com.oddsalchemist.backend.config.SheetsWriteProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * SheetsWriteQueue の単体テスト。
+ * 書き込み単位・再試行・上限は書き込みスレッドを起動せずに flushBatch() を直接呼び出して検証し、
+ * 停止時の書き込みスレッドとの競合は書き込みスレッドを起動して検証する。
+ */
+class SheetsWriteQueueTest {
+
+    private static final String ODDS_RANGE = "OddsData!A:H";
+    private static final String ALERTS_RANGE = "Alerts!A:G";
+
+    @TempDir
+    Path tempDir;
+
+    private GoogleSheetsService sheetsService;
+    private SheetsWriteQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        sheetsService = mock(GoogleSheetsService.class);
+        queue = new SheetsWriteQueue(sheetsService,
+                new SheetsWriteProperties(Duration.ofSeconds(5), 3, 5, Duration.ZERO, null, null, null, null),
+                new AlertStoreTest.MutableClock(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void flushBatch_複数レース分の追記がレンジごとに1回の呼び出しでまとめて書き込まれること() throws Exception {
+        queue.enqueue(ODDS_RANGE, List.of(row("A-1")));
+        queue.enqueue(ALERTS_RANGE, List.of(row("alert")));
+        queue.enqueue(ODDS_RANGE, List.of(row("B-1")));
+
+        assertThat(queue.flushBatch()).isTrue();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, List<List<Object>>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(sheetsService, times(1)).appendBatch(captor.capture());
+        assertThat(captor.getValue().get(ODDS_RANGE)).containsExactly(row("A-1"), row("B-1"));
+        assertThat(captor.getValue().get(ALERTS_RANGE)).containsExactly(row("alert"));
+        assertThat(queue.pendingRowCount()).isZero();
+    }
+
+    @Test
+    void flushBatch_1回の書き込みは最大行数までに分割されること() throws Exception {
+        queue.enqueue(ODDS_RANGE, List.of(row("A-1"), row("A-2")));
+        queue.enqueue(ODDS_RANGE, List.of(row("B-1"), row("B-2")));
+
+        queue.flushBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, List<List<Object>>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(sheetsService).appendBatch(captor.capture());
+        assertThat(captor.getValue().get(ODDS_RANGE)).containsExactly(row("A-1"), row("A-2"));
+        assertThat(queue.pendingRowCount()).isEqualTo(2);
+    }
+
+    @Test
+    void flushBatch_書き込みに失敗した行は順序を保ったまま再試行されること() throws Exception {
+        doThrow(new IOException("429 Too Many Requests"))
+                .doNothing()
+                .when(sheetsService).appendBatch(any());
+        queue.enqueue(ODDS_RANGE, List.of(row("A-1")));
+        queue.enqueue(ODDS_RANGE, List.of(row("B-1")));
+
+        assertThat(queue.flushBatch()).isFalse();
+        assertThat(queue.pendingRowCount()).isEqualTo(2);
+        assertThat(queue.flushBatch()).isTrue();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, List<List<Object>>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(sheetsService, times(2)).appendBatch(captor.capture());
+        assertThat(captor.getAllValues().get(1).get(ODDS_RANGE)).containsExactly(row("A-1"), row("B-1"));
+        assertThat(queue.pendingRowCount()).isZero();
+    }
+
+    @Test
+    void flushBatch_書き込み先が常に追記を拒否する場合は破棄して以降の追記を書き込めること() throws Exception {
+        String walPath = tempDir.resolve("sheets-wal.log").toString();
+        RejectingSheetStore store = new RejectingSheetStore(range -> true);
+        SheetsWriteQueue rejected = new SheetsWriteQueue(store, walProperties(walPath),
+                new AlertStoreTest.MutableClock(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC));
+        rejected.enqueue(ODDS_RANGE, List.of(row("A-1")));
+        rejected.enqueue(ALERTS_RANGE, List.of(row("alert")));
+
+        // 一括追記1回 + 追記ごとの書き込み直し2回の後、再試行せずに破棄する
+        assertThat(rejected.flushBatch()).isTrue();
+        assertThat(store.calls.get()).isEqualTo(3);
+        assertThat(rejected.pendingRowCount()).isZero();
+
+        // 破棄した行は書き込みログでも完了扱いになり、次回起動時に再送されない
+        assertThat(newQueueWithWal(walPath).pendingRowCount()).isZero();
+
+        // 待ち行列は詰まらず、以降の追記も受け付けられる
+        rejected.enqueue(ODDS_RANGE, List.of(row("B-1"), row("B-2"), row("B-3"), row("B-4"), row("B-5")));
+        assertThat(rejected.pendingRowCount()).isEqualTo(5);
+    }
+
+    @Test
+    void flushBatch_拒否された追記だけを破棄し同じ一括追記の他の行は順序を保って書き込まれること() throws Exception {
+        RejectingSheetStore store = new RejectingSheetStore(range -> range.startsWith("Missing!"));
+        SheetsWriteQueue partial = new SheetsWriteQueue(store,
+                new SheetsWriteProperties(Duration.ofSeconds(5), 3, 5, Duration.ZERO, null, null, null, null),
+                new AlertStoreTest.MutableClock(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC));
+        partial.enqueue(ODDS_RANGE, List.of(row("A-1")));
+        partial.enqueue("Missing!A:B", List.of(row("lost")));
+        partial.enqueue(ODDS_RANGE, List.of(row("B-1")));
+
+        assertThat(partial.flushBatch()).isTrue();
+
+        assertThat(store.written).containsExactly(
+                Map.of(ODDS_RANGE, List.of(row("A-1"))), Map.of(ODDS_RANGE, List.of(row("B-1"))));
+        assertThat(partial.pendingRowCount()).isZero();
+    }
+
+    @Test
+    void flushBatch_書き込み直しの途中で一時的に失敗した場合は残りの追記を先頭に戻すこと() throws Exception {
+        doThrow(new SheetWriteRejectedException("シートが見つかりません: Missing"))
+                .doNothing()
+                .doThrow(new IOException("503 Service Unavailable"))
+                .doNothing()
+                .when(sheetsService).appendBatch(any());
+        queue.enqueue(ODDS_RANGE, List.of(row("A-1")));
+        queue.enqueue(ODDS_RANGE, List.of(row("B-1")));
+
+        assertThat(queue.flushBatch()).isFalse();
+        assertThat(queue.pendingRowCount()).isEqualTo(1);
+        assertThat(queue.flushBatch()).isTrue();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, List<List<Object>>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(sheetsService, times(4)).appendBatch(captor.capture());
+        assertThat(captor.getAllValues().get(1).get(ODDS_RANGE)).containsExactly(row("A-1"));
+        assertThat(captor.getAllValues().get(3).get(ODDS_RANGE)).containsExactly(row("B-1"));
+        assertThat(queue.pendingRowCount()).isZero();
+    }
+
+    @Test
+    void enqueue_書き込み待ちが上限に達し空きができない場合はIOExceptionが送出されること() throws Exception {
+        queue.enqueue(ODDS_RANGE, List.of(row("A-1"), row("A-2"), row("A-3"), row("A-4")));
+
+        assertThatThrownBy(() -> queue.enqueue(ODDS_RANGE, List.of(row("B-1"), row("B-2"))))
+                .isInstanceOf(IOException.class);
+        assertThat(queue.pendingRowCount()).isEqualTo(4);
+    }
+
+    @Test
+    void enqueue_上限を超える1回分の追記も待ち行列が空であれば受け付けられること() throws Exception {
+        queue.enqueue(ODDS_RANGE, List.of(row("1"), row("2"), row("3"), row("4"), row("5"), row("6")));
+
+        assertThat(queue.pendingRowCount()).isEqualTo(6);
+    }
+
+    @Test
+    void stop_書き込み待ちの行がすべて書き込まれること() throws Exception {
+        queue.enqueue(ODDS_RANGE, List.of(row("A-1"), row("A-2")));
+        queue.enqueue(ODDS_RANGE, List.of(row("B-1"), row("B-2")));
+
+        queue.stop();
+
+        verify(sheetsService, times(2)).appendBatch(any());
+        assertThat(queue.pendingRowCount()).isZero();
+    }
+
+    @Test
+    void stop_書き込み中の書き込みスレッドに割り込み終了してから残りの行を1回だけ書き込むこと() throws Exception {
+        BlockingSheetStore store = new BlockingSheetStore(true);
+        SheetsWriteQueue running = new SheetsWriteQueue(store, shutdownProperties(),
+                new AlertStoreTest.MutableClock(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC));
+        running.start();
+        running.enqueue(ODDS_RANGE, List.of(row("A-1"), row("A-2"), row("A-3")));
+        assertThat(store.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        running.stop();
+
+        // 1回目（書き込みスレッド）は割り込みで失敗し、停止時の書き込みで同じ行が1回だけ書き込まれる
+        assertThat(store.calls.get()).isEqualTo(2);
+        assertThat(store.written).containsExactly(List.of(row("A-1"), row("A-2"), row("A-3")));
+        assertThat(running.pendingRowCount()).isZero();
+    }
+
+    @Test
+    void stop_書き込みスレッドが終了しない場合は停止時の書き込みを行わないこと() throws Exception {
+        BlockingSheetStore store = new BlockingSheetStore(false);
+        SheetsWriteQueue running = new SheetsWriteQueue(store, shutdownProperties(),
+                new AlertStoreTest.MutableClock(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC));
+        running.start();
+        running.enqueue(ODDS_RANGE, List.of(row("A-1"), row("A-2"), row("A-3")));
+        assertThat(store.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        running.stop();
+
+        // 書き込みスレッドの書き込みと並行して書き込まない
+        assertThat(store.calls.get()).isEqualTo(1);
+        assertThat(running.pendingRowCount()).isEqualTo(3);
+        store.release.countDown();
+    }
+
+    @Test
+    void 書き込みログ_書き込み前に停止した行は次回起動時に書き込み待ちに戻ること() throws Exception {
+        String walPath = tempDir.resolve("sheets-wal.log").toString();
+        doThrow(new IOException("503 Service Unavailable")).when(sheetsService).appendBatch(any());
+        SheetsWriteQueue first = newQueueWithWal(walPath);
+        first.enqueue(ODDS_RANGE, List.of(row("A-1")));
+        first.enqueue(ALERTS_RANGE, List.of(row("alert")));
+        first.stop();
+
+        GoogleSheetsService restartedSheets = mock(GoogleSheetsService.class);
+        SheetsWriteQueue restarted = new SheetsWriteQueue(restartedSheets, walProperties(walPath),
+                new AlertStoreTest.MutableClock(Instant.parse("2026-03-22T02:00:00Z"), ZoneOffset.UTC));
+        assertThat(restarted.pendingRowCount()).isEqualTo(2);
+        assertThat(restarted.flushBatch()).isTrue();
+        restarted.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, List<List<Object>>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(restartedSheets).appendBatch(captor.capture());
+        assertThat(captor.getValue().get(ODDS_RANGE)).containsExactly(row("A-1"));
+        assertThat(captor.getValue().get(ALERTS_RANGE)).containsExactly(row("alert"));
+        assertThat(newQueueWithWal(walPath).pendingRowCount()).isZero();
+    }
+
+    @Test
+    void 書き込みログ_書き込みが完了した行は次回起動時に再送されないこと() throws Exception {
+        String walPath = tempDir.resolve("sheets-wal.log").toString();
+        SheetsWriteQueue first = newQueueWithWal(walPath);
+        first.enqueue(ODDS_RANGE, List.of(row("A-1"), row("A-2")));
+        first.enqueue(ODDS_RANGE, List.of(row("B-1"), row("B-2")));
+
+        // 1件目だけ書き込んだ状態で停止せずに終了した（クラッシュ）ことを再現する
+        assertThat(first.flushBatch()).isTrue();
+
+        SheetsWriteQueue restarted = newQueueWithWal(walPath);
+        assertThat(restarted.pendingRowCount()).isEqualTo(2);
+    }
+
+    private SheetsWriteQueue newQueueWithWal(String walPath) {
+        return new SheetsWriteQueue(sheetsService, walProperties(walPath),
+                new AlertStoreTest.MutableClock(Instant.parse("2026-03-22T01:00:00Z"), ZoneOffset.UTC));
+    }
+
+    private static SheetsWriteProperties walProperties(String walPath) {
+        return new SheetsWriteProperties(Duration.ofSeconds(5), 3, 5, Duration.ZERO, null, walPath, null, null);
+    }
+
+    private static SheetsWriteProperties shutdownProperties() {
+        return new SheetsWriteProperties(Duration.ofSeconds(5), 3, 5, Duration.ZERO, null, null, null,
+                Duration.ofMillis(100));
+    }
+
+    private static List<Object> row(String value) {
+        return List.of("2026/03/22 10:00:00", value);
+    }
+
+    /** 指定したレンジを含む追記を拒否し、それ以外の追記を記録する保存先 */
+    private static final class RejectingSheetStore implements SheetStore {
+
+        private final Predicate<String> rejects;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<Map<String, List<List<Object>>>> written = new CopyOnWriteArrayList<>();
+
+        RejectingSheetStore(Predicate<String> rejects) {
+            this.rejects = rejects;
+        }
+
+        @Override
+        public List<List<Object>> readData(String range) {
+            return List.of();
+        }
+
+        @Override
+        public void clearAndWriteData(String range, List<List<Object>> values) {
+        }
+
+        @Override
+        public void writeData(String range, List<List<Object>> values) {
+        }
+
+        @Override
+        public void appendBatch(Map<String, List<List<Object>>> rowsByRange) throws IOException {
+            calls.incrementAndGet();
+            for (String range : rowsByRange.keySet()) {
+                if (rejects.test(range)) {
+                    throw new SheetWriteRejectedException("シートが見つかりません: " + range);
+                }
+            }
+            written.add(Map.copyOf(rowsByRange));
+        }
+    }
+
+    /** 1回目の追記を release されるまで止める保存先 */
+    private static final class BlockingSheetStore implements SheetStore {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<List<List<Object>>> written = new CopyOnWriteArrayList<>();
+
+        /** true の場合は割り込みで1回目の追記を失敗させ、false の場合は割り込みを無視して待ち続ける */
+        private final boolean interruptible;
+
+        BlockingSheetStore(boolean interruptible) {
+            this.interruptible = interruptible;
+        }
+
+        @Override
+        public List<List<Object>> readData(String range) {
+            return List.of();
+        }
+
+        @Override
+        public void clearAndWriteData(String range, List<List<Object>> values) {
+        }
+
+        @Override
+        public void writeData(String range, List<List<Object>> values) {
+        }
+
+        @Override
+        public void appendBatch(Map<String, List<List<Object>>> rowsByRange) throws IOException {
+            if (calls.incrementAndGet() == 1) {
+                entered.countDown();
+                while (true) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        if (interruptible) {
+                            throw new InterruptedIOException("割り込まれました");
+                        }
+                    }
+                }
+            }
+            written.add(rowsByRange.get(ODDS_RANGE));
+        }
+    }
+}
@@ -58,20 +58,21 @@ class TargetUrlStoreTest {
     }
 
     @Test
-    void addUrl_登録時にSheetsへ書き込まれること() throws Exception {
+    void addUrl_登録時に行数が減らないためクリアせずにSheetsへ書き込まれること() throws Exception {
         when(googleSheetsService.readData(any())).thenReturn(List.of());
 
         TargetUrlStore store = new TargetUrlStore(googleSheetsService);
         store.loadFromSheet();
         store.addUrl("https://example.com/race/1");
 
-        verify(googleSheetsService).clearAndWriteData(eq("Targets!A2:C"), any());
+        verify(googleSheetsService).writeData(eq("Targets!A2:C"), any());
+        verify(googleSheetsService, never()).clearAndWriteData(any(), any());
     }
 
     @Test
     void addUrl_Sheets書き込み失敗時でもインメモリへの追加は確定すること() throws Exception {
         when(googleSheetsService.readData(any())).thenReturn(List.of());
-        doThrow(new IOException("書き込み失敗")).when(googleSheetsService).clearAndWriteData(any(), any());
+        doThrow(new IOException("書き込み失敗")).when(googleSheetsService).writeData(any(), any());
 
         TargetUrlStore store = new TargetUrlStore(googleSheetsService);
         store.loadFromSheet();
@@ -82,7 +83,18 @@ class TargetUrlStoreTest {
     }
 
     @Test
-    void removeUrl_削除時にSheetsへ書き込まれること() throws Exception {
+    void addUrl_Sheetsからの読み込みに失敗していた場合は最初の書き込みでクリアすること() throws Exception {
+        when(googleSheetsService.readData(any())).thenThrow(new IOException("API失敗"));
+
+        TargetUrlStore store = new TargetUrlStore(googleSheetsService);
+        store.loadFromSheet();
+        store.addUrl("https://example.com/race/1");
+
+        verify(googleSheetsService).clearAndWriteData(eq("Targets!A2:C"), any());
+    }
+
+    @Test
+    void removeUrl_削除時に行数が減るためクリアしてからSheetsへ書き込まれること() throws Exception {
         when(googleSheetsService.readData(any())).thenReturn(List.of());
 
         TargetUrlStore store = new TargetUrlStore(googleSheetsService);
@@ -97,7 +109,7 @@ class TargetUrlStoreTest {
 
     @Test
     @SuppressWarnings("unchecked")
-    void updateExecutionTimes_時刻が更新されること() throws Exception {
+    void updateExecutionTimes_即時には書き込まずflushIfDirtyで更新済みの時刻が書き込まれること() throws Exception {
         when(googleSheetsService.readData(any())).thenReturn(List.of());
 
         TargetUrlStore store = new TargetUrlStore(googleSheetsService);
@@ -105,18 +117,69 @@ class TargetUrlStoreTest {
         store.addUrl("https://example.com/race/1");
 
         store.updateExecutionTimes("https://example.com/race/1", "2026/03/12 10:00:00", "2026/03/12 10:05:00");
+        store.updateExecutionTimes("https://example.com/race/1", "2026/03/12 10:05:00", "2026/03/12 10:10:00");
 
-        // updateExecutionTimes は persistToSheet を呼ばないこと（addUrl 時の1回のみ）
-        verify(googleSheetsService, times(1)).clearAndWriteData(any(), any());
+        // updateExecutionTimes は書き込まないこと（addUrl 時の1回のみ）
+        verify(googleSheetsService, times(1)).writeData(any(), any());
+        assertThat(store.isDirty()).isTrue();
 
-        // persistToSheet を呼ぶと更新済みの時刻が書き込まれること
+        // 複数回の更新が1回の書き込みにまとめられ、最新の時刻が書き込まれること
         ArgumentCaptor<List<List<Object>>> captor = ArgumentCaptor.forClass(List.class);
-        store.persistToSheet();
-        verify(googleSheetsService, times(2)).clearAndWriteData(eq("Targets!A2:C"), captor.capture());
+        store.flushIfDirty();
+        verify(googleSheetsService, times(2)).writeData(eq("Targets!A2:C"), captor.capture());
+        verify(googleSheetsService, never()).clearAndWriteData(any(), any());
 
         List<List<Object>> written = captor.getValue();
         assertThat(written).hasSize(1);
         assertThat(written.get(0)).containsExactly(
-                "https://example.com/race/1", "2026/03/12 10:00:00", "2026/03/12 10:05:00");
+                "https://example.com/race/1", "2026/03/12 10:05:00", "2026/03/12 10:10:00");
+        assertThat(store.isDirty()).isFalse();
+    }
+
+    @Test
+    void flushIfDirty_変更がない場合は書き込まないこと() throws Exception {
+        when(googleSheetsService.readData(any())).thenReturn(List.of(
+                List.of("https://example.com/race/1", "2026/03/12 10:00:00", "2026/03/12 10:30:00")));
+
+        TargetUrlStore store = new TargetUrlStore(googleSheetsService);
+        store.loadFromSheet();
+        store.updateExecutionTimes("https://example.com/race/unknown", "2026/03/12 10:00:00", "2026/03/12 10:05:00");
+        store.flushIfDirty();
+
+        verify(googleSheetsService, never()).writeData(any(), any());
+        verify(googleSheetsService, never()).clearAndWriteData(any(), any());
+    }
+
+    @Test
+    void flushIfDirty_書き込みに失敗した場合は変更ありのまま次回再度書き込むこと() throws Exception {
+        when(googleSheetsService.readData(any())).thenReturn(List.of(
+                List.of("https://example.com/race/1", "", "")));
+        doThrow(new IOException("429 Too Many Requests"))
+                .doNothing()
+                .when(googleSheetsService).writeData(any(), any());
+
+        TargetUrlStore store = new TargetUrlStore(googleSheetsService);
+        store.loadFromSheet();
+        store.updateExecutionTimes("https://example.com/race/1", "2026/03/12 10:00:00", "2026/03/12 10:05:00");
+
+        store.flushIfDirty();
+        assertThat(store.isDirty()).isTrue();
+
+        store.flushIfDirty();
+        assertThat(store.isDirty()).isFalse();
+        verify(googleSheetsService, times(2)).writeData(eq("Targets!A2:C"), any());
+    }
+
+    @Test
+    void stop_未書き込みの変更がある場合は停止時に書き込まれること() throws Exception {
+        when(googleSheetsService.readData(any())).thenReturn(List.of(
+                List.of("https://example.com/race/1", "", "")));
+
+        TargetUrlStore store = new TargetUrlStore(googleSheetsService);
+        store.loadFromSheet();
+        store.updateExecutionTimes("https://example.com/race/1", "2026/03/12 10:00:00", "2026/03/12 10:05:00");
+        store.stop();
+
+        verify(googleSheetsService).writeData(eq("Targets!A2:C"), any());
     }
 }
@@ -28,18 +28,57 @@ export async function getAlerts(): Promise<string[][]> {
   }
 }
 
-/** OddsData!A2:H を全件取得する */
+/**
+ * OddsData!A2:I を全件取得し、書き込み時点ごとの全馬の行（A〜H 列）に展開して返す。
+ * バックエンドの差分書き込み（odds.delta-writes.enabled）が有効な場合、I列が "D" の書き込みには
+ * オッズが変化した馬の行しかないため、expandDeltaRows で直前の値を引き継いだ全馬の行に戻す。
+ */
 export async function getOddsData(): Promise<string[][]> {
   try {
     const auth = getAuth();
     const sheets = google.sheets({ version: 'v4', auth });
     const res = await sheets.spreadsheets.values.get({
       spreadsheetId: SPREADSHEET_ID,
-      range: 'OddsData!A2:H',
+      range: 'OddsData!A2:I',
     });
-    return (res.data.values as string[][] | null | undefined) ?? [];
+    return expandDeltaRows((res.data.values as string[][] | null | undefined) ?? []);
   } catch (e) {
     console.warn('OddsData シートの取得に失敗しました', e);
     return [];
   }
 }
+
+/**
+ * OddsData の行を書き込み時点（同じ取得日時・URL の連続した行）ごとにまとめ、全馬の行に展開する。
+ * I列が "K" または空の書き込みは全馬の行としてそのまま使い、その書き込みにない馬は出走していないものとして引き継がない。
+ * I列が "D" の書き込みは、同じレースの直前の書き込み時点の全馬の値に、変化した馬の行を上書きしたものとする。
+ * 返す行は A〜H 列（I列は取り除く）。
+ */
+export function expandDeltaRows(rows: string[][]): string[][] {
+  /** URL → 馬名 → 直前の書き込み時点の行 */
+  const snapshots = new Map<string, Map<string, string[]>>();
+  const expanded: string[][] = [];
+  let start = 0;
+  while (start < rows.length) {
+    const [fetchedAt, url] = rows[start];
+    let end = start + 1;
+    while (end < rows.length && rows[end][0] === fetchedAt && rows[end][1] === url) {
+      end++;
+    }
+    const write = rows.slice(start, end);
+    const isDelta = write.some((row) => row[8] === 'D');
+    const current = isDelta
+      ? new Map(snapshots.get(url) ?? [])
+      : new Map<string, string[]>();
+    for (const row of write) {
+      current.set(row[4] ?? '', row.slice(0, 8));
+    }
+    snapshots.set(url, current);
+    for (const row of current.values()) {
+      // 引き継いだ行も、この書き込み時点の取得日時で返す
+      expanded.push([fetchedAt, ...row.slice(1)]);
+    }
+    start = end;
+  }
+  return expanded;
+}